@@ -0,0 +1,10 @@
+-- Phonetic name keys for fuzzy passenger lookup.
+-- Keys are Soundex codes computed by the application (NameMatcher.phoneticKey);
+-- MySQL's own SOUNDEX() is not length-limited and gives different values.
+-- After applying, fill existing rows with PassengerService.backfillNameKeys().
+
+ALTER TABLE passengers
+    ADD COLUMN first_name_key VARCHAR(8) NULL AFTER last_name,
+    ADD COLUMN last_name_key VARCHAR(8) NULL AFTER first_name_key;
+
+CREATE INDEX idx_passengers_name_keys ON passengers (last_name_key, first_name_key);
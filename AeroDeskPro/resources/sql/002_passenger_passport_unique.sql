@@ -0,0 +1,5 @@
+-- Passport numbers identify a passenger; bulk manifest imports upsert on them.
+-- Resolve any existing duplicate passport numbers before applying.
+
+ALTER TABLE passengers
+    ADD UNIQUE INDEX uq_passengers_passport (passport_number);
@@ -0,0 +1,19 @@
+-- A seat can be held by one live booking per flight. Cancelled bookings give
+-- their seat back, and where two live bookings already share a seat the
+-- oldest booking keeps it.
+
+UPDATE bookings SET seat_number = NULL WHERE status = 'CANCELLED';
+
+UPDATE bookings b
+    JOIN (SELECT flight_id, seat_number, MIN(booking_id) AS keep_id
+          FROM bookings
+          WHERE seat_number IS NOT NULL
+          GROUP BY flight_id, seat_number
+          HAVING COUNT(*) > 1) dup
+        ON dup.flight_id = b.flight_id
+       AND dup.seat_number = b.seat_number
+       AND b.booking_id <> dup.keep_id
+SET b.seat_number = NULL;
+
+ALTER TABLE bookings
+    ADD UNIQUE INDEX uq_bookings_flight_seat (flight_id, seat_number);
@@ -0,0 +1,11 @@
+-- Named counters handed out in blocks. A process leases a block by moving
+-- next_value forward in one UPDATE and then numbers from it locally, so
+-- values are unique across processes without a round trip per value.
+
+CREATE TABLE IF NOT EXISTS sequence_blocks (
+    sequence_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_value    BIGINT      NOT NULL DEFAULT 1,
+    updated_at    TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+INSERT IGNORE INTO sequence_blocks (sequence_name, next_value) VALUES ('booking_reference', 1);
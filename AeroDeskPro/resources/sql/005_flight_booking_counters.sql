@@ -0,0 +1,72 @@
+-- Per-flight booking totals kept by triggers in the same transaction as the
+-- booking change, so load factors never need a COUNT over bookings.
+--   booked     bookings that are not cancelled
+--   checked_in bookings checked in, including those since boarded
+--   boarded    bookings boarded
+--   cancelled  cancelled bookings
+
+CREATE TABLE IF NOT EXISTS flight_booking_counters (
+    flight_id  INT NOT NULL PRIMARY KEY,
+    booked     INT NOT NULL DEFAULT 0,
+    checked_in INT NOT NULL DEFAULT 0,
+    boarded    INT NOT NULL DEFAULT 0,
+    cancelled  INT NOT NULL DEFAULT 0
+);
+
+INSERT INTO flight_booking_counters (flight_id, booked, checked_in, boarded, cancelled)
+SELECT flight_id,
+       SUM(IFNULL(status, 'CONFIRMED') <> 'CANCELLED'),
+       SUM(IFNULL(status, 'CONFIRMED') IN ('CHECKED_IN', 'BOARDED')),
+       SUM(IFNULL(status, 'CONFIRMED') = 'BOARDED'),
+       SUM(IFNULL(status, 'CONFIRMED') = 'CANCELLED')
+FROM bookings
+GROUP BY flight_id
+ON DUPLICATE KEY UPDATE booked = VALUES(booked), checked_in = VALUES(checked_in),
+                        boarded = VALUES(boarded), cancelled = VALUES(cancelled);
+
+DELIMITER //
+
+CREATE TRIGGER trg_bookings_counters_insert AFTER INSERT ON bookings FOR EACH ROW
+BEGIN
+    INSERT INTO flight_booking_counters (flight_id, booked, checked_in, boarded, cancelled)
+    VALUES (NEW.flight_id,
+            IFNULL(NEW.status, 'CONFIRMED') <> 'CANCELLED',
+            IFNULL(NEW.status, 'CONFIRMED') IN ('CHECKED_IN', 'BOARDED'),
+            IFNULL(NEW.status, 'CONFIRMED') = 'BOARDED',
+            IFNULL(NEW.status, 'CONFIRMED') = 'CANCELLED')
+    ON DUPLICATE KEY UPDATE booked = booked + VALUES(booked), checked_in = checked_in + VALUES(checked_in),
+                            boarded = boarded + VALUES(boarded), cancelled = cancelled + VALUES(cancelled);
+END//
+
+CREATE TRIGGER trg_bookings_counters_update AFTER UPDATE ON bookings FOR EACH ROW
+BEGIN
+    IF NOT (OLD.status <=> NEW.status) OR OLD.flight_id <> NEW.flight_id THEN
+        UPDATE flight_booking_counters
+        SET booked     = booked     - (IFNULL(OLD.status, 'CONFIRMED') <> 'CANCELLED'),
+            checked_in = checked_in - (IFNULL(OLD.status, 'CONFIRMED') IN ('CHECKED_IN', 'BOARDED')),
+            boarded    = boarded    - (IFNULL(OLD.status, 'CONFIRMED') = 'BOARDED'),
+            cancelled  = cancelled  - (IFNULL(OLD.status, 'CONFIRMED') = 'CANCELLED')
+        WHERE flight_id = OLD.flight_id;
+
+        INSERT INTO flight_booking_counters (flight_id, booked, checked_in, boarded, cancelled)
+        VALUES (NEW.flight_id,
+                IFNULL(NEW.status, 'CONFIRMED') <> 'CANCELLED',
+                IFNULL(NEW.status, 'CONFIRMED') IN ('CHECKED_IN', 'BOARDED'),
+                IFNULL(NEW.status, 'CONFIRMED') = 'BOARDED',
+                IFNULL(NEW.status, 'CONFIRMED') = 'CANCELLED')
+        ON DUPLICATE KEY UPDATE booked = booked + VALUES(booked), checked_in = checked_in + VALUES(checked_in),
+                                boarded = boarded + VALUES(boarded), cancelled = cancelled + VALUES(cancelled);
+    END IF;
+END//
+
+CREATE TRIGGER trg_bookings_counters_delete AFTER DELETE ON bookings FOR EACH ROW
+BEGIN
+    UPDATE flight_booking_counters
+    SET booked     = booked     - (IFNULL(OLD.status, 'CONFIRMED') <> 'CANCELLED'),
+        checked_in = checked_in - (IFNULL(OLD.status, 'CONFIRMED') IN ('CHECKED_IN', 'BOARDED')),
+        boarded    = boarded    - (IFNULL(OLD.status, 'CONFIRMED') = 'BOARDED'),
+        cancelled  = cancelled  - (IFNULL(OLD.status, 'CONFIRMED') = 'CANCELLED')
+    WHERE flight_id = OLD.flight_id;
+END//
+
+DELIMITER ;
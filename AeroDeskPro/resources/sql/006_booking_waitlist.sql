@@ -0,0 +1,23 @@
+-- Passengers waiting for a seat on a full flight. Each desk keeps the
+-- WAITING rows of the flights it serves in memory as priority queues; the
+-- table is what survives a restart. A promotion claims its row with a
+-- conditional UPDATE, so two desks can never promote the same passenger.
+-- A passenger waits at most once per flight; waiting_passenger_id is NULL
+-- once the row is resolved, so a promoted or removed passenger may rejoin.
+
+CREATE TABLE IF NOT EXISTS booking_waitlist (
+    waitlist_id   INT         NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    flight_id     INT         NOT NULL,
+    passenger_id  INT         NOT NULL,
+    booking_class VARCHAR(16) NOT NULL DEFAULT 'ECONOMY',
+    ff_tier       VARCHAR(16) NOT NULL DEFAULT 'NONE',
+    requested_at  TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    status        VARCHAR(16) NOT NULL DEFAULT 'WAITING',
+    booking_id    INT         NULL,
+    resolved_at   TIMESTAMP   NULL,
+    waiting_passenger_id INT AS (CASE WHEN status = 'WAITING' THEN passenger_id END) STORED,
+    UNIQUE KEY uq_waitlist_flight_waiting (flight_id, waiting_passenger_id),
+    KEY idx_waitlist_flight_status (flight_id, status),
+    CONSTRAINT fk_waitlist_flight FOREIGN KEY (flight_id) REFERENCES flights (flight_id),
+    CONSTRAINT fk_waitlist_passenger FOREIGN KEY (passenger_id) REFERENCES passengers (passenger_id)
+);
@@ -0,0 +1,8 @@
+-- Row versions for optimistic concurrency. Every UPDATE of these tables
+-- adds one to version, and full-row updates only apply when the version
+-- is still the one the caller read, so a concurrent edit is reported
+-- instead of silently overwritten.
+
+ALTER TABLE bookings ADD COLUMN version INT NOT NULL DEFAULT 0;
+ALTER TABLE flights  ADD COLUMN version INT NOT NULL DEFAULT 0;
+ALTER TABLE gates    ADD COLUMN version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,15 @@
+-- Change log of the bookings table. One row is written here in the same
+-- transaction as every insert, update and delete of a booking, with JSON
+-- images of the row before and after the change; since migration 011 the
+-- triggers on bookings write it. Consumers read it in outbox_id order
+-- instead of re-querying bookings.
+
+CREATE TABLE IF NOT EXISTS booking_outbox (
+    outbox_id    BIGINT      NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    booking_id   INT         NOT NULL,
+    operation    VARCHAR(8)  NOT NULL,
+    before_image TEXT        NULL,
+    after_image  TEXT        NULL,
+    recorded_at  TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    KEY idx_booking_outbox_booking (booking_id)
+);
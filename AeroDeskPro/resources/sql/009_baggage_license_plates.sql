@@ -0,0 +1,4 @@
+-- Baggage tags are 10-digit license plates numbered from this sequence
+-- (see LicensePlateGenerator); the RAND()-based BAGnnnn tags are retired.
+
+INSERT IGNORE INTO sequence_blocks (sequence_name, next_value) VALUES ('baggage_license_plate', 1);
@@ -0,0 +1,52 @@
+-- Bags registered per day and current status, kept by triggers in the same
+-- transaction as the baggage change, so daily reports never scan baggage.
+-- A bag counts towards the day it was created; a status change moves it
+-- between that day's status rows.
+
+CREATE TABLE IF NOT EXISTS baggage_daily_rollup (
+    rollup_date  DATE          NOT NULL,
+    status       VARCHAR(20)   NOT NULL,
+    bags         INT           NOT NULL DEFAULT 0,
+    total_weight DECIMAL(12,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (rollup_date, status)
+);
+
+INSERT INTO baggage_daily_rollup (rollup_date, status, bags, total_weight)
+SELECT IFNULL(DATE(created_at), CURDATE()), UPPER(IFNULL(status, 'REGISTERED')), COUNT(*), IFNULL(SUM(weight), 0)
+FROM baggage
+GROUP BY IFNULL(DATE(created_at), CURDATE()), UPPER(IFNULL(status, 'REGISTERED'))
+ON DUPLICATE KEY UPDATE bags = VALUES(bags), total_weight = VALUES(total_weight);
+
+DELIMITER //
+
+CREATE TRIGGER trg_baggage_rollup_insert AFTER INSERT ON baggage FOR EACH ROW
+BEGIN
+    INSERT INTO baggage_daily_rollup (rollup_date, status, bags, total_weight)
+    VALUES (IFNULL(DATE(NEW.created_at), CURDATE()), UPPER(IFNULL(NEW.status, 'REGISTERED')), 1, IFNULL(NEW.weight, 0))
+    ON DUPLICATE KEY UPDATE bags = bags + 1, total_weight = total_weight + VALUES(total_weight);
+END//
+
+CREATE TRIGGER trg_baggage_rollup_update AFTER UPDATE ON baggage FOR EACH ROW
+BEGIN
+    IF NOT (OLD.status <=> NEW.status) OR NOT (OLD.weight <=> NEW.weight)
+            OR NOT (DATE(OLD.created_at) <=> DATE(NEW.created_at)) THEN
+        UPDATE baggage_daily_rollup
+        SET bags = bags - 1, total_weight = total_weight - IFNULL(OLD.weight, 0)
+        WHERE rollup_date = IFNULL(DATE(OLD.created_at), CURDATE())
+          AND status = UPPER(IFNULL(OLD.status, 'REGISTERED'));
+
+        INSERT INTO baggage_daily_rollup (rollup_date, status, bags, total_weight)
+        VALUES (IFNULL(DATE(NEW.created_at), CURDATE()), UPPER(IFNULL(NEW.status, 'REGISTERED')), 1, IFNULL(NEW.weight, 0))
+        ON DUPLICATE KEY UPDATE bags = bags + 1, total_weight = total_weight + VALUES(total_weight);
+    END IF;
+END//
+
+CREATE TRIGGER trg_baggage_rollup_delete AFTER DELETE ON baggage FOR EACH ROW
+BEGIN
+    UPDATE baggage_daily_rollup
+    SET bags = bags - 1, total_weight = total_weight - IFNULL(OLD.weight, 0)
+    WHERE rollup_date = IFNULL(DATE(OLD.created_at), CURDATE())
+      AND status = UPPER(IFNULL(OLD.status, 'REGISTERED'));
+END//
+
+DELIMITER ;
@@ -0,0 +1,69 @@
+-- Booking changes are now written to booking_outbox by triggers in the same
+-- transaction as the booking change, like the counters in 005 and 010, so
+-- check-in, boarding and seat moves stay a single UPDATE with no locking
+-- read and no separate outbox INSERT. The images have the keys and formats
+-- of com.gatorsoft.aerodeskpro.utils.BookingJson: a null status reads as
+-- CONFIRMED and times are ISO local date-times, as BookingDAO maps them.
+
+DELIMITER //
+
+CREATE TRIGGER trg_bookings_outbox_insert AFTER INSERT ON bookings FOR EACH ROW
+BEGIN
+    INSERT INTO booking_outbox (booking_id, operation, before_image, after_image)
+    VALUES (NEW.booking_id, 'INSERT', NULL,
+            JSON_OBJECT('booking_id', NEW.booking_id, 'booking_reference', NEW.booking_reference,
+                        'flight_id', NEW.flight_id, 'passenger_id', NEW.passenger_id,
+                        'seat_number', NEW.seat_number,
+                        'booking_class', UPPER(IFNULL(NEW.booking_class, 'ECONOMY')),
+                        'status', IFNULL(NEW.status, 'CONFIRMED'),
+                        'check_in_time', DATE_FORMAT(NEW.check_in_time, '%Y-%m-%dT%H:%i:%s'),
+                        'checked_in_by', NEW.checked_in_by,
+                        'created_at', DATE_FORMAT(NEW.created_at, '%Y-%m-%dT%H:%i:%s'),
+                        'updated_at', DATE_FORMAT(NEW.updated_at, '%Y-%m-%dT%H:%i:%s'),
+                        'version', NEW.version));
+END//
+
+CREATE TRIGGER trg_bookings_outbox_update AFTER UPDATE ON bookings FOR EACH ROW
+BEGIN
+    INSERT INTO booking_outbox (booking_id, operation, before_image, after_image)
+    VALUES (NEW.booking_id, 'UPDATE',
+            JSON_OBJECT('booking_id', OLD.booking_id, 'booking_reference', OLD.booking_reference,
+                        'flight_id', OLD.flight_id, 'passenger_id', OLD.passenger_id,
+                        'seat_number', OLD.seat_number,
+                        'booking_class', UPPER(IFNULL(OLD.booking_class, 'ECONOMY')),
+                        'status', IFNULL(OLD.status, 'CONFIRMED'),
+                        'check_in_time', DATE_FORMAT(OLD.check_in_time, '%Y-%m-%dT%H:%i:%s'),
+                        'checked_in_by', OLD.checked_in_by,
+                        'created_at', DATE_FORMAT(OLD.created_at, '%Y-%m-%dT%H:%i:%s'),
+                        'updated_at', DATE_FORMAT(OLD.updated_at, '%Y-%m-%dT%H:%i:%s'),
+                        'version', OLD.version),
+            JSON_OBJECT('booking_id', NEW.booking_id, 'booking_reference', NEW.booking_reference,
+                        'flight_id', NEW.flight_id, 'passenger_id', NEW.passenger_id,
+                        'seat_number', NEW.seat_number,
+                        'booking_class', UPPER(IFNULL(NEW.booking_class, 'ECONOMY')),
+                        'status', IFNULL(NEW.status, 'CONFIRMED'),
+                        'check_in_time', DATE_FORMAT(NEW.check_in_time, '%Y-%m-%dT%H:%i:%s'),
+                        'checked_in_by', NEW.checked_in_by,
+                        'created_at', DATE_FORMAT(NEW.created_at, '%Y-%m-%dT%H:%i:%s'),
+                        'updated_at', DATE_FORMAT(NEW.updated_at, '%Y-%m-%dT%H:%i:%s'),
+                        'version', NEW.version));
+END//
+
+CREATE TRIGGER trg_bookings_outbox_delete AFTER DELETE ON bookings FOR EACH ROW
+BEGIN
+    INSERT INTO booking_outbox (booking_id, operation, before_image, after_image)
+    VALUES (OLD.booking_id, 'DELETE',
+            JSON_OBJECT('booking_id', OLD.booking_id, 'booking_reference', OLD.booking_reference,
+                        'flight_id', OLD.flight_id, 'passenger_id', OLD.passenger_id,
+                        'seat_number', OLD.seat_number,
+                        'booking_class', UPPER(IFNULL(OLD.booking_class, 'ECONOMY')),
+                        'status', IFNULL(OLD.status, 'CONFIRMED'),
+                        'check_in_time', DATE_FORMAT(OLD.check_in_time, '%Y-%m-%dT%H:%i:%s'),
+                        'checked_in_by', OLD.checked_in_by,
+                        'created_at', DATE_FORMAT(OLD.created_at, '%Y-%m-%dT%H:%i:%s'),
+                        'updated_at', DATE_FORMAT(OLD.updated_at, '%Y-%m-%dT%H:%i:%s'),
+                        'version', OLD.version),
+            NULL);
+END//
+
+DELIMITER ;
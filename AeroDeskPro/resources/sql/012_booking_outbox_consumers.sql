@@ -0,0 +1,10 @@
+-- Read position of each process tailing booking_outbox. A tailer saves the
+-- highest outbox_id below which it has published everything, and rows are
+-- only pruned below the lowest position of the consumers that saved one
+-- recently, so one desk never deletes changes another has not read yet.
+
+CREATE TABLE IF NOT EXISTS booking_outbox_consumers (
+    consumer_id    VARCHAR(128) NOT NULL PRIMARY KEY,
+    last_outbox_id BIGINT       NOT NULL,
+    updated_at     TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)
+);
@@ -11,12 +11,17 @@ import java.util.logging.Logger;
 
 import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
 import com.gatorsoft.aerodeskpro.entity.BaggageStatus;
+import com.gatorsoft.aerodeskpro.entity.BaggageType;
+import com.gatorsoft.aerodeskpro.entity.Priority;
 import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
 import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException.ErrorCategory;
+import com.gatorsoft.aerodeskpro.exceptions.OptimisticLockException;
 import com.gatorsoft.aerodeskpro.models.Baggage;
 import com.gatorsoft.aerodeskpro.models.BaggageReport;
+import com.gatorsoft.aerodeskpro.models.BaggageScan;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * Data Access Object for Baggage entities. Handles all database operations for
@@ -28,31 +33,51 @@ public class BaggageDAO {
 
     // SQL Queries
     private static final String INSERT_BAGGAGE = "INSERT INTO baggage (baggage_tag, booking_id, status, weight, "
-            + "created_at) VALUES (?, ?, ?, ?, ?)";
+            + "baggage_type, priority, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
     private static final String SELECT_ALL_BAGGAGE = "SELECT baggage_id, baggage_tag, booking_id, status, weight, "
-            + "created_at FROM baggage ORDER BY baggage_tag";
+            + "baggage_type, priority, current_location, created_at FROM baggage ORDER BY baggage_tag";
+
+    private static final String SELECT_ACTIVE_BAGGAGE = "SELECT baggage_id, baggage_tag, booking_id, status, weight, "
+            + "baggage_type, priority, current_location, created_at FROM baggage "
+            + "WHERE status IS NULL OR status <> 'DELIVERED' ORDER BY baggage_tag";
+
+    private static final String SELECT_BAGGAGE_BY_STATUS_PREFIX = "SELECT baggage_id, baggage_tag, booking_id, status, weight, "
+            + "baggage_type, priority, current_location, created_at FROM baggage WHERE status IN (";
 
     private static final String SELECT_BAGGAGE_BY_ID = "SELECT baggage_id, baggage_tag, booking_id, status, weight, "
-            + "created_at FROM baggage WHERE baggage_id = ?";
+            + "baggage_type, priority, current_location, created_at FROM baggage WHERE baggage_id = ?";
 
     private static final String SELECT_BAGGAGE_BY_TAG = "SELECT baggage_id, baggage_tag, booking_id, status, weight, "
-            + "created_at FROM baggage WHERE baggage_tag = ?";
+            + "baggage_type, priority, current_location, created_at FROM baggage WHERE baggage_tag = ?";
 
     private static final String SELECT_BAGGAGE_BY_BOOKING = "SELECT baggage_id, baggage_tag, booking_id, status, weight, "
-            + "created_at FROM baggage WHERE booking_id = ?";
+            + "baggage_type, priority, current_location, created_at FROM baggage WHERE booking_id = ?";
+
+    private static final String SELECT_BAGGAGE_BY_FLIGHT = "SELECT b.baggage_id, b.baggage_tag, b.booking_id, b.status, b.weight, "
+            + "b.baggage_type, b.priority, b.current_location, b.created_at FROM baggage b "
+            + "JOIN bookings k ON k.booking_id = b.booking_id WHERE k.flight_id = ?";
 
     private static final String UPDATE_BAGGAGE = "UPDATE baggage SET baggage_tag = ?, booking_id = ?, status = ?, "
             + "weight = ?, created_at = ? WHERE baggage_id = ?";
 
     private static final String DELETE_BAGGAGE = "DELETE FROM baggage WHERE baggage_id = ?";
 
-    private static final String UPDATE_BAGGAGE_STATUS = "UPDATE baggage SET status = ?, location = ? WHERE baggage_tag = ?";
+    private static final String UPDATE_BAGGAGE_STATUS = "UPDATE baggage SET status = ?, current_location = ? WHERE baggage_tag = ?";
+    private static final String UPDATE_BAGGAGE_STATUS_FROM = "UPDATE baggage SET status = ?, current_location = ? "
+            + "WHERE baggage_id = ? AND IFNULL(status, 'REGISTERED') = ?";
+    private static final String COUNT_BAGGAGE_BY_STATUS = "SELECT IFNULL(status, 'REGISTERED'), COUNT(*) FROM baggage GROUP BY IFNULL(status, 'REGISTERED')";
     private static final String TRACK_BAGGAGE = "INSERT INTO baggage_tracking (baggage_id, location, notes, created_at) VALUES (?, ?, ?, ?)";
+    private static final String TRACK_BAGGAGE_PREFIX = "INSERT INTO baggage_tracking (baggage_id, location, notes, created_at) VALUES ";
+    // A scan without a status only moves the bag
+    private static final String UPDATE_SCANNED_BAGGAGE = "UPDATE baggage SET status = COALESCE(?, status), current_location = ? WHERE baggage_tag = ?";
+    private static final String SELECT_STATUS_BY_TAG_PREFIX = "SELECT baggage_id, baggage_tag, status FROM baggage WHERE baggage_tag IN (";
+    // Rows per multi-row INSERT of tracking records
+    private static final int TRACKING_ROWS_PER_INSERT = 500;
     private static final String SELECT_LOST_BAGGAGE = "SELECT * FROM baggage WHERE status = 'LOST'";
     private static final String SELECT_DELAYED_BAGGAGE = "SELECT * FROM baggage WHERE status = 'DELAYED'";
-    private static final String GENERATE_BAGGAGE_REPORT = "SELECT COUNT(*) AS total_baggage, SUM(weight) AS total_weight FROM baggage WHERE created_at = ?";
-    private static final String GENERATE_BAGGAGE_TAG = "SELECT CONCAT('BAG', LPAD(FLOOR(RAND() * 10000), 4, '0')) AS baggage_tag";
+    // One row per status for the day, kept by triggers on baggage
+    private static final String GENERATE_BAGGAGE_REPORT = "SELECT status, bags, total_weight FROM baggage_daily_rollup WHERE rollup_date = ?";
 //private static final String SELECT_DELAYED_BAGGAGE = "SELECT baggage_id, baggage_tag, booking_id, status, weight, created_at " +
  //       "FROM baggage WHERE status = 'DELAYED' ORDER BY created_at";
     /**
@@ -75,7 +100,9 @@ public class BaggageDAO {
             statement.setInt(2, baggage.getBookingId());
             statement.setString(3, baggage.getStatus().name());
             statement.setBigDecimal(4, baggage.getWeight());
-            statement.setTimestamp(5, java.sql.Timestamp.valueOf(baggage.getCreatedAt()));
+            statement.setString(5, baggage.getBaggageType().getValue());
+            statement.setString(6, baggage.getPriority().getValue());
+            statement.setTimestamp(7, java.sql.Timestamp.valueOf(baggage.getCreatedAt()));
 
             int rowsAffected = statement.executeUpdate();
 
@@ -128,6 +155,75 @@ public class BaggageDAO {
         return baggageList;
     }
 
+    /**
+     * Retrieves the baggage in any of the given statuses
+     */
+    public List<Baggage> getBaggageByStatuses(Collection<BaggageStatus> statuses) throws AeroDeskException {
+        List<Baggage> baggageList = new ArrayList<>();
+        if (statuses.isEmpty()) {
+            return baggageList;
+        }
+        StringBuilder sql = new StringBuilder(SELECT_BAGGAGE_BY_STATUS_PREFIX);
+        for (int i = 0; i < statuses.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            statement = connection.prepareStatement(sql.toString());
+            int index = 1;
+            for (BaggageStatus status : statuses) {
+                statement.setString(index++, status.name());
+            }
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                baggageList.add(mapResultSetToBaggage(resultSet));
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving baggage by status: " + statuses, e);
+            throw new AeroDeskException("Failed to retrieve baggage", e);
+        } finally {
+            closeResources(resultSet, statement, connection);
+        }
+
+        return baggageList;
+    }
+
+    /**
+     * Retrieves the baggage not yet delivered
+     */
+    public List<Baggage> getActiveBaggage() throws AeroDeskException {
+        List<Baggage> baggageList = new ArrayList<>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            statement = connection.prepareStatement(SELECT_ACTIVE_BAGGAGE);
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                baggageList.add(mapResultSetToBaggage(resultSet));
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving active baggage", e);
+            throw new AeroDeskException("Failed to retrieve baggage", e);
+        } finally {
+            closeResources(resultSet, statement, connection);
+        }
+
+        return baggageList;
+    }
+
     /**
      * Finds a baggage record by its ID
      */
@@ -223,6 +319,35 @@ public class BaggageDAO {
         return baggageList;
     }
 
+    /**
+     * Retrieves all baggage checked onto a flight
+     */
+    public List<Baggage> getBaggageByFlight(int flightId) throws AeroDeskException {
+        List<Baggage> baggageList = new ArrayList<>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            statement = connection.prepareStatement(SELECT_BAGGAGE_BY_FLIGHT);
+            statement.setInt(1, flightId);
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                baggageList.add(mapResultSetToBaggage(resultSet));
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving baggage for flight: " + flightId, e);
+            throw new AeroDeskException("Failed to retrieve baggage", e);
+        } finally {
+            closeResources(resultSet, statement, connection);
+        }
+
+        return baggageList;
+    }
+
     /**
      * Updates an existing baggage record
      */
@@ -320,6 +445,20 @@ public class BaggageDAO {
         BigDecimal weight = resultSet.getBigDecimal("weight");
         baggage.setWeight(weight != null ? weight : BigDecimal.ZERO); // Handle null by setting default value
 
+        String baggageType = resultSet.getString("baggage_type");
+        try {
+            baggage.setBaggageType(BaggageType.fromValue(baggageType != null ? baggageType.toLowerCase() : null));
+        } catch (IllegalArgumentException e) {
+            baggage.setBaggageType(BaggageType.CHECKED);
+        }
+        String priority = resultSet.getString("priority");
+        try {
+            baggage.setPriority(Priority.fromValue(priority != null ? priority.toLowerCase() : null));
+        } catch (IllegalArgumentException e) {
+            baggage.setPriority(Priority.NORMAL);
+        }
+        baggage.setCurrentLocation(resultSet.getString("current_location"));
+
         baggage.setCreatedAt(resultSet.getTimestamp("created_at").toLocalDateTime());
 
         return baggage;
@@ -353,6 +492,48 @@ public class BaggageDAO {
         }
     }
 
+    /**
+     * Moves a bag to a new status, provided it still has the status it was
+     * read with.
+     *
+     * @throws OptimisticLockException if the bag's status changed since it was read
+     */
+    public void updateBaggageStatus(Baggage current, BaggageStatus newStatus, String location) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(UPDATE_BAGGAGE_STATUS_FROM)) {
+
+            statement.setString(1, newStatus.name());
+            statement.setString(2, location);
+            statement.setInt(3, current.getBaggageId());
+            statement.setString(4, current.getStatus().name());
+            if (statement.executeUpdate() == 0) {
+                throw new OptimisticLockException("Baggage", current.getBaggageId(), current.getStatus().name());
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error updating baggage status for tag: " + current.getBaggageTag(), e);
+            throw new AeroDeskException("Failed to update baggage status", e);
+        }
+    }
+
+    /**
+     * Number of bags in each status, in one aggregate query.
+     */
+    public Map<BaggageStatus, Long> countByStatus() throws AeroDeskException {
+        Map<BaggageStatus, Long> counts = new EnumMap<>(BaggageStatus.class);
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(COUNT_BAGGAGE_BY_STATUS);
+                ResultSet resultSet = statement.executeQuery()) {
+
+            while (resultSet.next()) {
+                counts.merge(toStatus(resultSet.getString(1)), resultSet.getLong(2), Long::sum);
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error counting baggage by status", e);
+            throw new AeroDeskException("Failed to count baggage by status", e);
+        }
+        return counts;
+    }
+
     // Track baggage (add tracking info)
     public boolean trackBaggage(int baggageId, String location, String notes) throws AeroDeskException {
         Connection connection = null;
@@ -365,7 +546,7 @@ public class BaggageDAO {
             statement.setInt(1, baggageId);
             statement.setString(2, location);
             statement.setString(3, notes);
-            statement.setTimestamp(4, Timestamp.valueOf(LocalDate.now().atStartOfDay()));
+            statement.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
 
             int rowsAffected = statement.executeUpdate();
 
@@ -379,6 +560,133 @@ public class BaggageDAO {
         }
     }
 
+    /**
+     * Id and current status of the bags with the given tags, by tag; unknown
+     * tags are left out. Only the id, tag and status of each bag are read.
+     */
+    public Map<String, Baggage> findStatusesByTags(Collection<String> baggageTags) throws AeroDeskException {
+        Map<String, Baggage> bags = new HashMap<>();
+        if (baggageTags.isEmpty()) {
+            return bags;
+        }
+        StringBuilder sql = new StringBuilder(SELECT_STATUS_BY_TAG_PREFIX);
+        for (int i = 0; i < baggageTags.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            statement = connection.prepareStatement(sql.toString());
+            int index = 1;
+            for (String tag : baggageTags) {
+                statement.setString(index++, tag);
+            }
+            resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                Baggage baggage = new Baggage();
+                baggage.setBaggageId(resultSet.getInt("baggage_id"));
+                baggage.setBaggageTag(resultSet.getString("baggage_tag"));
+                baggage.setStatus(toStatus(resultSet.getString("status")));
+                bags.put(baggage.getBaggageTag(), baggage);
+            }
+            return bags;
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error resolving " + baggageTags.size() + " baggage tags", e);
+            throw new AeroDeskException("Failed to resolve baggage tags", e);
+        } finally {
+            closeResources(resultSet, statement, connection);
+        }
+    }
+
+    /**
+     * Writes a batch of scans in one transaction: tracking rows as multi-row
+     * INSERTs, then one status/location UPDATE per bag, sent as a JDBC
+     * batch.
+     *
+     * @param tracking scans to record, with their bag's id in baggageIds
+     * @param latest the last scan of each bag in the batch
+     */
+    public void writeScans(List<BaggageScan> tracking, Map<String, Integer> baggageIds, Collection<BaggageScan> latest) throws AeroDeskException {
+        Connection connection = null;
+        PreparedStatement statement = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            connection.setAutoCommit(false);
+
+            for (int from = 0; from < tracking.size(); from += TRACKING_ROWS_PER_INSERT) {
+                List<BaggageScan> chunk = tracking.subList(from, Math.min(tracking.size(), from + TRACKING_ROWS_PER_INSERT));
+                StringBuilder sql = new StringBuilder(TRACK_BAGGAGE_PREFIX);
+                for (int i = 0; i < chunk.size(); i++) {
+                    sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+                }
+                try (PreparedStatement insert = connection.prepareStatement(sql.toString())) {
+                    int index = 1;
+                    for (BaggageScan scan : chunk) {
+                        insert.setInt(index++, baggageIds.get(scan.getBaggageTag()));
+                        insert.setString(index++, scan.getLocation());
+                        insert.setString(index++, scanNotes(scan));
+                        insert.setTimestamp(index++, Timestamp.valueOf(scan.getScannedAt()));
+                    }
+                    insert.executeUpdate();
+                }
+            }
+
+            statement = connection.prepareStatement(UPDATE_SCANNED_BAGGAGE);
+            for (BaggageScan scan : latest) {
+                statement.setString(1, scan.getStatus() != null ? scan.getStatus().name() : null);
+                statement.setString(2, scan.getLocation());
+                statement.setString(3, scan.getBaggageTag());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+
+            connection.commit();
+
+        } catch (SQLException e) {
+            rollback(connection);
+            LOGGER.log(Level.SEVERE, "Error writing " + tracking.size() + " baggage scans", e);
+            throw new AeroDeskException("Failed to write baggage scans", e);
+        } finally {
+            closeResources(null, statement, connection);
+        }
+    }
+
+    // Read the same way as mapResultSetToBaggage
+    private static BaggageStatus toStatus(String statusString) {
+        if (statusString == null) {
+            return BaggageStatus.REGISTERED;
+        }
+        try {
+            return BaggageStatus.valueOf(statusString.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning("Invalid baggage status value: " + statusString);
+            return BaggageStatus.REGISTERED;
+        }
+    }
+
+    private static String scanNotes(BaggageScan scan) {
+        String reader = scan.getReaderId() != null ? "Scanned by " + scan.getReaderId() : "Scanned";
+        return scan.getStatus() != null ? reader + " (" + scan.getStatus().name() + ")" : reader;
+    }
+
+    private void rollback(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error rolling back baggage scans", e);
+        }
+    }
+
     // Get lost baggage
     public List<Baggage> getLostBaggage() throws AeroDeskException {
         List<Baggage> lostBaggage = new ArrayList<>();
@@ -433,32 +741,6 @@ public List<Baggage> getDelayedBaggage() throws AeroDeskException {
     }
 }
 
-    // Generate baggage tag (simple random tag generator)
-    public String generateBaggageTag() throws AeroDeskException {
-        Connection connection = null;
-        PreparedStatement statement = null;
-        ResultSet resultSet = null;
-
-        try {
-            connection = DatabaseConnection.getConnection();
-            statement = connection.prepareStatement(GENERATE_BAGGAGE_TAG);
-
-            resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-                return resultSet.getString("baggage_tag");
-            }
-
-            throw new AeroDeskException("Failed to generate baggage tag", AeroDeskException.ErrorCategory.SYSTEM_ERROR);
-
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error generating baggage tag", e);
-            throw new AeroDeskException("Failed to generate baggage tag", e);
-        } finally {
-            closeResources(resultSet, statement, connection);
-        }
-    }
-
     // Helper method to map ResultSet to Baggage object
   /*  private Baggage mapResultSetToBaggage(ResultSet resultSet) throws SQLException {
         Baggage baggage = new Baggage();
@@ -476,49 +758,55 @@ public List<Baggage> getDelayedBaggage() throws AeroDeskException {
     "SELECT COUNT(*) AS total_baggage, SUM(weight) AS total_weight " +
     "FROM baggage WHERE created_at >= ? AND created_at < ?";
 */
-public BaggageReport generateBaggageReport(LocalDate date) throws AeroDeskException {
-    Connection connection = null;
-    PreparedStatement statement = null;
-    ResultSet resultSet = null;
+    /**
+     * Totals for bags created on the given date, read from the daily
+     * rollup. A day without bags gives an all-zero report.
+     */
+    public BaggageReport generateBaggageReport(LocalDate date) throws AeroDeskException {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
 
-    try {
-        // Get a database connection
-        connection = DatabaseConnection.getConnection();
+        try {
+            connection = DatabaseConnection.getConnection();
+            statement = connection.prepareStatement(GENERATE_BAGGAGE_REPORT);
+            statement.setDate(1, java.sql.Date.valueOf(date));
 
-        // Prepare the SQL query with a date range
-        statement = connection.prepareStatement(GENERATE_BAGGAGE_REPORT);
-        
-        // Set the start and end date range for the report (from the start of the day to the next day)
-        statement.setTimestamp(1, Timestamp.valueOf(date.atStartOfDay())); // Start of the day
-        statement.setTimestamp(2, Timestamp.valueOf(date.plusDays(1).atStartOfDay())); // Start of the next day
+            resultSet = statement.executeQuery();
 
-        // Execute the query
-        resultSet = statement.executeQuery();
+            int totalBaggage = 0;
+            BigDecimal totalWeight = BigDecimal.ZERO;
+            Map<BaggageStatus, Integer> statusCounts = new EnumMap<>(BaggageStatus.class);
+            while (resultSet.next()) {
+                int bags = resultSet.getInt("bags");
+                if (bags == 0) {
+                    continue;
+                }
+                totalBaggage += bags;
+                totalWeight = totalWeight.add(resultSet.getBigDecimal("total_weight"));
+                statusCounts.merge(rollupStatus(resultSet.getString("status")), bags, Integer::sum);
+            }
 
-        // If the result set has a row, map the results to the BaggageReport object
-        if (resultSet.next()) {
-            int totalBaggage = resultSet.getInt("total_baggage");
-            BigDecimal totalWeight = resultSet.getBigDecimal("total_weight");
-            int lostBaggage = resultSet.getInt("lost_baggage");
-            int delayedBaggage = resultSet.getInt("delayed_baggage");
+            BaggageReport report = new BaggageReport(totalBaggage, totalWeight,
+                    statusCounts.getOrDefault(BaggageStatus.LOST, 0), statusCounts.getOrDefault(BaggageStatus.DELAYED, 0));
+            report.setStatusCounts(statusCounts);
+            return report;
 
-            // Create and return a new BaggageReport object
-            return new BaggageReport(totalBaggage, totalWeight, lostBaggage, delayedBaggage);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error generating baggage report for: " + date, e);
+            throw new AeroDeskException("Failed to generate baggage report", e);
+        } finally {
+            closeResources(resultSet, statement, connection);
         }
-
-        // Return null if no data is found
-        return null;
-
-    } catch (SQLException e) {
-        // Log the error and throw an exception
-        LOGGER.log(Level.SEVERE, "Error generating baggage report in DAO", e);
-        throw new AeroDeskException("Failed to generate baggage report in DAO", e);
-    } finally {
-        // Ensure resources are closed properly
-        closeResources(resultSet, statement, connection);
     }
-}
 
+    private static BaggageStatus rollupStatus(String status) {
+        try {
+            return BaggageStatus.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            return BaggageStatus.UNKNOWN;
+        }
+    }
 
     private void closeResources(ResultSet resultSet, PreparedStatement statement, Connection connection) {
         try {
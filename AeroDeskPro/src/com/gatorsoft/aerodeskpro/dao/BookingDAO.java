@@ -5,14 +5,21 @@
 package com.gatorsoft.aerodeskpro.dao;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.entity.BookingClass;
 import com.gatorsoft.aerodeskpro.entity.BookingStatus;
+import com.gatorsoft.aerodeskpro.models.BoardingPass;
 import com.gatorsoft.aerodeskpro.models.Booking;
 import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.exceptions.OptimisticLockException;
 
 public class BookingDAO {
 
@@ -24,11 +31,48 @@ public class BookingDAO {
     private static final String SELECT_BOOKINGS_BY_PASSENGER = "SELECT * FROM bookings WHERE passenger_id = ?";
     private static final String SELECT_BOOKINGS_BY_FLIGHT = "SELECT * FROM bookings WHERE flight_id = ?";
     private static final String SELECT_BOOKINGS_BY_STATUS = "SELECT * FROM bookings WHERE status = ?";
-    private static final String INSERT_BOOKING = "INSERT INTO bookings (booking_reference, flight_id, passenger_id, status, created_at) VALUES (?, ?, ?, ?, ?)";
-    private static final String UPDATE_BOOKING = "UPDATE bookings SET booking_reference = ?, flight_id = ?, passenger_id = ?, status = ?, updated_at = ? WHERE booking_id = ?";
+    private static final String INSERT_BOOKING = "INSERT INTO bookings (booking_reference, flight_id, passenger_id, seat_number, booking_class, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    // Applies only if nobody has changed the booking since it was read; a
+    // cancellation gives up the seat in the same statement (SET runs left to right)
+    private static final String UPDATE_BOOKING = "UPDATE bookings SET booking_reference = ?, flight_id = ?, passenger_id = ?, status = ?, "
+            + "seat_number = IF(status = 'CANCELLED', NULL, seat_number), updated_at = ?, version = version + 1 WHERE booking_id = ? AND version = ?";
     private static final String DELETE_BOOKING = "DELETE FROM bookings WHERE booking_id = ?";
     private static final String SELECT_CHECKED_IN_BOOKINGS = "SELECT * FROM bookings WHERE flight_id = ? AND status = 'CHECKED_IN'";
-    private static final String SELECT_PASSENGER_COUNT = "SELECT COUNT(*) FROM bookings WHERE flight_id = ?";
+    private static final String COUNT_BOOKINGS_BY_STATUS = "SELECT IFNULL(status, 'CONFIRMED'), COUNT(*) FROM bookings GROUP BY IFNULL(status, 'CONFIRMED')";
+    private static final String SELECT_PASSENGER_COUNT = "SELECT booked FROM flight_booking_counters WHERE flight_id = ?";
+    private static final String SELECT_CHECKED_IN_COUNT = "SELECT checked_in FROM flight_booking_counters WHERE flight_id = ?";
+    private static final String SELECT_TAKEN_SEATS = "SELECT seat_number, booking_id FROM bookings WHERE flight_id = ? AND seat_number IS NOT NULL AND status <> 'CANCELLED'";
+    // Only moves the seat if the booking is live and still holds the seat the caller saw
+    private static final String UPDATE_BOOKING_SEAT = "UPDATE bookings SET seat_number = ?, updated_at = ?, version = version + 1 WHERE booking_id = ? AND flight_id = ? AND status <> 'CANCELLED' AND seat_number <=> ?";
+    // Check-in succeeds only from CONFIRMED, so a repeated or late request changes nothing.
+    // LAST_INSERT_ID(flight_id) leaves the flight unchanged and returns it as the generated key.
+    private static final String CHECK_IN_BOOKING = "UPDATE bookings SET status = 'CHECKED_IN', checked_in_by = ?, check_in_time = ?, updated_at = ?, "
+            + "version = version + 1, flight_id = LAST_INSERT_ID(flight_id) WHERE booking_reference = ? AND status = 'CONFIRMED'";
+    private static final String BOARD_BOOKING = "UPDATE bookings SET status = 'BOARDED', updated_at = ?, version = version + 1, "
+            + "flight_id = LAST_INSERT_ID(flight_id) WHERE booking_reference = ? AND status = 'CHECKED_IN'";
+    // One flight's part of a group; the affected-row count is that flight's check-ins
+    private static final String CHECK_IN_BOOKINGS_PREFIX = "UPDATE bookings SET status = 'CHECKED_IN', checked_in_by = ?, check_in_time = ?, updated_at = ?, "
+            + "version = version + 1 WHERE flight_id = ? AND status = 'CONFIRMED' AND booking_reference IN (";
+    private static final String SELECT_BY_REFERENCES_PREFIX = "SELECT * FROM bookings WHERE booking_reference IN (";
+    // Everything printed on a boarding pass. Boarded passengers keep their pass, so reprints work.
+    private static final String BOARDING_PASS_COLUMNS = "SELECT b.booking_id, b.booking_reference, b.flight_id, b.passenger_id, b.seat_number, b.booking_class, "
+            + "p.first_name, p.last_name, f.flight_number, f.origin_airport, f.destination_airport, f.scheduled_departure, g.gate_number";
+    private static final String BOARDING_PASS_JOINS = " FROM bookings b "
+            + "JOIN passengers p ON p.passenger_id = b.passenger_id "
+            + "JOIN flights f ON f.flight_id = b.flight_id "
+            + "LEFT JOIN gates g ON g.gate_id = f.gate_id ";
+    // In check-in order so the row number is the sequence number
+    private static final String SELECT_BOARDING_PASS_DATA = BOARDING_PASS_COLUMNS + BOARDING_PASS_JOINS
+            + "WHERE b.flight_id = ? AND b.status IN ('CHECKED_IN', 'BOARDED') "
+            + "ORDER BY b.check_in_time, b.booking_id";
+    // One pass; its sequence number is one more than the check-ins before it on the flight
+    private static final String SELECT_BOOKING_BOARDING_PASS_DATA = BOARDING_PASS_COLUMNS
+            + ", (SELECT COUNT(*) FROM bookings e WHERE e.flight_id = b.flight_id AND e.status IN ('CHECKED_IN', 'BOARDED') "
+            + "AND (e.check_in_time < b.check_in_time OR (e.check_in_time = b.check_in_time AND e.booking_id < b.booking_id))) + 1 AS sequence_number"
+            + BOARDING_PASS_JOINS
+            + "WHERE b.booking_id = ? AND b.status IN ('CHECKED_IN', 'BOARDED')";
+    // Unique key on (flight_id, seat_number), named in duplicate-key errors
+    private static final String FLIGHT_SEAT_KEY = "uq_bookings_flight_seat";
 
     /**
      * Finds a booking by its ID.
@@ -137,6 +181,9 @@ public class BookingDAO {
 
     /**
      * Saves a new booking to the database.
+     *
+     * @throws AeroDeskException with code SEAT_TAKEN if another booking on the
+     * flight already holds the seat
      */
     public Booking save(Booking booking) throws AeroDeskException {
         // Validate booking object
@@ -149,7 +196,23 @@ public class BookingDAO {
             booking.setBookingStatus(BookingStatus.CONFIRMED); // Default to "CONFIRMED"
         }
 
-        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(INSERT_BOOKING, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            return insertBooking(connection, booking);
+        } catch (SQLIntegrityConstraintViolationException e) {
+            if (e.getMessage() != null && e.getMessage().contains(FLIGHT_SEAT_KEY)) {
+                throw new AeroDeskException("Seat " + booking.getSeatNumber() + " is already taken", e,
+                        AeroDeskException.ErrorCategory.BUSINESS_RULE_VIOLATION, "SEAT_TAKEN", booking.getSeatNumber());
+            }
+            LOGGER.log(Level.SEVERE, "Error saving booking: SQLState: " + e.getSQLState() + ", ErrorCode: " + e.getErrorCode(), e);
+            throw new AeroDeskException("Failed to save booking", e);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error saving booking: SQLState: " + e.getSQLState() + ", ErrorCode: " + e.getErrorCode(), e);
+            throw new AeroDeskException("Failed to save booking", e);
+        }
+    }
+
+    private Booking insertBooking(Connection connection, Booking booking) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_BOOKING, Statement.RETURN_GENERATED_KEYS)) {
 
             // Debug logs
             System.out.println("Booking Reference: " + booking.getBookingReference());
@@ -165,8 +228,10 @@ public class BookingDAO {
             statement.setString(1, booking.getBookingReference());
             statement.setInt(2, booking.getFlightId());
             statement.setInt(3, booking.getPassengerId());
-            statement.setString(4, statusString); // Convert status to string
-            statement.setTimestamp(5, Timestamp.valueOf(booking.getCreatedAt()));
+            statement.setString(4, booking.getSeatNumber());
+            statement.setString(5, booking.getBookingClass() != null ? booking.getBookingClass().name() : BookingClass.ECONOMY.name());
+            statement.setString(6, statusString); // Convert status to string
+            statement.setTimestamp(7, Timestamp.valueOf(booking.getCreatedAt()));
 
             // Execute and handle the result
             int rowsAffected = statement.executeUpdate();
@@ -181,21 +246,22 @@ public class BookingDAO {
             } else {
                 return null; // No rows affected
             }
-
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error saving booking: SQLState: " + e.getSQLState() + ", ErrorCode: " + e.getErrorCode(), e);
-            throw new AeroDeskException("Failed to save booking", e);
         }
     }
 
     /**
-     * Updates an existing booking.
+     * Updates an existing booking if it is still at the version it was read
+     * at, and moves it to the next version.
+     *
+     * @return the booking, or null if it no longer exists
+     * @throws OptimisticLockException if the booking was changed meanwhile
      */
     public Booking update(Booking booking) throws AeroDeskException {
         if (booking == null || booking.getBookingId() <= 0 || !booking.isValid()) {
             throw new AeroDeskException("Invalid booking data for update", AeroDeskException.ErrorCategory.DATABASE_ERROR);
         }
 
+        int updated;
         try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(UPDATE_BOOKING)) {
 
             statement.setString(1, booking.getBookingReference());
@@ -203,21 +269,25 @@ public class BookingDAO {
             statement.setInt(3, booking.getPassengerId());
             // Ensure status is properly set
             String statusString = (booking.getStatus() != null) ? booking.getStatus() : BookingStatus.CONFIRMED.name();
-            System.out.println("Setting Status: " + statusString);
-            statement.setTimestamp(5, Timestamp.valueOf(booking.getUpdatedAt()));
+            statement.setString(4, statusString);
+            statement.setTimestamp(5, Timestamp.valueOf(booking.getUpdatedAt() != null ? booking.getUpdatedAt() : LocalDateTime.now()));
             statement.setInt(6, booking.getBookingId());
-
-            int rowsAffected = statement.executeUpdate();
-            if (rowsAffected > 0) {
-                return booking;
-            } else {
-                return null;
-            }
+            statement.setInt(7, booking.getVersion());
+            updated = statement.executeUpdate();
 
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error updating booking", e);
             throw new AeroDeskException("Failed to update booking", e);
         }
+        if (updated == 0) {
+            // Only a refused update pays for telling a missing booking from a stale one
+            if (findById(booking.getBookingId()) == null) {
+                return null;
+            }
+            throw new OptimisticLockException("Booking", booking.getBookingId(), booking.getVersion());
+        }
+        booking.setVersion(booking.getVersion() + 1);
+        return booking;
     }
 
     /**
@@ -225,11 +295,8 @@ public class BookingDAO {
      */
     public boolean delete(int bookingId) throws AeroDeskException {
         try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(DELETE_BOOKING)) {
-
             statement.setInt(1, bookingId);
-            int rowsAffected = statement.executeUpdate();
-            return rowsAffected > 0;
-
+            return statement.executeUpdate() > 0;
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error deleting booking", e);
             throw new AeroDeskException("Failed to delete booking", e);
@@ -258,7 +325,26 @@ public class BookingDAO {
     }
 
     /**
-     * Gets the count of passengers for a given flight.
+     * Number of bookings in each status, in one aggregate query.
+     */
+    public Map<BookingStatus, Long> countByStatus() throws AeroDeskException {
+        Map<BookingStatus, Long> counts = new EnumMap<>(BookingStatus.class);
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(COUNT_BOOKINGS_BY_STATUS);
+                ResultSet resultSet = statement.executeQuery()) {
+
+            while (resultSet.next()) {
+                counts.merge(BookingStatus.fromString(resultSet.getString(1)), resultSet.getLong(2), Long::sum);
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error counting bookings by status", e);
+            throw new AeroDeskException("Failed to count bookings by status", e);
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the count of passengers (bookings not cancelled) for a given flight.
      */
     public int getPassengerCount(int flightId) throws AeroDeskException {
         try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(SELECT_PASSENGER_COUNT)) {
@@ -277,6 +363,256 @@ public class BookingDAO {
         return 0;
     }
 
+    /**
+     * Gets the count of checked-in passengers for a given flight.
+     */
+    public int getCheckedInCount(int flightId) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(SELECT_CHECKED_IN_COUNT)) {
+
+            statement.setInt(1, flightId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return resultSet.getInt(1);
+                }
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting checked-in count for flight: " + flightId, e);
+            throw new AeroDeskException("Failed to get checked-in count", e);
+        }
+        return 0;
+    }
+
+    /**
+     * Seat numbers held by live bookings on a flight, with the booking
+     * holding each.
+     */
+    public Map<String, Integer> findTakenSeats(int flightId) throws AeroDeskException {
+        Map<String, Integer> seats = new HashMap<>();
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(SELECT_TAKEN_SEATS)) {
+
+            statement.setInt(1, flightId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    seats.put(resultSet.getString(1), resultSet.getInt(2));
+                }
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error finding taken seats for flight: " + flightId, e);
+            throw new AeroDeskException("Failed to find taken seats", e);
+        }
+        return seats;
+    }
+
+    /**
+     * Moves a booking to a new seat if it still holds the expected seat (null
+     * for none) and is not cancelled.
+     *
+     * @return false if the booking changed underneath the caller
+     * @throws AeroDeskException with code SEAT_TAKEN if another booking on the
+     * flight already holds the seat
+     */
+    public boolean updateSeat(int bookingId, int flightId, String expectedSeat, String newSeat) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(UPDATE_BOOKING_SEAT)) {
+
+            statement.setString(1, newSeat);
+            statement.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            statement.setInt(3, bookingId);
+            statement.setInt(4, flightId);
+            statement.setString(5, expectedSeat);
+            return statement.executeUpdate() > 0;
+
+        } catch (SQLIntegrityConstraintViolationException e) {
+            throw new AeroDeskException("Seat " + newSeat + " is already taken", e,
+                    AeroDeskException.ErrorCategory.BUSINESS_RULE_VIOLATION, "SEAT_TAKEN", newSeat);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error updating seat for booking: " + bookingId, e);
+            throw new AeroDeskException("Failed to update seat", e);
+        }
+    }
+
+    /**
+     * Checks in a confirmed booking with one conditional UPDATE. The outbox
+     * row is written by the bookings trigger in the same statement.
+     *
+     * @return the booking's flight id, or 0 if there is no confirmed booking
+     * with this reference
+     */
+    public int checkIn(String bookingReference, int staffId, LocalDateTime checkInTime) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection();
+                PreparedStatement statement = connection.prepareStatement(CHECK_IN_BOOKING, Statement.RETURN_GENERATED_KEYS)) {
+
+            statement.setInt(1, staffId);
+            statement.setTimestamp(2, Timestamp.valueOf(checkInTime));
+            statement.setTimestamp(3, Timestamp.valueOf(checkInTime));
+            statement.setString(4, bookingReference);
+            return statement.executeUpdate() == 0 ? 0 : updatedFlightId(statement);
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error checking in booking: " + bookingReference, e);
+            throw new AeroDeskException("Failed to check in booking", e);
+        }
+    }
+
+    /**
+     * Boards a checked-in booking with one conditional UPDATE.
+     *
+     * @return the booking's flight id, as for {@link #checkIn}
+     */
+    public int board(String bookingReference) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection();
+                PreparedStatement statement = connection.prepareStatement(BOARD_BOOKING, Statement.RETURN_GENERATED_KEYS)) {
+
+            statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            statement.setString(2, bookingReference);
+            return statement.executeUpdate() == 0 ? 0 : updatedFlightId(statement);
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error boarding booking: " + bookingReference, e);
+            throw new AeroDeskException("Failed to board booking", e);
+        }
+    }
+
+    /**
+     * Checks in every confirmed booking of one flight among the references
+     * with one UPDATE.
+     *
+     * @return number of bookings checked in
+     */
+    public int checkInAll(int flightId, List<String> bookingReferences, int staffId, LocalDateTime checkInTime) throws AeroDeskException {
+        if (bookingReferences.isEmpty()) {
+            return 0;
+        }
+        String sql = CHECK_IN_BOOKINGS_PREFIX + placeholders(bookingReferences.size()) + ")";
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            statement.setInt(1, staffId);
+            statement.setTimestamp(2, Timestamp.valueOf(checkInTime));
+            statement.setTimestamp(3, Timestamp.valueOf(checkInTime));
+            statement.setInt(4, flightId);
+            int index = 5;
+            for (String reference : bookingReferences) {
+                statement.setString(index++, reference);
+            }
+            return statement.executeUpdate();
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error checking in " + bookingReferences.size() + " bookings on flight " + flightId, e);
+            throw new AeroDeskException("Failed to check in bookings", e);
+        }
+    }
+
+    /**
+     * The bookings with the given references that exist, by reference.
+     */
+    public Map<String, Booking> findByReferences(List<String> bookingReferences) throws AeroDeskException {
+        Map<String, Booking> bookings = new HashMap<>();
+        if (bookingReferences.isEmpty()) {
+            return bookings;
+        }
+        String sql = SELECT_BY_REFERENCES_PREFIX + placeholders(bookingReferences.size()) + ")";
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            int index = 1;
+            for (String reference : bookingReferences) {
+                statement.setString(index++, reference);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Booking booking = mapResultSetToBooking(resultSet);
+                    bookings.put(booking.getBookingReference(), booking);
+                }
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error reading " + bookingReferences.size() + " bookings by reference", e);
+            throw new AeroDeskException("Failed to read bookings", e);
+        }
+        return bookings;
+    }
+
+    /**
+     * Boarding pass details of every checked-in or boarded booking on a
+     * flight, read in one query. Passes are in check-in order and numbered
+     * from 1; boarding time and barcode are left for the caller.
+     */
+    public List<BoardingPass> findBoardingPassData(int flightId) throws AeroDeskException {
+        List<BoardingPass> passes = new ArrayList<>();
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(SELECT_BOARDING_PASS_DATA)) {
+
+            statement.setInt(1, flightId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                int sequence = 0;
+                while (resultSet.next()) {
+                    passes.add(mapResultSetToBoardingPass(resultSet, ++sequence));
+                }
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error reading boarding pass data for flight: " + flightId, e);
+            throw new AeroDeskException("Failed to read boarding pass data", e);
+        }
+        return passes;
+    }
+
+    /**
+     * Boarding pass details of one checked-in or boarded booking, with the
+     * same sequence number the flight's batch would give it.
+     *
+     * @return null if the booking does not exist or is not checked in
+     */
+    public BoardingPass findBookingBoardingPassData(int bookingId) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(SELECT_BOOKING_BOARDING_PASS_DATA)) {
+
+            statement.setInt(1, bookingId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? mapResultSetToBoardingPass(resultSet, resultSet.getInt("sequence_number")) : null;
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error reading boarding pass data for booking: " + bookingId, e);
+            throw new AeroDeskException("Failed to read boarding pass data", e);
+        }
+    }
+
+    private BoardingPass mapResultSetToBoardingPass(ResultSet resultSet, int sequenceNumber) throws SQLException {
+        BoardingPass pass = new BoardingPass();
+        pass.setBookingReference(resultSet.getString("booking_reference"));
+        pass.setFlightId(resultSet.getInt("flight_id"));
+        pass.setPassengerId(resultSet.getInt("passenger_id"));
+        pass.setPassengerName(resultSet.getString("first_name") + " " + resultSet.getString("last_name"));
+        pass.setSeatNumber(resultSet.getString("seat_number"));
+        String classString = resultSet.getString("booking_class");
+        pass.setBookingClass(classString != null ? BookingClass.valueOf(classString.toUpperCase()) : BookingClass.ECONOMY);
+        pass.setFlightNumber(resultSet.getString("flight_number"));
+        pass.setOrigin(resultSet.getString("origin_airport"));
+        pass.setDestination(resultSet.getString("destination_airport"));
+        Timestamp departure = resultSet.getTimestamp("scheduled_departure");
+        pass.setDepartureTime(departure != null ? departure.toLocalDateTime() : null);
+        pass.setGate(resultSet.getString("gate_number"));
+        pass.setFlightDetails(pass.getFlightNumber() + " " + pass.getOrigin() + "-" + pass.getDestination());
+        pass.setSequenceNumber(sequenceNumber);
+        return pass;
+    }
+
+    /**
+     * The flight id a single-row UPDATE reported through LAST_INSERT_ID.
+     */
+    private static int updatedFlightId(PreparedStatement statement) throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            return keys.next() ? keys.getInt(1) : 0;
+        }
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder builder = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            builder.append(i == 0 ? "?" : ", ?");
+        }
+        return builder.toString();
+    }
+
     /**
      * Helper method to map a ResultSet to a Booking object.
      */
@@ -286,11 +622,18 @@ public class BookingDAO {
         booking.setBookingReference(resultSet.getString("booking_reference"));
         booking.setFlightId(resultSet.getInt("flight_id"));
         booking.setPassengerId(resultSet.getInt("passenger_id"));
-        // Ensure status is properly set
-        String statusString = (booking.getStatus() != null) ? booking.getStatus() : BookingStatus.CONFIRMED.name();
-        System.out.println("Setting Status: " + statusString);
+        String statusString = resultSet.getString("status");
+        booking.setBookingStatus(statusString != null ? BookingStatus.fromString(statusString) : BookingStatus.CONFIRMED);
+        booking.setSeatNumber(resultSet.getString("seat_number"));
+        String classString = resultSet.getString("booking_class");
+        booking.setBookingClass(classString != null ? BookingClass.valueOf(classString.toUpperCase()) : BookingClass.ECONOMY);
         booking.setCreatedAt(resultSet.getTimestamp("created_at").toLocalDateTime());
         booking.setUpdatedAt(resultSet.getTimestamp("updated_at") != null ? resultSet.getTimestamp("updated_at").toLocalDateTime() : null);
+        Timestamp checkInTime = resultSet.getTimestamp("check_in_time");
+        booking.setCheckInTime(checkInTime != null ? checkInTime.toLocalDateTime() : null);
+        int checkedInBy = resultSet.getInt("checked_in_by");
+        booking.setCheckedInBy(resultSet.wasNull() ? null : checkedInBy);
+        booking.setVersion(resultSet.getInt("version"));
         return booking;
     }
 }
@@ -0,0 +1,165 @@
+package com.gatorsoft.aerodeskpro.dao;
+
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.BookingChange;
+import com.gatorsoft.aerodeskpro.utils.BookingJson;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data Access Object for the booking_outbox table. Rows are written by the
+ * triggers on bookings (migration 011), so this class only reads and prunes.
+ */
+public class BookingOutboxDAO {
+
+    private static final Logger LOGGER = Logger.getLogger(BookingOutboxDAO.class.getName());
+
+    private static final String SELECT_CHANGES_AFTER = "SELECT outbox_id, booking_id, operation, before_image, after_image, recorded_at "
+            + "FROM booking_outbox WHERE outbox_id > ? ORDER BY outbox_id LIMIT ?";
+    private static final String SELECT_CHANGES_BY_ID = "SELECT outbox_id, booking_id, operation, before_image, after_image, recorded_at "
+            + "FROM booking_outbox WHERE outbox_id IN (%s) ORDER BY outbox_id";
+    private static final String SELECT_LAST_ID = "SELECT COALESCE(MAX(outbox_id), 0) FROM booking_outbox";
+    private static final String UPSERT_CHECKPOINT = "INSERT INTO booking_outbox_consumers (consumer_id, last_outbox_id) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE last_outbox_id = VALUES(last_outbox_id), updated_at = CURRENT_TIMESTAMP(3)";
+    private static final String DELETE_CHECKPOINT = "DELETE FROM booking_outbox_consumers WHERE consumer_id = ?";
+    // Ages are measured on the database clock. With no live consumer MIN is NULL and nothing is deleted.
+    private static final String DELETE_READ_BY_ALL = "DELETE FROM booking_outbox WHERE recorded_at < NOW(3) - INTERVAL ? MINUTE AND outbox_id <= "
+            + "(SELECT MIN(last_outbox_id) FROM booking_outbox_consumers WHERE updated_at >= NOW(3) - INTERVAL ? MINUTE)";
+
+    /**
+     * Changes recorded after the given position, oldest first.
+     */
+    public List<BookingChange> findAfter(long outboxId, int limit) throws AeroDeskException {
+        List<BookingChange> changes = new ArrayList<>();
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(SELECT_CHANGES_AFTER)) {
+
+            statement.setLong(1, outboxId);
+            statement.setInt(2, limit);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    changes.add(mapResultSetToChange(resultSet));
+                }
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error reading booking changes after: " + outboxId, e);
+            throw new AeroDeskException("Failed to read booking changes", e);
+        }
+        return changes;
+    }
+
+    /**
+     * The changes among the given positions that exist, oldest first.
+     */
+    public List<BookingChange> findByIds(Collection<Long> outboxIds) throws AeroDeskException {
+        List<BookingChange> changes = new ArrayList<>();
+        if (outboxIds.isEmpty()) {
+            return changes;
+        }
+        String sql = String.format(SELECT_CHANGES_BY_ID, String.join(", ", Collections.nCopies(outboxIds.size(), "?")));
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            int index = 1;
+            for (Long outboxId : outboxIds) {
+                statement.setLong(index++, outboxId);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    changes.add(mapResultSetToChange(resultSet));
+                }
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error reading " + outboxIds.size() + " booking changes by id", e);
+            throw new AeroDeskException("Failed to read booking changes", e);
+        }
+        return changes;
+    }
+
+    /**
+     * Position of the newest recorded change, or 0 if there is none.
+     */
+    public long findLastId() throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(SELECT_LAST_ID);
+                ResultSet resultSet = statement.executeQuery()) {
+
+            resultSet.next();
+            return resultSet.getLong(1);
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error reading last booking change", e);
+            throw new AeroDeskException("Failed to read last booking change", e);
+        }
+    }
+
+    /**
+     * Saves a consumer's read position: every change up to it has been
+     * handed to its listeners.
+     */
+    public void saveCheckpoint(String consumerId, long outboxId) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(UPSERT_CHECKPOINT)) {
+
+            statement.setString(1, consumerId);
+            statement.setLong(2, outboxId);
+            statement.executeUpdate();
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error saving booking change checkpoint of: " + consumerId, e);
+            throw new AeroDeskException("Failed to save booking change checkpoint", e);
+        }
+    }
+
+    /**
+     * Forgets a consumer that has stopped, so it no longer holds back pruning.
+     */
+    public void deleteCheckpoint(String consumerId) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(DELETE_CHECKPOINT)) {
+
+            statement.setString(1, consumerId);
+            statement.executeUpdate();
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error deleting booking change checkpoint of: " + consumerId, e);
+            throw new AeroDeskException("Failed to delete booking change checkpoint", e);
+        }
+    }
+
+    /**
+     * Removes changes older than the retention period that every consumer
+     * which saved its checkpoint within the timeout has read. Consumers
+     * silent for longer are treated as gone.
+     *
+     * @return number of changes removed
+     */
+    public int deleteReadByAll(int retentionMinutes, int consumerTimeoutMinutes) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(DELETE_READ_BY_ALL)) {
+
+            statement.setInt(1, retentionMinutes);
+            statement.setInt(2, consumerTimeoutMinutes);
+            return statement.executeUpdate();
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error pruning booking changes", e);
+            throw new AeroDeskException("Failed to prune booking changes", e);
+        }
+    }
+
+    private BookingChange mapResultSetToChange(ResultSet resultSet) throws SQLException {
+        return new BookingChange(
+                resultSet.getLong("outbox_id"),
+                resultSet.getInt("booking_id"),
+                BookingChange.Operation.valueOf(resultSet.getString("operation")),
+                BookingJson.fromJson(resultSet.getString("before_image")),
+                BookingJson.fromJson(resultSet.getString("after_image")),
+                resultSet.getTimestamp("recorded_at").toLocalDateTime());
+    }
+}
@@ -13,7 +13,9 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,6 +23,8 @@ import com.gatorsoft.aerodeskpro.entity.FlightStatus;
 import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
 import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
 import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException.ErrorCategory;
+import com.gatorsoft.aerodeskpro.exceptions.OptimisticLockException;
+import com.gatorsoft.aerodeskpro.models.DelayImpact;
 import com.gatorsoft.aerodeskpro.models.Flight;
 
 /**
@@ -34,34 +38,48 @@ public class FlightDAO {
 
     private static final Logger LOGGER = Logger.getLogger(FlightDAO.class.getName());
 
+    private final GateDAO gateDAO = new GateDAO();
+
     // SQL Queries
-    private static final String INSERT_FLIGHT = "INSERT INTO flights (flight_number, scheduled_departure, scheduled_arrival, origin_airport, destination_airport_airport, "
-            + "gate_id, flight_status, aircraft_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_FLIGHT = "INSERT INTO flights (flight_number, scheduled_departure, scheduled_arrival, origin_airport, destination_airport, "
+            + "gate_id, flight_status, aircraft_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
     private static final String SELECT_ALL_FLIGHTS = "SELECT flight_id, flight_number, scheduled_departure, scheduled_arrival, origin_airport, destination_airport, "
-            + "gate_id, flight_status, aircraft_id, created_at FROM flights ORDER BY scheduled_departure";
+            + "gate_id, flight_status, aircraft_id, created_at, version FROM flights ORDER BY scheduled_departure";
 
     private static final String SELECT_FLIGHT_BY_ID = "SELECT flight_id, flight_number, scheduled_departure, scheduled_arrival, origin_airport, destination_airport, "
-            + "gate_id, flight_status, aircraft_id, created_at FROM flights WHERE flight_id = ?";
+            + "gate_id, flight_status, aircraft_id, created_at, version FROM flights WHERE flight_id = ?";
 
     private static final String SELECT_FLIGHT_BY_NUMBER = "SELECT flight_id, flight_number, scheduled_departure, scheduled_arrival, origin_airport, destination_airport, "
-            + "gate_id, flight_status, aircraft_id, created_at FROM flights WHERE flight_number = ?";
+            + "gate_id, flight_status, aircraft_id, created_at, version FROM flights WHERE flight_number = ?";
 
+    // Applies only if nobody has changed the flight since it was read
     private static final String UPDATE_FLIGHT = "UPDATE flights SET flight_number = ?, scheduled_departure = ?, scheduled_arrival = ?, origin_airport = ?, "
-            + "destination_airport = ?, gate_id = ?, flight_status = ?, aircraft_id = ? = ? WHERE flight_id = ?";
+            + "destination_airport = ?, gate_id = ?, flight_status = ?, aircraft_id = ?, version = version + 1 WHERE flight_id = ? AND version = ?";
+
+    private static final String SELECT_FLIGHT_VERSION = "SELECT version FROM flights WHERE flight_id = ?";
+
+    // Single-column updates don't need the caller's version, but still move it on
+    // so a full update based on an older read is refused
+    private static final String UPDATE_FLIGHT_STATUS = "UPDATE flights SET flight_status = ?, version = version + 1 WHERE flight_id = ?";
 
-    private static final String UPDATE_FLIGHT_STATUS = "UPDATE flights SET flight_status = ? WHERE flight_id = ?";
+    // Knock-on moves are guarded by the departure they were computed from
+    private static final String UPDATE_FLIGHT_TIMES = "UPDATE flights SET scheduled_departure = ?, scheduled_arrival = ?, version = version + 1 "
+            + "WHERE flight_id = ? AND scheduled_departure = ?";
+    private static final String UPDATE_FLIGHT_GATE = "UPDATE flights SET gate_id = ?, version = version + 1 WHERE flight_id = ?";
 
-    private static final String UPDATE_FLIGHT_GATE = "UPDATE flights SET gate_id = ? WHERE flight_id = ?";
+    private static final String SELECT_SEAT_CAPACITY = "SELECT a.capacity FROM flights f "
+            + "JOIN aircraft a ON a.aircraft_id = f.aircraft_id WHERE f.flight_id = ?";
 
+    private static final String COUNT_FLIGHTS_BY_STATUS = "SELECT flight_status, COUNT(*) FROM flights GROUP BY flight_status";
     private static final String DELETE_FLIGHT = "DELETE FROM flights WHERE flight_id = ?";
 
     private static final String SELECT_FLIGHTS_BY_DATE_RANGE = "SELECT flight_id, flight_number, scheduled_departure, scheduled_arrival, origin_airport, destination_airport, "
-            + "gate_id, flight_status, aircraft_id, created_at FROM flights "
+            + "gate_id, flight_status, aircraft_id, created_at, version FROM flights "
             + "WHERE scheduled_departure BETWEEN ? AND ? ORDER BY scheduled_departure";
 
     private static final String SELECT_FLIGHTS_BY_STATUS = "SELECT flight_id, flight_number, scheduled_departure, scheduled_arrival, origin_airport, destination_airport, "
-            + "gate_id, flight_status, aircraft_id, created_at FROM flights "
+            + "gate_id, flight_status, aircraft_id, created_at, version FROM flights "
             + "WHERE flight_status = ? ORDER BY scheduled_departure";
 
     /**
@@ -93,8 +111,7 @@ public class FlightDAO {
             statement.setInt(6, flight.getGateNumber());
             statement.setString(7, flight.getStatus().name());
             statement.setInt(8, flight.getAircraftType());
-            statement.setInt(9, flight.getCapacity());
-            statement.setTimestamp(10, Timestamp.valueOf(flight.getCreatedAt()));
+            statement.setTimestamp(9, Timestamp.valueOf(flight.getCreatedAt()));
 
             int rowsAffected = statement.executeUpdate();
 
@@ -223,13 +240,18 @@ public class FlightDAO {
     }
 
     /**
-     * Updates an existing flight
+     * Updates an existing flight if it is still at the version it was read
+     * at, and moves it to the next version. Capacity belongs to the aircraft
+     * and is not written, so it is not required here.
      * @param flight
-     * @return 
+     * @return false if the flight no longer exists
+     * @throws OptimisticLockException if the flight was changed meanwhile
      * @throws com.gatorsoft.aerodeskpro.exceptions.AeroDeskException
      */
     public boolean updateFlight(Flight flight) throws AeroDeskException {
-        if (flight == null || !flight.isValid() || flight.getFlightId() <= 0) {
+        if (flight == null || flight.getFlightId() <= 0 || flight.getFlightNumber() == null
+                || flight.getDepartureTime() == null || flight.getArrivalTime() == null
+                || flight.getOrigin() == null || flight.getDestination() == null || flight.getStatus() == null) {
             throw new AeroDeskException("Invalid flight data for update",
                     ErrorCategory.RESOURCE_NOT_FOUND);
         }
@@ -240,24 +262,18 @@ public class FlightDAO {
         try {
             connection = DatabaseConnection.getConnection();
             statement = connection.prepareStatement(UPDATE_FLIGHT);
-
-            statement.setString(1, flight.getFlightNumber());
-            statement.setTimestamp(2, Timestamp.valueOf(flight.getDepartureTime()));
-            statement.setTimestamp(3, Timestamp.valueOf(flight.getArrivalTime()));
-            statement.setString(4, flight.getOrigin());
-            statement.setString(5, flight.getDestination());
-            statement.setInt(6, flight.getGateNumber());
-            statement.setString(7, flight.getStatus().name());
-            statement.setInt(8, flight.getAircraftType());
-            statement.setInt(9, flight.getCapacity());
-            statement.setInt(10, flight.getFlightId());
+            setUpdateParameters(statement, flight);
 
             int rowsAffected = statement.executeUpdate();
 
             if (rowsAffected > 0) {
+                flight.setVersion(flight.getVersion() + 1);
                 LOGGER.log(Level.INFO, "Flight updated successfully: {0}", flight.getFlightNumber());
                 return true;
             }
+            if (flightExists(connection, flight.getFlightId())) {
+                throw new OptimisticLockException("Flight", flight.getFlightId(), flight.getVersion());
+            }
 
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error updating flight: " + flight.getFlightNumber(),
@@ -378,6 +394,32 @@ public class FlightDAO {
         return false;
     }
 
+    /**
+     * Seat capacity of the aircraft operating a flight
+     * @param flightId
+     * @return capacity, or 0 if the flight or its aircraft is unknown
+     * @throws com.gatorsoft.aerodeskpro.exceptions.AeroDeskException 
+     */
+    public int getSeatCapacity(int flightId) throws AeroDeskException {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            statement = connection.prepareStatement(SELECT_SEAT_CAPACITY);
+            statement.setInt(1, flightId);
+            resultSet = statement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error reading seat capacity for flight: " + flightId, e);
+            throw new AeroDeskException("Failed to read seat capacity", e);
+        } finally {
+            closeResources(resultSet, statement, connection);
+        }
+    }
+
     /**
      * Retrieves flights within a date range
      * @param startDate
@@ -415,6 +457,34 @@ public class FlightDAO {
         return flights;
     }
 
+    /**
+     * Number of flights in each status, in one aggregate query.
+     */
+    public Map<FlightStatus, Long> countFlightsByStatus() throws AeroDeskException {
+        Map<FlightStatus, Long> counts = new EnumMap<>(FlightStatus.class);
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            statement = connection.prepareStatement(COUNT_FLIGHTS_BY_STATUS);
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                counts.put(FlightStatus.valueOf(resultSet.getString(1)), resultSet.getLong(2));
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error counting flights by flight_status", e);
+            throw new AeroDeskException("Failed to count flights by flight_status", e);
+        } finally {
+            closeResources(resultSet, statement, connection);
+        }
+
+        return counts;
+    }
+
     /**
      * Retrieves flights by flight_status
      * @param flight_status
@@ -466,6 +536,7 @@ public class FlightDAO {
         flight.setStatus(FlightStatus.valueOf(resultSet.getString("flight_status")));
         flight.setAircraftType(resultSet.getInt("aircraft_id"));
         //flight.setCapacity(resultSet.getInt"));
+        flight.setVersion(resultSet.getInt("version"));
 
         Timestamp createdTimestamp = resultSet.getTimestamp("created_at");
         if (createdTimestamp != null) {
@@ -474,6 +545,104 @@ public class FlightDAO {
         return flight;
     }
 
+    private boolean flightExists(Connection connection, int flightId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_FLIGHT_VERSION)) {
+            statement.setInt(1, flightId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private static void setUpdateParameters(PreparedStatement statement, Flight flight) throws SQLException {
+        statement.setString(1, flight.getFlightNumber());
+        statement.setTimestamp(2, Timestamp.valueOf(flight.getDepartureTime()));
+        statement.setTimestamp(3, Timestamp.valueOf(flight.getArrivalTime()));
+        statement.setString(4, flight.getOrigin());
+        statement.setString(5, flight.getDestination());
+        statement.setInt(6, flight.getGateNumber());
+        statement.setString(7, flight.getStatus().name());
+        statement.setInt(8, flight.getAircraftType());
+        statement.setInt(9, flight.getFlightId());
+        statement.setInt(10, flight.getVersion());
+    }
+
+    /**
+     * Writes a delayed flight together with the knock-on times of the delay
+     * and the gate windows it moved, in one transaction, so the delay is
+     * never saved without its knock-on changes. The delayed flight must still
+     * be at the version it was read at, and each other row where the delay
+     * found it.
+     *
+     * @return false if the delayed flight no longer exists; nothing is written
+     * @throws OptimisticLockException if any of the rows was changed
+     * meanwhile; nothing is written
+     */
+    public boolean saveDelay(Flight delayed, List<DelayImpact.FlightChange> flightChanges,
+            List<DelayImpact.GateSlotChange> gateWindows) throws AeroDeskException {
+        Connection connection = null;
+        PreparedStatement statement = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement rootStatement = connection.prepareStatement(UPDATE_FLIGHT)) {
+                setUpdateParameters(rootStatement, delayed);
+                if (rootStatement.executeUpdate() == 0) {
+                    if (flightExists(connection, delayed.getFlightId())) {
+                        throw new OptimisticLockException("Flight", delayed.getFlightId(), delayed.getVersion());
+                    }
+                    rollback(connection);
+                    return false;
+                }
+            }
+
+            statement = connection.prepareStatement(UPDATE_FLIGHT_TIMES);
+            for (DelayImpact.FlightChange change : flightChanges) {
+                statement.setTimestamp(1, Timestamp.valueOf(change.getNewDeparture()));
+                statement.setTimestamp(2, Timestamp.valueOf(change.getNewArrival()));
+                statement.setInt(3, change.getFlightId());
+                statement.setTimestamp(4, Timestamp.valueOf(change.getOldDeparture()));
+                statement.addBatch();
+            }
+            int[] counts = statement.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    throw new OptimisticLockException("Flight", flightChanges.get(i).getFlightId(),
+                            "departure " + flightChanges.get(i).getOldDeparture());
+                }
+            }
+            gateDAO.moveAssignmentWindows(connection, gateWindows);
+
+            connection.commit();
+            delayed.setVersion(delayed.getVersion() + 1);
+            return true;
+
+        } catch (OptimisticLockException e) {
+            rollback(connection);
+            throw e;
+        } catch (SQLException e) {
+            rollback(connection);
+            LOGGER.log(Level.SEVERE, "Error saving delay of flight " + delayed.getFlightId() + " with " + flightChanges.size() + " knock-on flights and "
+                    + gateWindows.size() + " gate windows", e);
+            throw new AeroDeskException("Failed to save delay of flight " + delayed.getFlightId(), e);
+        } finally {
+            closeResources(null, statement, connection);
+        }
+    }
+
+    private void rollback(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error rolling back a delay", e);
+        }
+    }
+
     /**
      * Closes database resources safely
      */
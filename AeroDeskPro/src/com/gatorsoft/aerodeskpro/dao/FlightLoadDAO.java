@@ -0,0 +1,84 @@
+package com.gatorsoft.aerodeskpro.dao;
+
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.FlightLoad;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads the per-flight booking totals maintained by triggers on bookings.
+ */
+public class FlightLoadDAO {
+
+    private static final Logger LOGGER = Logger.getLogger(FlightLoadDAO.class.getName());
+
+    private static final String SELECT_LOADS = "SELECT f.flight_id, f.flight_number, f.scheduled_departure, "
+            + "IFNULL(a.capacity, 0) AS capacity, IFNULL(c.booked, 0) AS booked, IFNULL(c.checked_in, 0) AS checked_in, "
+            + "IFNULL(c.boarded, 0) AS boarded, IFNULL(c.cancelled, 0) AS cancelled "
+            + "FROM flights f "
+            + "LEFT JOIN flight_booking_counters c ON c.flight_id = f.flight_id "
+            + "LEFT JOIN aircraft a ON a.aircraft_id = f.aircraft_id ";
+
+    private static final String SELECT_LOADS_BETWEEN = SELECT_LOADS
+            + "WHERE f.scheduled_departure >= ? AND f.scheduled_departure < ? ORDER BY f.scheduled_departure";
+
+    private static final String SELECT_LOAD_BY_FLIGHT = SELECT_LOADS + "WHERE f.flight_id = ?";
+
+    /**
+     * Totals for every flight departing in [from, to), in one query.
+     */
+    public List<FlightLoad> findLoadsBetween(LocalDateTime from, LocalDateTime to) throws AeroDeskException {
+        List<FlightLoad> loads = new ArrayList<>();
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(SELECT_LOADS_BETWEEN)) {
+
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setTimestamp(2, Timestamp.valueOf(to));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    loads.add(mapResultSetToLoad(resultSet));
+                }
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error reading flight loads from " + from + " to " + to, e);
+            throw new AeroDeskException("Failed to read flight loads", e);
+        }
+        return loads;
+    }
+
+    public FlightLoad findLoad(int flightId) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(SELECT_LOAD_BY_FLIGHT)) {
+
+            statement.setInt(1, flightId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? mapResultSetToLoad(resultSet) : null;
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error reading load of flight: " + flightId, e);
+            throw new AeroDeskException("Failed to read flight load", e);
+        }
+    }
+
+    private FlightLoad mapResultSetToLoad(ResultSet resultSet) throws SQLException {
+        Timestamp departure = resultSet.getTimestamp("scheduled_departure");
+        return new FlightLoad(
+                resultSet.getInt("flight_id"),
+                resultSet.getString("flight_number"),
+                departure != null ? departure.toLocalDateTime() : null,
+                resultSet.getInt("capacity"),
+                resultSet.getInt("booked"),
+                resultSet.getInt("checked_in"),
+                resultSet.getInt("boarded"),
+                resultSet.getInt("cancelled"));
+    }
+}
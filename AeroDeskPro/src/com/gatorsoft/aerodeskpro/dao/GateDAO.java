@@ -5,6 +5,9 @@ import com.gatorsoft.aerodeskpro.entity.GateStatus;
 import com.gatorsoft.aerodeskpro.entity.GateType;
 import com.gatorsoft.aerodeskpro.models.Gate;
 import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.exceptions.OptimisticLockException;
+import com.gatorsoft.aerodeskpro.models.DelayImpact;
+import com.gatorsoft.aerodeskpro.models.GateAssignment;
 import com.gatorsoft.aerodeskpro.models.GateSchedule;
 import java.sql.*;
 import java.time.LocalDate;
@@ -24,9 +27,19 @@ public class GateDAO {
     private static final String SELECT_AVAILABLE_GATES = "SELECT * FROM gates WHERE is_available = 1";
     private static final String SELECT_GATES_BY_STATUS = "SELECT * FROM gates WHERE status = ?";
     private static final String INSERT_GATE = "INSERT INTO gates (gate_number, terminal_id, gate_type, is_available, capacity) VALUES (?, ?, ?, ?, ?)";
-    private static final String UPDATE_GATE = "UPDATE gates SET gate_number = ?, terminal_id = ?, gate_type = ?, is_available = ?, capacity = ? WHERE gate_id = ?";
+    // Applies only if nobody has changed the gate since it was read
+    private static final String UPDATE_GATE = "UPDATE gates SET gate_number = ?, terminal_id = ?, gate_type = ?, is_available = ?, capacity = ?, "
+            + "status = COALESCE(?, status), version = version + 1 WHERE gate_id = ? AND version = ?";
+    private static final String SELECT_GATE_VERSION = "SELECT version FROM gates WHERE gate_id = ?";
     private static final String DELETE_GATE = "DELETE FROM gates WHERE gate_id = ?";
     private static final String SELECT_AVAILABLE_GATES_FOR_TIMESLOT = "SELECT g.* FROM gates g WHERE g.is_available = 1 AND g.gate_id NOT IN (SELECT gate_id FROM gate_assignments WHERE (estimated_start_time <= ? AND estimated_end_time >= ?))";
+    private static final String SELECT_ASSIGNMENTS_FOR_WINDOW = "SELECT assignment_id, flight_id, gate_id, assigned_at, estimated_start_time, estimated_end_time, "
+            + "actual_start_time, actual_end_time, assignment_status, remarks FROM gate_assignments "
+            + "WHERE estimated_end_time >= ? AND estimated_start_time < ? ORDER BY gate_id, estimated_start_time";
+    private static final String SELECT_ASSIGNMENT_BY_ID = "SELECT assignment_id, flight_id, gate_id, assigned_at, estimated_start_time, estimated_end_time, "
+            + "actual_start_time, actual_end_time, assignment_status, remarks FROM gate_assignments WHERE assignment_id = ?";
+    private static final String MOVE_ASSIGNMENT_WINDOW = "UPDATE gate_assignments SET estimated_start_time = ?, estimated_end_time = ? "
+            + "WHERE assignment_id = ? AND estimated_start_time = ?";
 
     /**
      * Finds a gate by its ID.
@@ -155,7 +168,11 @@ public class GateDAO {
     }
 
     /**
-     * Updates an existing gate.
+     * Updates an existing gate if it is still at the version it was read at,
+     * and moves it to the next version.
+     *
+     * @return the gate, or null if it no longer exists
+     * @throws OptimisticLockException if the gate was changed meanwhile
      */
     public Gate update(Gate gate) throws AeroDeskException {
         if (gate == null || gate.getGateId() <= 0 || !gate.isValid()) {
@@ -172,14 +189,19 @@ public class GateDAO {
             }
             statement.setBoolean(4, gate.isAvailable());
             statement.setInt(5, gate.getCapacity());
-            statement.setInt(6, gate.getGateId());
+            statement.setString(6, gate.getStatus() != null ? gate.getStatus().name() : null); // Keeps the stored status if unset
+            statement.setInt(7, gate.getGateId());
+            statement.setInt(8, gate.getVersion());
 
             int rowsAffected = statement.executeUpdate();
             if (rowsAffected > 0) {
+                gate.setVersion(gate.getVersion() + 1);
                 return gate;
-            } else {
-                return null;
             }
+            if (gateExists(connection, gate.getGateId())) {
+                throw new OptimisticLockException("Gate", gate.getGateId(), gate.getVersion());
+            }
+            return null;
 
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error updating gate", e);
@@ -224,6 +246,109 @@ public class GateDAO {
         return gates;
     }
 
+    /**
+     * Finds all gate assignments whose estimated window overlaps the given range,
+     * ordered by gate and start time.
+     */
+    public List<GateAssignment> findAssignmentsForWindow(LocalDateTime start, LocalDateTime end) throws AeroDeskException {
+        List<GateAssignment> assignments = new ArrayList<>();
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(SELECT_ASSIGNMENTS_FOR_WINDOW)) {
+            statement.setTimestamp(1, Timestamp.valueOf(start));
+            statement.setTimestamp(2, Timestamp.valueOf(end));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    assignments.add(mapResultSetToAssignment(resultSet));
+                }
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error finding gate assignments for window", e);
+            throw new AeroDeskException("Failed to find gate assignments for window", e);
+        }
+        return assignments;
+    }
+
+    /**
+     * Finds a gate assignment by its ID, or null if there is none.
+     */
+    public GateAssignment findAssignmentById(int assignmentId) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(SELECT_ASSIGNMENT_BY_ID)) {
+            statement.setInt(1, assignmentId);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return mapResultSetToAssignment(resultSet);
+                }
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error finding gate assignment: " + assignmentId, e);
+            throw new AeroDeskException("Failed to find gate assignment", e);
+        }
+        return null;
+    }
+
+    /**
+     * Moves gate windows on the caller's connection, inside its transaction,
+     * if each still starts where the change expects.
+     *
+     * @throws OptimisticLockException for the first window moved meanwhile;
+     * the caller rolls back
+     */
+    void moveAssignmentWindows(Connection connection, List<DelayImpact.GateSlotChange> changes) throws SQLException, OptimisticLockException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(MOVE_ASSIGNMENT_WINDOW)) {
+            for (DelayImpact.GateSlotChange change : changes) {
+                statement.setTimestamp(1, Timestamp.valueOf(change.getNewStart()));
+                statement.setTimestamp(2, Timestamp.valueOf(change.getNewEnd()));
+                statement.setInt(3, change.getAssignmentId());
+                statement.setTimestamp(4, Timestamp.valueOf(change.getOldStart()));
+                statement.addBatch();
+            }
+            int[] counts = statement.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    throw new OptimisticLockException("Gate assignment", changes.get(i).getAssignmentId(),
+                            "start " + changes.get(i).getOldStart());
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to map a ResultSet to a GateAssignment object.
+     */
+    private GateAssignment mapResultSetToAssignment(ResultSet resultSet) throws SQLException {
+        GateAssignment assignment = new GateAssignment();
+        assignment.setAssignmentId(resultSet.getInt("assignment_id"));
+        assignment.setFlightId(resultSet.getInt("flight_id"));
+        assignment.setGateId(resultSet.getInt("gate_id"));
+        assignment.setAssignedAt(toLocalDateTime(resultSet.getTimestamp("assigned_at")));
+        assignment.setEstimatedStartTime(toLocalDateTime(resultSet.getTimestamp("estimated_start_time")));
+        assignment.setEstimatedEndTime(toLocalDateTime(resultSet.getTimestamp("estimated_end_time")));
+        assignment.setActualStartTime(toLocalDateTime(resultSet.getTimestamp("actual_start_time")));
+        assignment.setActualEndTime(toLocalDateTime(resultSet.getTimestamp("actual_end_time")));
+        assignment.setAssignmentStatus(resultSet.getString("assignment_status"));
+        assignment.setRemarks(resultSet.getString("remarks"));
+        return assignment;
+    }
+
+    private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private boolean gateExists(Connection connection, int gateId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_GATE_VERSION)) {
+            statement.setInt(1, gateId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
     /**
      * Helper method to map a ResultSet to a Gate object.
      */
@@ -248,9 +373,18 @@ public class GateDAO {
 
         gate.setAvailable(resultSet.getBoolean("is_available"));
         gate.setCapacity(resultSet.getInt("capacity"));
+        gate.setVersion(resultSet.getInt("version"));
 
-        // Optionally, you can also set the status and createdAt if needed.
-        // gate.setStatus(GateStatus.valueOf(resultSet.getString("status")));
+        // Read back so a full update writes the status it was given, not null
+        String statusStr = resultSet.getString("status");
+        if (statusStr != null) {
+            try {
+                gate.setStatus(GateStatus.valueOf(statusStr.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warning("Invalid gate status value: " + statusStr);
+            }
+        }
+        // Optionally, you can also set createdAt if needed.
         // gate.setCreatedAt(resultSet.getString("created_at"));
         return gate;
     }
@@ -11,7 +11,10 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Date;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -19,6 +22,7 @@ import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
 import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
 import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException.ErrorCategory;
 import com.gatorsoft.aerodeskpro.models.Passenger;
+import com.gatorsoft.aerodeskpro.utils.NameMatcher;
 
 /**
  * Data Access Object for Passenger entities. Handles all database operations
@@ -30,8 +34,9 @@ public class PassengerDAO {
 
     // SQL Queries
     private static final String INSERT_PASSENGER = "INSERT INTO passengers (first_name, last_name, passport_number, "
-            + "nationality, date_of_birth, gender, email, phone, frequent_flyer_number, created_at) "
-            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+            + "nationality, date_of_birth, gender, email, phone, frequent_flyer_number, created_at, "
+            + "first_name_key, last_name_key) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
     private static final String SELECT_ALL_PASSENGERS = "SELECT passenger_id, first_name, last_name, passport_number, "
             + "nationality, date_of_birth, gender, email, phone, frequent_flyer_number, created_at "
@@ -50,11 +55,47 @@ public class PassengerDAO {
             + "FROM passengers WHERE email = ?";
 
     private static final String UPDATE_PASSENGER = "UPDATE passengers SET first_name = ?, last_name = ?, passport_number = ?, "
-            + "nationality = ?, date_of_birth = ?, gender = ?, email = ?, phone = ?, frequent_flyer_number = ? "
+            + "nationality = ?, date_of_birth = ?, gender = ?, email = ?, phone = ?, frequent_flyer_number = ?, "
+            + "first_name_key = ?, last_name_key = ? "
             + "WHERE passenger_id = ?";
 
     private static final String DELETE_PASSENGER = "DELETE FROM passengers WHERE passenger_id = ?";
 
+    // Only what the name matcher compares; matches are then loaded with findByIds
+    private static final String SELECT_NAME_CANDIDATES_BY_KEYS = "SELECT passenger_id, first_name, last_name "
+            + "FROM passengers WHERE last_name_key = ? AND first_name_key = ?";
+
+    private static final String SELECT_NAME_CANDIDATES_BY_LAST_KEY = "SELECT passenger_id, first_name, last_name "
+            + "FROM passengers WHERE last_name_key = ?";
+
+    private static final String SELECT_PASSENGER_PAGE = "SELECT passenger_id, first_name, last_name, passport_number, "
+            + "nationality, date_of_birth, gender, email, phone, frequent_flyer_number, created_at "
+            + "FROM passengers WHERE passenger_id > ? ORDER BY passenger_id LIMIT ?";
+
+    // Offset is applied to the primary key only, then the full rows are joined in
+    private static final String SELECT_PASSENGER_PAGE_AT = "SELECT p.passenger_id, p.first_name, p.last_name, "
+            + "p.passport_number, p.nationality, p.date_of_birth, p.gender, p.email, p.phone, "
+            + "p.frequent_flyer_number, p.created_at FROM passengers p "
+            + "JOIN (SELECT passenger_id FROM passengers ORDER BY passenger_id LIMIT ?, ?) page "
+            + "ON page.passenger_id = p.passenger_id ORDER BY p.passenger_id";
+
+    private static final String COUNT_PASSENGERS = "SELECT COUNT(*) FROM passengers";
+
+    private static final String SELECT_MISSING_NAME_KEYS = "SELECT passenger_id, first_name, last_name "
+            + "FROM passengers WHERE passenger_id > ? AND last_name_key IS NULL ORDER BY passenger_id LIMIT ?";
+
+    private static final String UPSERT_PASSENGER = "INSERT INTO passengers (first_name, last_name, passport_number, "
+            + "nationality, date_of_birth, gender, email, phone, frequent_flyer_number, created_at, "
+            + "first_name_key, last_name_key) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE first_name = VALUES(first_name), last_name = VALUES(last_name), "
+            + "nationality = VALUES(nationality), date_of_birth = VALUES(date_of_birth), gender = VALUES(gender), "
+            + "email = VALUES(email), phone = VALUES(phone), frequent_flyer_number = VALUES(frequent_flyer_number), "
+            + "first_name_key = VALUES(first_name_key), last_name_key = VALUES(last_name_key)";
+
+    private static final String UPDATE_NAME_KEYS = "UPDATE passengers SET first_name_key = ?, last_name_key = ? "
+            + "WHERE passenger_id = ?";
+
     private static final String SEARCH_PASSENGERS = "SELECT passenger_id, first_name, last_name, passport_number, "
             + "nationality, date_of_birth, gender, email, phone, frequent_flyer_number, created_at "
             + "FROM passengers WHERE CONCAT(first_name, ' ', last_name) LIKE ? OR passport_number LIKE ? "
@@ -86,6 +127,8 @@ public class PassengerDAO {
             statement.setString(8, passenger.getPhone());
             statement.setString(9, passenger.getFrequentFlyerNumber());
             statement.setTimestamp(10, java.sql.Timestamp.valueOf(passenger.getCreatedAt()));
+            statement.setString(11, NameMatcher.phoneticKey(passenger.getFirstName()));
+            statement.setString(12, NameMatcher.phoneticKey(passenger.getLastName()));
 
             int rowsAffected = statement.executeUpdate();
 
@@ -262,7 +305,9 @@ public class PassengerDAO {
             statement.setString(7, passenger.getEmail());
             statement.setString(8, passenger.getPhone());
             statement.setString(9, passenger.getFrequentFlyerNumber());
-            statement.setInt(10, passenger.getPassengerId());
+            statement.setString(10, NameMatcher.phoneticKey(passenger.getFirstName()));
+            statement.setString(11, NameMatcher.phoneticKey(passenger.getLastName()));
+            statement.setInt(12, passenger.getPassengerId());
 
             int rowsAffected = statement.executeUpdate();
 
@@ -343,6 +388,330 @@ public class PassengerDAO {
         return passengers;
     }
 
+    /**
+     * Finds passengers whose names sound like the given ones, using the
+     * indexed phonetic keys; a null first name key matches on the last name
+     * only. Only the id and names are read. Callers verify the candidates by
+     * edit distance and load the ones they keep with {@link #findByIds}.
+     */
+    public List<Passenger> findNameCandidates(String lastNameKey, String firstNameKey) throws AeroDeskException {
+        List<Passenger> passengers = new ArrayList<>();
+        if (lastNameKey == null) {
+            return passengers;
+        }
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            if (firstNameKey != null) {
+                statement = connection.prepareStatement(SELECT_NAME_CANDIDATES_BY_KEYS);
+                statement.setString(2, firstNameKey);
+            } else {
+                statement = connection.prepareStatement(SELECT_NAME_CANDIDATES_BY_LAST_KEY);
+            }
+            statement.setString(1, lastNameKey);
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                Passenger passenger = new Passenger();
+                passenger.setPassengerId(resultSet.getInt("passenger_id"));
+                passenger.setFirstName(resultSet.getString("first_name"));
+                passenger.setLastName(resultSet.getString("last_name"));
+                passengers.add(passenger);
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error finding passengers by name key: " + lastNameKey + "/" + firstNameKey, e);
+            throw new AeroDeskException("Failed to find passengers by name key", e);
+        } finally {
+            closeResources(resultSet, statement, connection);
+        }
+
+        return passengers;
+    }
+
+    /**
+     * Computes phonetic name keys for rows created before the key columns
+     * existed. Walks the table in id order, one batch per transaction.
+     *
+     * @return number of rows updated
+     */
+    public int backfillNameKeys(int batchSize) throws AeroDeskException {
+        Connection connection = null;
+        PreparedStatement select = null;
+        PreparedStatement update = null;
+        ResultSet resultSet = null;
+        int updated = 0;
+        int lastId = 0;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            connection.setAutoCommit(false);
+            select = connection.prepareStatement(SELECT_MISSING_NAME_KEYS);
+            update = connection.prepareStatement(UPDATE_NAME_KEYS);
+
+            while (true) {
+                select.setInt(1, lastId);
+                select.setInt(2, batchSize);
+                resultSet = select.executeQuery();
+                int rows = 0;
+                while (resultSet.next()) {
+                    lastId = resultSet.getInt("passenger_id");
+                    update.setString(1, NameMatcher.phoneticKey(resultSet.getString("first_name")));
+                    update.setString(2, NameMatcher.phoneticKey(resultSet.getString("last_name")));
+                    update.setInt(3, lastId);
+                    update.addBatch();
+                    rows++;
+                }
+                resultSet.close();
+                if (rows == 0) {
+                    break;
+                }
+                update.executeBatch();
+                connection.commit();
+                updated += rows;
+            }
+
+            LOGGER.info("Backfilled name keys for " + updated + " passengers");
+
+        } catch (SQLException e) {
+            rollback(connection);
+            LOGGER.log(Level.SEVERE, "Error backfilling passenger name keys", e);
+            throw new AeroDeskException("Failed to backfill passenger name keys", e);
+        } finally {
+            closeResources(null, update, null);
+            closeResources(resultSet, select, connection);
+        }
+
+        return updated;
+    }
+
+    /**
+     * Reads one page of passengers in id order, starting after the given id.
+     * Keyset paging keeps every page an index range scan.
+     */
+    public List<Passenger> findPageAfter(int afterPassengerId, int pageSize) throws AeroDeskException {
+        List<Passenger> passengers = new ArrayList<>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            statement = connection.prepareStatement(SELECT_PASSENGER_PAGE);
+            statement.setInt(1, afterPassengerId);
+            statement.setInt(2, pageSize);
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                passengers.add(mapResultSetToPassenger(resultSet));
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error reading passenger page after ID: " + afterPassengerId, e);
+            throw new AeroDeskException("Failed to read passenger page", e);
+        } finally {
+            closeResources(resultSet, statement, connection);
+        }
+
+        return passengers;
+    }
+
+    /**
+     * Reads one page of passengers in id order, starting at a row offset. Used
+     * when the previous page is not known, so keyset paging is not possible.
+     */
+    public List<Passenger> findPageAt(int offset, int pageSize) throws AeroDeskException {
+        List<Passenger> passengers = new ArrayList<>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            statement = connection.prepareStatement(SELECT_PASSENGER_PAGE_AT);
+            statement.setInt(1, offset);
+            statement.setInt(2, pageSize);
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                passengers.add(mapResultSetToPassenger(resultSet));
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error reading passenger page at offset: " + offset, e);
+            throw new AeroDeskException("Failed to read passenger page", e);
+        } finally {
+            closeResources(resultSet, statement, connection);
+        }
+
+        return passengers;
+    }
+
+    public int countPassengers() throws AeroDeskException {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            statement = connection.prepareStatement(COUNT_PASSENGERS);
+            resultSet = statement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error counting passengers", e);
+            throw new AeroDeskException("Failed to count passengers", e);
+        } finally {
+            closeResources(resultSet, statement, connection);
+        }
+    }
+
+    /**
+     * Looks up which of the given passport numbers are already stored
+     *
+     * @return passenger id keyed by passport number, for the ones that exist
+     */
+    public Map<String, Integer> findIdsByPassports(Collection<String> passportNumbers) throws AeroDeskException {
+        Map<String, Integer> ids = new HashMap<>();
+        if (passportNumbers == null || passportNumbers.isEmpty()) {
+            return ids;
+        }
+
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < passportNumbers.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        String sql = "SELECT passenger_id, passport_number FROM passengers WHERE passport_number IN (" + placeholders + ")";
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            statement = connection.prepareStatement(sql);
+            int index = 1;
+            for (String passportNumber : passportNumbers) {
+                statement.setString(index++, passportNumber);
+            }
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                ids.put(resultSet.getString("passport_number"), resultSet.getInt("passenger_id"));
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error looking up passengers by passport numbers", e);
+            throw new AeroDeskException("Failed to look up passengers by passport numbers", e);
+        } finally {
+            closeResources(resultSet, statement, connection);
+        }
+
+        return ids;
+    }
+
+    /**
+     * Inserts or updates (matched on passport number) a batch of passengers
+     * in one transaction
+     */
+    public int upsertPassengers(List<Passenger> passengers) throws AeroDeskException {
+        if (passengers == null || passengers.isEmpty()) {
+            return 0;
+        }
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            connection.setAutoCommit(false);
+            statement = connection.prepareStatement(UPSERT_PASSENGER);
+
+            for (Passenger passenger : passengers) {
+                statement.setString(1, passenger.getFirstName());
+                statement.setString(2, passenger.getLastName());
+                statement.setString(3, passenger.getPassportNumber());
+                statement.setString(4, passenger.getNationality());
+                statement.setDate(5, passenger.getDateOfBirth() != null ? Date.valueOf(passenger.getDateOfBirth()) : null);
+                statement.setString(6, passenger.getGender() != null ? passenger.getGender().name() : null);
+                statement.setString(7, passenger.getEmail());
+                statement.setString(8, passenger.getPhone());
+                statement.setString(9, passenger.getFrequentFlyerNumber());
+                statement.setTimestamp(10, java.sql.Timestamp.valueOf(passenger.getCreatedAt()));
+                statement.setString(11, NameMatcher.phoneticKey(passenger.getFirstName()));
+                statement.setString(12, NameMatcher.phoneticKey(passenger.getLastName()));
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+            connection.commit();
+            LOGGER.info("Upserted " + passengers.size() + " passengers");
+            return passengers.size();
+
+        } catch (SQLException e) {
+            rollback(connection);
+            LOGGER.log(Level.SEVERE, "Error upserting batch of " + passengers.size() + " passengers", e);
+            throw new AeroDeskException("Failed to upsert passengers", e);
+        } finally {
+            closeResources(null, statement, connection);
+        }
+    }
+
+    /**
+     * Loads passengers by id, returned in the order of the given ids
+     */
+    public List<Passenger> findByIds(List<Integer> passengerIds) throws AeroDeskException {
+        List<Passenger> passengers = new ArrayList<>();
+        if (passengerIds == null || passengerIds.isEmpty()) {
+            return passengers;
+        }
+
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < passengerIds.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        String sql = "SELECT passenger_id, first_name, last_name, passport_number, "
+                + "nationality, date_of_birth, gender, email, phone, frequent_flyer_number, created_at "
+                + "FROM passengers WHERE passenger_id IN (" + placeholders + ")";
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = DatabaseConnection.getConnection();
+            statement = connection.prepareStatement(sql);
+            for (int i = 0; i < passengerIds.size(); i++) {
+                statement.setInt(i + 1, passengerIds.get(i));
+            }
+            resultSet = statement.executeQuery();
+
+            Map<Integer, Passenger> byId = new HashMap<>();
+            while (resultSet.next()) {
+                Passenger passenger = mapResultSetToPassenger(resultSet);
+                byId.put(passenger.getPassengerId(), passenger);
+            }
+            for (Integer passengerId : passengerIds) {
+                Passenger passenger = byId.get(passengerId);
+                if (passenger != null) {
+                    passengers.add(passenger);
+                }
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error finding passengers by IDs", e);
+            throw new AeroDeskException("Failed to find passengers by IDs", e);
+        } finally {
+            closeResources(resultSet, statement, connection);
+        }
+
+        return passengers;
+    }
+
     /**
      * Maps a ResultSet row to a Passenger object
      */
@@ -442,6 +811,19 @@ public class PassengerDAO {
         return passengers;
     }
 
+    /**
+     * Rolls back the current transaction, logging any failure
+     */
+    private void rollback(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Error rolling back transaction", e);
+            }
+        }
+    }
+
     /**
      * Closes database resources safely
      */
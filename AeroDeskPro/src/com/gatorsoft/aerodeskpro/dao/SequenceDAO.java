@@ -0,0 +1,72 @@
+package com.gatorsoft.aerodeskpro.dao;
+
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data Access Object for the sequence_blocks table.
+ */
+public class SequenceDAO {
+
+    private static final Logger LOGGER = Logger.getLogger(SequenceDAO.class.getName());
+
+    // LAST_INSERT_ID(expr) remembers the new value for this connection only
+    private static final String ADVANCE_SEQUENCE = "UPDATE sequence_blocks SET next_value = LAST_INSERT_ID(next_value + ?) "
+            + "WHERE sequence_name = ?";
+    private static final String SELECT_LAST_INSERT_ID = "SELECT LAST_INSERT_ID()";
+    private static final String INSERT_SEQUENCE = "INSERT IGNORE INTO sequence_blocks (sequence_name, next_value) VALUES (?, ?)";
+
+    /**
+     * Reserves the next block of values for a sequence, creating the sequence
+     * at the given start value if it does not exist yet.
+     *
+     * @return the first value of the block; the block is [first, first + size)
+     */
+    public long leaseBlock(String sequenceName, int size, long startValue) throws AeroDeskException {
+        if (size <= 0) {
+            throw new AeroDeskException("Sequence block size must be positive", AeroDeskException.ErrorCategory.VALIDATION_ERROR);
+        }
+        try {
+            Connection connection = DatabaseConnection.getConnection();
+            try (PreparedStatement advance = connection.prepareStatement(ADVANCE_SEQUENCE);
+                    PreparedStatement lastId = connection.prepareStatement(SELECT_LAST_INSERT_ID)) {
+
+                advance.setInt(1, size);
+                advance.setString(2, sequenceName);
+                if (advance.executeUpdate() == 0) {
+                    createSequence(connection, sequenceName, startValue);
+                    if (advance.executeUpdate() == 0) {
+                        throw new AeroDeskException("Sequence could not be created: " + sequenceName,
+                                AeroDeskException.ErrorCategory.DATABASE_ERROR);
+                    }
+                }
+                try (ResultSet resultSet = lastId.executeQuery()) {
+                    resultSet.next();
+                    long end = resultSet.getLong(1);
+                    LOGGER.log(Level.FINE, "Leased {0} values of {1} ending before {2}", new Object[]{size, sequenceName, end});
+                    return end - size;
+                }
+            } finally {
+                connection.close();
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error leasing block of sequence: " + sequenceName, e);
+            throw new AeroDeskException("Failed to lease sequence block", e);
+        }
+    }
+
+    private void createSequence(Connection connection, String sequenceName, long startValue) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SEQUENCE)) {
+            statement.setString(1, sequenceName);
+            statement.setLong(2, startValue);
+            statement.executeUpdate();
+        }
+    }
+}
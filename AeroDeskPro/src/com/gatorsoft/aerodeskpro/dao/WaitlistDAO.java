@@ -0,0 +1,180 @@
+package com.gatorsoft.aerodeskpro.dao;
+
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.entity.BookingClass;
+import com.gatorsoft.aerodeskpro.entity.FrequentFlyerTier;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.WaitlistEntry;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data Access Object for the booking_waitlist table.
+ */
+public class WaitlistDAO {
+
+    private static final Logger LOGGER = Logger.getLogger(WaitlistDAO.class.getName());
+
+    private static final String INSERT_ENTRY = "INSERT INTO booking_waitlist (flight_id, passenger_id, booking_class, ff_tier, requested_at, status) "
+            + "VALUES (?, ?, ?, ?, ?, 'WAITING')";
+    private static final String SELECT_WAITING_BY_FLIGHT = "SELECT waitlist_id, flight_id, passenger_id, booking_class, ff_tier, requested_at, status, booking_id "
+            + "FROM booking_waitlist WHERE flight_id = ? AND status = 'WAITING'";
+    // Claims a waiting entry; a second desk trying the same entry updates nothing
+    private static final String CLAIM_ENTRY = "UPDATE booking_waitlist SET status = 'PROMOTED', resolved_at = ? WHERE waitlist_id = ? AND status = 'WAITING'";
+    private static final String SET_BOOKING = "UPDATE booking_waitlist SET booking_id = ? WHERE waitlist_id = ?";
+    private static final String UNCLAIM_ENTRY = "UPDATE booking_waitlist SET status = 'WAITING', resolved_at = NULL WHERE waitlist_id = ? AND status = 'PROMOTED' AND booking_id IS NULL";
+    // A claim whose passenger has rejoined the list in the meantime is closed instead
+    private static final String DROP_CLAIM = "UPDATE booking_waitlist SET status = 'REMOVED' WHERE waitlist_id = ? AND status = 'PROMOTED' AND booking_id IS NULL";
+    private static final String REMOVE_ENTRY = "UPDATE booking_waitlist SET status = 'REMOVED', resolved_at = ? WHERE waitlist_id = ? AND status = 'WAITING'";
+
+    /**
+     * Adds a passenger to a flight's waitlist.
+     *
+     * @throws AeroDeskException with code ALREADY_WAITLISTED if the passenger
+     * is already waiting for the flight
+     */
+    public WaitlistEntry insert(WaitlistEntry entry) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(INSERT_ENTRY, Statement.RETURN_GENERATED_KEYS)) {
+
+            statement.setInt(1, entry.getFlightId());
+            statement.setInt(2, entry.getPassengerId());
+            statement.setString(3, entry.getBookingClass().name());
+            statement.setString(4, entry.getTier().name());
+            statement.setTimestamp(5, Timestamp.valueOf(entry.getRequestedAt()));
+            statement.executeUpdate();
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    entry.setWaitlistId(generatedKeys.getInt(1));
+                }
+            }
+            return entry;
+
+        } catch (SQLIntegrityConstraintViolationException e) {
+            throw new AeroDeskException("Passenger " + entry.getPassengerId() + " is already waiting for flight " + entry.getFlightId(),
+                    e, AeroDeskException.ErrorCategory.BUSINESS_RULE_VIOLATION, "ALREADY_WAITLISTED");
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error adding passenger " + entry.getPassengerId() + " to waitlist of flight " + entry.getFlightId(), e);
+            throw new AeroDeskException("Failed to add waitlist entry", e);
+        }
+    }
+
+    /**
+     * Entries of a flight that are still waiting, in no particular order.
+     */
+    public List<WaitlistEntry> findWaiting(int flightId) throws AeroDeskException {
+        List<WaitlistEntry> entries = new ArrayList<>();
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(SELECT_WAITING_BY_FLIGHT)) {
+
+            statement.setInt(1, flightId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    entries.add(mapResultSetToEntry(resultSet));
+                }
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error reading waitlist of flight: " + flightId, e);
+            throw new AeroDeskException("Failed to read waitlist", e);
+        }
+        return entries;
+    }
+
+    /**
+     * Moves a waiting entry to PROMOTED.
+     *
+     * @return false if the entry was no longer waiting
+     */
+    public boolean claim(int waitlistId) throws AeroDeskException {
+        return update(CLAIM_ENTRY, waitlistId, "claim");
+    }
+
+    /**
+     * Puts a claimed entry back to WAITING when its booking could not be
+     * created.
+     *
+     * @return false if the entry was not put back, including when the
+     * passenger has joined the list again since the claim
+     */
+    public boolean unclaim(int waitlistId) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(UNCLAIM_ENTRY)) {
+
+            statement.setInt(1, waitlistId);
+            try {
+                return statement.executeUpdate() > 0;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                try (PreparedStatement drop = connection.prepareStatement(DROP_CLAIM)) {
+                    drop.setInt(1, waitlistId);
+                    drop.executeUpdate();
+                }
+                return false;
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error releasing claim on waitlist entry: " + waitlistId, e);
+            throw new AeroDeskException("Failed to release waitlist entry", e);
+        }
+    }
+
+    /**
+     * Records the booking a promoted entry became.
+     */
+    public void setBooking(int waitlistId, int bookingId) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(SET_BOOKING)) {
+
+            statement.setInt(1, bookingId);
+            statement.setInt(2, waitlistId);
+            statement.executeUpdate();
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error linking waitlist entry " + waitlistId + " to booking " + bookingId, e);
+            throw new AeroDeskException("Failed to link waitlist entry to booking", e);
+        }
+    }
+
+    /**
+     * Takes a waiting entry off the list.
+     *
+     * @return false if the entry was no longer waiting
+     */
+    public boolean remove(int waitlistId) throws AeroDeskException {
+        return update(REMOVE_ENTRY, waitlistId, "remove");
+    }
+
+    private boolean update(String sql, int waitlistId, String action) throws AeroDeskException {
+        try (Connection connection = DatabaseConnection.getConnection(); PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            statement.setInt(2, waitlistId);
+            return statement.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error trying to " + action + " waitlist entry: " + waitlistId, e);
+            throw new AeroDeskException("Failed to " + action + " waitlist entry", e);
+        }
+    }
+
+    private WaitlistEntry mapResultSetToEntry(ResultSet resultSet) throws SQLException {
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setWaitlistId(resultSet.getInt("waitlist_id"));
+        entry.setFlightId(resultSet.getInt("flight_id"));
+        entry.setPassengerId(resultSet.getInt("passenger_id"));
+        String classString = resultSet.getString("booking_class");
+        entry.setBookingClass(classString != null ? BookingClass.valueOf(classString.toUpperCase()) : BookingClass.ECONOMY);
+        entry.setTier(FrequentFlyerTier.fromString(resultSet.getString("ff_tier")));
+        entry.setRequestedAt(resultSet.getTimestamp("requested_at").toLocalDateTime());
+        entry.setStatus(WaitlistEntry.Status.valueOf(resultSet.getString("status")));
+        int bookingId = resultSet.getInt("booking_id");
+        entry.setBookingId(resultSet.wasNull() ? null : bookingId);
+        return entry;
+    }
+}
@@ -6,13 +6,24 @@ import java.sql.SQLException;
 import java.util.Properties;
 import java.io.InputStream;
 
+/**
+ * Hands out one JDBC connection per thread. DAOs close the connection at the
+ * end of every call, so a single shared connection was being closed under
+ * the feet of whichever other thread was using it once background workers
+ * (simulators, scan writer, change tailer, index loaders) started issuing
+ * queries alongside the Swing thread. Each thread now opens its own
+ * connection on demand; threads started by the application run their body
+ * through {@link #closingOnExit(Runnable)} so the connection is closed and
+ * the slot cleared when the thread finishes.
+ */
 public class DatabaseConnection {
-    private static Connection connection;
+    private static final ThreadLocal<Connection> CONNECTION = new ThreadLocal<>();
     private static final String PROPERTIES_FILE = "db.properties";
 
     private DatabaseConnection() {}
 
     public static Connection getConnection() throws SQLException {
+        Connection connection = CONNECTION.get();
         if (connection == null || connection.isClosed()) {
             try (InputStream input = DatabaseConnection.class.getResourceAsStream(PROPERTIES_FILE)) {
                 Properties props = new Properties();
@@ -23,6 +34,7 @@ public class DatabaseConnection {
                 String password = props.getProperty("db.password");
 
                 connection = DriverManager.getConnection(url, username, password);
+                CONNECTION.set(connection);
             } catch (Exception e) {
                 throw new SQLException("Failed to create DB connection", e);
             }
@@ -31,12 +43,29 @@ public class DatabaseConnection {
     }
 
     public static void closeConnection() {
+        Connection connection = CONNECTION.get();
         try {
             if (connection != null && !connection.isClosed()) {
                 connection.close();
             }
         } catch (SQLException ex) {
             ex.printStackTrace();
+        } finally {
+            CONNECTION.remove();
         }
     }
+
+    /**
+     * Wraps a thread or pool-thread body so the calling thread's connection
+     * is closed when the body returns or fails.
+     */
+    public static Runnable closingOnExit(Runnable body) {
+        return () -> {
+            try {
+                body.run();
+            } finally {
+                closeConnection();
+            }
+        };
+    }
 }
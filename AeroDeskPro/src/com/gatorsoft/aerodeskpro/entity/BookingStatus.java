@@ -5,7 +5,7 @@
 package com.gatorsoft.aerodeskpro.entity;
 
    public enum BookingStatus {
-        CONFIRMED, CHECKED_IN, CANCELLED, NO_SHOW;
+        CONFIRMED, CHECKED_IN, BOARDED, CANCELLED, NO_SHOW;
 
         // Optional: Add a method to get BookingStatus by name
         public static BookingStatus fromString(String status) {
@@ -0,0 +1,46 @@
+package com.gatorsoft.aerodeskpro.entity;
+
+/**
+ * Where a bag travels on the aircraft, for load planning.
+ */
+public enum CargoHold {
+    FORWARD("forward"),
+    AFT("aft"),
+    BULK("bulk"),
+    CABIN("cabin");
+
+    private final String value;
+
+    CargoHold(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Default stowage: carry-on stays in the cabin, oversized and fragile
+     * items go to the hand-loaded bulk hold, and priority checked bags go
+     * forward so they come off first.
+     */
+    public static CargoHold forBaggage(BaggageType type, Priority priority) {
+        if (type == BaggageType.CARRY_ON) {
+            return CABIN;
+        }
+        if (type == BaggageType.OVERSIZED || type == BaggageType.FRAGILE) {
+            return BULK;
+        }
+        return priority == Priority.PRIORITY || priority == Priority.RUSH ? FORWARD : AFT;
+    }
+
+    public static CargoHold fromValue(String value) {
+        if (value == null) return AFT; // Default value
+        for (CargoHold hold : values()) {
+            if (hold.value.equals(value)) {
+                return hold;
+            }
+        }
+        throw new IllegalArgumentException("Unknown cargo hold: " + value);
+    }
+}
@@ -0,0 +1,15 @@
+package com.gatorsoft.aerodeskpro.entity;
+
+/**
+ * Frequent flyer status, lowest first.
+ */
+public enum FrequentFlyerTier {
+    NONE, SILVER, GOLD, PLATINUM;
+
+    public static FrequentFlyerTier fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return NONE;
+        }
+        return valueOf(value.trim().toUpperCase());
+    }
+}
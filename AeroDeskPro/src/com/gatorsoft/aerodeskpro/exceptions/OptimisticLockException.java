@@ -0,0 +1,47 @@
+package com.gatorsoft.aerodeskpro.exceptions;
+
+/**
+ * Thrown when a row changed between being read and being updated.
+ */
+public class OptimisticLockException extends AeroDeskException {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String ERROR_CODE = "VERSION_CONFLICT";
+
+    private final String entity;
+    private final int entityId;
+    private final int expectedVersion;
+
+    public OptimisticLockException(String entity, int entityId, int expectedVersion) {
+        super(entity + " " + entityId + " was changed by someone else (expected version " + expectedVersion + ")",
+                null, ErrorCategory.BUSINESS_RULE_VIOLATION, ERROR_CODE);
+        this.entity = entity;
+        this.entityId = entityId;
+        this.expectedVersion = expectedVersion;
+    }
+
+    /**
+     * For rows guarded by the value the writer expects rather than a
+     * version; the expected version is then -1.
+     */
+    public OptimisticLockException(String entity, int entityId, String expected) {
+        super(entity + " " + entityId + " was changed by someone else (expected " + expected + ")",
+                null, ErrorCategory.BUSINESS_RULE_VIOLATION, ERROR_CODE);
+        this.entity = entity;
+        this.entityId = entityId;
+        this.expectedVersion = -1;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public int getExpectedVersion() {
+        return expectedVersion;
+    }
+}
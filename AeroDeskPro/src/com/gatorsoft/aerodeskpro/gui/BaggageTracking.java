@@ -4,17 +4,119 @@
  */
 package com.gatorsoft.aerodeskpro.gui;
 
+import com.gatorsoft.aerodeskpro.dao.BaggageDAO;
+import com.gatorsoft.aerodeskpro.entity.BaggageStatus;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.gui.tables.BaggageTrackingTableModel;
+import com.gatorsoft.aerodeskpro.services.BaggageService;
+import com.gatorsoft.aerodeskpro.services.BaggageStatusIndex;
+import com.gatorsoft.aerodeskpro.threads.BaggageScanPipeline;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
 /**
  *
  * @author Oshan
  */
 public class BaggageTracking extends javax.swing.JPanel {
 
+    private static final String DESK_READER_ID = "DESK";
+    private static final Set<BaggageStatus> ALERT_STATUSES = EnumSet.of(BaggageStatus.LOST, BaggageStatus.DELAYED);
+
+    private final BaggageTrackingTableModel trackingModel;
+    private final BaggageService baggageService = new BaggageService();
+    // Bags that turned lost or delayed since the last alert, latest status per tag
+    private final Map<String, BaggageStatus> pendingAlerts = new ConcurrentHashMap<>();
+    private final AtomicBoolean alertQueued = new AtomicBoolean();
+    private final BaggageStatusIndex.Listener exceptionAlerts = (baggage, previousStatus) -> {
+        pendingAlerts.put(baggage.getBaggageTag(), baggage.getStatus());
+        if (alertQueued.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::showExceptionAlerts);
+        }
+    };
+
     /**
      * Creates new form BaggageTracking
      */
     public BaggageTracking() {
         initComponents();
+        trackingModel = new BaggageTrackingTableModel(BaggageScanPipeline.getInstance(), BaggageStatusIndex.getInstance(),
+                new BaggageDAO());
+        jTable1.setModel(trackingModel);
+        jComboBox2.setModel(new DefaultComboBoxModel<>(statusNames()));
+    }
+
+    private static String[] statusNames() {
+        BaggageStatus[] statuses = BaggageStatus.values();
+        String[] names = new String[statuses.length];
+        for (int i = 0; i < statuses.length; i++) {
+            names[i] = statuses[i].name();
+        }
+        return names;
+    }
+
+    /**
+     * Records a scan keyed in at the desk (tag in the search field) through
+     * the same pipeline as the sortation readers.
+     */
+    private void recordDeskScan() {
+        String readerId = jTextField21.getText().trim();
+        try {
+            boolean accepted = baggageService.recordScan(jTextField17.getText(), jTextField7.getText(),
+                    BaggageStatus.valueOf((String) jComboBox2.getSelectedItem()),
+                    readerId.isEmpty() ? DESK_READER_ID : readerId);
+            if (!accepted) {
+                JOptionPane.showMessageDialog(this, "Scanner queue is full, try again shortly.");
+            }
+        } catch (AeroDeskException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage());
+        }
+    }
+
+    /**
+     * Shows the bags that turned lost or delayed, one dialog for all that
+     * arrived meanwhile rather than one per bag.
+     */
+    private void showExceptionAlerts() {
+        while (!pendingAlerts.isEmpty()) {
+            List<String> lines = new ArrayList<>();
+            for (String tag : new ArrayList<>(pendingAlerts.keySet())) {
+                BaggageStatus status = pendingAlerts.remove(tag);
+                if (status != null) {
+                    lines.add(tag + " - " + status.name());
+                }
+            }
+            JOptionPane.showMessageDialog(this, "Baggage needs attention:\n" + String.join("\n", lines),
+                    "Baggage alert", JOptionPane.WARNING_MESSAGE);
+        }
+        alertQueued.set(false);
+        // An alert that arrived after the loop but before the flag was cleared
+        if (!pendingAlerts.isEmpty() && alertQueued.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::showExceptionAlerts);
+        }
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        trackingModel.start();
+        baggageService.subscribeToStatus(ALERT_STATUSES, exceptionAlerts);
+    }
+
+    @Override
+    public void removeNotify() {
+        baggageService.unsubscribeFromStatus(exceptionAlerts);
+        pendingAlerts.clear();
+        trackingModel.stop();
+        super.removeNotify();
     }
 
     /**
@@ -383,7 +485,7 @@ public class BaggageTracking extends javax.swing.JPanel {
     }//GEN-LAST:event_jTextField20ActionPerformed
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
-        // TODO add your handling code here:
+        recordDeskScan();
     }//GEN-LAST:event_jButton1ActionPerformed
 
     private void jTextField19ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jTextField19ActionPerformed
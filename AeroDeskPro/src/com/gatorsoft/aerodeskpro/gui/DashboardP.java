@@ -4,17 +4,90 @@
  */
 package com.gatorsoft.aerodeskpro.gui;
 
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.models.OperationalSnapshot;
+import com.gatorsoft.aerodeskpro.services.BaggageService;
+import com.gatorsoft.aerodeskpro.services.BookingService;
+import com.gatorsoft.aerodeskpro.services.FlightService;
+import com.gatorsoft.aerodeskpro.services.OperationalCounters;
+import com.gatorsoft.aerodeskpro.services.OperationalCounters.Metric;
+import java.time.format.DateTimeFormatter;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.Timer;
+
 /**
  *
  * @author Oshan
  */
 public class DashboardP extends javax.swing.JPanel {
 
+    private static final Logger LOGGER = Logger.getLogger(DashboardP.class.getName());
+    private static final int REFRESH_MILLIS = 1000;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("h.mm a");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("M/d/yyyy");
+
+    private final Timer kpiTimer;
+
     /**
      * Creates new form DashboardP
      */
     public DashboardP() {
         initComponents();
+        kpiTimer = new Timer(REFRESH_MILLIS, e -> {
+            refreshKpis();
+            seedCountersInBackground();
+        });
+        seedCountersInBackground();
+        refreshKpis();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        kpiTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        kpiTimer.stop();
+        super.removeNotify();
+    }
+
+    /**
+     * Renders the live KPIs from a counter snapshot; no database access.
+     */
+    private void refreshKpis() {
+        OperationalSnapshot snapshot = OperationalCounters.getInstance().snapshot();
+        jLabel9.setText(snapshot.getTakenAt().format(TIME_FORMAT));
+        jLabel10.setText(snapshot.getTakenAt().format(DATE_FORMAT));
+        jLabel3.setText("Active flights: " + snapshot.getActiveFlights());
+        jLabel4.setText("Delayed (24h): " + snapshot.getLast24Hours(Metric.FLIGHTS_DELAYED));
+        jLabel6.setText("Check-ins (1h): " + snapshot.getCurrentHour(Metric.CHECK_INS));
+        jLabel7.setText("Bags (24h): " + snapshot.getLast24Hours(Metric.BAGS_REGISTERED));
+    }
+
+    /**
+     * Counts flights, bookings and bags by status once to initialise the
+     * status gauges, retrying on the timer until it succeeds. Runs off the
+     * EDT; changes made afterwards come from the services.
+     */
+    private void seedCountersInBackground() {
+        OperationalCounters counters = OperationalCounters.getInstance();
+        if (!counters.needsSeed()) {
+            return;
+        }
+        Thread seeder = new Thread(DatabaseConnection.closingOnExit(() -> {
+            try {
+                counters.seed(new FlightService()::getFlightCountsByStatus,
+                        new BookingService()::getBookingCountsByStatus,
+                        new BaggageService()::getBaggageCountsByStatus);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Could not seed dashboard counters", e);
+            }
+        }), "dashboard-seed");
+        seeder.setDaemon(true);
+        seeder.start();
     }
 
     /**
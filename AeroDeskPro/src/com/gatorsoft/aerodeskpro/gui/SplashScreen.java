@@ -2,6 +2,8 @@
 package com.gatorsoft.aerodeskpro.gui;
 
 import com.formdev.flatlaf.FlatIntelliJLaf;
+import com.gatorsoft.aerodeskpro.dao.PassengerDAO;
+import com.gatorsoft.aerodeskpro.services.PassengerService;
 
 public class SplashScreen extends javax.swing.JFrame {
 
@@ -19,6 +21,8 @@ public class SplashScreen extends javax.swing.JFrame {
         Thread t = new Thread(new Runnable() {
             @Override
             public void run() {
+                // Loads while the splash and sign-in are shown, so the first search is served from memory
+                new PassengerService(new PassengerDAO()).warmSearchIndex();
                 for (int i = 0; i <= 100; i++) {
                     if (i > 10 && i < 30) {
                         jLabel1.setText("Starting modules " + i + " %");
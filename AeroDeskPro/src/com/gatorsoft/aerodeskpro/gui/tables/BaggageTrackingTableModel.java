@@ -0,0 +1,300 @@
+package com.gatorsoft.aerodeskpro.gui.tables;
+
+import com.gatorsoft.aerodeskpro.dao.BaggageDAO;
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.entity.BaggageStatus;
+import com.gatorsoft.aerodeskpro.models.Baggage;
+import com.gatorsoft.aerodeskpro.models.BaggageScan;
+import com.gatorsoft.aerodeskpro.services.BaggageStatusIndex;
+import com.gatorsoft.aerodeskpro.threads.BaggageScanPipeline;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Live table of where each bag was last seen, fed by the scan pipeline and
+ * baggage status changes. On start it is seeded in the background with
+ * every bag not yet delivered, from the baggage status index.
+ *
+ * Events arrive on background threads and are merged per tag into a pending
+ * map, so a bag scanned many times in one frame costs one entry. A Swing
+ * timer drains the map once per frame on the event dispatch thread and fires
+ * one inserted and one updated event for the whole batch, so the table
+ * repaints at most once per frame however fast scans arrive.
+ *
+ * Rows are touched on the event dispatch thread only.
+ */
+public class BaggageTrackingTableModel extends AbstractTableModel
+        implements BaggageScanPipeline.Listener, BaggageStatusIndex.Listener {
+
+    private static final Logger LOGGER = Logger.getLogger(BaggageTrackingTableModel.class.getName());
+
+    private static final int FRAME_MILLIS = 250;
+    private static final int MAX_ROWS = 5_000;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private static final String[] COLUMN_NAMES = {
+        "Baggage Tag", "Location", "Status", "Scanner", "Last Seen", "Scans"
+    };
+
+    private final BaggageScanPipeline scanPipeline;
+    private final BaggageStatusIndex statusIndex;
+    private final BaggageDAO baggageDAO;
+    private final Map<String, Update> pending = new ConcurrentHashMap<>();
+    private final Timer frameTimer;
+    private volatile boolean started;
+
+    private final List<Row> rows = new ArrayList<>();
+    private final Map<String, Integer> rowByTag = new HashMap<>();
+
+    public BaggageTrackingTableModel(BaggageScanPipeline scanPipeline, BaggageStatusIndex statusIndex, BaggageDAO baggageDAO) {
+        this.scanPipeline = scanPipeline;
+        this.statusIndex = statusIndex;
+        this.baggageDAO = baggageDAO;
+        this.frameTimer = new Timer(FRAME_MILLIS, e -> applyPending());
+        this.frameTimer.setCoalesce(true);
+    }
+
+    /**
+     * Starts listening; call when the table is shown.
+     */
+    public void start() {
+        started = true;
+        scanPipeline.addListener(this);
+        // Scans come from the pipeline, so this process's status changes are enough; no polling
+        statusIndex.subscribeLocal(EnumSet.allOf(BaggageStatus.class), this);
+        frameTimer.start();
+        Thread seeder = new Thread(DatabaseConnection.closingOnExit(this::seed), "baggage-tracking-seed");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
+    /**
+     * Stops listening and drops updates not yet shown.
+     */
+    public void stop() {
+        started = false;
+        frameTimer.stop();
+        scanPipeline.removeListener(this);
+        statusIndex.unsubscribe(this);
+        pending.clear();
+    }
+
+    // ===== EVENTS (any thread) =====
+
+    /**
+     * Adds the bags already in the system; an event merged in meanwhile is
+     * newer and wins.
+     */
+    private void seed() {
+        try {
+            for (Baggage baggage : statusIndex.getAll(baggageDAO)) {
+                if (!started) {
+                    return;
+                }
+                LocalDateTime seenAt = baggage.getUpdatedAt() != null ? baggage.getUpdatedAt()
+                        : baggage.getCreatedAt() != null ? baggage.getCreatedAt() : LocalDateTime.now();
+                pending.merge(baggage.getBaggageTag(),
+                        new Update(baggage.getCurrentLocation(), baggage.getStatus(), null, seenAt, 0),
+                        Update::merge);
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Could not load bags for the tracking table", e);
+        }
+    }
+
+    @Override
+    public void onScans(Collection<BaggageScan> latest) {
+        for (BaggageScan scan : latest) {
+            pending.merge(scan.getBaggageTag(),
+                    new Update(scan.getLocation(), scan.getStatus(), scan.getReaderId(), scan.getScannedAt(), 1),
+                    Update::merge);
+        }
+    }
+
+    // Not a scan: a status set by a scan already came through onScans
+    @Override
+    public void onStatusChange(Baggage baggage, BaggageStatus previousStatus) {
+        pending.merge(baggage.getBaggageTag(),
+                new Update(baggage.getCurrentLocation(), baggage.getStatus(), null, LocalDateTime.now(), 0),
+                Update::merge);
+    }
+
+    // ===== FRAME (event dispatch thread) =====
+
+    private void applyPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        int firstUpdated = Integer.MAX_VALUE;
+        int lastUpdated = -1;
+        int firstInserted = rows.size();
+
+        Iterator<Map.Entry<String, Update>> entries = pending.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, Update> entry = entries.next();
+            // Removing by value keeps an update merged in meanwhile for the next frame
+            if (!pending.remove(entry.getKey(), entry.getValue())) {
+                continue;
+            }
+            Integer index = rowByTag.get(entry.getKey());
+            if (index == null) {
+                rowByTag.put(entry.getKey(), rows.size());
+                rows.add(new Row(entry.getKey(), entry.getValue()));
+            } else {
+                rows.get(index).apply(entry.getValue());
+                if (index < firstInserted) {
+                    firstUpdated = Math.min(firstUpdated, index);
+                    lastUpdated = Math.max(lastUpdated, index);
+                }
+            }
+        }
+
+        if (rows.size() > MAX_ROWS) {
+            trimOldest();
+            fireTableDataChanged();
+            return;
+        }
+        if (lastUpdated >= 0) {
+            fireTableRowsUpdated(firstUpdated, lastUpdated);
+        }
+        if (rows.size() > firstInserted) {
+            fireTableRowsInserted(firstInserted, rows.size() - 1);
+        }
+    }
+
+    /**
+     * Keeps the most recently seen rows, in their current order.
+     */
+    private void trimOldest() {
+        List<Row> byLastSeen = new ArrayList<>(rows);
+        byLastSeen.sort((a, b) -> b.lastSeen.compareTo(a.lastSeen));
+        LocalDateTime cutoff = byLastSeen.get(MAX_ROWS - 1).lastSeen;
+        rows.removeIf(row -> row.lastSeen.isBefore(cutoff));
+        rowByTag.clear();
+        for (int i = 0; i < rows.size(); i++) {
+            rowByTag.put(rows.get(i).baggageTag, i);
+        }
+    }
+
+    // ===== TABLE MODEL =====
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 5 ? Integer.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Row row = rows.get(rowIndex);
+        switch (columnIndex) {
+            case 0:
+                return row.baggageTag;
+            case 1:
+                return row.location;
+            case 2:
+                return row.status != null ? row.status.name() : null;
+            case 3:
+                return row.readerId;
+            case 4:
+                return row.lastSeen.format(TIME_FORMAT);
+            case 5:
+                return row.scans;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * What is known about a bag from the events of one frame, and how many
+     * of them were scans.
+     */
+    private static final class Update {
+        final String location;
+        final BaggageStatus status;
+        final String readerId;
+        final LocalDateTime seenAt;
+        final int scans;
+
+        Update(String location, BaggageStatus status, String readerId, LocalDateTime seenAt, int scans) {
+            this.location = location;
+            this.status = status;
+            this.readerId = readerId;
+            this.seenAt = seenAt;
+            this.scans = scans;
+        }
+
+        /**
+         * The later event wins; a field it leaves empty keeps the earlier value.
+         */
+        static Update merge(Update earlier, Update later) {
+            if (later.seenAt.isBefore(earlier.seenAt)) {
+                Update swap = earlier;
+                earlier = later;
+                later = swap;
+            }
+            return new Update(
+                    later.location != null ? later.location : earlier.location,
+                    later.status != null ? later.status : earlier.status,
+                    later.readerId != null ? later.readerId : earlier.readerId,
+                    later.seenAt,
+                    earlier.scans + later.scans);
+        }
+    }
+
+    private static final class Row {
+        final String baggageTag;
+        String location;
+        BaggageStatus status;
+        String readerId;
+        LocalDateTime lastSeen;
+        int scans;
+
+        Row(String baggageTag, Update update) {
+            this.baggageTag = baggageTag;
+            apply(update);
+        }
+
+        void apply(Update update) {
+            if (update.location != null) {
+                location = update.location;
+            }
+            if (update.status != null) {
+                status = update.status;
+            }
+            if (update.readerId != null) {
+                readerId = update.readerId;
+            }
+            if (lastSeen == null || update.seenAt.isAfter(lastSeen)) {
+                lastSeen = update.seenAt;
+            }
+            scans += update.scans;
+        }
+    }
+}
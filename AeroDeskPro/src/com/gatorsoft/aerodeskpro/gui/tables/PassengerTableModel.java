@@ -0,0 +1,234 @@
+package com.gatorsoft.aerodeskpro.gui.tables;
+
+import com.gatorsoft.aerodeskpro.dao.PassengerDAO;
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.Passenger;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Passenger table model that only holds the rows near the viewport. The row
+ * count is read once; rows are fetched in fixed-size blocks on a background
+ * thread the first time the table paints them, and a small LRU of blocks is
+ * kept. Rows not loaded yet render as empty until their block arrives.
+ *
+ * All cache state is touched on the event dispatch thread only.
+ */
+public class PassengerTableModel extends AbstractTableModel {
+
+    private static final Logger LOGGER = Logger.getLogger(PassengerTableModel.class.getName());
+
+    private static final int BLOCK_SIZE = 200;
+    private static final int MAX_CACHED_BLOCKS = 32;
+    // Requests beyond this are dropped, oldest first, when scrolling fast
+    private static final int MAX_QUEUED_BLOCKS = 8;
+
+    private static final String[] COLUMN_NAMES = {
+        "Passenger ID", "First Name", "Last Name", "Email", "Passport Number", "Date of Birth", "Phone Number", "Gender", "Nationality", "Created At"
+    };
+
+    private final PassengerDAO passengerDAO;
+    private final ThreadPoolExecutor loader;
+    private final Set<Integer> requested = ConcurrentHashMap.newKeySet();
+
+    private final LinkedHashMap<Integer, List<Passenger>> blocks = new LinkedHashMap<>(16, 0.75f, true);
+    // Last passenger id of each loaded block, so the next block can be read by key
+    private final Map<Integer, Integer> blockLastIds = new HashMap<>();
+    private int rowCount;
+    private int generation;
+
+    public PassengerTableModel(PassengerDAO passengerDAO) {
+        this.passengerDAO = passengerDAO;
+        // Newest request first: the block just scrolled to matters more than ones already passed
+        LinkedBlockingDeque<Runnable> queue = new LinkedBlockingDeque<Runnable>() {
+            @Override
+            public boolean offer(Runnable task) {
+                return offerFirst(task);
+            }
+        };
+        this.loader = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(DatabaseConnection.closingOnExit(runnable), "passenger-table-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads the row count in the background and clears loaded rows. Call on
+     * the event dispatch thread.
+     */
+    public void refresh() {
+        int current = ++generation;
+        blocks.clear();
+        blockLastIds.clear();
+        requested.clear();
+        loader.getQueue().clear();
+        loader.execute(() -> {
+            try {
+                int count = passengerDAO.countPassengers();
+                SwingUtilities.invokeLater(() -> {
+                    if (current == generation) {
+                        rowCount = count;
+                        fireTableDataChanged();
+                    }
+                });
+            } catch (AeroDeskException e) {
+                LOGGER.log(Level.WARNING, "Could not count passengers", e);
+            }
+        });
+    }
+
+    /**
+     * Stops the loader thread; the model shows no new rows afterwards.
+     */
+    public void close() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * The passenger at a row, or null when its block has not loaded yet.
+     */
+    public Passenger getPassengerAt(int rowIndex) {
+        int block = rowIndex / BLOCK_SIZE;
+        List<Passenger> rows = blocks.get(block);
+        if (rows == null) {
+            requestBlock(block);
+            return null;
+        }
+        int offset = rowIndex % BLOCK_SIZE;
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return columnIndex == 0 ? Integer.class : Object.class;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Passenger passenger = getPassengerAt(rowIndex);
+        if (passenger == null) {
+            return null;
+        }
+        switch (columnIndex) {
+            case 0:
+                return passenger.getPassengerId();
+            case 1:
+                return passenger.getFirstName();
+            case 2:
+                return passenger.getLastName();
+            case 3:
+                return passenger.getEmail();
+            case 4:
+                return passenger.getPassportNumber();
+            case 5:
+                return passenger.getDateOfBirth();
+            case 6:
+                return passenger.getPhoneNumber();
+            case 7:
+                return passenger.getGender();
+            case 8:
+                return passenger.getNationality();
+            case 9:
+                return passenger.getCreatedAt();
+            default:
+                return null;
+        }
+    }
+
+    // ===== BLOCK LOADING =====
+
+    private void requestBlock(int block) {
+        if (loader.isShutdown() || !requested.add(block)) {
+            return;
+        }
+        Integer previousLastId = blockLastIds.get(block - 1);
+        int current = generation;
+        loader.execute(new BlockTask(block, () -> loadBlock(block, previousLastId, current)));
+
+        // Drop the oldest queued requests; they are re-requested if still visible
+        while (loader.getQueue().size() > MAX_QUEUED_BLOCKS) {
+            Runnable stale = ((LinkedBlockingDeque<Runnable>) loader.getQueue()).pollLast();
+            if (stale instanceof BlockTask) {
+                requested.remove(((BlockTask) stale).block);
+            }
+        }
+    }
+
+    private void loadBlock(int block, Integer previousLastId, int requestGeneration) {
+        try {
+            List<Passenger> rows = previousLastId != null
+                    ? passengerDAO.findPageAfter(previousLastId, BLOCK_SIZE)
+                    : passengerDAO.findPageAt(block * BLOCK_SIZE, BLOCK_SIZE);
+            SwingUtilities.invokeLater(() -> storeBlock(block, rows, requestGeneration));
+        } catch (AeroDeskException e) {
+            // Left in the requested set so a failing database is not retried on every repaint
+            LOGGER.log(Level.WARNING, "Could not load passenger rows from " + block * BLOCK_SIZE, e);
+        }
+    }
+
+    private void storeBlock(int block, List<Passenger> rows, int requestGeneration) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        blocks.put(block, rows);
+        if (!rows.isEmpty()) {
+            blockLastIds.put(block, rows.get(rows.size() - 1).getPassengerId());
+        }
+        while (blocks.size() > MAX_CACHED_BLOCKS) {
+            Integer eldest = blocks.keySet().iterator().next();
+            blocks.remove(eldest);
+            requested.remove(eldest);
+        }
+        int first = block * BLOCK_SIZE;
+        int last = Math.min(rowCount, first + BLOCK_SIZE) - 1;
+        if (last >= first) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+
+    /**
+     * Queued block load, tagged so a dropped request can be forgotten.
+     */
+    private static class BlockTask implements Runnable {
+        private final int block;
+        private final Runnable work;
+
+        BlockTask(int block, Runnable work) {
+            this.block = block;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            work.run();
+        }
+    }
+}
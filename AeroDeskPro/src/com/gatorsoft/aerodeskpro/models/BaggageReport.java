@@ -1,6 +1,9 @@
 package com.gatorsoft.aerodeskpro.models;
 
+import com.gatorsoft.aerodeskpro.entity.BaggageStatus;
 import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
 
 public class BaggageReport {
 
@@ -9,6 +12,7 @@ public class BaggageReport {
     private BigDecimal totalWeight;    // Total weight of all baggage
     private int lostBaggage;           // Number of lost baggage items
     private int delayedBaggage;        // Number of delayed baggage items
+    private Map<BaggageStatus, Integer> statusCounts = new EnumMap<>(BaggageStatus.class); // Items per current status
 
     // Constructor to initialize the baggage report with required data
     public BaggageReport(int totalBaggage, BigDecimal totalWeight, int lostBaggage, int delayedBaggage) {
@@ -51,6 +55,19 @@ public class BaggageReport {
         this.delayedBaggage = delayedBaggage;
     }
 
+    public Map<BaggageStatus, Integer> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public void setStatusCounts(Map<BaggageStatus, Integer> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+
+    // Number of items currently in the given status
+    public int getStatusCount(BaggageStatus status) {
+        return statusCounts.getOrDefault(status, 0);
+    }
+
     // Method to generate a formatted string summary of the baggage report
     public String generateReportSummary() {
         StringBuilder summary = new StringBuilder();
@@ -59,6 +76,9 @@ public class BaggageReport {
                .append("Total Weight: ").append(totalWeight != null ? totalWeight : "N/A").append("\n")
                .append("Lost Baggage: ").append(lostBaggage).append("\n")
                .append("Delayed Baggage: ").append(delayedBaggage).append("\n");
+        for (Map.Entry<BaggageStatus, Integer> entry : statusCounts.entrySet()) {
+            summary.append("  ").append(entry.getKey().name()).append(": ").append(entry.getValue()).append("\n");
+        }
         return summary.toString();
     }
 
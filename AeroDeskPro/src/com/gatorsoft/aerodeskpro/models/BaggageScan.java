@@ -0,0 +1,61 @@
+package com.gatorsoft.aerodeskpro.models;
+
+import com.gatorsoft.aerodeskpro.entity.BaggageStatus;
+import java.time.LocalDateTime;
+
+/**
+ * One read of a bag tag by a scanner. The status is null when the scan only
+ * reports where the bag is.
+ */
+public final class BaggageScan {
+
+    private final String baggageTag;
+    private final String location;
+    private final BaggageStatus status;
+    private final String readerId;
+    private final LocalDateTime scannedAt;
+
+    public BaggageScan(String baggageTag, String location, BaggageStatus status, String readerId, LocalDateTime scannedAt) {
+        this.baggageTag = baggageTag;
+        this.location = location;
+        this.status = status;
+        this.readerId = readerId;
+        this.scannedAt = scannedAt;
+    }
+
+    public String getBaggageTag() {
+        return baggageTag;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public BaggageStatus getStatus() {
+        return status;
+    }
+
+    public String getReaderId() {
+        return readerId;
+    }
+
+    public LocalDateTime getScannedAt() {
+        return scannedAt;
+    }
+
+    /**
+     * Whether this scan says the same thing about the bag as another one.
+     */
+    public boolean sameReading(BaggageScan other) {
+        return other != null
+                && baggageTag.equals(other.baggageTag)
+                && location.equals(other.location)
+                && status == other.status;
+    }
+
+    @Override
+    public String toString() {
+        return "BaggageScan{" + "tag=" + baggageTag + ", location=" + location + ", status=" + status
+                + ", reader=" + readerId + ", at=" + scannedAt + '}';
+    }
+}
@@ -1,5 +1,6 @@
 package com.gatorsoft.aerodeskpro.models;
 
+import com.gatorsoft.aerodeskpro.entity.BookingClass;
 import com.gatorsoft.aerodeskpro.models.Booking;
 import java.time.LocalDateTime;
 
@@ -13,6 +14,16 @@ public class BoardingPass {
     private LocalDateTime boardingTime;
     private String gate;
     private String flightDetails;
+    private String flightNumber;
+    private String origin;
+    private String destination;
+    private LocalDateTime departureTime;
+    private BookingClass bookingClass;
+    private int sequenceNumber;
+    private String barcodeData;
+
+    public BoardingPass() {
+    }
 
     // Constructor to generate Boarding Pass from Booking
     public BoardingPass(Booking booking) {
@@ -95,6 +106,68 @@ public class BoardingPass {
         this.flightDetails = flightDetails;
     }
 
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public void setFlightNumber(String flightNumber) {
+        this.flightNumber = flightNumber;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public LocalDateTime getDepartureTime() {
+        return departureTime;
+    }
+
+    public void setDepartureTime(LocalDateTime departureTime) {
+        this.departureTime = departureTime;
+    }
+
+    public BookingClass getBookingClass() {
+        return bookingClass;
+    }
+
+    public void setBookingClass(BookingClass bookingClass) {
+        this.bookingClass = bookingClass;
+    }
+
+    /**
+     * Check-in sequence number of the passenger on the flight.
+     */
+    public int getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public void setSequenceNumber(int sequenceNumber) {
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    /**
+     * IATA BCBP string to print as the PDF417 barcode.
+     */
+    public String getBarcodeData() {
+        return barcodeData;
+    }
+
+    public void setBarcodeData(String barcodeData) {
+        this.barcodeData = barcodeData;
+    }
+
     // Method to display boarding pass details
     public String displayBoardingPass() {
         return "Boarding Pass: \n" +
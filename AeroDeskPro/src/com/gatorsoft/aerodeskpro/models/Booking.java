@@ -156,6 +156,7 @@ public class Booking {
         this.createdAt = createdAt;
     }
     private LocalDateTime updatedAt;
+    private int version;
 
 // Getter and Setter for updatedAt
     public LocalDateTime getUpdatedAt() {
@@ -165,6 +166,18 @@ public class Booking {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    /**
+     * Row version read from the database; updates only apply while it is
+     * unchanged.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
     // ===== Utility Methods =====
 
     /**
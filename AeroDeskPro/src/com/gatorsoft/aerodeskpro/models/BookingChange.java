@@ -0,0 +1,62 @@
+package com.gatorsoft.aerodeskpro.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * One recorded change to a booking, as kept in booking_outbox. The before
+ * image is null for an insert and the after image is null for a delete.
+ */
+public class BookingChange {
+
+    public enum Operation {
+        INSERT, UPDATE, DELETE
+    }
+
+    private final long outboxId;
+    private final int bookingId;
+    private final Operation operation;
+    private final Booking before;
+    private final Booking after;
+    private final LocalDateTime recordedAt;
+
+    public BookingChange(long outboxId, int bookingId, Operation operation, Booking before, Booking after, LocalDateTime recordedAt) {
+        this.outboxId = outboxId;
+        this.bookingId = bookingId;
+        this.operation = operation;
+        this.before = before;
+        this.after = after;
+        this.recordedAt = recordedAt;
+    }
+
+    /**
+     * Position in the stream; changes are published in this order.
+     */
+    public long getOutboxId() {
+        return outboxId;
+    }
+
+    public int getBookingId() {
+        return bookingId;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public Booking getBefore() {
+        return before;
+    }
+
+    public Booking getAfter() {
+        return after;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "BookingChange{" + "outboxId=" + outboxId + ", bookingId=" + bookingId + ", operation=" + operation + '}';
+    }
+}
@@ -0,0 +1,224 @@
+package com.gatorsoft.aerodeskpro.models;
+
+import com.gatorsoft.aerodeskpro.entity.BookingClass;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Seat plan of an aircraft cabin: which rows belong to which class and the
+ * seat letters in each row. Seats are numbered by a flat index, front to
+ * back and left to right, so a seat map can keep one atomic word per seat
+ * saying who holds it. A bit per seat would do for taken or free, but a
+ * claim has to know its owner to be committed or abandoned.
+ */
+public class CabinLayout {
+
+    /**
+     * Position of a seat within its row.
+     */
+    public enum SeatPosition {
+        WINDOW, AISLE, MIDDLE
+    }
+
+    /**
+     * A run of rows with the same class and seat letters.
+     */
+    public static class Section {
+        private final BookingClass bookingClass;
+        private final int firstRow;
+        private final int rows;
+        private final String letters;
+        private final SeatPosition[] positions;
+        private final int firstSeat;
+
+        Section(BookingClass bookingClass, int firstRow, int rows, String letters, SeatPosition[] positions, int firstSeat) {
+            this.bookingClass = bookingClass;
+            this.firstRow = firstRow;
+            this.rows = rows;
+            this.letters = letters;
+            this.positions = positions;
+            this.firstSeat = firstSeat;
+        }
+
+        public BookingClass getBookingClass() {
+            return bookingClass;
+        }
+
+        public int getFirstRow() {
+            return firstRow;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public String getLetters() {
+            return letters;
+        }
+
+        /**
+         * Flat index of the first seat in this section.
+         */
+        public int getFirstSeat() {
+            return firstSeat;
+        }
+
+        public int getSeatCount() {
+            return rows * letters.length();
+        }
+    }
+
+    private final List<Section> sections;
+    private final int seatCount;
+
+    private CabinLayout(List<Section> sections) {
+        this.sections = Collections.unmodifiableList(sections);
+        int seats = 0;
+        for (Section section : sections) {
+            seats += section.getSeatCount();
+        }
+        this.seatCount = seats;
+    }
+
+    /**
+     * Standard layout for an aircraft of the given capacity: single-aisle
+     * aircraft get a small business cabin, wide-bodies add first class and a
+     * nine-abreast economy cabin. The total is at least the capacity, rounded
+     * up to full rows.
+     */
+    public static CabinLayout forCapacity(int capacity) {
+        Builder builder = new Builder();
+        if (capacity < 100) {
+            builder.add(BookingClass.ECONOMY, (capacity + 3) / 4, "ACDF", "AC|DF");
+        } else if (capacity < 250) {
+            int business = Math.max(2, capacity / 25);
+            builder.add(BookingClass.BUSINESS, business, "ACDF", "AC|DF");
+            int economy = capacity - business * 4;
+            builder.add(BookingClass.ECONOMY, (economy + 5) / 6, "ABCDEF", "ABC|DEF");
+        } else {
+            int first = Math.max(2, capacity / 100);
+            int business = Math.max(3, capacity / 40);
+            builder.add(BookingClass.FIRST, first, "AFK", "A|F|K");
+            builder.add(BookingClass.BUSINESS, business, "ACDGHK", "AC|DG|HK");
+            int economy = capacity - first * 3 - business * 6;
+            builder.add(BookingClass.ECONOMY, (Math.max(0, economy) + 8) / 9, "ABCDEFGHK", "ABC|DEFG|HK");
+        }
+        return builder.build();
+    }
+
+    public List<Section> getSections() {
+        return sections;
+    }
+
+    public int getSeatCount() {
+        return seatCount;
+    }
+
+    /**
+     * Flat index of a seat such as "12C", or -1 if the cabin has no such seat.
+     */
+    public int indexOf(String seatNumber) {
+        if (seatNumber == null) {
+            return -1;
+        }
+        String seat = seatNumber.trim().toUpperCase(Locale.ROOT);
+        if (seat.length() < 2 || !Character.isLetter(seat.charAt(seat.length() - 1))) {
+            return -1;
+        }
+        int row;
+        try {
+            row = Integer.parseInt(seat.substring(0, seat.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        char letter = seat.charAt(seat.length() - 1);
+        for (Section section : sections) {
+            if (row >= section.firstRow && row < section.firstRow + section.rows) {
+                int column = section.letters.indexOf(letter);
+                return column < 0 ? -1 : section.firstSeat + (row - section.firstRow) * section.letters.length() + column;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Seat label such as "12C" for a flat index.
+     */
+    public String seatNumber(int index) {
+        Section section = sectionOf(index);
+        int offset = index - section.firstSeat;
+        int width = section.letters.length();
+        return (section.firstRow + offset / width) + String.valueOf(section.letters.charAt(offset % width));
+    }
+
+    public SeatPosition positionOf(int index) {
+        Section section = sectionOf(index);
+        return section.positions[(index - section.firstSeat) % section.letters.length()];
+    }
+
+    public Section sectionOf(int index) {
+        for (Section section : sections) {
+            if (index >= section.firstSeat && index < section.firstSeat + section.getSeatCount()) {
+                return section;
+            }
+        }
+        throw new IndexOutOfBoundsException("Seat " + index + " of " + seatCount);
+    }
+
+    /**
+     * Sections of the given class, front to back.
+     */
+    public List<Section> sectionsFor(BookingClass bookingClass) {
+        List<Section> matching = new ArrayList<>();
+        for (Section section : sections) {
+            if (section.bookingClass == bookingClass) {
+                matching.add(section);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Builds a layout section by section, front to back.
+     */
+    public static class Builder {
+        private final List<Section> sections = new ArrayList<>();
+        private int nextRow = 1;
+        private int nextSeat;
+
+        /**
+         * Adds rows of one class. The plan uses '|' for aisles, e.g. "ABC|DEF";
+         * seats at either end are windows and seats next to an aisle are aisle
+         * seats.
+         */
+        public Builder add(BookingClass bookingClass, int rows, String letters, String plan) {
+            if (rows <= 0) {
+                return this;
+            }
+            SeatPosition[] positions = new SeatPosition[letters.length()];
+            for (int i = 0; i < letters.length(); i++) {
+                int at = plan.indexOf(letters.charAt(i));
+                if (at < 0) {
+                    throw new IllegalArgumentException("Seat " + letters.charAt(i) + " missing from plan " + plan);
+                }
+                if (i == 0 || i == letters.length() - 1) {
+                    positions[i] = SeatPosition.WINDOW;
+                } else if ((at > 0 && plan.charAt(at - 1) == '|') || (at < plan.length() - 1 && plan.charAt(at + 1) == '|')) {
+                    positions[i] = SeatPosition.AISLE;
+                } else {
+                    positions[i] = SeatPosition.MIDDLE;
+                }
+            }
+            sections.add(new Section(bookingClass, nextRow, rows, letters, positions, nextSeat));
+            nextRow += rows;
+            nextSeat += rows * letters.length();
+            return this;
+        }
+
+        public CabinLayout build() {
+            return new CabinLayout(new ArrayList<>(sections));
+        }
+    }
+}
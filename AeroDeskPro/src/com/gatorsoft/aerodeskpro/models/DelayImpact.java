@@ -0,0 +1,193 @@
+package com.gatorsoft.aerodeskpro.models;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of propagating a flight delay through aircraft rotations and gate
+ * assignments. Holds every knock-on change the delay causes.
+ */
+public class DelayImpact {
+
+    /**
+     * Why a flight had to move.
+     */
+    public enum Cause {
+        DIRECT, AIRCRAFT_ROTATION, GATE_CONFLICT
+    }
+
+    private final int rootFlightId;
+    private final List<FlightChange> flightChanges = new ArrayList<>();
+    private final List<GateSlotChange> gateSlotChanges = new ArrayList<>();
+    private long computeNanos;
+
+    public DelayImpact(int rootFlightId) {
+        this.rootFlightId = rootFlightId;
+    }
+
+    public int getRootFlightId() {
+        return rootFlightId;
+    }
+
+    public List<FlightChange> getFlightChanges() {
+        return Collections.unmodifiableList(flightChanges);
+    }
+
+    public List<GateSlotChange> getGateSlotChanges() {
+        return Collections.unmodifiableList(gateSlotChanges);
+    }
+
+    public void addFlightChange(FlightChange change) {
+        flightChanges.add(change);
+    }
+
+    public void addGateSlotChange(GateSlotChange change) {
+        gateSlotChanges.add(change);
+    }
+
+    /**
+     * Returns the downstream flights only, without the delayed flight itself.
+     */
+    public List<FlightChange> getKnockOnChanges() {
+        List<FlightChange> knockOn = new ArrayList<>();
+        for (FlightChange change : flightChanges) {
+            if (change.getFlightId() != rootFlightId) {
+                knockOn.add(change);
+            }
+        }
+        return knockOn;
+    }
+
+    public boolean hasKnockOnEffects() {
+        return flightChanges.size() > 1 || !gateSlotChanges.isEmpty();
+    }
+
+    public long getComputeNanos() {
+        return computeNanos;
+    }
+
+    public void setComputeNanos(long computeNanos) {
+        this.computeNanos = computeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "DelayImpact{"
+                + "rootFlightId=" + rootFlightId
+                + ", flightChanges=" + flightChanges.size()
+                + ", gateSlotChanges=" + gateSlotChanges.size()
+                + ", computeMicros=" + (computeNanos / 1000)
+                + '}';
+    }
+
+    /**
+     * A flight whose projected times moved because of the delay.
+     */
+    public static class FlightChange {
+
+        private final int flightId;
+        private final String flightNumber;
+        private final LocalDateTime oldDeparture;
+        private final LocalDateTime newDeparture;
+        private final LocalDateTime newArrival;
+        private final Cause cause;
+
+        public FlightChange(int flightId, String flightNumber, LocalDateTime oldDeparture,
+                LocalDateTime newDeparture, LocalDateTime newArrival, Cause cause) {
+            this.flightId = flightId;
+            this.flightNumber = flightNumber;
+            this.oldDeparture = oldDeparture;
+            this.newDeparture = newDeparture;
+            this.newArrival = newArrival;
+            this.cause = cause;
+        }
+
+        public int getFlightId() {
+            return flightId;
+        }
+
+        public String getFlightNumber() {
+            return flightNumber;
+        }
+
+        public LocalDateTime getOldDeparture() {
+            return oldDeparture;
+        }
+
+        public LocalDateTime getNewDeparture() {
+            return newDeparture;
+        }
+
+        public LocalDateTime getNewArrival() {
+            return newArrival;
+        }
+
+        public Cause getCause() {
+            return cause;
+        }
+
+        public long getDelayMinutes() {
+            return Duration.between(oldDeparture, newDeparture).toMinutes();
+        }
+
+        @Override
+        public String toString() {
+            return flightNumber + " +" + getDelayMinutes() + "min (" + cause + ")";
+        }
+    }
+
+    /**
+     * A gate assignment whose estimated window moved because of the delay.
+     */
+    public static class GateSlotChange {
+
+        private final int assignmentId;
+        private final int gateId;
+        private final int flightId;
+        private final LocalDateTime oldStart;
+        private final LocalDateTime newStart;
+        private final LocalDateTime newEnd;
+
+        public GateSlotChange(int assignmentId, int gateId, int flightId, LocalDateTime oldStart,
+                LocalDateTime newStart, LocalDateTime newEnd) {
+            this.assignmentId = assignmentId;
+            this.gateId = gateId;
+            this.flightId = flightId;
+            this.oldStart = oldStart;
+            this.newStart = newStart;
+            this.newEnd = newEnd;
+        }
+
+        public int getAssignmentId() {
+            return assignmentId;
+        }
+
+        public int getGateId() {
+            return gateId;
+        }
+
+        public int getFlightId() {
+            return flightId;
+        }
+
+        public LocalDateTime getOldStart() {
+            return oldStart;
+        }
+
+        public LocalDateTime getNewStart() {
+            return newStart;
+        }
+
+        public LocalDateTime getNewEnd() {
+            return newEnd;
+        }
+
+        @Override
+        public String toString() {
+            return "gate " + gateId + " slot " + assignmentId + " -> " + newStart + " - " + newEnd;
+        }
+    }
+}
@@ -25,6 +25,7 @@ public class Flight {
     private int aircraftType;
     private int capacity;
     private LocalDateTime createdAt;
+    private int version;
 
     // Constructors
     public Flight() {
@@ -141,6 +142,18 @@ public class Flight {
         this.createdAt = createdAt;
     }
 
+    /**
+     * Row version read from the database; updates only apply while it is
+     * unchanged.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     // Business logic methods
     public boolean isActive() {
         return status != FlightStatus.cancelled && status != FlightStatus.completed;
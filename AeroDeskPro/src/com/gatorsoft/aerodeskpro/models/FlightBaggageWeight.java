@@ -0,0 +1,106 @@
+package com.gatorsoft.aerodeskpro.models;
+
+import com.gatorsoft.aerodeskpro.entity.BaggageType;
+import com.gatorsoft.aerodeskpro.entity.CargoHold;
+import java.math.BigDecimal;
+
+/**
+ * Baggage weight on one flight at a point in time, in hundredths of a kg,
+ * broken down by baggage type and hold.
+ */
+public class FlightBaggageWeight {
+
+    private static final int TYPES = BaggageType.values().length;
+    private static final int HOLDS = CargoHold.values().length;
+
+    private final int flightId;
+    private final long[] hundredths;
+    private final int[] bags;
+
+    /**
+     * @param hundredths weight per type and hold, indexed type * holds + hold
+     * @param bags bag count, indexed the same way
+     */
+    public FlightBaggageWeight(int flightId, long[] hundredths, int[] bags) {
+        this.flightId = flightId;
+        this.hundredths = hundredths;
+        this.bags = bags;
+    }
+
+    public static int cell(BaggageType type, CargoHold hold) {
+        return type.ordinal() * HOLDS + hold.ordinal();
+    }
+
+    public static int cells() {
+        return TYPES * HOLDS;
+    }
+
+    public int getFlightId() {
+        return flightId;
+    }
+
+    public long getTotalHundredths() {
+        long total = 0;
+        for (long weight : hundredths) {
+            total += weight;
+        }
+        return total;
+    }
+
+    public long getHundredths(BaggageType type, CargoHold hold) {
+        return hundredths[cell(type, hold)];
+    }
+
+    public long getHundredths(BaggageType type) {
+        long total = 0;
+        for (CargoHold hold : CargoHold.values()) {
+            total += hundredths[cell(type, hold)];
+        }
+        return total;
+    }
+
+    public long getHundredths(CargoHold hold) {
+        long total = 0;
+        for (BaggageType type : BaggageType.values()) {
+            total += hundredths[cell(type, hold)];
+        }
+        return total;
+    }
+
+    public int getBagCount() {
+        int total = 0;
+        for (int count : bags) {
+            total += count;
+        }
+        return total;
+    }
+
+    public int getBagCount(CargoHold hold) {
+        int total = 0;
+        for (BaggageType type : BaggageType.values()) {
+            total += bags[cell(type, hold)];
+        }
+        return total;
+    }
+
+    public BigDecimal getTotalKg() {
+        return BigDecimal.valueOf(getTotalHundredths(), 2);
+    }
+
+    public BigDecimal getKg(CargoHold hold) {
+        return BigDecimal.valueOf(getHundredths(hold), 2);
+    }
+
+    /**
+     * Whether a hold carries more than the given limit.
+     */
+    public boolean exceeds(CargoHold hold, long limitHundredths) {
+        return getHundredths(hold) > limitHundredths;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightBaggageWeight{" + "flightId=" + flightId + ", bags=" + getBagCount()
+                + ", totalKg=" + getTotalKg() + '}';
+    }
+}
@@ -0,0 +1,82 @@
+package com.gatorsoft.aerodeskpro.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Booking totals for one flight, as kept in flight_booking_counters.
+ */
+public class FlightLoad {
+
+    private final int flightId;
+    private final String flightNumber;
+    private final LocalDateTime scheduledDeparture;
+    private final int capacity;
+    private final int booked;
+    private final int checkedIn;
+    private final int boarded;
+    private final int cancelled;
+
+    public FlightLoad(int flightId, String flightNumber, LocalDateTime scheduledDeparture, int capacity,
+            int booked, int checkedIn, int boarded, int cancelled) {
+        this.flightId = flightId;
+        this.flightNumber = flightNumber;
+        this.scheduledDeparture = scheduledDeparture;
+        this.capacity = capacity;
+        this.booked = booked;
+        this.checkedIn = checkedIn;
+        this.boarded = boarded;
+        this.cancelled = cancelled;
+    }
+
+    public int getFlightId() {
+        return flightId;
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public LocalDateTime getScheduledDeparture() {
+        return scheduledDeparture;
+    }
+
+    /**
+     * Seats on the aircraft, or 0 if unknown.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Bookings that are not cancelled.
+     */
+    public int getBooked() {
+        return booked;
+    }
+
+    public int getCheckedIn() {
+        return checkedIn;
+    }
+
+    public int getBoarded() {
+        return boarded;
+    }
+
+    public int getCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Booked seats as a fraction of capacity, or 0 if capacity is unknown.
+     */
+    public double getLoadFactor() {
+        return capacity > 0 ? (double) booked / capacity : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FlightLoad{flight=%s, booked=%d/%d (%.0f%%), checkedIn=%d, boarded=%d, cancelled=%d}",
+                flightNumber != null ? flightNumber : String.valueOf(flightId), booked, capacity,
+                getLoadFactor() * 100, checkedIn, boarded, cancelled);
+    }
+}
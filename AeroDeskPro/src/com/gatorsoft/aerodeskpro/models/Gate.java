@@ -17,6 +17,7 @@ public class Gate {
     private int capacity;
     private GateStatus status;
     private String createdAt;
+    private int version;
 
    /* // Enum for Gate Type
     public enum GateType {
@@ -110,6 +111,18 @@ public class Gate {
         this.createdAt = createdAt;
     }
 
+    /**
+     * Row version read from the database; updates only apply while it is
+     * unchanged.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     // ===== Utility Methods =====
 
     public boolean isValid() {
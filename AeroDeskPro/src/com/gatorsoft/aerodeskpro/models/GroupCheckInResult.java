@@ -0,0 +1,60 @@
+package com.gatorsoft.aerodeskpro.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of checking in a booking party in one request.
+ */
+public class GroupCheckInResult {
+
+    private final int updated;
+    private final List<String> checkedIn = new ArrayList<>();
+    private final Map<String, String> rejected = new LinkedHashMap<>();
+
+    public GroupCheckInResult(int updated) {
+        this.updated = updated;
+    }
+
+    /**
+     * Bookings moved to CHECKED_IN by this request.
+     */
+    public int getUpdated() {
+        return updated;
+    }
+
+    /**
+     * References checked in by this request.
+     */
+    public List<String> getCheckedIn() {
+        return Collections.unmodifiableList(checkedIn);
+    }
+
+    /**
+     * References that could not be checked in, with the reason, including
+     * any that were already checked in.
+     */
+    public Map<String, String> getRejected() {
+        return Collections.unmodifiableMap(rejected);
+    }
+
+    public boolean isComplete() {
+        return rejected.isEmpty();
+    }
+
+    public void addCheckedIn(String bookingReference) {
+        checkedIn.add(bookingReference);
+    }
+
+    public void addRejected(String bookingReference, String reason) {
+        rejected.put(bookingReference, reason);
+    }
+
+    @Override
+    public String toString() {
+        return "GroupCheckInResult{updated=" + updated + ", checkedIn=" + checkedIn + ", rejected=" + rejected + "}";
+    }
+}
@@ -0,0 +1,88 @@
+package com.gatorsoft.aerodeskpro.models;
+
+/**
+ * Outcome of a passenger manifest import.
+ */
+public class ManifestImportResult {
+
+    private final String source;
+    private int rowsRead;
+    private int inserted;
+    private int updated;
+    private int rejected;
+    private int duplicatesInFile;
+    private long elapsedMillis;
+
+    public ManifestImportResult(String source) {
+        this.source = source;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    /**
+     * Rows that failed parsing or validation, including in-file duplicates.
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    public int getDuplicatesInFile() {
+        return duplicatesInFile;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void addRowsRead(int count) {
+        rowsRead += count;
+    }
+
+    public void addInserted(int count) {
+        inserted += count;
+    }
+
+    public void addUpdated(int count) {
+        updated += count;
+    }
+
+    public void addRejected(int count) {
+        rejected += count;
+    }
+
+    public void addDuplicateInFile() {
+        duplicatesInFile++;
+        rejected++;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ManifestImportResult{"
+                + "source='" + source + '\''
+                + ", rowsRead=" + rowsRead
+                + ", inserted=" + inserted
+                + ", updated=" + updated
+                + ", rejected=" + rejected
+                + ", duplicatesInFile=" + duplicatesInFile
+                + ", elapsedMillis=" + elapsedMillis
+                + '}';
+    }
+}
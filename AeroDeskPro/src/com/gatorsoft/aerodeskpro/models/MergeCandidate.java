@@ -0,0 +1,48 @@
+package com.gatorsoft.aerodeskpro.models;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Two passenger records that probably describe the same traveller. The lower
+ * id is treated as the record to keep.
+ */
+public class MergeCandidate {
+
+    private final int primaryPassengerId;
+    private final int duplicatePassengerId;
+    private final double score;
+    private final List<String> reasons;
+
+    public MergeCandidate(int passengerIdA, int passengerIdB, double score, List<String> reasons) {
+        this.primaryPassengerId = Math.min(passengerIdA, passengerIdB);
+        this.duplicatePassengerId = Math.max(passengerIdA, passengerIdB);
+        this.score = score;
+        this.reasons = Collections.unmodifiableList(reasons);
+    }
+
+    public int getPrimaryPassengerId() {
+        return primaryPassengerId;
+    }
+
+    public int getDuplicatePassengerId() {
+        return duplicatePassengerId;
+    }
+
+    /**
+     * Match confidence between 0 and 1.
+     */
+    public double getScore() {
+        return score;
+    }
+
+    public List<String> getReasons() {
+        return reasons;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MergeCandidate{keep=%d, duplicate=%d, score=%.2f, reasons=%s}",
+                primaryPassengerId, duplicatePassengerId, score, reasons);
+    }
+}
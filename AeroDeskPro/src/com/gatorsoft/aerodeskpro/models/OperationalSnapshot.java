@@ -0,0 +1,103 @@
+package com.gatorsoft.aerodeskpro.models;
+
+import com.gatorsoft.aerodeskpro.entity.BaggageStatus;
+import com.gatorsoft.aerodeskpro.entity.BookingStatus;
+import com.gatorsoft.aerodeskpro.entity.FlightStatus;
+import com.gatorsoft.aerodeskpro.services.OperationalCounters.Metric;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Point-in-time copy of the operational counters for the dashboard.
+ */
+public class OperationalSnapshot {
+
+    public static final int HOURS = 24;
+
+    private final LocalDateTime takenAt;
+    private final Map<Metric, long[]> hourly;
+    private final Map<FlightStatus, Long> flightsByStatus;
+    private final Map<BookingStatus, Long> bookingsByStatus;
+    private final Map<BaggageStatus, Long> baggageByStatus;
+
+    public OperationalSnapshot(LocalDateTime takenAt, Map<Metric, long[]> hourly,
+            Map<FlightStatus, Long> flightsByStatus, Map<BookingStatus, Long> bookingsByStatus,
+            Map<BaggageStatus, Long> baggageByStatus) {
+        this.takenAt = takenAt;
+        this.hourly = hourly;
+        this.flightsByStatus = flightsByStatus;
+        this.bookingsByStatus = bookingsByStatus;
+        this.baggageByStatus = baggageByStatus;
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    /**
+     * Hourly counts for a metric, oldest first; the last entry is the current hour.
+     */
+    public long[] getHourly(Metric metric) {
+        return hourly.get(metric).clone();
+    }
+
+    public long getCurrentHour(Metric metric) {
+        return hourly.get(metric)[HOURS - 1];
+    }
+
+    /**
+     * Total over the rolling 24 hour window.
+     */
+    public long getLast24Hours(Metric metric) {
+        long total = 0;
+        for (long count : hourly.get(metric)) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long getFlights(FlightStatus status) {
+        return flightsByStatus.getOrDefault(status, 0L);
+    }
+
+    public long getActiveFlights() {
+        long total = 0;
+        for (Map.Entry<FlightStatus, Long> entry : flightsByStatus.entrySet()) {
+            if (entry.getKey() != FlightStatus.cancelled && entry.getKey() != FlightStatus.completed) {
+                total += entry.getValue();
+            }
+        }
+        return total;
+    }
+
+    public long getBookings(BookingStatus status) {
+        return bookingsByStatus.getOrDefault(status, 0L);
+    }
+
+    public long getBaggage(BaggageStatus status) {
+        return baggageByStatus.getOrDefault(status, 0L);
+    }
+
+    public Map<FlightStatus, Long> getFlightsByStatus() {
+        return Collections.unmodifiableMap(flightsByStatus);
+    }
+
+    public Map<BookingStatus, Long> getBookingsByStatus() {
+        return Collections.unmodifiableMap(bookingsByStatus);
+    }
+
+    public Map<BaggageStatus, Long> getBaggageByStatus() {
+        return Collections.unmodifiableMap(baggageByStatus);
+    }
+
+    @Override
+    public String toString() {
+        return "OperationalSnapshot{"
+                + "takenAt=" + takenAt
+                + ", activeFlights=" + getActiveFlights()
+                + ", checkInsLastHour=" + getCurrentHour(Metric.CHECK_INS)
+                + ", bagsLast24h=" + getLast24Hours(Metric.BAGS_REGISTERED)
+                + '}';
+    }
+}
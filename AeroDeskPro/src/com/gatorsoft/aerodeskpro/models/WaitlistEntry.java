@@ -0,0 +1,120 @@
+package com.gatorsoft.aerodeskpro.models;
+
+import com.gatorsoft.aerodeskpro.entity.BookingClass;
+import com.gatorsoft.aerodeskpro.entity.FrequentFlyerTier;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * A passenger waiting for a seat on a full flight, as kept in
+ * booking_waitlist.
+ */
+public class WaitlistEntry {
+
+    public enum Status {
+        WAITING, PROMOTED, REMOVED
+    }
+
+    /**
+     * Promotion order: higher class, then higher tier, then earlier request.
+     * The id breaks ties between requests made in the same millisecond.
+     */
+    public static final Comparator<WaitlistEntry> PROMOTION_ORDER = Comparator
+            .comparing(WaitlistEntry::getBookingClass, Comparator.reverseOrder())
+            .thenComparing(WaitlistEntry::getTier, Comparator.reverseOrder())
+            .thenComparing(WaitlistEntry::getRequestedAt)
+            .thenComparingInt(WaitlistEntry::getWaitlistId);
+
+    private int waitlistId;
+    private int flightId;
+    private int passengerId;
+    private BookingClass bookingClass = BookingClass.ECONOMY;
+    private FrequentFlyerTier tier = FrequentFlyerTier.NONE;
+    private LocalDateTime requestedAt;
+    private Status status = Status.WAITING;
+    private Integer bookingId;
+
+    public WaitlistEntry() {
+    }
+
+    public WaitlistEntry(int flightId, int passengerId, BookingClass bookingClass, FrequentFlyerTier tier) {
+        this.flightId = flightId;
+        this.passengerId = passengerId;
+        this.bookingClass = bookingClass != null ? bookingClass : BookingClass.ECONOMY;
+        this.tier = tier != null ? tier : FrequentFlyerTier.NONE;
+        this.requestedAt = LocalDateTime.now();
+    }
+
+    public int getWaitlistId() {
+        return waitlistId;
+    }
+
+    public void setWaitlistId(int waitlistId) {
+        this.waitlistId = waitlistId;
+    }
+
+    public int getFlightId() {
+        return flightId;
+    }
+
+    public void setFlightId(int flightId) {
+        this.flightId = flightId;
+    }
+
+    public int getPassengerId() {
+        return passengerId;
+    }
+
+    public void setPassengerId(int passengerId) {
+        this.passengerId = passengerId;
+    }
+
+    public BookingClass getBookingClass() {
+        return bookingClass;
+    }
+
+    public void setBookingClass(BookingClass bookingClass) {
+        this.bookingClass = bookingClass;
+    }
+
+    public FrequentFlyerTier getTier() {
+        return tier;
+    }
+
+    public void setTier(FrequentFlyerTier tier) {
+        this.tier = tier;
+    }
+
+    public LocalDateTime getRequestedAt() {
+        return requestedAt;
+    }
+
+    public void setRequestedAt(LocalDateTime requestedAt) {
+        this.requestedAt = requestedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    /**
+     * Booking created by the promotion, or null while waiting.
+     */
+    public Integer getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(Integer bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    @Override
+    public String toString() {
+        return "WaitlistEntry{" + "waitlistId=" + waitlistId + ", flightId=" + flightId + ", passengerId=" + passengerId
+                + ", bookingClass=" + bookingClass + ", tier=" + tier + ", status=" + status + '}';
+    }
+}
@@ -7,9 +7,16 @@ import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException.ErrorCategory;
 import com.gatorsoft.aerodeskpro.models.Baggage;
 import com.gatorsoft.aerodeskpro.entity.BaggageStatus;
 import com.gatorsoft.aerodeskpro.models.BaggageReport;
+import com.gatorsoft.aerodeskpro.models.BaggageScan;
+import com.gatorsoft.aerodeskpro.models.Booking;
+import com.gatorsoft.aerodeskpro.models.FlightBaggageWeight;
+import com.gatorsoft.aerodeskpro.threads.BaggageScanPipeline;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -18,6 +25,11 @@ public class BaggageService {
     private BaggageDAO baggageDAO;
     private BookingDAO bookingDAO;
     private Logger logger;
+    private final OperationalCounters counters = OperationalCounters.getInstance();
+    private final BaggageScanPipeline scanPipeline = BaggageScanPipeline.getInstance();
+    private final LicensePlateGenerator licensePlates = LicensePlateGenerator.getInstance();
+    private final BaggageStatusIndex statusIndex = BaggageStatusIndex.getInstance();
+    private final BaggageWeightAggregator weights = BaggageWeightAggregator.getInstance();
 
     public BaggageService() {
         this.baggageDAO = new BaggageDAO();
@@ -27,12 +39,20 @@ public class BaggageService {
 
     // Register a new baggage
     public Baggage registerBaggage(Baggage baggage) throws AeroDeskException {
+        return registerBaggage(baggage, 0);
+    }
+
+    // Register a new baggage for a flight the caller already knows, saving the booking lookup
+    public Baggage registerBaggage(Baggage baggage, int flightId) throws AeroDeskException {
         try {
             validateBaggageData(baggage);
             boolean isInserted = baggageDAO.insertBaggage(baggage);
             if (!isInserted) {
                 throw new AeroDeskException("Failed to register baggage", ErrorCategory.DATABASE_ERROR);
             }
+            counters.recordBaggageRegistered(baggage.getStatus());
+            statusIndex.put(baggage);
+            addToFlightWeight(baggage, flightId);
             logger.info("Baggage registered successfully: " + baggage.getBaggageTag());
             return baggage;
         } catch (Exception e) {
@@ -47,10 +67,18 @@ public class BaggageService {
             if (baggageTag == null || baggageTag.trim().isEmpty()) {
                 throw new AeroDeskException("Baggage tag cannot be null or empty", ErrorCategory.VALIDATION_ERROR);
             }
-            boolean isUpdated = baggageDAO.updateBaggageStatus(baggageTag, newStatus, location);
-            if (!isUpdated) {
-                throw new AeroDeskException("Failed to update baggage status", ErrorCategory.DATABASE_ERROR);
+            // Guarded on the status read, so the counters move from the status the bag really had
+            Baggage baggage = OptimisticRetry.run("baggage " + baggageTag,
+                    () -> baggageDAO.getBaggageByTag(baggageTag),
+                    current -> true,
+                    current -> baggageDAO.updateBaggageStatus(current, newStatus, location));
+            if (baggage == null) {
+                throw new AeroDeskException("Baggage not found: " + baggageTag, ErrorCategory.RESOURCE_NOT_FOUND);
             }
+            counters.recordBaggageStatusChange(baggage.getStatus(), newStatus);
+            scanPipeline.statusChanged(baggageTag, newStatus);
+            statusIndex.updateStatus(baggageTag, newStatus, location);
+            weights.updateStatus(baggageTag, newStatus);
             logger.info("Baggage status updated successfully for tag: " + baggageTag);
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error updating baggage status", e);
@@ -58,6 +86,16 @@ public class BaggageService {
         }
     }
 
+    // Number of bags in each status, for seeding the operational counters
+    public Map<BaggageStatus, Long> getBaggageCountsByStatus() throws AeroDeskException {
+        try {
+            return baggageDAO.countByStatus();
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error counting baggage by status", e);
+            throw new AeroDeskException("Failed to count baggage by status", e, ErrorCategory.DATABASE_ERROR);
+        }
+    }
+
     // Track baggage
     public void trackBaggage(int baggageId, String location, String notes) throws AeroDeskException {
         try {
@@ -75,11 +113,104 @@ public class BaggageService {
         }
     }
 
+    // Delete a baggage record
+    public void deleteBaggage(int baggageId) throws AeroDeskException {
+        try {
+            Baggage baggage = baggageDAO.getBaggageById(baggageId);
+            if (baggage == null) {
+                throw new AeroDeskException("Baggage not found: " + baggageId, ErrorCategory.RESOURCE_NOT_FOUND);
+            }
+            if (!baggageDAO.deleteBaggage(baggageId)) {
+                throw new AeroDeskException("Failed to delete baggage", ErrorCategory.DATABASE_ERROR);
+            }
+            counters.recordBaggageDeleted(baggage.getStatus());
+            statusIndex.remove(baggage.getBaggageTag());
+            weights.remove(baggage.getBaggageTag());
+            logger.info("Baggage deleted successfully: " + baggage.getBaggageTag());
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error deleting baggage", e);
+            throw new AeroDeskException("Failed to delete baggage", e, ErrorCategory.DATABASE_ERROR);
+        }
+    }
+
+    // Baggage weight on a flight by type and hold, for load planning
+    public FlightBaggageWeight getFlightBaggageWeight(int flightId) throws AeroDeskException {
+        try {
+            return weights.getFlightWeight(flightId, baggageDAO);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error reading baggage weight for flight " + flightId, e);
+            throw new AeroDeskException("Failed to read flight baggage weight", e, ErrorCategory.DATABASE_ERROR);
+        }
+    }
+
+    // Baggage weight read from the database now, for the final figure at departure
+    public FlightBaggageWeight getFinalFlightBaggageWeight(int flightId) throws AeroDeskException {
+        try {
+            return weights.getFinalFlightWeight(flightId, baggageDAO);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error reading final baggage weight for flight " + flightId, e);
+            throw new AeroDeskException("Failed to read flight baggage weight", e, ErrorCategory.DATABASE_ERROR);
+        }
+    }
+
+    // A new bag only needs its flight looked up if none was given or known and some flight's weight is held
+    private void addToFlightWeight(Baggage baggage, int flightId) {
+        if (flightId <= 0) {
+            flightId = weights.flightOfBooking(baggage.getBookingId());
+        }
+        if (flightId > 0) {
+            weights.register(flightId, baggage);
+            return;
+        }
+        if (!weights.isTracking()) {
+            return;
+        }
+        try {
+            Booking booking = bookingDAO.findById(baggage.getBookingId());
+            if (booking != null) {
+                weights.register(booking.getFlightId(), baggage);
+            }
+        } catch (AeroDeskException e) {
+            // The bag's flight is unknown, so each held flight re-reads its bags on next use
+            logger.log(Level.WARNING, "Could not add bag " + baggage.getBaggageTag() + " to flight weight", e);
+            weights.markStale();
+        }
+    }
+
+    // Record a reader scan; written in the background by BaggageScanPipeline
+    public boolean recordScan(String baggageTag, String location, BaggageStatus status, String readerId) throws AeroDeskException {
+        if (baggageTag == null || baggageTag.trim().isEmpty()) {
+            throw new AeroDeskException("Baggage tag cannot be null or empty", ErrorCategory.VALIDATION_ERROR);
+        }
+        if (location == null || location.trim().isEmpty()) {
+            throw new AeroDeskException("Location cannot be null or empty", ErrorCategory.VALIDATION_ERROR);
+        }
+        // Started on first use, so screens that never take scans cost no thread
+        if (!scanPipeline.isRunning()) {
+            scanPipeline.start();
+        }
+        return scanPipeline.offer(new BaggageScan(baggageTag.trim(), location.trim(), status, readerId, LocalDateTime.now()));
+    }
+
+    // Last scanned position of a bag, or null if it has not been scanned
+    public BaggageScan getLatestScan(String baggageTag) {
+        return scanPipeline.getLatest(baggageTag);
+    }
+
+    // Push alerts for bags entering any of the given statuses, e.g. LOST and DELAYED
+    public void subscribeToStatus(Set<BaggageStatus> statuses, BaggageStatusIndex.Listener listener) {
+        statusIndex.subscribe(statuses, listener, baggageDAO);
+    }
+
+    public void unsubscribeFromStatus(BaggageStatusIndex.Listener listener) {
+        statusIndex.unsubscribe(listener);
+    }
+
     // Get lost baggage list
     public List<Baggage> getLostBaggage() throws AeroDeskException {
         try {
-            List<Baggage> lostBaggage = baggageDAO.getLostBaggage();
-            logger.info("Retrieved " + lostBaggage.size() + " lost baggage records.");
+            List<Baggage> lostBaggage = statusIndex.getByStatus(BaggageStatus.LOST, baggageDAO);
+            logger.fine("Retrieved " + lostBaggage.size() + " lost baggage records.");
             return lostBaggage;
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error retrieving lost baggage", e);
@@ -90,8 +221,8 @@ public class BaggageService {
     // Get delayed baggage list
     public List<Baggage> getDelayedBaggage() throws AeroDeskException {
         try {
-            List<Baggage> delayedBaggage = baggageDAO.getDelayedBaggage();
-            logger.info("Retrieved " + delayedBaggage.size() + " delayed baggage records.");
+            List<Baggage> delayedBaggage = statusIndex.getByStatus(BaggageStatus.DELAYED, baggageDAO);
+            logger.fine("Retrieved " + delayedBaggage.size() + " delayed baggage records.");
             return delayedBaggage;
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error retrieving delayed baggage", e);
@@ -153,11 +284,11 @@ public void validateBaggageData(Baggage baggage) throws AeroDeskException {
     // Generate a baggage tag
     public String generateBaggageTag() throws AeroDeskException {
         try {
-            String baggageTag = baggageDAO.generateBaggageTag();
+            String baggageTag = licensePlates.next();
             if (baggageTag == null || baggageTag.trim().isEmpty()) {
                 throw new AeroDeskException("Failed to generate baggage tag", ErrorCategory.SYSTEM_ERROR);
             }
-            logger.info("Generated baggage tag: " + baggageTag);
+            logger.fine("Generated baggage tag: " + baggageTag);
             return baggageTag;
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error generating baggage tag", e);
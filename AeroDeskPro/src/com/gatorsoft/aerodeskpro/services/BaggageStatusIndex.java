@@ -0,0 +1,546 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.dao.BaggageDAO;
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.entity.BaggageStatus;
+import com.gatorsoft.aerodeskpro.entity.Priority;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.Baggage;
+import com.gatorsoft.aerodeskpro.utils.Listeners;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory index of bags still in the system, partitioned by status and
+ * then priority, so exception lists such as lost or delayed bags are read
+ * without a query. The index is loaded once from the database, kept current
+ * from status changes made in this process, and re-read every few minutes
+ * to pick up other desks. Delivered bags are dropped, so the index only
+ * holds bags still being handled.
+ *
+ * A reload reads the database without holding the index lock, so status
+ * changes carry on meanwhile; they are replayed onto the fresh copy before
+ * it replaces the old one.
+ *
+ * Subscribers are told about a bag as soon as it enters one of the statuses
+ * they asked for, on the thread that made the change, whether or not the
+ * index is loaded. Changes made at other desks are found by comparing a
+ * reload with the copy it replaces, and, for {@link #subscribe} rather than
+ * {@link #subscribeLocal}, by a background thread that reads only the bags
+ * in the subscribed statuses every minute; those alerts arrive up to a
+ * minute late. Bags delivered at another desk simply leave the index without
+ * an alert.
+ */
+public class BaggageStatusIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(BaggageStatusIndex.class.getName());
+
+    private static final long RELOAD_INTERVAL_MILLIS = 5 * 60_000;
+    private static final long POLL_INTERVAL_MILLIS = 60_000;
+
+    // Rush bags first in every list
+    private static final Priority[] PRIORITY_ORDER = {Priority.RUSH, Priority.PRIORITY, Priority.NORMAL};
+
+    private static final BaggageStatusIndex INSTANCE = new BaggageStatusIndex();
+
+    /**
+     * Receives bags entering a subscribed status. Keep it quick; hand slow
+     * work to another thread.
+     */
+    public interface Listener {
+        void onStatusChange(Baggage baggage, BaggageStatus previousStatus);
+    }
+
+    private static final class Subscription {
+        final Set<BaggageStatus> statuses;
+        final Listener listener;
+        // Also polls the database for changes made at other desks
+        final boolean polled;
+
+        Subscription(Set<BaggageStatus> statuses, Listener listener, boolean polled) {
+            this.statuses = statuses;
+            this.listener = listener;
+            this.polled = polled;
+        }
+    }
+
+    private final Object lock = new Object();
+    // Only one reload at a time; never held together with lock while reading the database
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private Bags bags = new Bags();
+    // Changes made while a reload is reading, or null when none is
+    private List<Consumer<Bags>> changesDuringLoad;
+    // Tags changed here while a poll is reading, or null when none is
+    private Set<String> changedDuringPoll;
+    private volatile boolean loaded;
+    private volatile long loadedAt;
+    // Reloads while anyone is subscribed; guarded by this
+    private Thread poller;
+
+    BaggageStatusIndex() {
+    }
+
+    public static BaggageStatusIndex getInstance() {
+        return INSTANCE;
+    }
+
+    // ===== SUBSCRIPTIONS =====
+
+    /**
+     * Subscribes to bags entering the given statuses, here or at other desks.
+     * The first subscriber starts the thread that loads the index and then
+     * polls the subscribed statuses.
+     */
+    public void subscribe(Set<BaggageStatus> statuses, Listener listener, BaggageDAO baggageDAO) {
+        subscriptions.add(new Subscription(EnumSet.copyOf(statuses), listener, true));
+        startPolling(baggageDAO);
+    }
+
+    /**
+     * Subscribes to bags entering the given statuses through changes made in
+     * this process only; nothing polls the database for it.
+     */
+    public void subscribeLocal(Set<BaggageStatus> statuses, Listener listener) {
+        subscriptions.add(new Subscription(EnumSet.copyOf(statuses), listener, false));
+    }
+
+    public void unsubscribe(Listener listener) {
+        subscriptions.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    // ===== LOOKUPS =====
+
+    /**
+     * Every bag held, i.e. every bag not yet delivered.
+     */
+    public List<Baggage> getAll(BaggageDAO baggageDAO) throws AeroDeskException {
+        ensureLoaded(baggageDAO);
+        synchronized (lock) {
+            List<Baggage> found = new ArrayList<>(bags.byTag.size());
+            for (Baggage baggage : bags.byTag.values()) {
+                found.add(copy(baggage));
+            }
+            return found;
+        }
+    }
+
+    /**
+     * Bags in a status, rush first, in the order they entered it. Delivered
+     * bags are not held, so asking for them returns nothing.
+     */
+    public List<Baggage> getByStatus(BaggageStatus status, BaggageDAO baggageDAO) throws AeroDeskException {
+        ensureLoaded(baggageDAO);
+        synchronized (lock) {
+            List<Baggage> found = new ArrayList<>();
+            for (Priority priority : PRIORITY_ORDER) {
+                bags.collect(status, priority, found);
+            }
+            return found;
+        }
+    }
+
+    public List<Baggage> getByStatus(BaggageStatus status, Priority priority, BaggageDAO baggageDAO) throws AeroDeskException {
+        ensureLoaded(baggageDAO);
+        synchronized (lock) {
+            List<Baggage> found = new ArrayList<>();
+            bags.collect(status, priority, found);
+            return found;
+        }
+    }
+
+    public int count(BaggageStatus status, BaggageDAO baggageDAO) throws AeroDeskException {
+        ensureLoaded(baggageDAO);
+        synchronized (lock) {
+            int count = 0;
+            for (Set<String> tags : bags.partitions.get(status).values()) {
+                count += tags.size();
+            }
+            return count;
+        }
+    }
+
+    public int count(BaggageStatus status, Priority priority, BaggageDAO baggageDAO) throws AeroDeskException {
+        ensureLoaded(baggageDAO);
+        synchronized (lock) {
+            return bags.partitions.get(status).get(priority).size();
+        }
+    }
+
+    // ===== UPDATES =====
+
+    /**
+     * Adds a newly registered bag. Before the index is loaded only the
+     * subscribers hear of it, since the load will read it.
+     */
+    public void put(Baggage baggage) {
+        Baggage entered = copy(baggage);
+        synchronized (lock) {
+            record(entered.getBaggageTag(), pending -> pending.put(copy(entered)));
+            if (loaded) {
+                Baggage previous = bags.put(copy(entered));
+                if (previous != null && previous.getStatus() == entered.getStatus()) {
+                    return;
+                }
+            }
+        }
+        notifySubscribers(entered, null);
+    }
+
+    /**
+     * Applies a status change already written to the database. A null
+     * status only moves the bag.
+     */
+    public void updateStatus(String baggageTag, BaggageStatus newStatus, String location) {
+        Baggage changed = null;
+        BaggageStatus previousStatus = null;
+        synchronized (lock) {
+            record(baggageTag, pending -> pending.update(baggageTag, newStatus, location));
+            Baggage baggage = loaded ? bags.byTag.get(baggageTag) : null;
+            if (baggage != null) {
+                previousStatus = baggage.getStatus();
+                bags.update(baggageTag, newStatus, location);
+                changed = copy(baggage);
+            }
+        }
+        if (newStatus == null || newStatus == previousStatus) {
+            return;
+        }
+        if (changed == null) {
+            // Not held (yet): subscribers get what the change itself says
+            changed = new Baggage();
+            changed.setBaggageTag(baggageTag);
+            changed.setStatus(newStatus);
+            changed.setCurrentLocation(location);
+        }
+        notifySubscribers(changed, previousStatus);
+    }
+
+    public void remove(String baggageTag) {
+        synchronized (lock) {
+            record(baggageTag, pending -> pending.remove(baggageTag));
+            bags.remove(baggageTag);
+        }
+    }
+
+    /**
+     * Drops the index; the next lookup reads the database again.
+     */
+    public void invalidate() {
+        loaded = false;
+    }
+
+    /**
+     * Keeps a change for replay onto a reload that is reading the database,
+     * and marks its bag as newer than what a running poll read. Call holding
+     * lock.
+     */
+    private void record(String baggageTag, Consumer<Bags> change) {
+        if (changesDuringLoad != null) {
+            changesDuringLoad.add(change);
+        }
+        if (changedDuringPoll != null) {
+            changedDuringPoll.add(baggageTag);
+        }
+    }
+
+    private boolean isFresh(long maxAgeMillis) {
+        return loaded && System.currentTimeMillis() - loadedAt < maxAgeMillis;
+    }
+
+    private void ensureLoaded(BaggageDAO baggageDAO) throws AeroDeskException {
+        reload(baggageDAO, RELOAD_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Reads the database into a new copy of the index and swaps it in if the
+     * current one is older than maxAgeMillis. Once loaded, callers keep using
+     * the stale copy while another thread reloads rather than waiting for it.
+     * Subscribers are told about bags whose status differs from the copy
+     * replaced, i.e. changes made at other desks.
+     */
+    private void reload(BaggageDAO baggageDAO, long maxAgeMillis) throws AeroDeskException {
+        if (isFresh(maxAgeMillis)) {
+            return;
+        }
+        if (loaded) {
+            if (!loadLock.tryLock()) {
+                return;
+            }
+        } else {
+            loadLock.lock();
+        }
+        try {
+            if (isFresh(maxAgeMillis)) {
+                return;
+            }
+            synchronized (lock) {
+                changesDuringLoad = new ArrayList<>();
+            }
+            Bags fresh = new Bags();
+            List<Baggage> active;
+            try {
+                active = baggageDAO.getActiveBaggage();
+            } catch (AeroDeskException | RuntimeException e) {
+                synchronized (lock) {
+                    changesDuringLoad = null;
+                }
+                throw e;
+            }
+            for (Baggage baggage : active) {
+                fresh.put(baggage);
+            }
+            List<Baggage> changed = new ArrayList<>();
+            List<BaggageStatus> previousStatuses = new ArrayList<>();
+            synchronized (lock) {
+                for (Consumer<Bags> change : changesDuringLoad) {
+                    change.accept(fresh);
+                }
+                changesDuringLoad = null;
+                if (loaded && !subscriptions.isEmpty()) {
+                    for (Baggage baggage : fresh.byTag.values()) {
+                        Baggage previous = bags.byTag.get(baggage.getBaggageTag());
+                        if (previous == null || previous.getStatus() != baggage.getStatus()) {
+                            changed.add(copy(baggage));
+                            previousStatuses.add(previous != null ? previous.getStatus() : null);
+                        }
+                    }
+                }
+                bags = fresh;
+                loadedAt = System.currentTimeMillis();
+                loaded = true;
+            }
+            LOGGER.fine("Baggage status index loaded with " + active.size() + " bags, "
+                    + changed.size() + " changed elsewhere");
+            for (int i = 0; i < changed.size(); i++) {
+                notifySubscribers(changed.get(i), previousStatuses.get(i));
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private synchronized void startPolling(BaggageDAO baggageDAO) {
+        if (poller != null) {
+            return;
+        }
+        poller = new Thread(DatabaseConnection.closingOnExit(() -> poll(baggageDAO)), "baggage-status-poller");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    /**
+     * Loads the index if needed, then reads the bags in the subscribed
+     * statuses every poll interval until the last polled subscriber leaves.
+     */
+    private void poll(BaggageDAO baggageDAO) {
+        while (true) {
+            Set<BaggageStatus> statuses;
+            synchronized (this) {
+                statuses = polledStatuses();
+                if (statuses.isEmpty()) {
+                    poller = null;
+                    return;
+                }
+            }
+            try {
+                // Only the first load; a poll does not need a fresh copy
+                reload(baggageDAO, Long.MAX_VALUE);
+                pollStatuses(statuses, baggageDAO);
+            } catch (AeroDeskException e) {
+                LOGGER.log(Level.WARNING, "Polling baggage statuses failed", e);
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                synchronized (this) {
+                    poller = null;
+                }
+                return;
+            }
+        }
+    }
+
+    private Set<BaggageStatus> polledStatuses() {
+        Set<BaggageStatus> statuses = EnumSet.noneOf(BaggageStatus.class);
+        for (Subscription subscription : subscriptions) {
+            if (subscription.polled) {
+                statuses.addAll(subscription.statuses);
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Reads the bags in the given statuses and applies those whose status
+     * differs from the index, telling subscribers. Bags changed in this
+     * process while the query ran are left as they are, since the index is
+     * newer. Skipped while a reload is running; it finds the same changes.
+     */
+    private void pollStatuses(Set<BaggageStatus> statuses, BaggageDAO baggageDAO) throws AeroDeskException {
+        if (!loadLock.tryLock()) {
+            return;
+        }
+        try {
+            synchronized (lock) {
+                changedDuringPoll = new HashSet<>();
+            }
+            List<Baggage> found;
+            try {
+                found = baggageDAO.getBaggageByStatuses(statuses);
+            } catch (AeroDeskException | RuntimeException e) {
+                synchronized (lock) {
+                    changedDuringPoll = null;
+                }
+                throw e;
+            }
+            List<Baggage> changed = new ArrayList<>();
+            List<BaggageStatus> previousStatuses = new ArrayList<>();
+            synchronized (lock) {
+                Set<String> changedHere = changedDuringPoll;
+                changedDuringPoll = null;
+                if (!loaded) {
+                    return;
+                }
+                for (Baggage baggage : found) {
+                    if (changedHere.contains(baggage.getBaggageTag())) {
+                        continue;
+                    }
+                    Baggage previous = bags.byTag.get(baggage.getBaggageTag());
+                    if (previous == null || previous.getStatus() != baggage.getStatus()) {
+                        bags.put(copy(baggage));
+                        changed.add(baggage);
+                        previousStatuses.add(previous != null ? previous.getStatus() : null);
+                    }
+                }
+            }
+            LOGGER.fine("Polled " + found.size() + " bags in " + statuses + ", " + changed.size() + " changed elsewhere");
+            for (int i = 0; i < changed.size(); i++) {
+                notifySubscribers(changed.get(i), previousStatuses.get(i));
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void notifySubscribers(Baggage baggage, BaggageStatus previousStatus) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.statuses.contains(baggage.getStatus())) {
+                Listeners.fire(subscription.listener, listener -> listener.onStatusChange(baggage, previousStatus),
+                        LOGGER, baggage::getBaggageTag);
+            }
+        }
+    }
+
+    /**
+     * One copy of the index. Guarded by lock once published.
+     */
+    private static final class Bags {
+        final Map<String, Baggage> byTag = new HashMap<>();
+        final Map<BaggageStatus, Map<Priority, Set<String>>> partitions = new EnumMap<>(BaggageStatus.class);
+
+        Bags() {
+            for (BaggageStatus status : BaggageStatus.values()) {
+                Map<Priority, Set<String>> byPriority = new EnumMap<>(Priority.class);
+                for (Priority priority : Priority.values()) {
+                    byPriority.put(priority, new LinkedHashSet<>());
+                }
+                partitions.put(status, byPriority);
+            }
+        }
+
+        /**
+         * Replaces any bag with the same tag, returning the one replaced.
+         */
+        Baggage put(Baggage baggage) {
+            Baggage previous = remove(baggage.getBaggageTag());
+            if (isHeld(baggage.getStatus())) {
+                byTag.put(baggage.getBaggageTag(), baggage);
+                partition(baggage).add(baggage.getBaggageTag());
+            }
+            return previous;
+        }
+
+        void update(String baggageTag, BaggageStatus newStatus, String location) {
+            Baggage baggage = byTag.get(baggageTag);
+            if (baggage == null) {
+                return;
+            }
+            baggage.setCurrentLocation(location);
+            if (newStatus == null || newStatus == baggage.getStatus()) {
+                return;
+            }
+            partition(baggage).remove(baggageTag);
+            baggage.setStatus(newStatus);
+            if (isHeld(newStatus)) {
+                partition(baggage).add(baggageTag);
+            } else {
+                byTag.remove(baggageTag);
+            }
+        }
+
+        Baggage remove(String baggageTag) {
+            Baggage baggage = byTag.remove(baggageTag);
+            if (baggage != null) {
+                partition(baggage).remove(baggageTag);
+            }
+            return baggage;
+        }
+
+        void collect(BaggageStatus status, Priority priority, List<Baggage> found) {
+            for (String tag : partitions.get(status).get(priority)) {
+                found.add(copy(byTag.get(tag)));
+            }
+        }
+
+        private Set<String> partition(Baggage baggage) {
+            BaggageStatus status = baggage.getStatus() != null ? baggage.getStatus() : BaggageStatus.REGISTERED;
+            Priority priority = baggage.getPriority() != null ? baggage.getPriority() : Priority.NORMAL;
+            return partitions.get(status).get(priority);
+        }
+    }
+
+    /**
+     * Whether the index keeps bags in this status; delivered bags leave it.
+     */
+    private static boolean isHeld(BaggageStatus status) {
+        return status != BaggageStatus.DELIVERED;
+    }
+
+    /**
+     * Callers get their own copy, so editing one never changes the index.
+     */
+    private static Baggage copy(Baggage source) {
+        Baggage copy = new Baggage();
+        copy.setBaggageId(source.getBaggageId());
+        copy.setBaggageTag(source.getBaggageTag());
+        if (source.getBookingId() > 0) {
+            copy.setBookingId(source.getBookingId());
+        }
+        if (source.getWeight() != null && source.getWeight().signum() > 0) {
+            copy.setWeight(source.getWeight());
+        }
+        copy.setDimensions(source.getDimensions());
+        copy.setBaggageType(source.getBaggageType());
+        copy.setStatus(source.getStatus());
+        copy.setCurrentLocation(source.getCurrentLocation());
+        copy.setDestinationAirport(source.getDestinationAirport());
+        copy.setPriority(source.getPriority());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        copy.setHandledBy(source.getHandledBy());
+        return copy;
+    }
+}
@@ -0,0 +1,336 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.dao.BaggageDAO;
+import com.gatorsoft.aerodeskpro.entity.BaggageStatus;
+import com.gatorsoft.aerodeskpro.entity.BaggageType;
+import com.gatorsoft.aerodeskpro.entity.CargoHold;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.Baggage;
+import com.gatorsoft.aerodeskpro.models.FlightBaggageWeight;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Running baggage weight per flight, by baggage type and hold, for load
+ * planning. Weights are held as longs in hundredths of a kg, so a bag costs
+ * one BigDecimal conversion when it is added and none when totals are read.
+ *
+ * A flight is loaded from the database the first time it is asked for and
+ * then kept current from registrations, status changes and deletions made
+ * in this process. Other desks change bags too, so a flight's totals are
+ * read again when they are more than a minute old, and always for the final
+ * weight. Bags that are LOST or DELAYED are offloaded: they stay known but
+ * do not count towards the flight.
+ *
+ * A load reads the database without holding the flight's monitor. Changes
+ * arriving meanwhile are applied to the totals being served and also queued,
+ * then replayed on the rows read, so each is counted exactly once whether or
+ * not the read already saw it.
+ */
+public class BaggageWeightAggregator {
+
+    private static final BaggageWeightAggregator INSTANCE = new BaggageWeightAggregator();
+
+    private static final long REFRESH_MILLIS = 60_000;
+
+    private final Map<Integer, FlightWeights> flights = new ConcurrentHashMap<>();
+    private final Map<String, Integer> flightByTag = new ConcurrentHashMap<>();
+    // Bookings with a bag on a held flight; their next bag needs no lookup
+    private final Map<Integer, Integer> flightByBooking = new ConcurrentHashMap<>();
+
+    BaggageWeightAggregator() {
+    }
+
+    public static BaggageWeightAggregator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Current weight of a flight's baggage. Reads the database the first
+     * time the flight is asked for and when its totals are over a minute old.
+     */
+    public FlightBaggageWeight getFlightWeight(int flightId, BaggageDAO baggageDAO) throws AeroDeskException {
+        return getFlightWeight(flightId, baggageDAO, REFRESH_MILLIS);
+    }
+
+    /**
+     * Weight of a flight's baggage read from the database now, for the
+     * final figure at departure.
+     */
+    public FlightBaggageWeight getFinalFlightWeight(int flightId, BaggageDAO baggageDAO) throws AeroDeskException {
+        return getFlightWeight(flightId, baggageDAO, 0);
+    }
+
+    private FlightBaggageWeight getFlightWeight(int flightId, BaggageDAO baggageDAO, long maxAgeMillis) throws AeroDeskException {
+        FlightWeights weights = flights.computeIfAbsent(flightId, FlightWeights::new);
+        // One load per flight; the monitor itself stays free for changes
+        synchronized (weights.loadLock) {
+            synchronized (weights) {
+                if (weights.loaded && System.currentTimeMillis() - weights.loadedAt < maxAgeMillis) {
+                    return weights.snapshot();
+                }
+                weights.changesDuringLoad = new ArrayList<>();
+            }
+            long readStarted = System.currentTimeMillis();
+            List<Baggage> bags;
+            try {
+                bags = baggageDAO.getBaggageByFlight(flightId);
+            } catch (AeroDeskException | RuntimeException e) {
+                synchronized (weights) {
+                    weights.changesDuringLoad = null;
+                    if (!weights.loaded) {
+                        // Never loaded: do not leave the flight looking held
+                        flights.remove(flightId, weights);
+                    }
+                }
+                throw e;
+            }
+            synchronized (weights) {
+                weights.clear();
+                for (Baggage baggage : bags) {
+                    weights.add(baggage);
+                    flightByBooking.put(baggage.getBookingId(), flightId);
+                }
+                for (Consumer<FlightWeights> change : weights.changesDuringLoad) {
+                    change.accept(weights);
+                }
+                weights.changesDuringLoad = null;
+                flightByTag.values().removeIf(id -> id == flightId);
+                for (String baggageTag : weights.bags.keySet()) {
+                    flightByTag.put(baggageTag, flightId);
+                }
+                weights.loaded = true;
+                weights.loadedAt = readStarted;
+                return weights.snapshot();
+            }
+        }
+    }
+
+    /**
+     * Whether any flight is held, i.e. whether registrations need to be
+     * reported at all.
+     */
+    public boolean isTracking() {
+        return !flights.isEmpty();
+    }
+
+    public boolean isTracking(int flightId) {
+        return flights.containsKey(flightId);
+    }
+
+    /**
+     * Flight of a booking that already has a bag on a held flight, or 0.
+     */
+    public int flightOfBooking(int bookingId) {
+        return flightByBooking.getOrDefault(bookingId, 0);
+    }
+
+    /**
+     * Adds a newly registered bag. Ignored for flights not held, since a
+     * later load will read it.
+     */
+    public void register(int flightId, Baggage baggage) {
+        FlightWeights weights = flights.get(flightId);
+        if (weights == null) {
+            return;
+        }
+        synchronized (weights) {
+            if (weights.loaded && weights.add(baggage)) {
+                flightByTag.put(baggage.getBaggageTag(), flightId);
+                flightByBooking.put(baggage.getBookingId(), flightId);
+            }
+            if (weights.changesDuringLoad != null) {
+                // add() skips the bag if the load already read it
+                weights.changesDuringLoad.add(loading -> loading.add(baggage));
+            }
+        }
+    }
+
+    /**
+     * Applies a status change; entering LOST or DELAYED offloads the bag and
+     * leaving them puts it back.
+     */
+    public void updateStatus(String baggageTag, BaggageStatus status) {
+        if (status == null) {
+            return;
+        }
+        FlightWeights weights = weightsOf(baggageTag);
+        if (weights == null) {
+            // Its flight is unknown until loaded, so queue it on any flight loading
+            whileLoading(loading -> loading.setStatus(baggageTag, status));
+            return;
+        }
+        synchronized (weights) {
+            weights.setStatus(baggageTag, status);
+            if (weights.changesDuringLoad != null) {
+                weights.changesDuringLoad.add(loading -> loading.setStatus(baggageTag, status));
+            }
+        }
+    }
+
+    /**
+     * Forgets a deleted bag.
+     */
+    public void remove(String baggageTag) {
+        FlightWeights weights = weightsOf(baggageTag);
+        flightByTag.remove(baggageTag);
+        if (weights == null) {
+            whileLoading(loading -> loading.remove(baggageTag));
+            return;
+        }
+        synchronized (weights) {
+            weights.remove(baggageTag);
+            if (weights.changesDuringLoad != null) {
+                weights.changesDuringLoad.add(loading -> loading.remove(baggageTag));
+            }
+        }
+    }
+
+    /**
+     * Drops a flight; it is read again the next time it is asked for.
+     */
+    public void invalidate(int flightId) {
+        flights.remove(flightId);
+        flightByTag.values().removeIf(id -> id == flightId);
+        flightByBooking.values().removeIf(id -> id == flightId);
+    }
+
+    /**
+     * Makes every held flight read its bags again on its next use, keeping
+     * the totals until then.
+     */
+    public void markStale() {
+        for (FlightWeights weights : flights.values()) {
+            synchronized (weights) {
+                weights.loadedAt = 0;
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        flights.clear();
+        flightByTag.clear();
+        flightByBooking.clear();
+    }
+
+    /**
+     * Weight in hundredths of a kg, rounded half up.
+     */
+    public static long toHundredths(BigDecimal kg) {
+        return kg == null ? 0 : kg.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Queues a change on every flight whose load is reading the database;
+     * a flight that does not hold the bag ignores it.
+     */
+    private void whileLoading(Consumer<FlightWeights> change) {
+        for (FlightWeights weights : flights.values()) {
+            synchronized (weights) {
+                if (weights.changesDuringLoad != null) {
+                    weights.changesDuringLoad.add(change);
+                }
+            }
+        }
+    }
+
+    private FlightWeights weightsOf(String baggageTag) {
+        Integer flightId = baggageTag != null ? flightByTag.get(baggageTag) : null;
+        return flightId != null ? flights.get(flightId) : null;
+    }
+
+    private static boolean isOnboard(BaggageStatus status) {
+        return status != BaggageStatus.LOST && status != BaggageStatus.DELAYED;
+    }
+
+    private static final class BagWeight {
+        final int cell;
+        final long hundredths;
+        boolean onboard;
+
+        BagWeight(int cell, long hundredths, boolean onboard) {
+            this.cell = cell;
+            this.hundredths = hundredths;
+            this.onboard = onboard;
+        }
+    }
+
+    /**
+     * Totals of one flight; guarded by its own monitor.
+     */
+    private static final class FlightWeights {
+        final int flightId;
+        final Object loadLock = new Object();
+        final Map<String, BagWeight> bags = new HashMap<>();
+        final long[] hundredths = new long[FlightBaggageWeight.cells()];
+        final int[] counts = new int[FlightBaggageWeight.cells()];
+        boolean loaded;
+        // When the last load started reading
+        long loadedAt;
+        // Changes arriving while the load reads the database, or null when none is
+        List<Consumer<FlightWeights>> changesDuringLoad;
+
+        FlightWeights(int flightId) {
+            this.flightId = flightId;
+        }
+
+        /**
+         * @return false if the bag was already counted
+         */
+        boolean add(Baggage baggage) {
+            if (bags.containsKey(baggage.getBaggageTag())) {
+                return false;
+            }
+            BaggageType type = baggage.getBaggageType() != null ? baggage.getBaggageType() : BaggageType.CHECKED;
+            CargoHold hold = CargoHold.forBaggage(type, baggage.getPriority());
+            BagWeight bag = new BagWeight(FlightBaggageWeight.cell(type, hold), toHundredths(baggage.getWeight()),
+                    isOnboard(baggage.getStatus()));
+            bags.put(baggage.getBaggageTag(), bag);
+            if (bag.onboard) {
+                apply(bag, 1);
+            }
+            return true;
+        }
+
+        void setStatus(String baggageTag, BaggageStatus status) {
+            BagWeight bag = bags.get(baggageTag);
+            if (bag == null) {
+                return;
+            }
+            boolean onboard = isOnboard(status);
+            if (bag.onboard != onboard) {
+                apply(bag, onboard ? 1 : -1);
+                bag.onboard = onboard;
+            }
+        }
+
+        void remove(String baggageTag) {
+            BagWeight bag = bags.remove(baggageTag);
+            if (bag != null && bag.onboard) {
+                apply(bag, -1);
+            }
+        }
+
+        void clear() {
+            bags.clear();
+            Arrays.fill(hundredths, 0);
+            Arrays.fill(counts, 0);
+        }
+
+        void apply(BagWeight bag, int sign) {
+            hundredths[bag.cell] += sign * bag.hundredths;
+            counts[bag.cell] += sign;
+        }
+
+        FlightBaggageWeight snapshot() {
+            return new FlightBaggageWeight(flightId, hundredths.clone(), counts.clone());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.dao.BookingDAO;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.BoardingPass;
+import com.gatorsoft.aerodeskpro.utils.BcbpEncoder;
+import com.gatorsoft.aerodeskpro.utils.BoardingPassTemplate;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Produces boarding passes for a whole flight at once: one query for every
+ * checked-in passenger, then barcode encoding and rendering spread over the
+ * common fork/join pool. The template is compiled once and shared.
+ */
+public class BoardingPassBatchGenerator {
+
+    private static final Logger LOGGER = Logger.getLogger(BoardingPassBatchGenerator.class.getName());
+
+    /** Boarding starts this long before scheduled departure. */
+    public static final long BOARDING_MINUTES_BEFORE_DEPARTURE = 30;
+
+    // Separates passes in a print file so the printer cuts between them
+    private static final char FORM_FEED = '\f';
+
+    private final BookingDAO bookingDAO;
+    private final BoardingPassTemplate template;
+
+    public BoardingPassBatchGenerator() {
+        this(new BookingDAO(), BoardingPassTemplate.compile(BoardingPassTemplate.DEFAULT_LAYOUT));
+    }
+
+    public BoardingPassBatchGenerator(BookingDAO bookingDAO, BoardingPassTemplate template) {
+        this.bookingDAO = bookingDAO;
+        this.template = template;
+    }
+
+    /**
+     * Boarding passes of every checked-in or boarded passenger on the flight, in
+     * check-in order, with boarding time and barcode filled in.
+     */
+    public List<BoardingPass> generateForFlight(int flightId) throws AeroDeskException {
+        long started = System.nanoTime();
+        List<BoardingPass> passes = bookingDAO.findBoardingPassData(flightId);
+        passes.parallelStream().forEach(BoardingPassBatchGenerator::complete);
+        LOGGER.info(String.format("Generated %d boarding passes for flight %d in %d ms",
+                passes.size(), flightId, (System.nanoTime() - started) / 1_000_000));
+        return passes;
+    }
+
+    /**
+     * Boarding pass of one checked-in or boarded booking, read with a single
+     * query; numbered as in its flight's batch.
+     *
+     * @return null if the booking does not exist or is not checked in
+     */
+    public BoardingPass generateForBooking(int bookingId) throws AeroDeskException {
+        BoardingPass pass = bookingDAO.findBookingBoardingPassData(bookingId);
+        if (pass != null) {
+            complete(pass);
+        }
+        return pass;
+    }
+
+    /**
+     * Renders passes with the compiled template, in parallel. The result is
+     * in the same order as the input.
+     */
+    public List<String> render(List<BoardingPass> passes) {
+        return passes.parallelStream().map(template::render).collect(Collectors.toList());
+    }
+
+    /**
+     * Generates and renders a flight's passes into one print file, one pass
+     * per page.
+     *
+     * @return number of passes written
+     */
+    public int writePrintFile(int flightId, Path file) throws AeroDeskException {
+        List<String> rendered = render(generateForFlight(flightId));
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rendered.size(); i++) {
+                if (i > 0) {
+                    writer.write(FORM_FEED);
+                }
+                writer.write(rendered.get(i));
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error writing boarding passes for flight " + flightId + " to " + file, e);
+            throw new AeroDeskException("Failed to write boarding passes", e, AeroDeskException.ErrorCategory.SYSTEM_ERROR);
+        }
+        return rendered.size();
+    }
+
+    /**
+     * Fills in the derived fields of a pass read from the database.
+     */
+    static void complete(BoardingPass pass) {
+        if (pass.getDepartureTime() != null) {
+            pass.setBoardingTime(pass.getDepartureTime().minusMinutes(BOARDING_MINUTES_BEFORE_DEPARTURE));
+        }
+        pass.setBarcodeData(BcbpEncoder.encode(pass));
+    }
+}
@@ -0,0 +1,71 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.dao.SequenceDAO;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+
+/**
+ * Issues six-character booking references such as "K7QZ3M". Each reference
+ * is a sequence value from {@link SequenceBlockAllocator}, scrambled by a
+ * fixed 30-bit permutation so consecutive bookings do not get consecutive
+ * references, then written in a 32-letter alphabet without I, O, 0 or 1.
+ * Distinct sequence values always give distinct references.
+ */
+public class BookingReferenceGenerator {
+
+    public static final String SEQUENCE_NAME = "booking_reference";
+
+    private static final int BLOCK_SIZE = 10_000;
+    private static final char[] ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789".toCharArray();
+    private static final int LENGTH = 6;
+    private static final int BITS = 5 * LENGTH;
+    private static final long MASK = (1L << BITS) - 1;
+
+    private static final BookingReferenceGenerator INSTANCE = new BookingReferenceGenerator(
+            new SequenceBlockAllocator(new SequenceDAO(), SEQUENCE_NAME, BLOCK_SIZE, 1));
+
+    private final SequenceBlockAllocator allocator;
+
+    BookingReferenceGenerator(SequenceBlockAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    public static BookingReferenceGenerator getInstance() {
+        return INSTANCE;
+    }
+
+    public String next() throws AeroDeskException {
+        long value = allocator.next();
+        if (value < 0 || value > MASK) {
+            throw new AeroDeskException("Booking reference sequence exhausted at " + value,
+                    AeroDeskException.ErrorCategory.SYSTEM_ERROR);
+        }
+        return encode(value);
+    }
+
+    /**
+     * Reference for a sequence value in [0, 2^30).
+     */
+    static String encode(long value) {
+        long scrambled = permute(value);
+        char[] reference = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            reference[i] = ALPHABET[(int) (scrambled & 31)];
+            scrambled >>>= 5;
+        }
+        return new String(reference);
+    }
+
+    /**
+     * Bijection on 30-bit values: odd multipliers and xor-shifts are each
+     * invertible modulo 2^30.
+     */
+    private static long permute(long value) {
+        long x = value & MASK;
+        x = (x * 0x2545F491L) & MASK;
+        x ^= x >>> 15;
+        x = (x * 0x1B873593L) & MASK;
+        x ^= x >>> 13;
+        x = (x + 0x1D2C3A5BL) & MASK;
+        return x;
+    }
+}
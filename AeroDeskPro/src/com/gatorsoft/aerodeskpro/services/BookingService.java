@@ -3,13 +3,27 @@ package com.gatorsoft.aerodeskpro.services;
 import com.gatorsoft.aerodeskpro.dao.BookingDAO;
 import com.gatorsoft.aerodeskpro.dao.PassengerDAO;
 import com.gatorsoft.aerodeskpro.dao.FlightDAO;
+import com.gatorsoft.aerodeskpro.dao.FlightLoadDAO;
+import com.gatorsoft.aerodeskpro.dao.WaitlistDAO;
+import com.gatorsoft.aerodeskpro.entity.BookingClass;
 import com.gatorsoft.aerodeskpro.entity.BookingStatus;
+import com.gatorsoft.aerodeskpro.entity.FrequentFlyerTier;
 import com.gatorsoft.aerodeskpro.models.Booking;
 import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
 import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException.ErrorCategory;
 import com.gatorsoft.aerodeskpro.models.BoardingPass;
+import com.gatorsoft.aerodeskpro.models.CabinLayout;
+import com.gatorsoft.aerodeskpro.models.FlightLoad;
+import com.gatorsoft.aerodeskpro.models.GroupCheckInResult;
+import com.gatorsoft.aerodeskpro.models.WaitlistEntry;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -19,6 +33,18 @@ public class BookingService {
     private PassengerDAO passengerDAO;
     private FlightDAO flightDAO;
     private Logger logger;
+    private final OperationalCounters counters = OperationalCounters.getInstance();
+    private final SeatInventory seatInventory = SeatInventory.getInstance();
+    private final BookingReferenceGenerator referenceGenerator = BookingReferenceGenerator.getInstance();
+    private final FlightLoadCounters flightLoads = FlightLoadCounters.getInstance();
+    private final FlightLoadDAO flightLoadDAO = new FlightLoadDAO();
+    private final BoardingPassBatchGenerator boardingPassGenerator = new BoardingPassBatchGenerator();
+    private final WaitlistService waitlist = WaitlistService.getInstance();
+    private final WaitlistDAO waitlistDAO = new WaitlistDAO();
+
+    private static final String SEAT_TAKEN = "SEAT_TAKEN";
+    // Booking references per UPDATE in a group check-in
+    private static final int GROUP_CHECK_IN_CHUNK = 500;
 
     public BookingService() {
         this.bookingDAO = new BookingDAO();
@@ -30,6 +56,9 @@ public class BookingService {
     // Create a new booking
     public Booking createBooking(Booking booking) throws AeroDeskException {
         try {
+            if (booking != null && (booking.getBookingReference() == null || booking.getBookingReference().trim().isEmpty())) {
+                booking.setBookingReference(referenceGenerator.next());
+            }
             validateBooking(booking);  // Validate booking data
 
             // Save the booking in the database using DAO
@@ -38,6 +67,9 @@ public class BookingService {
                 throw new AeroDeskException("Failed to create booking", ErrorCategory.DATABASE_ERROR);
             }
 
+            seatInventory.markTaken(savedBooking.getFlightId(), savedBooking.getSeatNumber(), savedBooking.getBookingId());
+            counters.recordBookingCreated(savedBooking.getBookingStatus());
+            flightLoads.recordCreated(savedBooking.getFlightId(), savedBooking.getBookingStatus());
             logger.info("Booking created successfully: " + savedBooking.getBookingReference());
             return savedBooking;
         } catch (Exception e) {
@@ -46,33 +78,204 @@ public class BookingService {
         }
     }
 
+    // Issue a new booking reference, unique across all desks
+    public String generateBookingReference() throws AeroDeskException {
+        return referenceGenerator.next();
+    }
+
     // Check-in passenger by booking reference
     public Booking checkInPassenger(String bookingReference, int staffId) throws AeroDeskException {
+        checkIn(bookingReference, staffId);
+        return bookingDAO.findByReference(bookingReference.trim());
+    }
+
+    /**
+     * Checks in a confirmed booking with one conditional UPDATE. The booking
+     * is only read again when the update matches nothing, to say why.
+     */
+    public void checkIn(String bookingReference, int staffId) throws AeroDeskException {
         try {
             if (bookingReference == null || bookingReference.trim().isEmpty()) {
                 throw new AeroDeskException("Booking reference cannot be null or empty", ErrorCategory.VALIDATION_ERROR);
             }
+            String reference = bookingReference.trim();
+
+            int flightId = bookingDAO.checkIn(reference, staffId, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+            if (flightId == 0) {
+                Booking booking = bookingDAO.findByReference(reference);
+                if (booking == null) {
+                    throw new AeroDeskException("Booking not found with reference: " + reference, ErrorCategory.RESOURCE_NOT_FOUND);
+                }
+                throw new AeroDeskException(checkInRejection(booking.getBookingStatus()) + ": " + reference,
+                        ErrorCategory.BUSINESS_RULE_VIOLATION);
+            }
+            counters.recordBookingStatusChange(BookingStatus.CONFIRMED, BookingStatus.CHECKED_IN);
+            recordLoadChange(flightId, BookingStatus.CONFIRMED, BookingStatus.CHECKED_IN);
+
+            logger.info("Passenger checked in successfully: " + reference + " by staff ID: " + staffId);
+        } catch (AeroDeskException e) {
+            logger.log(Level.WARNING, "Check-in refused: " + e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error checking in passenger", e);
+            throw new AeroDeskException("Failed to check in passenger", e, ErrorCategory.DATABASE_ERROR);
+        }
+    }
+
+    /**
+     * Checks in a travelling party together. Each chunk of references is
+     * read once, which gives the flight of every booking and the reason for
+     * any that cannot be checked in, then checked in with one UPDATE per
+     * flight in it, usually just one. MySQL's UPDATE returns no rows, so this
+     * read is what lets loads be counted per flight from the UPDATE's own
+     * row count. Bookings already checked in are rejected, as by
+     * {@link #checkIn}.
+     */
+    public GroupCheckInResult checkInGroup(List<String> bookingReferences, int staffId) throws AeroDeskException {
+        try {
+            if (bookingReferences == null || bookingReferences.isEmpty()) {
+                throw new AeroDeskException("No booking references to check in", ErrorCategory.VALIDATION_ERROR);
+            }
+            List<String> references = new ArrayList<>(new LinkedHashSet<>(trimAll(bookingReferences)));
+            // check_in_time keeps whole seconds; a finer value would not read back equal
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+            int updated = 0;
+            List<String> checkedIn = new ArrayList<>();
+            Map<String, String> rejected = new LinkedHashMap<>();
+            for (int from = 0; from < references.size(); from += GROUP_CHECK_IN_CHUNK) {
+                List<String> chunk = references.subList(from, Math.min(references.size(), from + GROUP_CHECK_IN_CHUNK));
+                Map<String, Booking> bookings = bookingDAO.findByReferences(chunk);
+
+                Map<Integer, List<String>> confirmedByFlight = new LinkedHashMap<>();
+                for (String reference : chunk) {
+                    Booking booking = bookings.get(reference);
+                    if (booking == null) {
+                        rejected.put(reference, "Booking not found");
+                    } else if (booking.getBookingStatus() != BookingStatus.CONFIRMED) {
+                        rejected.put(reference, checkInRejection(booking.getBookingStatus()));
+                    } else {
+                        confirmedByFlight.computeIfAbsent(booking.getFlightId(), id -> new ArrayList<>()).add(reference);
+                    }
+                }
+
+                for (Map.Entry<Integer, List<String>> flight : confirmedByFlight.entrySet()) {
+                    int flightUpdated = bookingDAO.checkInAll(flight.getKey(), flight.getValue(), staffId, now);
+                    for (int i = 0; i < flightUpdated; i++) {
+                        counters.recordBookingStatusChange(BookingStatus.CONFIRMED, BookingStatus.CHECKED_IN);
+                        recordLoadChange(flight.getKey(), BookingStatus.CONFIRMED, BookingStatus.CHECKED_IN);
+                    }
+                    updated += flightUpdated;
+                    if (flightUpdated == flight.getValue().size()) {
+                        checkedIn.addAll(flight.getValue());
+                    } else {
+                        // Another desk changed some of them since the read; ours carry this check-in's staff and time
+                        attributeCheckIns(flight.getValue(), staffId, now, checkedIn, rejected);
+                    }
+                }
+            }
 
-            // Find the booking by reference
-            Booking booking = bookingDAO.findByReference(bookingReference);
+            GroupCheckInResult result = new GroupCheckInResult(updated);
+            checkedIn.forEach(result::addCheckedIn);
+            rejected.forEach(result::addRejected);
+            logger.info("Group check-in by staff ID " + staffId + ": " + result);
+            return result;
+        } catch (AeroDeskException e) {
+            logger.log(Level.WARNING, "Group check-in refused: " + e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error checking in group", e);
+            throw new AeroDeskException("Failed to check in group", e, ErrorCategory.DATABASE_ERROR);
+        }
+    }
+
+    private void attributeCheckIns(List<String> references, int staffId, LocalDateTime checkInTime,
+            List<String> checkedIn, Map<String, String> rejected) throws AeroDeskException {
+        Map<String, Booking> bookings = bookingDAO.findByReferences(references);
+        for (String reference : references) {
+            Booking booking = bookings.get(reference);
             if (booking == null) {
-                throw new AeroDeskException("Booking not found with reference: " + bookingReference, ErrorCategory.RESOURCE_NOT_FOUND);
+                rejected.put(reference, "Booking not found");
+            } else if (booking.getBookingStatus() == BookingStatus.CHECKED_IN
+                    && Integer.valueOf(staffId).equals(booking.getCheckedInBy())
+                    && checkInTime.equals(booking.getCheckInTime())) {
+                checkedIn.add(reference);
+            } else {
+                rejected.put(reference, checkInRejection(booking.getBookingStatus()));
             }
+        }
+    }
 
-            // Update the booking status to CHECKED_IN
-            booking.setBookingStatus(BookingStatus.CHECKED_IN);
-            bookingDAO.update(booking);
+    /**
+     * Marks a checked-in passenger as boarded with one conditional UPDATE.
+     */
+    public void boardPassenger(String bookingReference) throws AeroDeskException {
+        try {
+            if (bookingReference == null || bookingReference.trim().isEmpty()) {
+                throw new AeroDeskException("Booking reference cannot be null or empty", ErrorCategory.VALIDATION_ERROR);
+            }
+            String reference = bookingReference.trim();
 
-            // Assuming a method to log the check-in staff details, which can be added
-            logger.info("Passenger checked in successfully: " + bookingReference + " by staff ID: " + staffId);
-            return booking;
+            int flightId = bookingDAO.board(reference);
+            if (flightId == 0) {
+                Booking booking = bookingDAO.findByReference(reference);
+                if (booking == null) {
+                    throw new AeroDeskException("Booking not found with reference: " + reference, ErrorCategory.RESOURCE_NOT_FOUND);
+                }
+                throw new AeroDeskException("Cannot board a booking with status " + booking.getBookingStatus() + ": " + reference,
+                        ErrorCategory.BUSINESS_RULE_VIOLATION);
+            }
+            counters.recordBookingStatusChange(BookingStatus.CHECKED_IN, BookingStatus.BOARDED);
+            recordLoadChange(flightId, BookingStatus.CHECKED_IN, BookingStatus.BOARDED);
 
+            logger.info("Passenger boarded: " + reference);
+        } catch (AeroDeskException e) {
+            logger.log(Level.WARNING, "Boarding refused: " + e.getMessage());
+            throw e;
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error checking in passenger", e);
-            throw new AeroDeskException("Failed to check in passenger", e, ErrorCategory.DATABASE_ERROR);
+            logger.log(Level.SEVERE, "Error boarding passenger", e);
+            throw new AeroDeskException("Failed to board passenger", e, ErrorCategory.DATABASE_ERROR);
         }
     }
 
+    /**
+     * Booked, checked-in and boarded totals for every flight departing in
+     * [from, to), served from the in-memory mirror.
+     */
+    public List<FlightLoad> getFlightLoads(LocalDateTime from, LocalDateTime to) throws AeroDeskException {
+        return flightLoads.getLoads(from, to, flightLoadDAO);
+    }
+
+    public FlightLoad getFlightLoad(int flightId) throws AeroDeskException {
+        return flightLoads.getLoad(flightId, flightLoadDAO);
+    }
+
+    private void recordLoadChange(int flightId, BookingStatus from, BookingStatus to) {
+        if (flightId > 0) {
+            flightLoads.recordStatusChange(flightId, from, to);
+        } else {
+            flightLoads.markStale();
+        }
+    }
+
+    private static String checkInRejection(BookingStatus status) {
+        if (status == BookingStatus.CHECKED_IN) {
+            return "Booking is already checked in";
+        }
+        return "Cannot check in a booking with status " + status;
+    }
+
+    private static List<String> trimAll(List<String> values) throws AeroDeskException {
+        List<String> trimmed = new ArrayList<>(values.size());
+        for (String value : values) {
+            if (value == null || value.trim().isEmpty()) {
+                throw new AeroDeskException("Booking reference cannot be null or empty", ErrorCategory.VALIDATION_ERROR);
+            }
+            trimmed.add(value.trim());
+        }
+        return trimmed;
+    }
+
     // Cancel a booking
     public void cancelBooking(int bookingId, String reason) throws AeroDeskException {
         try {
@@ -81,24 +284,141 @@ public class BookingService {
                 throw new AeroDeskException("Cancellation reason cannot be null or empty", ErrorCategory.VALIDATION_ERROR);
             }
 
-            // Find the booking by ID
-            Booking booking = bookingDAO.findById(bookingId);
+            // Update booking status to CANCELLED, which also clears its seat, re-reading it if a check-in or seat change lands first
+            BookingStatus[] previousStatus = new BookingStatus[1];
+            Booking booking = OptimisticRetry.run("booking " + bookingId,
+                    () -> bookingDAO.findById(bookingId),
+                    current -> {
+                        previousStatus[0] = current.getBookingStatus();
+                        current.setBookingStatus(BookingStatus.CANCELLED);
+                        return previousStatus[0] != BookingStatus.CANCELLED;
+                    },
+                    current -> {
+                        if (bookingDAO.update(current) == null) {
+                            throw new AeroDeskException("Booking not found with ID: " + bookingId, ErrorCategory.RESOURCE_NOT_FOUND);
+                        }
+                    });
             if (booking == null) {
                 throw new AeroDeskException("Booking not found with ID: " + bookingId, ErrorCategory.RESOURCE_NOT_FOUND);
             }
-
-            // Update booking status to CANCELLED
-            booking.setBookingStatus(BookingStatus.CANCELLED);
-            bookingDAO.update(booking);
+            if (previousStatus[0] == BookingStatus.CANCELLED) {
+                logger.info("Booking already cancelled: " + bookingId);
+                return;
+            }
+            counters.recordBookingStatusChange(previousStatus[0], BookingStatus.CANCELLED);
+            flightLoads.recordStatusChange(booking.getFlightId(), previousStatus[0], BookingStatus.CANCELLED);
+            releaseSeat(booking);
 
             // Optionally, log cancellation reason and any other relevant info
             logger.info("Booking cancelled: " + bookingId + " Reason: " + reason);
+
+            promoteFromWaitlist(booking.getFlightId(),
+                    booking.getBookingClass() != null ? booking.getBookingClass() : BookingClass.ECONOMY);
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error cancelling booking", e);
             throw new AeroDeskException("Failed to cancel booking", e, ErrorCategory.DATABASE_ERROR);
         }
     }
 
+    // Free a cancelled booking's seat in the seat map; the cancel's UPDATE has already cleared it
+    private void releaseSeat(Booking booking) {
+        seatInventory.release(booking.getFlightId(), booking.getSeatNumber(), booking.getBookingId());
+        booking.setSeatNumber(null);
+    }
+
+    // Put a passenger on the waitlist of a full flight
+    public WaitlistEntry joinWaitlist(int flightId, int passengerId, BookingClass bookingClass, FrequentFlyerTier tier) throws AeroDeskException {
+        if (flightId <= 0 || passengerId <= 0) {
+            throw new AeroDeskException("Flight and passenger are required to join a waitlist", ErrorCategory.VALIDATION_ERROR);
+        }
+        return waitlist.add(new WaitlistEntry(flightId, passengerId, bookingClass, tier), waitlistDAO);
+    }
+
+    // Take a passenger off a flight's waitlist
+    public boolean leaveWaitlist(int flightId, int waitlistId) throws AeroDeskException {
+        return waitlist.remove(flightId, waitlistId, waitlistDAO);
+    }
+
+    // Waiting passengers of a flight and class, in promotion order
+    public List<WaitlistEntry> getWaitlist(int flightId, BookingClass bookingClass) throws AeroDeskException {
+        return waitlist.getWaiting(flightId, bookingClass, waitlistDAO);
+    }
+
+    /**
+     * Books the first waiting passenger of a class into a free seat of that
+     * class, normally the one a cancellation just released. Failures are
+     * logged and leave the passenger waiting; they never undo the
+     * cancellation.
+     *
+     * @return the new booking, or null if nobody was promoted
+     */
+    private Booking promoteFromWaitlist(int flightId, BookingClass bookingClass) {
+        SeatMap seatMap;
+        int seat;
+        WaitlistEntry entry;
+        try {
+            seatMap = seatInventory.getSeatMap(flightId, flightDAO, bookingDAO);
+            seat = seatMap.claimBest(bookingClass, null);
+            if (seat < 0) {
+                // The map may not show seats other desks have freed
+                seatMap = seatInventory.reload(flightId, flightDAO, bookingDAO);
+                seat = seatMap.claimBest(bookingClass, null);
+            }
+            if (seat < 0) {
+                return null;
+            }
+            entry = waitlist.claimNext(flightId, bookingClass, waitlistDAO);
+            if (entry == null) {
+                seatMap.abandon(seat);
+                return null;
+            }
+        } catch (AeroDeskException e) {
+            logger.log(Level.WARNING, "Waitlist of flight " + flightId + " not checked", e);
+            return null;
+        }
+
+        try {
+            Booking booking = new Booking();
+            booking.setFlightId(flightId);
+            booking.setPassengerId(entry.getPassengerId());
+            booking.setBookingClass(bookingClass);
+            booking.setBookingStatus(BookingStatus.CONFIRMED);
+            booking.setSeatNumber(seatMap.getLayout().seatNumber(seat));
+            booking.setCreatedAt(LocalDateTime.now());
+            Booking promoted = createBooking(booking);
+            seatMap.commit(seat, promoted.getBookingId());
+            waitlist.completePromotion(entry, promoted.getBookingId(), waitlistDAO);
+            logger.info("Passenger " + entry.getPassengerId() + " promoted from waitlist to booking "
+                    + promoted.getBookingReference() + " seat " + promoted.getSeatNumber());
+            return promoted;
+        } catch (AeroDeskException e) {
+            // A seat taken by another desk stays marked; any other failure frees it
+            if (!isSeatTaken(e)) {
+                seatMap.abandon(seat);
+            } else {
+                seatMap.commit(seat, 0);
+                seatInventory.markStale(flightId);
+            }
+            logger.log(Level.WARNING, "Promotion of waitlist entry " + entry.getWaitlistId() + " failed", e);
+            try {
+                waitlist.requeue(entry, waitlistDAO);
+            } catch (AeroDeskException requeueFailure) {
+                logger.log(Level.SEVERE, "Waitlist entry " + entry.getWaitlistId() + " left claimed", requeueFailure);
+            }
+            return null;
+        }
+    }
+
+    // createBooking wraps what the DAO throws, so look through the causes
+    private static boolean isSeatTaken(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AeroDeskException && SEAT_TAKEN.equals(((AeroDeskException) cause).getErrorCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     // Get all bookings for a flight
     public List<Booking> getFlightBookings(int flightId) throws AeroDeskException {
         try {
@@ -111,6 +431,16 @@ public class BookingService {
         }
     }
 
+    // Number of bookings in each status, for seeding the operational counters
+    public Map<BookingStatus, Long> getBookingCountsByStatus() throws AeroDeskException {
+        try {
+            return bookingDAO.countByStatus();
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error counting bookings by status", e);
+            throw new AeroDeskException("Failed to count bookings by status", e, ErrorCategory.DATABASE_ERROR);
+        }
+    }
+
     // Assign a seat to a booking
     public void assignSeat(int bookingId, String seatNumber) throws AeroDeskException {
         try {
@@ -118,47 +448,170 @@ public class BookingService {
                 throw new AeroDeskException("Seat number cannot be null or empty", ErrorCategory.VALIDATION_ERROR);
             }
 
-            // Find the booking by ID
-            Booking booking = bookingDAO.findById(bookingId);
-            if (booking == null) {
-                throw new AeroDeskException("Booking not found with ID: " + bookingId, ErrorCategory.RESOURCE_NOT_FOUND);
+            Booking booking = findSeatableBooking(bookingId);
+            SeatMap seatMap = seatInventory.getSeatMap(booking.getFlightId(), flightDAO, bookingDAO);
+            int seat = seatMap.getLayout().indexOf(seatNumber);
+            if (seat < 0) {
+                throw new AeroDeskException("Seat " + seatNumber + " does not exist on flight " + booking.getFlightId(),
+                        ErrorCategory.VALIDATION_ERROR);
+            }
+            if (seatMap.getLayout().seatNumber(seat).equals(booking.getSeatNumber())) {
+                return;
+            }
+
+            // Claim in memory first; only the winner goes to the database
+            boolean claimed = seatMap.claim(seat);
+            if (!claimed) {
+                // Look again in case another desk has freed it since the map was read
+                seatMap = seatInventory.reload(booking.getFlightId(), flightDAO, bookingDAO);
+                claimed = seatMap.claim(seat);
+            }
+            if (!claimed) {
+                throw new AeroDeskException("Seat " + seatNumber + " is already taken", null,
+                        ErrorCategory.BUSINESS_RULE_VIOLATION, SEAT_TAKEN, seatNumber);
             }
+            try {
+                moveToClaimedSeat(booking, seatMap, seat);
+            } catch (AeroDeskException e) {
+                if (SEAT_TAKEN.equals(e.getErrorCode())) {
+                    // The map showed it free, so it is behind the database
+                    seatInventory.markStale(booking.getFlightId());
+                }
+                throw e;
+            }
+
+            logger.info("Seat " + seatMap.getLayout().seatNumber(seat) + " assigned to booking ID: " + bookingId);
+        } catch (AeroDeskException e) {
+            logger.log(Level.WARNING, "Seat not assigned: " + e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error assigning seat", e);
+            throw new AeroDeskException("Failed to assign seat", e, ErrorCategory.DATABASE_ERROR);
+        }
+    }
 
-            // Assuming there's a method to assign the seat in the Booking model
-            booking.setSeatNumber(seatNumber); // You might need a method in Booking class to set seat number
-            bookingDAO.update(booking);
+    /**
+     * Assigns the front-most free seat in the booking's class, preferring the
+     * given position where one is free.
+     *
+     * @return the seat number assigned
+     */
+    public String assignBestSeat(int bookingId, CabinLayout.SeatPosition preferred) throws AeroDeskException {
+        try {
+            Booking booking = findSeatableBooking(bookingId);
+            BookingClass bookingClass = booking.getBookingClass() != null ? booking.getBookingClass() : BookingClass.ECONOMY;
+            SeatMap seatMap = seatInventory.getSeatMap(booking.getFlightId(), flightDAO, bookingDAO);
+            boolean reloaded = false;
 
-            logger.info("Seat " + seatNumber + " assigned to booking ID: " + bookingId);
+            while (true) {
+                int seat = seatMap.claimBest(bookingClass, preferred);
+                if (seat < 0 && !reloaded) {
+                    // Seats freed by other desks are only seen after a reload
+                    seatMap = seatInventory.reload(booking.getFlightId(), flightDAO, bookingDAO);
+                    reloaded = true;
+                    continue;
+                }
+                if (seat < 0) {
+                    throw new AeroDeskException("No " + bookingClass + " seats left on flight " + booking.getFlightId(),
+                            ErrorCategory.BUSINESS_RULE_VIOLATION);
+                }
+                try {
+                    moveToClaimedSeat(booking, seatMap, seat);
+                } catch (AeroDeskException e) {
+                    if (SEAT_TAKEN.equals(e.getErrorCode())) {
+                        // Taken by another desk; read the map again and move on
+                        seatMap = seatInventory.reload(booking.getFlightId(), flightDAO, bookingDAO);
+                        reloaded = true;
+                        continue;
+                    }
+                    throw e;
+                }
+                String seatNumber = seatMap.getLayout().seatNumber(seat);
+                logger.info("Seat " + seatNumber + " assigned to booking ID: " + bookingId);
+                return seatNumber;
+            }
+        } catch (AeroDeskException e) {
+            logger.log(Level.WARNING, "Seat not assigned: " + e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error assigning seat", e);
             throw new AeroDeskException("Failed to assign seat", e, ErrorCategory.DATABASE_ERROR);
         }
     }
 
-    // Generate boarding pass for a booking
-    public BoardingPass generateBoardingPass(int bookingId) throws AeroDeskException {
+    private Booking findSeatableBooking(int bookingId) throws AeroDeskException {
+        Booking booking = bookingDAO.findById(bookingId);
+        if (booking == null) {
+            throw new AeroDeskException("Booking not found with ID: " + bookingId, ErrorCategory.RESOURCE_NOT_FOUND);
+        }
+        if (booking.getBookingStatus() == BookingStatus.CANCELLED) {
+            throw new AeroDeskException("Cannot assign a seat to a cancelled booking", ErrorCategory.BUSINESS_RULE_VIOLATION);
+        }
+        return booking;
+    }
+
+    /**
+     * Persists a seat already claimed in the seat map, then frees the
+     * booking's previous seat. The claim is undone if the write fails, and
+     * kept as someone else's when the database reports the seat as held by
+     * another booking.
+     */
+    private void moveToClaimedSeat(Booking booking, SeatMap seatMap, int seat) throws AeroDeskException {
+        CabinLayout layout = seatMap.getLayout();
+        String previousSeat = booking.getSeatNumber();
+        boolean moved;
         try {
-            // Find the booking by ID
-            Booking booking = bookingDAO.findById(bookingId);
-            if (booking == null) {
-                throw new AeroDeskException("Booking not found with ID: " + bookingId, ErrorCategory.RESOURCE_NOT_FOUND);
+            moved = bookingDAO.updateSeat(booking.getBookingId(), booking.getFlightId(), previousSeat, layout.seatNumber(seat));
+        } catch (AeroDeskException e) {
+            if (SEAT_TAKEN.equals(e.getErrorCode())) {
+                seatMap.commit(seat, 0);
+            } else {
+                seatMap.abandon(seat);
             }
+            throw e;
+        }
+        if (!moved) {
+            seatMap.abandon(seat);
+            throw new AeroDeskException("Booking " + booking.getBookingId() + " changed while assigning a seat; reload and retry",
+                    ErrorCategory.BUSINESS_RULE_VIOLATION);
+        }
+
+        seatMap.commit(seat, booking.getBookingId());
+        int previous = layout.indexOf(previousSeat);
+        if (previous >= 0) {
+            seatMap.releaseHeldBy(previous, booking.getBookingId());
+        }
+        booking.setSeatNumber(layout.seatNumber(seat));
+    }
 
-            // Check if booking is checked-in
-            if (booking.getBookingStatus() != BookingStatus.CHECKED_IN) {
+    // Generate boarding pass for a booking
+    public BoardingPass generateBoardingPass(int bookingId) throws AeroDeskException {
+        try {
+            // One query for this pass; the booking is only read again to explain a refusal
+            BoardingPass boardingPass = boardingPassGenerator.generateForBooking(bookingId);
+            if (boardingPass == null) {
+                Booking booking = bookingDAO.findById(bookingId);
+                if (booking == null) {
+                    throw new AeroDeskException("Booking not found with ID: " + bookingId, ErrorCategory.RESOURCE_NOT_FOUND);
+                }
                 throw new AeroDeskException("Booking must be checked-in before generating a boarding pass", ErrorCategory.VALIDATION_ERROR);
             }
-
-            // Generate the boarding pass (basic example, you can expand it)
-            BoardingPass boardingPass = new BoardingPass(booking);
             logger.info("Boarding pass generated for booking ID: " + bookingId);
             return boardingPass;
+        } catch (AeroDeskException e) {
+            logger.log(Level.WARNING, "Boarding pass not generated for booking ID: " + bookingId, e);
+            throw e;
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error generating boarding pass", e);
             throw new AeroDeskException("Failed to generate boarding pass", e, ErrorCategory.SYSTEM_ERROR);
         }
     }
 
+    // Generate boarding passes for every checked-in or boarded passenger on a flight
+    public List<BoardingPass> generateBoardingPasses(int flightId) throws AeroDeskException {
+        return boardingPassGenerator.generateForFlight(flightId);
+    }
+
     // Validate booking data
     public void validateBooking(Booking booking) throws AeroDeskException {
         if (booking == null) {
@@ -0,0 +1,438 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.dao.FlightDAO;
+import com.gatorsoft.aerodeskpro.dao.GateDAO;
+import com.gatorsoft.aerodeskpro.entity.FlightStatus;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.DelayImpact;
+import com.gatorsoft.aerodeskpro.models.DelayImpact.Cause;
+import com.gatorsoft.aerodeskpro.models.Flight;
+import com.gatorsoft.aerodeskpro.models.GateAssignment;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Dependency graph of the day's flights. Flights flown by the same aircraft are
+ * chained in rotation order and gate assignments are chained per gate, so a
+ * delay only walks the flights and slots that are actually pushed back.
+ *
+ * The graph stays loaded between delays. Saved delays and single-flight or
+ * single-slot changes are patched into it node by node; it is only read
+ * again for another day, when a change would relink a chain, or after
+ * {@link #MAX_AGE_MILLIS} as a backstop for flights added on other desks.
+ * The database is read without holding the engine's monitor. Screens share
+ * one engine through {@link #getInstance}, so a delay saved on one is
+ * propagated through the same graph the others preview against.
+ */
+public class DelayPropagationEngine {
+
+    private static final Logger LOGGER = Logger.getLogger(DelayPropagationEngine.class.getName());
+
+    // Business constants
+    private static final long MIN_TURNAROUND_MINUTES = 45;
+    private static final long GATE_BUFFER_MINUTES = 10;
+    private static final long OVERNIGHT_LOOKAHEAD_HOURS = 12;
+    static final long MAX_AGE_MILLIS = 10 * 60_000L;
+
+    private static final DelayPropagationEngine INSTANCE = new DelayPropagationEngine(new FlightDAO(), new GateDAO());
+
+    private final FlightDAO flightDAO;
+    private final GateDAO gateDAO;
+
+    private Map<Integer, FlightNode> flights = new HashMap<>();
+    private Map<Integer, GateSlot> slots = new HashMap<>();
+    private LocalDate loadedDay;
+    private long loadedAt;
+    // Moved on by invalidate, so a load that raced it is not installed
+    private long generation;
+
+    public DelayPropagationEngine(FlightDAO flightDAO, GateDAO gateDAO) {
+        this.flightDAO = flightDAO;
+        this.gateDAO = gateDAO;
+    }
+
+    public static DelayPropagationEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Loads the day's graph unless it is already loaded and fresh.
+     */
+    public void ensureLoaded(LocalDate day) throws AeroDeskException {
+        synchronized (this) {
+            if (day.equals(loadedDay) && System.currentTimeMillis() - loadedAt < MAX_AGE_MILLIS) {
+                return;
+            }
+        }
+        loadDay(day);
+    }
+
+    /**
+     * Loads flights and gate assignments for a day (plus the overnight tail) and
+     * links them into rotation and gate chains.
+     */
+    public void loadDay(LocalDate day) throws AeroDeskException {
+        long startedGeneration;
+        synchronized (this) {
+            startedGeneration = generation;
+        }
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = day.plusDays(1).atStartOfDay().plusHours(OVERNIGHT_LOOKAHEAD_HOURS);
+
+        List<Flight> dayFlights = flightDAO.getFlightsByDateRange(start, end);
+        List<GateAssignment> assignments = gateDAO.findAssignmentsForWindow(start, end);
+
+        Map<Integer, FlightNode> loadedFlights = new HashMap<>();
+        Map<Integer, List<FlightNode>> rotations = new HashMap<>();
+        for (Flight flight : dayFlights) {
+            FlightNode node = new FlightNode(flight);
+            loadedFlights.put(node.flightId, node);
+            if (node.aircraftId > 0) {
+                rotations.computeIfAbsent(node.aircraftId, id -> new ArrayList<>()).add(node);
+            }
+        }
+
+        for (List<FlightNode> rotation : rotations.values()) {
+            rotation.sort(Comparator.comparing((FlightNode n) -> n.departure));
+            for (int i = 1; i < rotation.size(); i++) {
+                rotation.get(i - 1).nextInRotation = rotation.get(i);
+                rotation.get(i).previousInRotation = rotation.get(i - 1);
+            }
+        }
+
+        // Assignments arrive ordered by gate and start time
+        Map<Integer, GateSlot> loadedSlots = new HashMap<>();
+        GateSlot previous = null;
+        for (GateAssignment assignment : assignments) {
+            if (assignment.getEstimatedStartTime() == null || assignment.getEstimatedEndTime() == null) {
+                continue;
+            }
+            GateSlot slot = new GateSlot(assignment);
+            loadedSlots.put(assignment.getAssignmentId(), slot);
+            FlightNode owner = loadedFlights.get(assignment.getFlightId());
+            if (owner != null) {
+                owner.slot = slot;
+                slot.flight = owner;
+            }
+            if (previous != null && previous.assignment.getGateId() == assignment.getGateId()) {
+                previous.nextAtGate = slot;
+                slot.previousAtGate = previous;
+            }
+            previous = slot;
+        }
+
+        synchronized (this) {
+            if (generation != startedGeneration) {
+                return; // Invalidated while reading; the next delay loads again
+            }
+            flights = loadedFlights;
+            slots = loadedSlots;
+            loadedDay = day;
+            loadedAt = System.currentTimeMillis();
+        }
+        LOGGER.log(Level.INFO, "Delay graph loaded for {0}: {1} flights, {2} rotations, {3} gate slots",
+                new Object[]{day, loadedFlights.size(), rotations.size(), assignments.size()});
+    }
+
+    /**
+     * Puts a flight's node at the times and status just read for it. A
+     * flight the graph does not hold, moved to another aircraft or out of
+     * order in its rotation, drops the graph instead, as its chains would
+     * have to be relinked.
+     */
+    public synchronized void updateFlight(Flight flight) {
+        if (loadedDay == null || flight.getDepartureTime() == null) {
+            return;
+        }
+        FlightNode node = flights.get(flight.getFlightId());
+        if (node == null) {
+            if (flight.getDepartureTime().toLocalDate().equals(loadedDay)) {
+                invalidate();
+            }
+            return;
+        }
+        LocalDateTime departure = flight.getDepartureTime();
+        if (flight.getAircraftType() != node.aircraftId
+                || (node.previousInRotation != null && departure.isBefore(node.previousInRotation.departure))
+                || (node.nextInRotation != null && departure.isAfter(node.nextInRotation.departure))) {
+            invalidate();
+            return;
+        }
+        node.departure = departure;
+        node.arrival = flight.getArrivalTime();
+        node.status = flight.getStatus();
+    }
+
+    /**
+     * Puts a gate slot at the window just read for its assignment, dropping
+     * the graph if the assignment changed gate, left its place in the gate's
+     * order or is gone (null).
+     */
+    public synchronized void updateGateSlot(int assignmentId, GateAssignment assignment) {
+        GateSlot slot = slots.get(assignmentId);
+        if (slot == null) {
+            return;
+        }
+        if (assignment == null || assignment.getEstimatedStartTime() == null || assignment.getEstimatedEndTime() == null
+                || assignment.getGateId() != slot.assignment.getGateId()
+                || (slot.previousAtGate != null && assignment.getEstimatedStartTime().isBefore(slot.previousAtGate.assignment.getEstimatedStartTime()))
+                || (slot.nextAtGate != null && assignment.getEstimatedStartTime().isAfter(slot.nextAtGate.assignment.getEstimatedStartTime()))) {
+            invalidate();
+            return;
+        }
+        slot.assignment.setEstimatedStartTime(assignment.getEstimatedStartTime());
+        slot.assignment.setEstimatedEndTime(assignment.getEstimatedEndTime());
+    }
+
+    /**
+     * Patches a saved delay's flight and gate changes into the graph.
+     */
+    public synchronized void commit(DelayImpact impact) {
+        for (DelayImpact.FlightChange change : impact.getFlightChanges()) {
+            FlightNode node = flights.get(change.getFlightId());
+            if (node != null) {
+                node.departure = change.getNewDeparture();
+                node.arrival = change.getNewArrival();
+                if (node.flightId == impact.getRootFlightId()) {
+                    node.status = FlightStatus.delayed;
+                }
+            }
+        }
+        for (DelayImpact.GateSlotChange change : impact.getGateSlotChanges()) {
+            GateSlot slot = slots.get(change.getAssignmentId());
+            if (slot != null) {
+                slot.assignment.setEstimatedStartTime(change.getNewStart());
+                slot.assignment.setEstimatedEndTime(change.getNewEnd());
+            }
+        }
+    }
+
+    public synchronized boolean contains(int flightId) {
+        return flights.containsKey(flightId);
+    }
+
+    public synchronized LocalDate getLoadedDay() {
+        return loadedDay;
+    }
+
+    /**
+     * Drops the loaded graph so the next delay reloads it from the database.
+     * Used when flights are added, or a change would relink a chain.
+     */
+    public synchronized void invalidate() {
+        flights = new HashMap<>();
+        slots = new HashMap<>();
+        loadedDay = null;
+        generation++;
+    }
+
+    /**
+     * Unlinks a cancelled flight from its rotation and gate chains.
+     */
+    public synchronized void removeFlight(int flightId) {
+        FlightNode node = flights.remove(flightId);
+        if (node == null) {
+            return;
+        }
+        if (node.previousInRotation != null) {
+            node.previousInRotation.nextInRotation = node.nextInRotation;
+        }
+        if (node.nextInRotation != null) {
+            node.nextInRotation.previousInRotation = node.previousInRotation;
+        }
+        GateSlot slot = node.slot;
+        if (slot != null) {
+            slots.remove(slot.assignment.getAssignmentId());
+            if (slot.previousAtGate != null) {
+                slot.previousAtGate.nextAtGate = slot.nextAtGate;
+            }
+            if (slot.nextAtGate != null) {
+                slot.nextAtGate.previousAtGate = slot.previousAtGate;
+            }
+        }
+    }
+
+    /**
+     * Computes the knock-on effect of moving a flight's departure without
+     * changing the graph.
+     */
+    public synchronized DelayImpact preview(int flightId, LocalDateTime newDeparture) {
+        return propagate(flightId, newDeparture);
+    }
+
+    private DelayImpact propagate(int flightId, LocalDateTime newDeparture) {
+        long started = System.nanoTime();
+        DelayImpact impact = new DelayImpact(flightId);
+
+        FlightNode root = flights.get(flightId);
+        if (root == null || newDeparture == null) {
+            impact.setComputeNanos(System.nanoTime() - started);
+            return impact;
+        }
+
+        Map<FlightNode, Pending> pendingFlights = new IdentityHashMap<>();
+        Map<GateSlot, LocalDateTime[]> movedSlots = new IdentityHashMap<>();
+        PriorityQueue<Pending> queue = new PriorityQueue<>(Comparator.comparing((Pending p) -> p.departure));
+
+        Pending first = new Pending(root, newDeparture, Cause.DIRECT);
+        pendingFlights.put(root, first);
+        queue.add(first);
+
+        while (!queue.isEmpty()) {
+            Pending current = queue.poll();
+            if (pendingFlights.get(current.node) != current) {
+                continue; // Superseded by a later requirement
+            }
+            FlightNode node = current.node;
+            long shiftMinutes = Duration.between(node.departure, current.departure).toMinutes();
+            LocalDateTime arrival = node.arrival.plusMinutes(shiftMinutes);
+
+            // Aircraft rotation: the next leg cannot leave before turnaround
+            FlightNode next = node.nextInRotation;
+            if (next != null && next.isShiftable()) {
+                LocalDateTime required = arrival.plusMinutes(MIN_TURNAROUND_MINUTES);
+                raise(next, required, Cause.AIRCRAFT_ROTATION, pendingFlights, queue);
+            }
+
+            // Gate: move this flight's slot and push whoever parks next
+            if (node.slot != null && shiftMinutes > 0) {
+                moveSlot(node.slot, shiftMinutes, movedSlots, pendingFlights, queue);
+            }
+        }
+
+        List<Pending> resolved = new ArrayList<>(pendingFlights.values());
+        resolved.sort(Comparator.comparing((Pending p) -> p.departure));
+        for (Pending pending : resolved) {
+            FlightNode node = pending.node;
+            long shiftMinutes = Duration.between(node.departure, pending.departure).toMinutes();
+            if (shiftMinutes == 0 && node != root) {
+                continue;
+            }
+            impact.addFlightChange(new DelayImpact.FlightChange(node.flightId, node.flightNumber,
+                    node.departure, pending.departure, node.arrival.plusMinutes(shiftMinutes), pending.cause));
+        }
+        for (Map.Entry<GateSlot, LocalDateTime[]> entry : movedSlots.entrySet()) {
+            GateAssignment assignment = entry.getKey().assignment;
+            impact.addGateSlotChange(new DelayImpact.GateSlotChange(assignment.getAssignmentId(),
+                    assignment.getGateId(), assignment.getFlightId(), assignment.getEstimatedStartTime(),
+                    entry.getValue()[0], entry.getValue()[1]));
+        }
+
+        impact.setComputeNanos(System.nanoTime() - started);
+        return impact;
+    }
+
+    /**
+     * Shifts a gate slot and cascades along the gate while slots overlap.
+     */
+    private void moveSlot(GateSlot slot, long shiftMinutes, Map<GateSlot, LocalDateTime[]> movedSlots,
+            Map<FlightNode, Pending> pendingFlights, PriorityQueue<Pending> queue) {
+        GateSlot current = slot;
+        long shift = shiftMinutes;
+
+        while (current != null && shift > 0) {
+            LocalDateTime[] window = movedSlots.get(current);
+            LocalDateTime baseStart = current.assignment.getEstimatedStartTime();
+            LocalDateTime newStart = baseStart.plusMinutes(shift);
+            if (window != null && !newStart.isAfter(window[0])) {
+                return; // Already moved at least this far
+            }
+            LocalDateTime newEnd = current.assignment.getEstimatedEndTime().plusMinutes(shift);
+            movedSlots.put(current, new LocalDateTime[]{newStart, newEnd});
+
+            GateSlot next = current.nextAtGate;
+            if (next == null) {
+                return;
+            }
+            LocalDateTime required = newEnd.plusMinutes(GATE_BUFFER_MINUTES);
+            LocalDateTime nextStart = movedSlots.containsKey(next) ? movedSlots.get(next)[0] : next.assignment.getEstimatedStartTime();
+            if (!nextStart.isBefore(required)) {
+                return;
+            }
+            long nextShift = Duration.between(next.assignment.getEstimatedStartTime(), required).toMinutes();
+
+            if (next.flight != null && next.flight.isShiftable()) {
+                // The flight owns its slot; moving the flight moves the slot
+                raise(next.flight, next.flight.departure.plusMinutes(nextShift), Cause.GATE_CONFLICT,
+                        pendingFlights, queue);
+                return;
+            }
+            current = next;
+            shift = nextShift;
+        }
+    }
+
+    private void raise(FlightNode node, LocalDateTime requiredDeparture, Cause cause,
+            Map<FlightNode, Pending> pendingFlights, PriorityQueue<Pending> queue) {
+        Pending existing = pendingFlights.get(node);
+        LocalDateTime currentDeparture = existing != null ? existing.departure : node.departure;
+        if (!requiredDeparture.isAfter(currentDeparture)) {
+            return;
+        }
+        Pending pending = new Pending(node, requiredDeparture, existing != null ? existing.cause : cause);
+        pendingFlights.put(node, pending);
+        queue.add(pending);
+    }
+
+    private static final class FlightNode {
+
+        final int flightId;
+        final String flightNumber;
+        final int aircraftId;
+        FlightStatus status;
+        LocalDateTime departure;
+        LocalDateTime arrival;
+        FlightNode previousInRotation;
+        FlightNode nextInRotation;
+        GateSlot slot;
+
+        FlightNode(Flight flight) {
+            this.flightId = flight.getFlightId();
+            this.flightNumber = flight.getFlightNumber();
+            this.aircraftId = flight.getAircraftType();
+            this.status = flight.getStatus();
+            this.departure = flight.getDepartureTime();
+            this.arrival = flight.getArrivalTime();
+        }
+
+        boolean isShiftable() {
+            return status == FlightStatus.scheduled || status == FlightStatus.delayed
+                    || status == FlightStatus.boarding;
+        }
+    }
+
+    private static final class GateSlot {
+
+        final GateAssignment assignment;
+        FlightNode flight;
+        GateSlot previousAtGate;
+        GateSlot nextAtGate;
+
+        GateSlot(GateAssignment assignment) {
+            this.assignment = assignment;
+        }
+    }
+
+    private static final class Pending {
+
+        final FlightNode node;
+        final LocalDateTime departure;
+        final Cause cause;
+
+        Pending(FlightNode node, LocalDateTime departure, Cause cause) {
+            this.node = node;
+            this.departure = departure;
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.dao.FlightLoadDAO;
+import com.gatorsoft.aerodeskpro.entity.BookingStatus;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.FlightLoad;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * In-memory mirror of flight_booking_counters. A schedule window is read in
+ * one query and then served from memory; booking changes made through
+ * {@link BookingService} are applied as deltas straight away, and the window
+ * is re-read at most every few seconds to pick up other desks.
+ */
+public class FlightLoadCounters {
+
+    private static final long REFRESH_INTERVAL_MILLIS = 5_000;
+
+    private static final int BOOKED = 0;
+    private static final int CHECKED_IN = 1;
+    private static final int BOARDED = 2;
+    private static final int CANCELLED = 3;
+
+    private static final FlightLoadCounters INSTANCE = new FlightLoadCounters();
+
+    // Replaced whole on refresh, so a reader never sees a window half loaded
+    private volatile Window window = new Window(null, null, 0);
+    private volatile boolean stale = true;
+
+    FlightLoadCounters() {
+    }
+
+    public static FlightLoadCounters getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Loads of every flight departing in [from, to), earliest first. Reads
+     * the database only when the window is not cached or is due a refresh.
+     */
+    public List<FlightLoad> getLoads(LocalDateTime from, LocalDateTime to, FlightLoadDAO flightLoadDAO) throws AeroDeskException {
+        Window current = window;
+        if (needsRefresh(current, from, to)) {
+            current = load(from, to, flightLoadDAO);
+        }
+        List<FlightLoad> loads = new ArrayList<>();
+        for (Entry entry : current.flights.values()) {
+            LocalDateTime departure = entry.departure;
+            if (departure != null && !departure.isBefore(from) && departure.isBefore(to)) {
+                loads.add(entry.snapshot());
+            }
+        }
+        loads.sort(Comparator.comparing(FlightLoad::getScheduledDeparture));
+        return loads;
+    }
+
+    /**
+     * Load of one flight, from memory when it is mirrored.
+     */
+    public FlightLoad getLoad(int flightId, FlightLoadDAO flightLoadDAO) throws AeroDeskException {
+        Window current = window;
+        Entry entry = current.flights.get(flightId);
+        if (entry != null && !stale) {
+            return entry.snapshot();
+        }
+        FlightLoad load = flightLoadDAO.findLoad(flightId);
+        if (load != null) {
+            current.flights.put(flightId, new Entry(load));
+        }
+        return load;
+    }
+
+    /**
+     * Re-reads a window of the schedule and replaces the mirrored totals.
+     */
+    public void refresh(LocalDateTime from, LocalDateTime to, FlightLoadDAO flightLoadDAO) throws AeroDeskException {
+        load(from, to, flightLoadDAO);
+    }
+
+    /**
+     * Reads the window into a new mirror and publishes it in one step, so
+     * readers still iterating the old one are not cut short.
+     */
+    private synchronized Window load(LocalDateTime from, LocalDateTime to, FlightLoadDAO flightLoadDAO) throws AeroDeskException {
+        // Cleared first so a change marked stale during the read is kept
+        stale = false;
+        List<FlightLoad> loads;
+        try {
+            loads = flightLoadDAO.findLoadsBetween(from, to);
+        } catch (AeroDeskException | RuntimeException e) {
+            stale = true;
+            throw e;
+        }
+        Window refreshed = new Window(from, to, System.currentTimeMillis());
+        for (FlightLoad load : loads) {
+            refreshed.flights.put(load.getFlightId(), new Entry(load));
+        }
+        window = refreshed;
+        return refreshed;
+    }
+
+    // ===== DELTAS =====
+
+    public void recordCreated(int flightId, BookingStatus status) {
+        Entry entry = window.flights.get(flightId);
+        if (entry != null) {
+            entry.apply(status != null ? status : BookingStatus.CONFIRMED, 1);
+        }
+    }
+
+    public void recordStatusChange(int flightId, BookingStatus from, BookingStatus to) {
+        if (from == to) {
+            return;
+        }
+        Entry entry = window.flights.get(flightId);
+        if (entry != null) {
+            entry.apply(from != null ? from : BookingStatus.CONFIRMED, -1);
+            entry.apply(to, 1);
+        }
+    }
+
+    /**
+     * For changes whose flight is not known; the next read goes to the
+     * database.
+     */
+    public void markStale() {
+        stale = true;
+    }
+
+    private boolean needsRefresh(Window current, LocalDateTime from, LocalDateTime to) {
+        return stale
+                || current.from == null
+                || from.isBefore(current.from)
+                || to.isAfter(current.to)
+                || System.currentTimeMillis() - current.refreshedAt > REFRESH_INTERVAL_MILLIS;
+    }
+
+    /**
+     * The flights of one schedule window as read at one time.
+     */
+    private static final class Window {
+        final LocalDateTime from;
+        final LocalDateTime to;
+        final long refreshedAt;
+        final Map<Integer, Entry> flights = new ConcurrentHashMap<>();
+
+        Window(LocalDateTime from, LocalDateTime to, long refreshedAt) {
+            this.from = from;
+            this.to = to;
+            this.refreshedAt = refreshedAt;
+        }
+    }
+
+    private static final class Entry {
+        final int flightId;
+        final String flightNumber;
+        final LocalDateTime departure;
+        final int capacity;
+        final AtomicIntegerArray counts = new AtomicIntegerArray(4);
+
+        Entry(FlightLoad load) {
+            this.flightId = load.getFlightId();
+            this.flightNumber = load.getFlightNumber();
+            this.departure = load.getScheduledDeparture();
+            this.capacity = load.getCapacity();
+            counts.set(BOOKED, load.getBooked());
+            counts.set(CHECKED_IN, load.getCheckedIn());
+            counts.set(BOARDED, load.getBoarded());
+            counts.set(CANCELLED, load.getCancelled());
+        }
+
+        /**
+         * Adds or removes one booking in the given status, using the same
+         * rules as the database triggers.
+         */
+        void apply(BookingStatus status, int delta) {
+            if (status == BookingStatus.CANCELLED) {
+                counts.addAndGet(CANCELLED, delta);
+                return;
+            }
+            counts.addAndGet(BOOKED, delta);
+            if (status == BookingStatus.CHECKED_IN || status == BookingStatus.BOARDED) {
+                counts.addAndGet(CHECKED_IN, delta);
+            }
+            if (status == BookingStatus.BOARDED) {
+                counts.addAndGet(BOARDED, delta);
+            }
+        }
+
+        FlightLoad snapshot() {
+            return new FlightLoad(flightId, flightNumber, departure, capacity,
+                    counts.get(BOOKED), counts.get(CHECKED_IN), counts.get(BOARDED), counts.get(CANCELLED));
+        }
+    }
+}
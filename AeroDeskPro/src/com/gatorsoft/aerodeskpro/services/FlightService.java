@@ -3,14 +3,19 @@ package com.gatorsoft.aerodeskpro.services;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import com.gatorsoft.aerodeskpro.dao.FlightDAO;
+import com.gatorsoft.aerodeskpro.dao.GateDAO;
 import com.gatorsoft.aerodeskpro.entity.FlightStatus;
 import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
 import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException.ErrorCategory;
 import com.gatorsoft.aerodeskpro.exceptions.FlightNotFoundException;
+import com.gatorsoft.aerodeskpro.exceptions.OptimisticLockException;
+import com.gatorsoft.aerodeskpro.models.DelayImpact;
 import com.gatorsoft.aerodeskpro.models.Flight;
 
 /**
@@ -21,18 +26,24 @@ public class FlightService {
 
     private static final Logger LOGGER = Logger.getLogger(FlightService.class.getName());
     private final FlightDAO flightDAO;
+    private final GateDAO gateDAO;
+    private final DelayPropagationEngine delayEngine;
+    private final OperationalCounters counters = OperationalCounters.getInstance();
+    private final SeatInventory seatInventory = SeatInventory.getInstance();
 
     // Business constants
     private static final int MIN_FLIGHT_DURATION_MINUTES = 30;
     private static final int MAX_ADVANCE_BOOKING_DAYS = 365;
 
     public FlightService() {
-        this.flightDAO = new FlightDAO();
+        this(new FlightDAO(), new GateDAO(), DelayPropagationEngine.getInstance());
     }
 
     // For testing - constructor injection
-    public FlightService(FlightDAO flightDAO) {
+    public FlightService(FlightDAO flightDAO, GateDAO gateDAO, DelayPropagationEngine delayEngine) {
         this.flightDAO = flightDAO;
+        this.gateDAO = gateDAO;
+        this.delayEngine = delayEngine;
     }
 
     /**
@@ -58,6 +69,8 @@ public class FlightService {
 
         if (success) {
             LOGGER.info("Flight scheduled successfully: " + flight.getFlightNumber());
+            delayEngine.invalidate();
+            counters.recordFlightScheduled(flight.getStatus());
             // Here you could trigger notifications to other systems
             notifyFlightScheduled(flight);
         }
@@ -95,12 +108,78 @@ public class FlightService {
 
         if (success) {
             LOGGER.info("Flight updated successfully: " + flight.getFlightNumber());
+            delayEngine.updateFlight(flight);
+            recordStatusChange(flight.getFlightId(), currentFlight.getStatus(), flight.getStatus());
             notifyFlightUpdated(flight, currentFlight);
         }
 
         return success;
     }
 
+    /**
+     * Change to some fields of a flight, applied to the latest copy of it.
+     */
+    public interface FlightChange {
+        void apply(Flight flight) throws AeroDeskException;
+    }
+
+    /**
+     * Applies a change to a flight without locking it. If another agent
+     * updates the flight first, the flight is read again and the change
+     * re-applied, so both edits survive. Returns null if the flight does not
+     * exist.
+     */
+    public Flight modifyFlight(int flightId, FlightChange change) throws AeroDeskException {
+        FlightStatus[] previousStatus = new FlightStatus[1];
+        Flight updated = writeFlight(flightId, current -> {
+            previousStatus[0] = current.getStatus();
+            change.apply(current);
+        });
+        if (updated != null) {
+            delayEngine.updateFlight(updated);
+            recordStatusChange(flightId, previousStatus[0], updated.getStatus());
+        }
+        return updated;
+    }
+
+    // Counts the change and drops the seat map of a flight that no longer takes bookings
+    private void recordStatusChange(int flightId, FlightStatus from, FlightStatus to) {
+        counters.recordFlightStatusChange(from, to);
+        if (to == null) {
+            return;
+        }
+        switch (to) {
+            case departed:
+            case in_flight:
+            case arrived:
+            case completed:
+            case cancelled:
+                seatInventory.evict(flightId);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private Flight writeFlight(int flightId, FlightChange change) throws AeroDeskException {
+        return OptimisticRetry.run("flight " + flightId,
+                () -> flightDAO.getFlightById(flightId),
+                current -> {
+                    if (!current.canBeModified()) {
+                        throw new AeroDeskException(
+                                "Cannot modify flight in status: " + current.getStatus(),
+                                ErrorCategory.BUSINESS_RULE_VIOLATION);
+                    }
+                    change.apply(current);
+                    return true;
+                },
+                current -> {
+                    if (!flightDAO.updateFlight(current)) {
+                        throw new FlightNotFoundException(flightId);
+                    }
+                });
+    }
+
     /**
      * Updates flight status with business logic
      */
@@ -130,6 +209,7 @@ public class FlightService {
         if (success) {
             LOGGER.info("Flight status updated successfully: "
                     + currentFlight.getFlightNumber());
+            recordStatusChange(flightId, currentFlight.getStatus(), newStatus);
             // Trigger status-specific business logic
             handleStatusChange(currentFlight, newStatus);
         }
@@ -161,6 +241,8 @@ public class FlightService {
 
         if (success) {
             LOGGER.info("Flight cancelled successfully: " + flight.getFlightNumber());
+            delayEngine.removeFlight(flightId);
+            recordStatusChange(flightId, flight.getStatus(), FlightStatus.cancelled);
             // Here you would typically:
             // - Notify passengers
             // - Release gate assignment
@@ -234,6 +316,13 @@ public class FlightService {
         return flightDAO.getFlightsByDateRange(startOfDay, endOfDay);
     }
 
+    /**
+     * Number of flights in each status, for seeding the operational counters.
+     */
+    public Map<FlightStatus, Long> getFlightCountsByStatus() throws AeroDeskException {
+        return flightDAO.countFlightsByStatus();
+    }
+
     /**
      * Gets flights by status
      */
@@ -261,6 +350,19 @@ public class FlightService {
      */
     public boolean delayFlight(int flightId, LocalDateTime newDepartureTime)
             throws AeroDeskException {
+        return delayFlightAndPropagate(flightId, newDepartureTime) != null;
+    }
+
+    /**
+     * Delays a flight and returns the knock-on changes to later flights flown by
+     * the same aircraft and to gate slots. The delay and its knock-on changes
+     * are saved in one transaction. If another desk changed the flight, or a
+     * row the delay moves, meanwhile, only that flight or slot is read again
+     * and the delay recomputed, a few times before giving up. Returns null if
+     * the flight no longer exists.
+     */
+    public DelayImpact delayFlightAndPropagate(int flightId, LocalDateTime newDepartureTime)
+            throws AeroDeskException {
         LOGGER.info("Delaying flight ID: " + flightId);
 
         Flight flight = flightDAO.getFlightById(flightId);
@@ -268,29 +370,86 @@ public class FlightService {
             throw new FlightNotFoundException(flightId);
         }
 
-        // Business rule: Can only delay scheduled flights
-        if (flight.getStatus() != FlightStatus.scheduled) {
-            throw new AeroDeskException(
-                    "Can only delay scheduled flights. Current status: "
-                    + "flight.getStatus() ",
-                    ErrorCategory.BUSINESS_RULE_VIOLATION);
-        }
+        for (int attempt = 1;; attempt++) {
+            // Business rule: Can only delay scheduled flights
+            if (flight.getStatus() != FlightStatus.scheduled) {
+                throw new AeroDeskException(
+                        "Can only delay scheduled flights. Current status: " + flight.getStatus(),
+                        ErrorCategory.BUSINESS_RULE_VIOLATION);
+            }
 
-        // Update flight times
-        flight.setDepartureTime(newDepartureTime);
-        // Assume arrival time is adjusted proportionally
-        long originalDuration = flight.getDurationMinutes();
-        flight.setArrivalTime(newDepartureTime.plusMinutes(originalDuration));
-        flight.setStatus(FlightStatus.delayed);
+            DelayImpact impact = computeDelay(flight, newDepartureTime);
+
+            // Assume arrival time is adjusted proportionally
+            long originalDuration = flight.getDurationMinutes();
+            flight.setDepartureTime(newDepartureTime);
+            flight.setArrivalTime(newDepartureTime.plusMinutes(originalDuration));
+            flight.setStatus(FlightStatus.delayed);
+
+            try {
+                if (!flightDAO.saveDelay(flight, impact.getKnockOnChanges(), impact.getGateSlotChanges())) {
+                    return null;
+                }
+                delayEngine.commit(impact);
+                LOGGER.info("Flight delayed successfully: " + flight.getFlightNumber());
+                counters.recordFlightStatusChange(FlightStatus.scheduled, FlightStatus.delayed);
+                notifyFlightDelayed(flight, impact);
+                return impact;
+            } catch (OptimisticLockException e) {
+                if (attempt >= OptimisticRetry.MAX_ATTEMPTS) {
+                    throw new AeroDeskException("Flight " + flightId + " was not delayed: it or its knock-on changes "
+                            + "kept conflicting with other schedule changes", e, ErrorCategory.BUSINESS_RULE_VIOLATION);
+                }
+                LOGGER.log(Level.FINE, "Delay of flight {0} conflicted, recomputing", flightId);
+                refreshConflicting(e);
+            }
 
-        boolean success = flightDAO.updateFlight(flight);
+            flight = flightDAO.getFlightById(flightId);
+            if (flight == null) {
+                return null;
+            }
+        }
+    }
 
-        if (success) {
-            LOGGER.info("Flight delayed successfully: " + flight.getFlightNumber());
-            notifyFlightDelayed(flight);
+    /**
+     * Computes what a delay would do to downstream flights and gate slots without
+     * changing anything.
+     */
+    public DelayImpact previewDelay(int flightId, LocalDateTime newDepartureTime)
+            throws AeroDeskException {
+        Flight flight = flightDAO.getFlightById(flightId);
+        if (flight == null) {
+            throw new FlightNotFoundException(flightId);
         }
+        return computeDelay(flight, newDepartureTime);
+    }
 
-        return success;
+    // On the loaded graph, loading it again if the flight as read no longer fits its chains
+    private DelayImpact computeDelay(Flight flight, LocalDateTime newDeparture) throws AeroDeskException {
+        LocalDate day = flight.getDepartureTime().toLocalDate();
+        for (int load = 1;; load++) {
+            delayEngine.ensureLoaded(day);
+            synchronized (delayEngine) {
+                delayEngine.updateFlight(flight);
+                if (delayEngine.contains(flight.getFlightId()) || load >= 2) {
+                    return delayEngine.preview(flight.getFlightId(), newDeparture);
+                }
+            }
+        }
+    }
+
+    // Reads again just the flight or gate slot another desk moved under a delay
+    private void refreshConflicting(OptimisticLockException conflict) throws AeroDeskException {
+        if ("Gate assignment".equals(conflict.getEntity())) {
+            delayEngine.updateGateSlot(conflict.getEntityId(), gateDAO.findAssignmentById(conflict.getEntityId()));
+            return;
+        }
+        Flight moved = flightDAO.getFlightById(conflict.getEntityId());
+        if (moved != null) {
+            delayEngine.updateFlight(moved);
+        } else {
+            delayEngine.removeFlight(conflict.getEntityId());
+        }
     }
 
     // ===== PRIVATE VALIDATION METHODS =====
@@ -459,8 +618,11 @@ public class FlightService {
     /**
      * Handles flight delayed notification
      */
-    private void notifyFlightDelayed(Flight flight) {
+    private void notifyFlightDelayed(Flight flight, DelayImpact impact) {
         LOGGER.info("Notification: Flight delayed - " + flight.getFlightNumber());
+        for (DelayImpact.FlightChange change : impact.getKnockOnChanges()) {
+            LOGGER.info("Notification: Knock-on delay - " + change);
+        }
         // Notify passengers, crew, ground services
     }
 
@@ -4,6 +4,7 @@ import com.gatorsoft.aerodeskpro.dao.GateDAO;
 import com.gatorsoft.aerodeskpro.entity.GateStatus;
 import com.gatorsoft.aerodeskpro.entity.GateType;
 import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.exceptions.OptimisticLockException;
 import com.gatorsoft.aerodeskpro.models.Gate;
 import com.gatorsoft.aerodeskpro.models.GateSchedule;
 import java.time.LocalDate;
@@ -52,9 +53,22 @@ public class GateService {
             }
 
             // Assign the first available gate (this can be customized further)
-            Gate gate = availableGates.get(0);
-            gate.setAvailable(false); // Mark gate as occupied
-            gateDAO.update(gate); // Update the gate's availability in the database
+            Gate gate = null;
+            for (Gate candidate : availableGates) {
+                candidate.setAvailable(false); // Mark gate as occupied
+                try {
+                    if (gateDAO.update(candidate) != null) { // Update the gate's availability in the database
+                        gate = candidate;
+                        break;
+                    }
+                } catch (OptimisticLockException e) {
+                    // Changed by another agent since the list was read; try the next one
+                    logger.log(Level.FINE, "Gate " + candidate.getGateNumber() + " changed while assigning, skipping");
+                }
+            }
+            if (gate == null) {
+                throw new AeroDeskException("No available gates of type " + gateType, AeroDeskException.ErrorCategory.BUSINESS_RULE_VIOLATION);
+            }
             
             // Log assignment
             logger.log(Level.INFO, "Assigned gate " + gate.getGateNumber() + " to flight " + flightId);
@@ -74,14 +88,17 @@ public class GateService {
      */
     public void updateGateStatus(int gateId, GateStatus status) throws AeroDeskException {
         try {
-            // Use gateDAO to find the gate by its ID
-            Gate gate = gateDAO.findById(gateId);
+            // Re-read and re-apply if another agent updates the gate in between
+            Gate gate = OptimisticRetry.run("gate " + gateId,
+                    () -> gateDAO.findById(gateId),
+                    current -> {
+                        current.setStatus(status);
+                        return true;
+                    },
+                    current -> gateDAO.update(current)); // Update the gate status in the database
             if (gate == null) {
                 throw new AeroDeskException("Gate not found with ID: " + gateId, AeroDeskException.ErrorCategory.RESOURCE_NOT_FOUND);
             }
-
-            gate.setStatus(status);
-            gateDAO.update(gate); // Update the gate status in the database
             
             // Log the status update
             logger.log(Level.INFO, "Updated gate " + gate.getGateNumber() + " status to " + status);
@@ -0,0 +1,55 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.dao.SequenceDAO;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+
+/**
+ * Issues 10-digit baggage license plates such as "0000012345". The first
+ * digit is the IATA tag type (0 for a normal tag) and the other nine are a
+ * sequence value from {@link SequenceBlockAllocator}, so plates are unique
+ * across desks and issuing one does not touch the database.
+ */
+public class LicensePlateGenerator {
+
+    public static final String SEQUENCE_NAME = "baggage_license_plate";
+
+    private static final int BLOCK_SIZE = 1_000;
+    private static final char TAG_TYPE = '0';
+    private static final int SERIAL_DIGITS = 9;
+    private static final long MAX_SERIAL = 999_999_999L;
+
+    private static final LicensePlateGenerator INSTANCE = new LicensePlateGenerator(
+            new SequenceBlockAllocator(new SequenceDAO(), SEQUENCE_NAME, BLOCK_SIZE, 1));
+
+    private final SequenceBlockAllocator allocator;
+
+    LicensePlateGenerator(SequenceBlockAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    public static LicensePlateGenerator getInstance() {
+        return INSTANCE;
+    }
+
+    public String next() throws AeroDeskException {
+        long serial = allocator.next();
+        if (serial < 0 || serial > MAX_SERIAL) {
+            throw new AeroDeskException("Baggage license plate sequence exhausted at " + serial,
+                    AeroDeskException.ErrorCategory.SYSTEM_ERROR);
+        }
+        return format(serial);
+    }
+
+    /**
+     * Plate for a serial in [0, 10^9).
+     */
+    static String format(long serial) {
+        char[] plate = new char[SERIAL_DIGITS + 1];
+        plate[0] = TAG_TYPE;
+        for (int i = SERIAL_DIGITS; i > 0; i--) {
+            plate[i] = (char) ('0' + serial % 10);
+            serial /= 10;
+        }
+        return new String(plate);
+    }
+}
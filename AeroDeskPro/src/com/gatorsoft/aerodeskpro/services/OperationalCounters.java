@@ -0,0 +1,285 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.entity.BaggageStatus;
+import com.gatorsoft.aerodeskpro.entity.BookingStatus;
+import com.gatorsoft.aerodeskpro.entity.FlightStatus;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.OperationalSnapshot;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * In-memory operational counters updated by the services on every write.
+ * Activity is kept in hourly buckets over a rolling 24 hour window and current
+ * flight, booking and baggage states are kept as per-status gauges, so the
+ * dashboard reads a snapshot instead of running COUNT(*) queries.
+ *
+ * The gauges cover all flights, bookings and bags. They are seeded once, at
+ * startup, from one aggregate count per table; from then on they move only by
+ * the deltas the services record as they write, each from the status the row
+ * had in the database to the one written. The seed keeps the deltas recorded
+ * while its queries run. Writes made by other processes are not seen here, so
+ * the gauges show this process's view until the next start.
+ */
+public class OperationalCounters {
+
+    private static final Logger LOGGER = Logger.getLogger(OperationalCounters.class.getName());
+
+    private static final int HOURS = OperationalSnapshot.HOURS;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final long RETRY_MILLIS = 30_000L;
+
+    private static final OperationalCounters INSTANCE = new OperationalCounters();
+
+    /**
+     * Activity counted per hour.
+     */
+    public enum Metric {
+        FLIGHTS_SCHEDULED, FLIGHT_STATUS_CHANGES, FLIGHTS_DELAYED, FLIGHTS_CANCELLED,
+        BOOKINGS_CREATED, BOOKINGS_CANCELLED, CHECK_INS,
+        BAGS_REGISTERED, BAG_STATUS_CHANGES
+    }
+
+    private final AtomicReferenceArray<HourBucket> hours = new AtomicReferenceArray<>(HOURS);
+    private final Map<FlightStatus, LongAdder> flightsByStatus = new EnumMap<>(FlightStatus.class);
+    private final Map<BookingStatus, LongAdder> bookingsByStatus = new EnumMap<>(BookingStatus.class);
+    private final Map<BaggageStatus, LongAdder> bagsByStatus = new EnumMap<>(BaggageStatus.class);
+    private final AtomicBoolean seeding = new AtomicBoolean();
+    private volatile boolean seeded;
+    private volatile long attemptedAt;
+
+    /**
+     * Reads per-status counts for {@link #seed}.
+     */
+    public interface CountQuery<E extends Enum<E>> {
+        Map<E, Long> run() throws AeroDeskException;
+    }
+
+    private OperationalCounters() {
+        for (FlightStatus status : FlightStatus.values()) {
+            flightsByStatus.put(status, new LongAdder());
+        }
+        for (BookingStatus status : BookingStatus.values()) {
+            bookingsByStatus.put(status, new LongAdder());
+        }
+        for (BaggageStatus status : BaggageStatus.values()) {
+            bagsByStatus.put(status, new LongAdder());
+        }
+    }
+
+    public static OperationalCounters getInstance() {
+        return INSTANCE;
+    }
+
+    // ===== RECORDING =====
+
+    public void recordFlightScheduled(FlightStatus status) {
+        increment(Metric.FLIGHTS_SCHEDULED);
+        adjustGauge(flightsByStatus, null, status);
+    }
+
+    public void recordFlightStatusChange(FlightStatus from, FlightStatus to) {
+        if (from == to) {
+            return;
+        }
+        increment(Metric.FLIGHT_STATUS_CHANGES);
+        if (to == FlightStatus.delayed) {
+            increment(Metric.FLIGHTS_DELAYED);
+        } else if (to == FlightStatus.cancelled) {
+            increment(Metric.FLIGHTS_CANCELLED);
+        }
+        adjustGauge(flightsByStatus, from, to);
+    }
+
+    public void recordBookingCreated(BookingStatus status) {
+        increment(Metric.BOOKINGS_CREATED);
+        adjustGauge(bookingsByStatus, null, status != null ? status : BookingStatus.CONFIRMED);
+    }
+
+    public void recordBookingStatusChange(BookingStatus from, BookingStatus to) {
+        if (from == to) {
+            return;
+        }
+        if (to == BookingStatus.CHECKED_IN) {
+            increment(Metric.CHECK_INS);
+        } else if (to == BookingStatus.CANCELLED) {
+            increment(Metric.BOOKINGS_CANCELLED);
+        }
+        adjustGauge(bookingsByStatus, from, to);
+    }
+
+    public void recordBaggageRegistered(BaggageStatus status) {
+        increment(Metric.BAGS_REGISTERED);
+        adjustGauge(bagsByStatus, null, status != null ? status : BaggageStatus.REGISTERED);
+    }
+
+    public void recordBaggageStatusChange(BaggageStatus from, BaggageStatus to) {
+        if (from == to) {
+            return;
+        }
+        increment(Metric.BAG_STATUS_CHANGES);
+        adjustGauge(bagsByStatus, from, to);
+    }
+
+    public void recordBaggageDeleted(BaggageStatus status) {
+        adjustGauge(bagsByStatus, status != null ? status : BaggageStatus.REGISTERED, null);
+    }
+
+    /**
+     * Sets the status gauges from the count queries. The gauge values are
+     * read before the queries run; each gauge then moves by its count minus
+     * that value, so changes recorded before the queries are replaced by the
+     * counts and changes recorded while they run are kept on top. Only one
+     * call at a time has an effect and only until one succeeds, so several
+     * screens can race to seed safely; after a failed query the next call
+     * tries again.
+     */
+    public boolean seed(CountQuery<FlightStatus> flightCounts, CountQuery<BookingStatus> bookingCounts,
+            CountQuery<BaggageStatus> baggageCounts) throws AeroDeskException {
+        if (seeded || !seeding.compareAndSet(false, true)) {
+            return false;
+        }
+        attemptedAt = System.currentTimeMillis();
+        try {
+            Map<FlightStatus, Long> flightsBefore = sums(flightsByStatus, FlightStatus.class);
+            Map<BookingStatus, Long> bookingsBefore = sums(bookingsByStatus, BookingStatus.class);
+            Map<BaggageStatus, Long> bagsBefore = sums(bagsByStatus, BaggageStatus.class);
+            Map<FlightStatus, Long> flights = flightCounts.run();
+            Map<BookingStatus, Long> bookings = bookingCounts.run();
+            Map<BaggageStatus, Long> bags = baggageCounts.run();
+            long flightTotal = rebase(flightsByStatus, flightsBefore, flights);
+            long bookingTotal = rebase(bookingsByStatus, bookingsBefore, bookings);
+            long bagTotal = rebase(bagsByStatus, bagsBefore, bags);
+            seeded = true;
+            LOGGER.fine("Operational counters seeded with " + flightTotal + " flights, " + bookingTotal
+                    + " bookings and " + bagTotal + " bags");
+            return true;
+        } finally {
+            seeding.set(false);
+        }
+    }
+
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * True until a seed has succeeded, while no seed is running and the last
+     * attempt is older than the retry interval.
+     */
+    public boolean needsSeed() {
+        return !seeded && !seeding.get() && System.currentTimeMillis() - attemptedAt >= RETRY_MILLIS;
+    }
+
+    // ===== SNAPSHOT =====
+
+    /**
+     * Copies the counters into an immutable snapshot. Cost is proportional to
+     * the number of buckets, not to the number of rows.
+     */
+    public OperationalSnapshot snapshot() {
+        long now = System.currentTimeMillis();
+        long currentHour = now / MILLIS_PER_HOUR;
+
+        Map<Metric, long[]> hourly = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            hourly.put(metric, new long[HOURS]);
+        }
+        // Index 0 is the oldest hour, HOURS - 1 the current one
+        for (int age = 0; age < HOURS; age++) {
+            long hour = currentHour - age;
+            HourBucket bucket = hours.get(slot(hour));
+            if (bucket == null || bucket.epochHour != hour) {
+                continue;
+            }
+            for (Metric metric : Metric.values()) {
+                hourly.get(metric)[HOURS - 1 - age] = bucket.counts[metric.ordinal()].sum();
+            }
+        }
+
+        return new OperationalSnapshot(LocalDateTime.now(), hourly,
+                sums(flightsByStatus, FlightStatus.class),
+                sums(bookingsByStatus, BookingStatus.class),
+                sums(bagsByStatus, BaggageStatus.class));
+    }
+
+    // ===== INTERNALS =====
+
+    private void increment(Metric metric) {
+        bucketFor(System.currentTimeMillis() / MILLIS_PER_HOUR).counts[metric.ordinal()].increment();
+    }
+
+    private HourBucket bucketFor(long epochHour) {
+        int slot = slot(epochHour);
+        while (true) {
+            HourBucket bucket = hours.get(slot);
+            if (bucket != null && bucket.epochHour == epochHour) {
+                return bucket;
+            }
+            if (bucket != null && bucket.epochHour > epochHour) {
+                // Clock went backwards; count it in the newer bucket
+                return bucket;
+            }
+            HourBucket fresh = new HourBucket(epochHour);
+            if (hours.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static int slot(long epochHour) {
+        return (int) Math.floorMod(epochHour, (long) HOURS);
+    }
+
+    /**
+     * Moves one row between status gauges. Before the seed the gauges only
+     * hold these deltas; the seed rebases them onto its counts.
+     */
+    private <E extends Enum<E>> void adjustGauge(Map<E, LongAdder> gauges, E from, E to) {
+        if (from != null) {
+            gauges.get(from).decrement();
+        }
+        if (to != null) {
+            gauges.get(to).increment();
+        }
+    }
+
+    /**
+     * Adds count minus the pre-query value to each gauge, leaving it at the
+     * count plus whatever was recorded since that value was read.
+     */
+    private static <E extends Enum<E>> long rebase(Map<E, LongAdder> gauges, Map<E, Long> before, Map<E, Long> counts) {
+        long total = 0;
+        for (Map.Entry<E, LongAdder> entry : gauges.entrySet()) {
+            long count = counts.getOrDefault(entry.getKey(), 0L);
+            entry.getValue().add(count - before.get(entry.getKey()));
+            total += count;
+        }
+        return total;
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> sums(Map<E, LongAdder> gauges, Class<E> type) {
+        Map<E, Long> copy = new EnumMap<>(type);
+        for (Map.Entry<E, LongAdder> entry : gauges.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().sum());
+        }
+        return copy;
+    }
+
+    private static class HourBucket {
+        final long epochHour;
+        final LongAdder[] counts = new LongAdder[Metric.values().length];
+
+        HourBucket(long epochHour) {
+            this.epochHour = epochHour;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+    }
+}
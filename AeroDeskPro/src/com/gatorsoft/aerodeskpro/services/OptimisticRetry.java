@@ -0,0 +1,82 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.exceptions.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read-modify-write against a versioned row, repeated when the write loses
+ * the version check. Every attempt reads the row again and re-applies only
+ * the caller's change, so fields other agents changed in the meantime are
+ * kept instead of overwritten. No lock is held between read and write.
+ */
+final class OptimisticRetry {
+
+    private static final Logger LOGGER = Logger.getLogger(OptimisticRetry.class.getName());
+
+    static final int MAX_ATTEMPTS = 5;
+
+    interface Read<T> {
+        T read() throws AeroDeskException;
+    }
+
+    interface Change<T> {
+        /**
+         * Applies the change to the latest copy of the row.
+         *
+         * @return false if there is nothing to write
+         */
+        boolean apply(T current) throws AeroDeskException;
+    }
+
+    interface Write<T> {
+        /**
+         * @throws OptimisticLockException if the row moved on since it was read
+         */
+        void write(T changed) throws AeroDeskException;
+    }
+
+    private OptimisticRetry() {
+    }
+
+    /**
+     * @return the row as written, the unchanged row if the change had nothing
+     * to do, or null if the row does not exist
+     */
+    static <T> T run(String description, Read<T> read, Change<T> change, Write<T> write) throws AeroDeskException {
+        for (int attempt = 1;; attempt++) {
+            T current = read.read();
+            if (current == null) {
+                return null;
+            }
+            if (!change.apply(current)) {
+                return current;
+            }
+            try {
+                write.write(current);
+                return current;
+            } catch (OptimisticLockException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    LOGGER.log(Level.WARNING, "Giving up on " + description + " after " + attempt + " conflicting writes");
+                    throw e;
+                }
+                LOGGER.log(Level.FINE, "Conflict updating {0}, attempt {1}", new Object[]{description, attempt});
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Short random pause so writers that collided do not collide again.
+     */
+    private static void backOff(int attempt) throws AeroDeskException {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 1L << (attempt + 2)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AeroDeskException("Interrupted while retrying update", e);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.models.Passenger;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Size-bounded, least-recently-used passenger cache. Each passenger is held
+ * once, keyed by id; passport, email and frequent-flyer number are secondary
+ * keys pointing at that entry. Callers always get their own copy, so editing
+ * a returned passenger never changes the cached one.
+ */
+public class PassengerCache {
+
+    private static final Logger LOGGER = Logger.getLogger(PassengerCache.class.getName());
+
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private static final PassengerCache INSTANCE = new PassengerCache(DEFAULT_MAX_ENTRIES);
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<Integer, Passenger> byId;
+    private final Map<String, Integer> byPassport = new HashMap<>();
+    private final Map<String, Integer> byEmail = new HashMap<>();
+    private final Map<String, Integer> byFrequentFlyer = new HashMap<>();
+    private volatile int maxEntries;
+    private long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    PassengerCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public static PassengerCache getInstance() {
+        return INSTANCE;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        synchronized (lock) {
+            this.maxEntries = maxEntries;
+            evictOverflow();
+        }
+    }
+
+    // ===== LOOKUPS =====
+
+    public Passenger getById(int passengerId) {
+        synchronized (lock) {
+            return record(byId.get(passengerId));
+        }
+    }
+
+    public Passenger getByPassport(String passportNumber) {
+        return getBySecondary(byPassport, passportKey(passportNumber));
+    }
+
+    public Passenger getByEmail(String email) {
+        return getBySecondary(byEmail, emailKey(email));
+    }
+
+    public Passenger getByFrequentFlyer(String frequentFlyerNumber) {
+        return getBySecondary(byFrequentFlyer, trimKey(frequentFlyerNumber));
+    }
+
+    private Passenger getBySecondary(Map<String, Integer> index, String key) {
+        if (key == null) {
+            return null;
+        }
+        synchronized (lock) {
+            Integer passengerId = index.get(key);
+            return record(passengerId == null ? null : byId.get(passengerId));
+        }
+    }
+
+    // ===== WRITES =====
+
+    /**
+     * Stamp to take before reading a passenger from the database; pass it to
+     * {@link #put(Passenger, long)} so a read that raced an update is dropped.
+     */
+    public long stamp() {
+        synchronized (lock) {
+            return invalidations;
+        }
+    }
+
+    /**
+     * Caches a copy of a passenger read from the database, unless any
+     * passenger was invalidated since the stamp was taken.
+     */
+    public void put(Passenger passenger, long stamp) {
+        if (passenger == null || passenger.getPassengerId() <= 0) {
+            return;
+        }
+        Passenger copy = copyOf(passenger);
+        synchronized (lock) {
+            if (stamp != invalidations) {
+                return;
+            }
+            removeLocked(copy.getPassengerId());
+            byId.put(copy.getPassengerId(), copy);
+            link(byPassport, passportKey(copy.getPassportNumber()), copy.getPassengerId());
+            link(byEmail, emailKey(copy.getEmail()), copy.getPassengerId());
+            link(byFrequentFlyer, trimKey(copy.getFrequentFlyerNumber()), copy.getPassengerId());
+            evictOverflow();
+        }
+    }
+
+    /**
+     * Drops one passenger and every secondary key that pointed at it.
+     */
+    public void invalidate(int passengerId) {
+        synchronized (lock) {
+            invalidations++;
+            removeLocked(passengerId);
+        }
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            invalidations++;
+            byId.clear();
+            byPassport.clear();
+            byEmail.clear();
+            byFrequentFlyer.clear();
+        }
+    }
+
+    // ===== STATISTICS =====
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return byId.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PassengerCache{size=%d/%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d}",
+                size(), maxEntries, getHits(), getMisses(), getHitRate() * 100, getEvictions());
+    }
+
+    // ===== INTERNALS =====
+
+    private Passenger record(Passenger cached) {
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copyOf(cached);
+    }
+
+    private void removeLocked(int passengerId) {
+        Passenger old = byId.remove(passengerId);
+        if (old == null) {
+            return;
+        }
+        unlink(byPassport, passportKey(old.getPassportNumber()), passengerId);
+        unlink(byEmail, emailKey(old.getEmail()), passengerId);
+        unlink(byFrequentFlyer, trimKey(old.getFrequentFlyerNumber()), passengerId);
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Integer, Passenger>> eldest = byId.entrySet().iterator();
+        while (byId.size() > maxEntries && eldest.hasNext()) {
+            Map.Entry<Integer, Passenger> entry = eldest.next();
+            int passengerId = entry.getKey();
+            Passenger old = entry.getValue();
+            eldest.remove();
+            unlink(byPassport, passportKey(old.getPassportNumber()), passengerId);
+            unlink(byEmail, emailKey(old.getEmail()), passengerId);
+            unlink(byFrequentFlyer, trimKey(old.getFrequentFlyerNumber()), passengerId);
+            evictions.increment();
+        }
+    }
+
+    private void link(Map<String, Integer> index, String key, int passengerId) {
+        if (key == null) {
+            return;
+        }
+        Integer previous = index.put(key, passengerId);
+        if (previous != null && previous != passengerId) {
+            // Key moved to another passenger; the older entry is stale
+            LOGGER.fine("Secondary key reassigned from passenger " + previous + " to " + passengerId);
+            removeLocked(previous);
+            index.put(key, passengerId);
+        }
+    }
+
+    private static void unlink(Map<String, Integer> index, String key, int passengerId) {
+        if (key != null) {
+            index.remove(key, passengerId);
+        }
+    }
+
+    private static String trimKey(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static String passportKey(String passportNumber) {
+        String key = trimKey(passportNumber);
+        return key == null ? null : key.toUpperCase(Locale.ROOT);
+    }
+
+    private static String emailKey(String email) {
+        String key = trimKey(email);
+        return key == null ? null : key.toLowerCase(Locale.ROOT);
+    }
+
+    private static Passenger copyOf(Passenger p) {
+        return new Passenger(p.getPassengerId(), p.getFirstName(), p.getLastName(), p.getPassportNumber(),
+                p.getNationality(), p.getDateOfBirth(), p.getGender(), p.getEmail(), p.getPhone(),
+                p.getFrequentFlyerNumber(), p.getCreatedAt());
+    }
+}
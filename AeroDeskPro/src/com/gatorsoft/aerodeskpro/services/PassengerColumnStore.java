@@ -0,0 +1,486 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.models.Passenger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column-oriented passenger snapshot for demographic and APIS reporting.
+ * Each field is a primitive array indexed by row: nationality and email
+ * domain are dictionary codes, gender is an ordinal byte, date of birth is an
+ * epoch day, and names and passport numbers are packed UTF-8 in one shared
+ * byte array. A row costs a few dozen bytes instead of a full
+ * {@link Passenger} object graph.
+ *
+ * Filters return a {@link BitSet} of matching rows that can be combined with
+ * {@code and}/{@code or} and passed to the group-by methods. The store is
+ * filled by one thread and then only read, so it does no locking.
+ */
+public class PassengerColumnStore {
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final byte NO_GENDER = -1;
+    private static final int NO_CODE = -1;
+    private static final Passenger.Gender[] GENDERS = Passenger.Gender.values();
+
+    // Packed text fields per row, in this order
+    private static final int FIRST_NAME = 0;
+    private static final int LAST_NAME = 1;
+    private static final int PASSPORT = 2;
+    private static final int TEXT_FIELDS = 3;
+
+    private int size;
+    private int[] passengerIds;
+    private short[] nationalityCodes;
+    private byte[] genders;
+    private int[] birthDays;
+    private int[] emailDomainCodes;
+    private int[] textOffsets;
+    private byte[] text = new byte[1024];
+    private int textLength;
+
+    private final Dictionary nationalities = new Dictionary(Short.MAX_VALUE);
+    private final Dictionary emailDomains = new Dictionary(Integer.MAX_VALUE);
+
+    public PassengerColumnStore() {
+        this(1024);
+    }
+
+    public PassengerColumnStore(int expectedRows) {
+        int capacity = Math.max(16, expectedRows);
+        passengerIds = new int[capacity];
+        nationalityCodes = new short[capacity];
+        genders = new byte[capacity];
+        birthDays = new int[capacity];
+        emailDomainCodes = new int[capacity];
+        textOffsets = new int[capacity * TEXT_FIELDS + 1];
+    }
+
+    public static PassengerColumnStore of(Collection<Passenger> passengers) {
+        PassengerColumnStore store = new PassengerColumnStore(passengers.size());
+        store.addAll(passengers);
+        return store;
+    }
+
+    // ===== LOADING =====
+
+    public void addAll(Collection<Passenger> passengers) {
+        for (Passenger passenger : passengers) {
+            add(passenger);
+        }
+    }
+
+    public void add(Passenger passenger) {
+        ensureCapacity(size + 1);
+        int row = size;
+        passengerIds[row] = passenger.getPassengerId();
+        nationalityCodes[row] = (short) nationalities.encode(upper(passenger.getNationality()));
+        genders[row] = passenger.getGender() == null ? NO_GENDER : (byte) passenger.getGender().ordinal();
+        birthDays[row] = passenger.getDateOfBirth() == null ? NO_DATE : (int) passenger.getDateOfBirth().toEpochDay();
+        emailDomainCodes[row] = emailDomains.encode(emailDomain(passenger.getEmail()));
+        appendText(row * TEXT_FIELDS + FIRST_NAME, passenger.getFirstName());
+        appendText(row * TEXT_FIELDS + LAST_NAME, passenger.getLastName());
+        appendText(row * TEXT_FIELDS + PASSPORT, passenger.getPassportNumber());
+        size++;
+    }
+
+    /**
+     * Releases the spare capacity left over from loading.
+     */
+    public void trimToSize() {
+        passengerIds = Arrays.copyOf(passengerIds, size);
+        nationalityCodes = Arrays.copyOf(nationalityCodes, size);
+        genders = Arrays.copyOf(genders, size);
+        birthDays = Arrays.copyOf(birthDays, size);
+        emailDomainCodes = Arrays.copyOf(emailDomainCodes, size);
+        textOffsets = Arrays.copyOf(textOffsets, size * TEXT_FIELDS + 1);
+        text = Arrays.copyOf(text, textLength);
+    }
+
+    // ===== ROW ACCESS =====
+
+    public int size() {
+        return size;
+    }
+
+    public int getPassengerId(int row) {
+        return passengerIds[checkRow(row)];
+    }
+
+    public String getFirstName(int row) {
+        return readText(checkRow(row) * TEXT_FIELDS + FIRST_NAME);
+    }
+
+    public String getLastName(int row) {
+        return readText(checkRow(row) * TEXT_FIELDS + LAST_NAME);
+    }
+
+    public String getPassportNumber(int row) {
+        return readText(checkRow(row) * TEXT_FIELDS + PASSPORT);
+    }
+
+    public String getNationality(int row) {
+        return nationalities.decode(nationalityCodes[checkRow(row)]);
+    }
+
+    public Passenger.Gender getGender(int row) {
+        byte gender = genders[checkRow(row)];
+        return gender == NO_GENDER ? null : GENDERS[gender];
+    }
+
+    public LocalDate getDateOfBirth(int row) {
+        int day = birthDays[checkRow(row)];
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    public String getEmailDomain(int row) {
+        return emailDomains.decode(emailDomainCodes[checkRow(row)]);
+    }
+
+    /**
+     * Rebuilds a passenger from one row. Fields the store does not keep
+     * (full email, phone, frequent-flyer number) are left null.
+     */
+    public Passenger toPassenger(int row) {
+        Passenger passenger = new Passenger();
+        passenger.setPassengerId(getPassengerId(row));
+        passenger.setFirstName(getFirstName(row));
+        passenger.setLastName(getLastName(row));
+        passenger.setPassportNumber(getPassportNumber(row));
+        passenger.setNationality(getNationality(row));
+        passenger.setGender(getGender(row));
+        passenger.setDateOfBirth(getDateOfBirth(row));
+        return passenger;
+    }
+
+    public List<Passenger> toPassengers(BitSet rows) {
+        List<Passenger> passengers = new ArrayList<>(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+            passengers.add(toPassenger(row));
+        }
+        return passengers;
+    }
+
+    // ===== FILTERS =====
+
+    public BitSet all() {
+        BitSet rows = new BitSet(size);
+        rows.set(0, size);
+        return rows;
+    }
+
+    public BitSet whereNationality(String nationality) {
+        BitSet rows = new BitSet(size);
+        int code = nationalities.lookup(upper(nationality));
+        if (code == NO_CODE) {
+            return rows;
+        }
+        short[] column = nationalityCodes;
+        for (int row = 0; row < size; row++) {
+            if (column[row] == code) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    public BitSet whereGender(Passenger.Gender gender) {
+        BitSet rows = new BitSet(size);
+        byte code = gender == null ? NO_GENDER : (byte) gender.ordinal();
+        byte[] column = genders;
+        for (int row = 0; row < size; row++) {
+            if (column[row] == code) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    public BitSet whereEmailDomain(String domain) {
+        BitSet rows = new BitSet(size);
+        int code = emailDomains.lookup(domain == null ? null : domain.trim().toLowerCase(Locale.ROOT));
+        if (code == NO_CODE) {
+            return rows;
+        }
+        int[] column = emailDomainCodes;
+        for (int row = 0; row < size; row++) {
+            if (column[row] == code) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Rows born between the two dates, both inclusive. Rows with no date of
+     * birth never match.
+     */
+    public BitSet whereBornBetween(LocalDate from, LocalDate to) {
+        BitSet rows = new BitSet(size);
+        int low = (int) from.toEpochDay();
+        int high = (int) to.toEpochDay();
+        int[] column = birthDays;
+        for (int row = 0; row < size; row++) {
+            int day = column[row];
+            if (day >= low && day <= high && day != NO_DATE) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Rows whose age on the given date is between the two ages, inclusive.
+     */
+    public BitSet whereAgeBetween(int minAge, int maxAge, LocalDate asOf) {
+        return whereBornBetween(asOf.minusYears(maxAge + 1L).plusDays(1), asOf.minusYears(minAge));
+    }
+
+    // ===== GROUP-BYS =====
+
+    /**
+     * Passenger count per nationality, largest first. Missing nationalities
+     * are grouped under "UNKNOWN".
+     */
+    public Map<String, Integer> countByNationality(BitSet rows) {
+        int[] counts = new int[nationalities.size()];
+        int unknown = 0;
+        for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+            short code = nationalityCodes[row];
+            if (code == NO_CODE) {
+                unknown++;
+            } else {
+                counts[code]++;
+            }
+        }
+        Integer[] order = new Integer[counts.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(counts[b], counts[a]));
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int code : order) {
+            if (counts[code] > 0) {
+                result.put(nationalities.decode(code), counts[code]);
+            }
+        }
+        if (unknown > 0) {
+            result.put("UNKNOWN", unknown);
+        }
+        return result;
+    }
+
+    public Map<Passenger.Gender, Integer> countByGender(BitSet rows) {
+        int[] counts = new int[GENDERS.length];
+        for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+            byte gender = genders[row];
+            if (gender != NO_GENDER) {
+                counts[gender]++;
+            }
+        }
+        Map<Passenger.Gender, Integer> result = new EnumMap<>(Passenger.Gender.class);
+        for (Passenger.Gender gender : GENDERS) {
+            result.put(gender, counts[gender.ordinal()]);
+        }
+        return result;
+    }
+
+    /**
+     * Passenger count per age band of the given width, youngest band first,
+     * labelled like "20-29". Band limits are turned into epoch days once, so
+     * each row costs a binary search over a handful of ints.
+     */
+    public Map<String, Integer> countByAgeBand(BitSet rows, LocalDate asOf, int bandYears) {
+        if (bandYears <= 0) {
+            throw new IllegalArgumentException("Age band must be at least one year");
+        }
+        int bands = Math.max(2, 120 / bandYears + 1);
+        // limits[i] = first birth day that is younger than i * bandYears
+        int[] limits = new int[bands];
+        for (int band = 0; band < bands; band++) {
+            limits[band] = (int) asOf.minusYears((long) band * bandYears).toEpochDay() + 1;
+        }
+        int[] counts = new int[bands];
+        int unknown = 0;
+        for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+            int day = birthDays[row];
+            if (day == NO_DATE || day >= limits[0]) {
+                unknown++;
+                continue;
+            }
+            // limits are descending; find the first one the birth day reaches
+            int low = 1;
+            int high = bands - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (day >= limits[middle]) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            counts[day >= limits[low] ? low - 1 : bands - 1]++;
+        }
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int band = 0; band < bands; band++) {
+            if (counts[band] > 0) {
+                int from = band * bandYears;
+                String label = band == bands - 1 ? from + "+" : from + "-" + (from + bandYears - 1);
+                result.put(label, counts[band]);
+            }
+        }
+        if (unknown > 0) {
+            result.put("UNKNOWN", unknown);
+        }
+        return result;
+    }
+
+    public Map<String, Integer> countByEmailDomain(BitSet rows) {
+        int[] counts = new int[emailDomains.size()];
+        for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+            int code = emailDomainCodes[row];
+            if (code != NO_CODE) {
+                counts[code]++;
+            }
+        }
+        Map<String, Integer> result = new HashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.put(emailDomains.decode(code), counts[code]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Approximate heap held by the columns, for sizing reports.
+     */
+    public long estimatedHeapBytes() {
+        long bytes = (long) passengerIds.length * Integer.BYTES
+                + (long) nationalityCodes.length * Short.BYTES
+                + genders.length
+                + (long) birthDays.length * Integer.BYTES
+                + (long) emailDomainCodes.length * Integer.BYTES
+                + (long) textOffsets.length * Integer.BYTES
+                + text.length;
+        return bytes + nationalities.estimatedHeapBytes() + emailDomains.estimatedHeapBytes();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PassengerColumnStore{rows=%d, nationalities=%d, emailDomains=%d, heap~%d KB}",
+                size, nationalities.size(), emailDomains.size(), estimatedHeapBytes() / 1024);
+    }
+
+    // ===== INTERNALS =====
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+        return row;
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= passengerIds.length) {
+            return;
+        }
+        int capacity = Math.max(rows, passengerIds.length + (passengerIds.length >> 1));
+        passengerIds = Arrays.copyOf(passengerIds, capacity);
+        nationalityCodes = Arrays.copyOf(nationalityCodes, capacity);
+        genders = Arrays.copyOf(genders, capacity);
+        birthDays = Arrays.copyOf(birthDays, capacity);
+        emailDomainCodes = Arrays.copyOf(emailDomainCodes, capacity);
+        textOffsets = Arrays.copyOf(textOffsets, capacity * TEXT_FIELDS + 1);
+    }
+
+    private void appendText(int field, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if (textLength + bytes.length > text.length) {
+            text = Arrays.copyOf(text, Math.max(textLength + bytes.length, text.length * 2));
+        }
+        System.arraycopy(bytes, 0, text, textLength, bytes.length);
+        textLength += bytes.length;
+        textOffsets[field + 1] = textLength;
+    }
+
+    private String readText(int field) {
+        int start = textOffsets[field];
+        int end = textOffsets[field + 1];
+        return start == end ? null : new String(text, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private static String upper(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String emailDomain(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.lastIndexOf('@');
+        return at < 0 || at == email.length() - 1 ? null : email.substring(at + 1).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Maps each distinct value to a small code; every value is stored once.
+     */
+    private static class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final int maxCodes;
+
+        Dictionary(int maxCodes) {
+            this.maxCodes = maxCodes;
+        }
+
+        int encode(String value) {
+            if (value == null) {
+                return NO_CODE;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                if (values.size() >= maxCodes) {
+                    throw new IllegalStateException("Too many distinct values for a dictionary column");
+                }
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        int lookup(String value) {
+            Integer code = value == null ? null : codes.get(value);
+            return code == null ? NO_CODE : code;
+        }
+
+        String decode(int code) {
+            return code == NO_CODE ? null : values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        long estimatedHeapBytes() {
+            long bytes = 0;
+            for (String value : values) {
+                bytes += 64 + value.length();
+            }
+            return bytes;
+        }
+    }
+}
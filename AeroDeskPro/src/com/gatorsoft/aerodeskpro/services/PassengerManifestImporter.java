@@ -0,0 +1,410 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.dao.PassengerDAO;
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException.ErrorCategory;
+import com.gatorsoft.aerodeskpro.models.ManifestImportResult;
+import com.gatorsoft.aerodeskpro.models.Passenger;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Streams a CSV passenger manifest into the database. The file is read in
+ * chunks; rows of a chunk are parsed and validated in parallel, de-duplicated
+ * on passport number against the rest of the file and the database, and
+ * written with one batched upsert per chunk.
+ *
+ * Expected header (any order, case-insensitive): first_name, last_name,
+ * passport_number, nationality, date_of_birth (yyyy-MM-dd), gender, email,
+ * phone, frequent_flyer_number. Quoted fields may contain commas but not
+ * line breaks.
+ */
+public class PassengerManifestImporter {
+
+    private static final Logger LOGGER = Logger.getLogger(PassengerManifestImporter.class.getName());
+
+    private static final int DEFAULT_CHUNK_SIZE = 500;
+
+    /**
+     * Receives progress and rejects while an import runs. Called on the
+     * importing thread.
+     */
+    public interface Listener {
+
+        void onProgress(ManifestImportResult progress);
+
+        void onRejected(int lineNumber, String reason, String line);
+
+        void onCompleted(ManifestImportResult result);
+    }
+
+    private final PassengerDAO passengerDAO;
+    private final PassengerService passengerService;
+    private final int workerThreads;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private boolean updateExisting = true;
+
+    public PassengerManifestImporter(PassengerDAO passengerDAO, int workerThreads) {
+        this.passengerDAO = passengerDAO;
+        this.passengerService = new PassengerService(passengerDAO);
+        this.workerThreads = Math.max(1, workerThreads);
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * When false, rows whose passport number is already stored are rejected
+     * instead of updating the stored passenger.
+     */
+    public void setUpdateExisting(boolean updateExisting) {
+        this.updateExisting = updateExisting;
+    }
+
+    public ManifestImportResult importFile(Path file, Listener listener) throws AeroDeskException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importManifest(reader, file.getFileName().toString(), listener);
+        } catch (IOException e) {
+            throw new AeroDeskException("Failed to read manifest: " + file, e, ErrorCategory.VALIDATION_ERROR);
+        }
+    }
+
+    /**
+     * Imports a manifest from any reader. Rows already committed stay
+     * committed if a later chunk fails.
+     */
+    public ManifestImportResult importManifest(Reader source, String sourceName, Listener listener)
+            throws AeroDeskException {
+        long started = System.nanoTime();
+        ManifestImportResult result = new ManifestImportResult(sourceName);
+        BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService validators = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(DatabaseConnection.closingOnExit(runnable), "manifest-validator-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new AeroDeskException("Manifest is empty: " + sourceName, ErrorCategory.VALIDATION_ERROR);
+            }
+            Map<String, Integer> columns = parseHeader(headerLine);
+
+            Set<String> seenPassports = new HashSet<>();
+            int lineNumber = 1;
+            List<String> lines = new ArrayList<>(chunkSize);
+            List<Integer> lineNumbers = new ArrayList<>(chunkSize);
+            String line;
+            while (true) {
+                line = reader.readLine();
+                if (line != null) {
+                    lineNumber++;
+                    if (!line.trim().isEmpty()) {
+                        lines.add(line);
+                        lineNumbers.add(lineNumber);
+                    }
+                    if (lines.size() < chunkSize) {
+                        continue;
+                    }
+                }
+                if (!lines.isEmpty()) {
+                    processChunk(lines, lineNumbers, columns, seenPassports, validators, result, listener);
+                    lines = new ArrayList<>(chunkSize);
+                    lineNumbers = new ArrayList<>(chunkSize);
+                }
+                if (line == null) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new AeroDeskException("Failed to read manifest: " + sourceName, e, ErrorCategory.VALIDATION_ERROR);
+        } finally {
+            validators.shutdownNow();
+        }
+
+        result.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        LOGGER.info("Manifest import finished: " + result);
+        if (listener != null) {
+            listener.onCompleted(result);
+        }
+        return result;
+    }
+
+    // ===== CHUNK PROCESSING =====
+
+    private void processChunk(List<String> lines, List<Integer> lineNumbers, Map<String, Integer> columns,
+            Set<String> seenPassports, ExecutorService validators, ManifestImportResult result,
+            Listener listener) throws AeroDeskException {
+        result.addRowsRead(lines.size());
+
+        // Parse and validate in parallel, keeping file order
+        List<Callable<Row>> tasks = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            int lineNumber = lineNumbers.get(i);
+            String line = lines.get(i);
+            tasks.add(() -> parseAndValidate(lineNumber, line, columns));
+        }
+        List<Row> rows = new ArrayList<>(lines.size());
+        try {
+            for (Future<Row> future : validators.invokeAll(tasks)) {
+                rows.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AeroDeskException("Manifest import interrupted", e, ErrorCategory.SYSTEM_ERROR);
+        } catch (ExecutionException e) {
+            throw new AeroDeskException("Manifest validation failed", e.getCause(), ErrorCategory.SYSTEM_ERROR);
+        }
+
+        // De-duplicate within the file; first occurrence wins
+        Map<String, Row> accepted = new LinkedHashMap<>();
+        for (Row row : rows) {
+            if (row.error != null) {
+                reject(row, row.error, result, listener);
+            } else if (!seenPassports.add(row.passportKey)) {
+                result.addDuplicateInFile();
+                if (listener != null) {
+                    listener.onRejected(row.lineNumber, "Duplicate passport number in manifest", row.line);
+                }
+            } else {
+                accepted.put(row.passportKey, row);
+            }
+        }
+
+        // De-duplicate against the database with one IN query per chunk
+        List<String> passports = new ArrayList<>(accepted.size());
+        for (Row row : accepted.values()) {
+            passports.add(row.passenger.getPassportNumber());
+        }
+        Map<String, Integer> existing = byPassportKey(passengerDAO.findIdsByPassports(passports));
+        List<Passenger> batch = new ArrayList<>(accepted.size());
+        int updates = 0;
+        for (Row row : accepted.values()) {
+            Integer existingId = existing.get(row.passportKey);
+            if (existingId != null && !updateExisting) {
+                reject(row, "Passport number already registered", result, listener);
+                continue;
+            }
+            if (existingId != null) {
+                row.passenger.setPassengerId(existingId);
+                updates++;
+            }
+            batch.add(row.passenger);
+        }
+
+        passengerDAO.upsertPassengers(batch);
+        result.addUpdated(updates);
+        result.addInserted(batch.size() - updates);
+        refreshInMemoryViews(batch);
+
+        if (listener != null) {
+            listener.onProgress(result);
+        }
+    }
+
+    private Row parseAndValidate(int lineNumber, String line, Map<String, Integer> columns) {
+        Row row = new Row(lineNumber, line);
+        try {
+            List<String> fields = splitCsv(line);
+            Passenger passenger = new Passenger();
+            passenger.setFirstName(field(fields, columns, "first_name"));
+            passenger.setLastName(field(fields, columns, "last_name"));
+            passenger.setPassportNumber(field(fields, columns, "passport_number"));
+            passenger.setNationality(field(fields, columns, "nationality"));
+            passenger.setEmail(field(fields, columns, "email"));
+            passenger.setPhone(field(fields, columns, "phone"));
+            passenger.setFrequentFlyerNumber(field(fields, columns, "frequent_flyer_number"));
+            passenger.setGender(parseGender(field(fields, columns, "gender")));
+            String dateOfBirth = field(fields, columns, "date_of_birth");
+            if (dateOfBirth != null) {
+                passenger.setDateOfBirth(LocalDate.parse(dateOfBirth));
+            }
+            passenger.setCreatedAt(LocalDateTime.now());
+
+            passengerService.validatePassengerData(passenger);
+            if (passenger.getPassportNumber() == null) {
+                row.error = "Passport number is required.";
+            } else if (!passenger.isValid()) {
+                row.error = "Invalid email or phone number.";
+            } else {
+                row.passenger = passenger;
+                row.passportKey = passenger.getPassportNumber().toUpperCase(Locale.ROOT);
+            }
+        } catch (AeroDeskException e) {
+            row.error = e.getMessage();
+        } catch (DateTimeParseException e) {
+            row.error = "Invalid date of birth: " + e.getParsedString();
+        } catch (IllegalArgumentException e) {
+            row.error = e.getMessage();
+        }
+        return row;
+    }
+
+    private void reject(Row row, String reason, ManifestImportResult result, Listener listener) {
+        result.addRejected(1);
+        LOGGER.log(Level.FINE, "Manifest line {0} rejected: {1}", new Object[]{row.lineNumber, reason});
+        if (listener != null) {
+            listener.onRejected(row.lineNumber, reason, row.line);
+        }
+    }
+
+    /**
+     * Brings the search index and cache in line with the rows just written.
+     */
+    private void refreshInMemoryViews(List<Passenger> written) throws AeroDeskException {
+        List<String> newPassports = new ArrayList<>();
+        for (Passenger passenger : written) {
+            if (passenger.getPassengerId() > 0) {
+                PassengerCache.getInstance().invalidate(passenger.getPassengerId());
+            } else {
+                newPassports.add(passenger.getPassportNumber());
+            }
+        }
+        Map<String, Integer> newIds = byPassportKey(passengerDAO.findIdsByPassports(newPassports));
+        PassengerSearchIndex index = PassengerSearchIndex.getInstance();
+        for (Passenger passenger : written) {
+            if (passenger.getPassengerId() <= 0) {
+                Integer id = newIds.get(passenger.getPassportNumber().toUpperCase(Locale.ROOT));
+                if (id != null) {
+                    passenger.setPassengerId(id);
+                }
+            }
+            index.upsert(passenger);
+        }
+    }
+
+    // ===== PARSING HELPERS =====
+
+    private static Map<String, Integer> parseHeader(String headerLine) throws AeroDeskException {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(headerLine);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase(Locale.ROOT).replace(' ', '_');
+            // Strip a UTF-8 byte order mark on the first column
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            columns.put(name, i);
+        }
+        for (String required : new String[]{"first_name", "last_name", "passport_number", "email"}) {
+            if (!columns.containsKey(required)) {
+                throw new AeroDeskException("Manifest header is missing column: " + required,
+                        ErrorCategory.VALIDATION_ERROR);
+            }
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Passenger.Gender parseGender(String value) {
+        if (value == null) {
+            return null;
+        }
+        switch (value.toUpperCase(Locale.ROOT)) {
+            case "M":
+            case "MALE":
+                return Passenger.Gender.M;
+            case "F":
+            case "FEMALE":
+                return Passenger.Gender.F;
+            case "O":
+            case "X":
+            case "OTHER":
+                return Passenger.Gender.Other;
+            default:
+                throw new IllegalArgumentException("Unknown gender: " + value);
+        }
+    }
+
+    /**
+     * Splits one CSV line, honouring double-quoted fields and "" escapes.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    /**
+     * Re-keys a passport lookup by upper case; the database compares passport
+     * numbers case-insensitively.
+     */
+    private static Map<String, Integer> byPassportKey(Map<String, Integer> ids) {
+        Map<String, Integer> keyed = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+            keyed.put(entry.getKey().toUpperCase(Locale.ROOT), entry.getValue());
+        }
+        return keyed;
+    }
+
+    private static class Row {
+        final int lineNumber;
+        final String line;
+        Passenger passenger;
+        String passportKey;
+        String error;
+
+        Row(int lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+}
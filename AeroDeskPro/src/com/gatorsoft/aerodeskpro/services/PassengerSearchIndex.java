@@ -0,0 +1,463 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.dao.PassengerDAO;
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.Passenger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory search index over passenger names and passport numbers. Terms of
+ * three characters or more are matched through a trigram index, shorter terms
+ * through a prefix index, so a search never scans the passengers table.
+ *
+ * The index is loaded once from the database and kept current by
+ * {@link PassengerService} on insert, update and delete. Loads run one at a
+ * time; a caller that needs the index waits for a load already running, and
+ * writes made from the start of a load's read are replayed on its maps.
+ */
+public class PassengerSearchIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(PassengerSearchIndex.class.getName());
+
+    private static final PassengerSearchIndex INSTANCE = new PassengerSearchIndex();
+
+    private static final int GRAM = 3;
+
+    // Ranking weights
+    private static final int SCORE_PASSPORT_EXACT = 100;
+    private static final int SCORE_TOKEN_EXACT = 50;
+    private static final int SCORE_TOKEN_PREFIX = 30;
+    private static final int SCORE_SUBSTRING = 10;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Held for a whole load, read included; loading is only for the replay buffers
+    private final Object loadLock = new Object();
+    private final AtomicBoolean loaderStarted = new AtomicBoolean();
+    private boolean loading;
+
+    private Map<Integer, Entry> entries = new HashMap<>();
+    private Map<String, Set<Integer>> trigrams = new HashMap<>();
+    private Map<String, Set<Integer>> prefixes = new HashMap<>();
+    private volatile boolean warm;
+
+    // Writes that arrive while a load reads and builds its maps, replayed on swap
+    private final List<Passenger> upsertsDuringLoad = new ArrayList<>();
+    private final List<Integer> removalsDuringLoad = new ArrayList<>();
+
+    /**
+     * Reads the passengers a load builds the index from.
+     */
+    public interface PassengerSource {
+        List<Passenger> read() throws AeroDeskException;
+    }
+
+    private PassengerSearchIndex() {
+    }
+
+    public static PassengerSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===== LOADING =====
+
+    /**
+     * Loads the index from the source unless it is already warm. If another
+     * load is running this waits for it instead of loading again.
+     *
+     * @return the passengers read, or null if the index was already warm
+     */
+    public List<Passenger> loadIfCold(PassengerSource source) throws AeroDeskException {
+        if (warm) {
+            return null;
+        }
+        synchronized (loadLock) {
+            return warm ? null : load(source);
+        }
+    }
+
+    /**
+     * Rebuilds the index from the source, after any load already running.
+     *
+     * @return the passengers read
+     */
+    public List<Passenger> load(PassengerSource source) throws AeroDeskException {
+        synchronized (loadLock) {
+            long started = System.nanoTime();
+            setLoading(true);
+            List<Passenger> passengers;
+            try {
+                passengers = source.read();
+            } catch (AeroDeskException | RuntimeException e) {
+                setLoading(false);
+                throw e;
+            }
+
+            Map<Integer, Entry> newEntries = new HashMap<>();
+            Map<String, Set<Integer>> newTrigrams = new HashMap<>();
+            Map<String, Set<Integer>> newPrefixes = new HashMap<>();
+            for (Passenger passenger : passengers) {
+                Entry entry = new Entry(passenger);
+                newEntries.put(entry.passengerId, entry);
+                addPostings(entry, newTrigrams, newPrefixes);
+            }
+
+            lock.writeLock().lock();
+            try {
+                entries = newEntries;
+                trigrams = newTrigrams;
+                prefixes = newPrefixes;
+                for (Passenger passenger : upsertsDuringLoad) {
+                    upsertLocked(passenger);
+                }
+                for (Integer passengerId : removalsDuringLoad) {
+                    removeLocked(passengerId);
+                }
+                upsertsDuringLoad.clear();
+                removalsDuringLoad.clear();
+                loading = false;
+                warm = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LOGGER.log(Level.INFO, "Passenger search index loaded: {0} passengers, {1} trigrams in {2} ms",
+                    new Object[]{newEntries.size(), newTrigrams.size(), (System.nanoTime() - started) / 1_000_000});
+            return passengers;
+        }
+    }
+
+    /**
+     * Loads the index from the database on a background thread, once.
+     */
+    public void warmInBackground(PassengerDAO passengerDAO) {
+        if (warm || !loaderStarted.compareAndSet(false, true)) {
+            return;
+        }
+        Thread loader = new Thread(DatabaseConnection.closingOnExit(() -> {
+            try {
+                loadIfCold(passengerDAO::getAllPassengers);
+            } catch (AeroDeskException e) {
+                LOGGER.log(Level.WARNING, "Could not load passenger search index", e);
+            } finally {
+                loaderStarted.set(false);
+            }
+        }), "passenger-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // Starts or abandons buffering writes for the load in progress
+    private void setLoading(boolean loading) {
+        lock.writeLock().lock();
+        try {
+            this.loading = loading;
+            upsertsDuringLoad.clear();
+            removalsDuringLoad.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ===== MAINTENANCE =====
+
+    /**
+     * Adds or replaces a passenger in the index.
+     */
+    public void upsert(Passenger passenger) {
+        if (passenger == null || passenger.getPassengerId() <= 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                upsertsDuringLoad.add(passenger);
+            }
+            upsertLocked(passenger);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int passengerId) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                removalsDuringLoad.add(passengerId);
+            }
+            removeLocked(passengerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void upsertLocked(Passenger passenger) {
+        removeLocked(passenger.getPassengerId());
+        Entry entry = new Entry(passenger);
+        entries.put(entry.passengerId, entry);
+        addPostings(entry, trigrams, prefixes);
+    }
+
+    private void removeLocked(int passengerId) {
+        Entry old = entries.remove(passengerId);
+        if (old == null) {
+            return;
+        }
+        for (String gram : old.grams()) {
+            removePosting(trigrams, gram, passengerId);
+        }
+        for (String prefix : old.prefixes()) {
+            removePosting(prefixes, prefix, passengerId);
+        }
+    }
+
+    // ===== SEARCH =====
+
+    /**
+     * Returns the ids of passengers whose name or passport number contains every
+     * term of the query, best matches first.
+     */
+    public List<Integer> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Every posting list a match must appear in; the smallest one drives the scan
+            List<Set<Integer>> filters = new ArrayList<>();
+            for (String term : terms) {
+                if (!addFilters(term, filters)) {
+                    return Collections.emptyList();
+                }
+            }
+            filters.sort(Comparator.comparingInt(Set::size));
+            Set<Integer> driver = filters.get(0);
+
+            // Min-heap on rank keeps only the best 'limit' matches
+            Comparator<Scored> ranking = Comparator.comparingInt((Scored s) -> -s.score)
+                    .thenComparing(s -> s.entry.lastName)
+                    .thenComparing(s -> s.entry.firstName)
+                    .thenComparingInt(s -> s.entry.passengerId);
+            PriorityQueue<Scored> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+            for (Integer passengerId : driver) {
+                if (!inAll(passengerId, filters)) {
+                    continue;
+                }
+                Entry entry = entries.get(passengerId);
+                int score = entry.score(terms);
+                if (score == 0) {
+                    continue;
+                }
+                Scored candidate = new Scored(entry, score);
+                if (best.size() < limit) {
+                    best.add(candidate);
+                } else if (ranking.compare(candidate, best.peek()) < 0) {
+                    best.poll();
+                    best.add(candidate);
+                }
+            }
+
+            List<Scored> ranked = new ArrayList<>(best);
+            ranked.sort(ranking);
+            List<Integer> ids = new ArrayList<>(ranked.size());
+            for (Scored scored : ranked) {
+                ids.add(scored.entry.passengerId);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the posting lists a term requires; false if the term cannot match.
+     */
+    private boolean addFilters(String term, List<Set<Integer>> filters) {
+        if (term.length() < GRAM) {
+            Set<Integer> posting = prefixes.get(term);
+            if (posting == null) {
+                return false;
+            }
+            filters.add(posting);
+            return true;
+        }
+        for (String gram : gramsOf(term)) {
+            Set<Integer> posting = trigrams.get(gram);
+            if (posting == null) {
+                return false;
+            }
+            filters.add(posting);
+        }
+        return true;
+    }
+
+    private static boolean inAll(Integer passengerId, List<Set<Integer>> filters) {
+        for (int i = 1; i < filters.size(); i++) {
+            if (!filters.get(i).contains(passengerId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ===== HELPERS =====
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            } else if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') {
+                sb.append(' ');
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    private static List<String> tokenize(String value) {
+        String normalized = normalize(value);
+        if (normalized.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        Collections.addAll(tokens, normalized.split(" "));
+        return tokens;
+    }
+
+    private static Set<String> gramsOf(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static void addPostings(Entry entry, Map<String, Set<Integer>> trigramMap,
+            Map<String, Set<Integer>> prefixMap) {
+        for (String gram : entry.grams()) {
+            trigramMap.computeIfAbsent(gram, g -> new HashSet<>()).add(entry.passengerId);
+        }
+        for (String prefix : entry.prefixes()) {
+            prefixMap.computeIfAbsent(prefix, p -> new HashSet<>()).add(entry.passengerId);
+        }
+    }
+
+    private static void removePosting(Map<String, Set<Integer>> map, String key, int passengerId) {
+        Set<Integer> posting = map.get(key);
+        if (posting != null) {
+            posting.remove(passengerId);
+            if (posting.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Normalised searchable text of one passenger.
+     */
+    private static class Entry {
+        final int passengerId;
+        final String firstName;
+        final String lastName;
+        final String passport;
+        final List<String> tokens;
+
+        Entry(Passenger passenger) {
+            this.passengerId = passenger.getPassengerId();
+            this.firstName = normalize(passenger.getFirstName());
+            this.lastName = normalize(passenger.getLastName());
+            this.passport = normalize(passenger.getPassportNumber()).replace(" ", "");
+            this.tokens = new ArrayList<>();
+            tokens.addAll(tokenize(firstName));
+            tokens.addAll(tokenize(lastName));
+            if (!passport.isEmpty()) {
+                tokens.add(passport);
+            }
+        }
+
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            for (String token : tokens) {
+                grams.addAll(gramsOf(token));
+            }
+            return grams;
+        }
+
+        Set<String> prefixes() {
+            Set<String> result = new HashSet<>();
+            for (String token : tokens) {
+                for (int length = 1; length < GRAM && length <= token.length(); length++) {
+                    result.add(token.substring(0, length));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Scores the entry against all terms; 0 if any term does not match.
+         */
+        int score(List<String> terms) {
+            int total = 0;
+            for (String term : terms) {
+                int best = 0;
+                if (term.equals(passport)) {
+                    best = SCORE_PASSPORT_EXACT;
+                }
+                for (String token : tokens) {
+                    if (token.equals(term)) {
+                        best = Math.max(best, SCORE_TOKEN_EXACT);
+                    } else if (token.startsWith(term)) {
+                        best = Math.max(best, SCORE_TOKEN_PREFIX);
+                    } else if (term.length() >= GRAM && token.contains(term)) {
+                        best = Math.max(best, SCORE_SUBSTRING);
+                    }
+                }
+                if (best == 0) {
+                    return 0;
+                }
+                total += best;
+            }
+            return total;
+        }
+    }
+
+    private static class Scored {
+        final Entry entry;
+        final int score;
+
+        Scored(Entry entry, int score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+}
@@ -3,15 +3,27 @@ package com.gatorsoft.aerodeskpro.services;
 import com.gatorsoft.aerodeskpro.dao.PassengerDAO;
 import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
 import com.gatorsoft.aerodeskpro.models.Passenger;
+import com.gatorsoft.aerodeskpro.utils.NameMatcher;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 public class PassengerService {
 
     private static final Logger LOGGER = Logger.getLogger(PassengerService.class.getName());
 
+    // Upper bound on rows returned by an indexed search
+    private static final int SEARCH_RESULT_LIMIT = 200;
+    private static final int NAME_KEY_BACKFILL_BATCH = 1000;
+    private static final int COLUMN_STORE_PAGE = 5000;
+
     private PassengerDAO passengerDAO; // Data Access Object for Passenger
+    private final PassengerSearchIndex searchIndex = PassengerSearchIndex.getInstance();
+    private final PassengerCache cache = PassengerCache.getInstance();
 
     // Constructor that injects the PassengerDAO dependency
     public PassengerService(PassengerDAO passengerDAO) {
@@ -30,6 +42,7 @@ public class PassengerService {
             // Call DAO to insert passenger into the database
             boolean success = passengerDAO.insertPassenger(passenger);
             if (success) {
+                searchIndex.upsert(passenger);
                 LOGGER.info("Successfully registered passenger: " + passenger.getFirstName() + " " + passenger.getLastName());
                 return passenger;
             } else {
@@ -55,6 +68,8 @@ public class PassengerService {
 
             boolean success = passengerDAO.updatePassenger(passenger);
             if (success) {
+                cache.invalidate(passenger.getPassengerId());
+                searchIndex.upsert(passenger);
                 LOGGER.info("Successfully updated passenger: " + passenger.getFirstName() + " " + passenger.getLastName());
                 return passenger;
             } else {
@@ -78,8 +93,15 @@ public class PassengerService {
                 throw new AeroDeskException("Invalid passenger ID.", AeroDeskException.ErrorCategory.VALIDATION_ERROR);
             }
 
-            Passenger passenger = passengerDAO.getPassengerById(passengerId);
+            Passenger passenger = cache.getById(passengerId);
+            if (passenger != null) {
+                return passenger;
+            }
+
+            long stamp = cache.stamp();
+            passenger = passengerDAO.getPassengerById(passengerId);
             if (passenger != null) {
+                cache.put(passenger, stamp);
                 LOGGER.info("Passenger found by ID: " + passenger.getFirstName() + " " + passenger.getLastName());
                 return passenger;
             } else {
@@ -103,8 +125,15 @@ public class PassengerService {
                 throw new AeroDeskException("Passport number is required.", AeroDeskException.ErrorCategory.VALIDATION_ERROR);
             }
 
-            Passenger passenger = passengerDAO.getPassengerByPassport(passportNumber);
+            Passenger passenger = cache.getByPassport(passportNumber);
+            if (passenger != null) {
+                return passenger;
+            }
+
+            long stamp = cache.stamp();
+            passenger = passengerDAO.getPassengerByPassport(passportNumber);
             if (passenger != null) {
+                cache.put(passenger, stamp);
                 LOGGER.info("Passenger found by passport: " + passenger.getFirstName() + " " + passenger.getLastName());
                 return passenger;
             } else {
@@ -128,8 +157,15 @@ public class PassengerService {
                 throw new AeroDeskException("Email is required.", AeroDeskException.ErrorCategory.VALIDATION_ERROR);
             }
 
-            Passenger passenger = passengerDAO.getPassengerByEmail(email);
+            Passenger passenger = cache.getByEmail(email);
             if (passenger != null) {
+                return passenger;
+            }
+
+            long stamp = cache.stamp();
+            passenger = passengerDAO.getPassengerByEmail(email);
+            if (passenger != null) {
+                cache.put(passenger, stamp);
                 LOGGER.info("Passenger found by email: " + passenger.getFirstName() + " " + passenger.getLastName());
                 return passenger;
             } else {
@@ -144,6 +180,48 @@ public class PassengerService {
         }
     }
 
+    /**
+     * Retrieves a Passenger by their frequent flyer number
+     */
+    public Passenger getPassengerByFrequentFlyer(String frequentFlyerNumber) throws AeroDeskException {
+        try {
+            if (frequentFlyerNumber == null || frequentFlyerNumber.trim().isEmpty()) {
+                throw new AeroDeskException("Frequent flyer number is required.", AeroDeskException.ErrorCategory.VALIDATION_ERROR);
+            }
+
+            Passenger passenger = cache.getByFrequentFlyer(frequentFlyerNumber);
+            if (passenger != null) {
+                return passenger;
+            }
+
+            long stamp = cache.stamp();
+            List<Passenger> passengers = passengerDAO.findByFrequentFlyerNumber(frequentFlyerNumber.trim());
+            if (passengers.isEmpty()) {
+                throw new AeroDeskException("Passenger not found with frequent flyer number: " + frequentFlyerNumber, AeroDeskException.ErrorCategory.RESOURCE_NOT_FOUND);
+            }
+            passenger = passengers.get(0);
+            if (passengers.size() == 1) {
+                // Only cache an unambiguous mapping
+                cache.put(passenger, stamp);
+            }
+            LOGGER.info("Passenger found by frequent flyer number: " + passenger.getFirstName() + " " + passenger.getLastName());
+            return passenger;
+        } catch (AeroDeskException e) {
+            LOGGER.severe("Error fetching passenger by frequent flyer number: " + e.getDetailedMessage());
+            throw e;
+        } catch (Exception e) {
+            LOGGER.severe("Unexpected error while fetching passenger by frequent flyer number: " + e.getMessage());
+            throw new AeroDeskException("Unexpected error while fetching passenger by frequent flyer number.", e, AeroDeskException.ErrorCategory.SYSTEM_ERROR, "FETCH_FF_ERROR", frequentFlyerNumber);
+        }
+    }
+
+    /**
+     * Returns the hit/miss statistics of the passenger cache.
+     */
+    public String getCacheStatistics() {
+        return cache.toString();
+    }
+
     /**
      * Deletes a Passenger by their ID
      */
@@ -155,6 +233,8 @@ public class PassengerService {
 
             boolean success = passengerDAO.deletePassenger(passengerId);
             if (success) {
+                cache.invalidate(passengerId);
+                searchIndex.remove(passengerId);
                 LOGGER.info("Passenger deleted successfully with ID: " + passengerId);
                 return true;
             } else {
@@ -178,7 +258,15 @@ public class PassengerService {
                 throw new AeroDeskException("Search term cannot be empty.", AeroDeskException.ErrorCategory.VALIDATION_ERROR);
             }
 
-            List<Passenger> passengers = passengerDAO.searchPassengers(searchTerm);
+            List<Passenger> passengers;
+            if (searchIndex.isWarm()) {
+                List<Integer> ids = searchIndex.search(searchTerm, SEARCH_RESULT_LIMIT);
+                passengers = passengerDAO.findByIds(ids);
+            } else {
+                // Cold start: answer from the database while the index loads
+                searchIndex.warmInBackground(passengerDAO);
+                passengers = passengerDAO.searchPassengers(searchTerm);
+            }
             LOGGER.info("Found " + passengers.size() + " passengers for search term: " + searchTerm);
             return passengers;
         } catch (AeroDeskException e) {
@@ -190,6 +278,99 @@ public class PassengerService {
         }
     }
 
+    /**
+     * Finds passengers by name, tolerating misspellings. Candidates share the
+     * phonetic keys of both names (an indexed lookup) and are kept when both
+     * names are within a small edit distance; if none is kept, the first name
+     * key is dropped in case the typo changed it. Closest matches come first.
+     */
+    public List<Passenger> findPassengersByName(String firstName, String lastName) throws AeroDeskException {
+        try {
+            if (firstName == null || firstName.trim().isEmpty() || lastName == null || lastName.trim().isEmpty()) {
+                throw new AeroDeskException("First and last name are required.", AeroDeskException.ErrorCategory.VALIDATION_ERROR);
+            }
+
+            String lastNameKey = NameMatcher.phoneticKey(lastName);
+            String firstNameKey = NameMatcher.phoneticKey(firstName);
+            List<Passenger> candidates = passengerDAO.findNameCandidates(lastNameKey, firstNameKey);
+            Map<Integer, Integer> distances = matchNames(firstName, lastName, candidates);
+            if (distances.isEmpty() && firstNameKey != null) {
+                candidates = passengerDAO.findNameCandidates(lastNameKey, null);
+                distances = matchNames(firstName, lastName, candidates);
+            }
+
+            List<Integer> ids = new ArrayList<>(distances.keySet());
+            ids.sort(Comparator.comparing(distances::get));
+            List<Passenger> matches = passengerDAO.findByIds(ids);
+
+            LOGGER.info("Found " + matches.size() + " of " + candidates.size() + " phonetic candidates for name: "
+                    + firstName + " " + lastName);
+            return matches;
+        } catch (AeroDeskException e) {
+            LOGGER.severe("Error finding passengers by name: " + e.getDetailedMessage());
+            throw e;
+        } catch (Exception e) {
+            LOGGER.severe("Unexpected error while finding passengers by name: " + e.getMessage());
+            throw new AeroDeskException("Unexpected error while finding passengers by name.", e, AeroDeskException.ErrorCategory.SYSTEM_ERROR, "NAME_SEARCH_ERROR", lastName);
+        }
+    }
+
+    // Combined edit distance of each candidate within the limits of both names, by passenger id
+    private static Map<Integer, Integer> matchNames(String firstName, String lastName, List<Passenger> candidates) {
+        int firstLimit = NameMatcher.allowedDistance(firstName);
+        int lastLimit = NameMatcher.allowedDistance(lastName);
+        Map<Integer, Integer> distances = new HashMap<>();
+        for (Passenger candidate : candidates) {
+            int lastDistance = NameMatcher.editDistance(lastName, candidate.getLastName(), lastLimit);
+            if (lastDistance > lastLimit) {
+                continue;
+            }
+            int firstDistance = NameMatcher.editDistance(firstName, candidate.getFirstName(), firstLimit);
+            if (firstDistance > firstLimit) {
+                continue;
+            }
+            distances.put(candidate.getPassengerId(), lastDistance + firstDistance);
+        }
+        return distances;
+    }
+
+    /**
+     * Fills in phonetic name keys for passengers stored before they existed.
+     */
+    public int backfillNameKeys() throws AeroDeskException {
+        int updated = passengerDAO.backfillNameKeys(NAME_KEY_BACKFILL_BATCH);
+        LOGGER.info("Name key backfill complete: " + updated + " passengers updated");
+        return updated;
+    }
+
+    /**
+     * Loads the passenger search index in the background so the first searches
+     * do not have to fall back to the database.
+     */
+    public void warmSearchIndex() {
+        searchIndex.warmInBackground(passengerDAO);
+    }
+
+    /**
+     * Loads every passenger into a columnar store for reporting. Rows are read
+     * page by page, so the full passenger list is never held as objects.
+     */
+    public PassengerColumnStore buildColumnStore() throws AeroDeskException {
+        PassengerColumnStore store = new PassengerColumnStore(COLUMN_STORE_PAGE);
+        int afterId = 0;
+        List<Passenger> page;
+        do {
+            page = passengerDAO.findPageAfter(afterId, COLUMN_STORE_PAGE);
+            store.addAll(page);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getPassengerId();
+            }
+        } while (page.size() == COLUMN_STORE_PAGE);
+        store.trimToSize();
+        LOGGER.info("Built " + store);
+        return store;
+    }
+
     /**
      * Validates a passenger’s data (checks if data is not null or empty)
      */
@@ -219,8 +400,11 @@ public class PassengerService {
      */
     public List<Passenger> getAllPassengers() throws AeroDeskException {
         try {
-            // Fetch all passengers from the DAO
-            List<Passenger> passengers = passengerDAO.getAllPassengers();
+            // A cold search index is built from the same read, or waited for if it is loading
+            List<Passenger> passengers = searchIndex.loadIfCold(passengerDAO::getAllPassengers);
+            if (passengers == null) {
+                passengers = passengerDAO.getAllPassengers();
+            }
             return passengers;
         } catch (Exception e) {
             // Log and rethrow the exception
@@ -0,0 +1,199 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.dao.BookingDAO;
+import com.gatorsoft.aerodeskpro.dao.FlightDAO;
+import com.gatorsoft.aerodeskpro.entity.BookingStatus;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.Booking;
+import com.gatorsoft.aerodeskpro.models.BookingChange;
+import com.gatorsoft.aerodeskpro.models.CabinLayout;
+import com.gatorsoft.aerodeskpro.threads.BookingChangeTailer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Seat maps for the flights desks are working on, loaded from the database
+ * the first time a flight is touched and kept in step by
+ * {@link BookingService} afterwards.
+ *
+ * Other desks change seats too. Their bookings, cancellations and seat moves
+ * reach the maps through {@link BookingChangeTailer}, which is started with
+ * the first map, and a map older than half a minute is refreshed in place
+ * from the database on its next use as a backstop. A refresh keeps claims
+ * still being saved on this desk, and callers ask for one at once when the
+ * database disagrees with the map. Maps of flights nobody has touched for
+ * hours, which includes departed flights, are dropped.
+ */
+public class SeatInventory {
+
+    private static final Logger LOGGER = Logger.getLogger(SeatInventory.class.getName());
+
+    // Used when the aircraft capacity is not recorded
+    private static final int DEFAULT_CAPACITY = 180;
+
+    private static final long REFRESH_MILLIS = 30_000;
+    private static final long IDLE_EVICTION_MILLIS = 6 * 60 * 60_000L;
+    private static final long SWEEP_INTERVAL_MILLIS = 60_000;
+
+    private static final SeatInventory INSTANCE = new SeatInventory();
+
+    private final Map<Integer, Entry> seatMaps = new ConcurrentHashMap<>();
+    private volatile long lastSweep = System.currentTimeMillis();
+    private volatile boolean tailing;
+
+    SeatInventory() {
+        BookingChangeTailer.getInstance().addListener(this::onBookingChange);
+    }
+
+    public static SeatInventory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The seat map of a flight, loading it on first use and again once it
+     * is due a refresh.
+     */
+    public SeatMap getSeatMap(int flightId, FlightDAO flightDAO, BookingDAO bookingDAO) throws AeroDeskException {
+        long now = System.currentTimeMillis();
+        evictIdle(now);
+        Entry entry = seatMaps.get(flightId);
+        if (entry != null && now - entry.loadedAt < REFRESH_MILLIS) {
+            entry.lastUsed = now;
+            return entry.seatMap;
+        }
+        return reload(flightId, flightDAO, bookingDAO);
+    }
+
+    /**
+     * Reads a flight's held seats again and applies them to its map in
+     * place, so claims made on the map and not yet saved survive. The map is
+     * only replaced if the aircraft's capacity has changed.
+     */
+    public SeatMap reload(int flightId, FlightDAO flightDAO, BookingDAO bookingDAO) throws AeroDeskException {
+        startTailing();
+        int capacity = flightDAO.getSeatCapacity(flightId);
+        CabinLayout layout = CabinLayout.forCapacity(capacity > 0 ? capacity : DEFAULT_CAPACITY);
+        Entry entry = seatMaps.compute(flightId, (id, current) ->
+                current != null && current.seatMap.getLayout().getSeatCount() == layout.getSeatCount()
+                        ? current : new Entry(new SeatMap(id, layout)));
+        SeatMap seatMap = entry.seatMap;
+        long epoch = seatMap.beginRefresh();
+        Map<Integer, Integer> heldSeats = new HashMap<>();
+        for (Map.Entry<String, Integer> taken : bookingDAO.findTakenSeats(flightId).entrySet()) {
+            int seat = layout.indexOf(taken.getKey());
+            if (seat >= 0) {
+                heldSeats.put(seat, taken.getValue());
+            } else {
+                LOGGER.warning("Flight " + flightId + " has booked seat " + taken.getKey() + " outside its cabin layout");
+            }
+        }
+        seatMap.applyRefresh(epoch, heldSeats);
+        entry.loadedAt = System.currentTimeMillis();
+        entry.lastUsed = entry.loadedAt;
+        LOGGER.fine("Loaded " + seatMap);
+        return seatMap;
+    }
+
+    /**
+     * Marks a seat as held by a saved booking, e.g. a new booking that came
+     * with its seat. Does nothing if the flight's map is not held.
+     */
+    public void markTaken(int flightId, String seatNumber, int bookingId) {
+        Entry entry = seatMaps.get(flightId);
+        if (entry == null || seatNumber == null) {
+            return;
+        }
+        int seat = entry.seatMap.getLayout().indexOf(seatNumber);
+        if (seat >= 0) {
+            entry.seatMap.hold(seat, bookingId);
+        }
+    }
+
+    /**
+     * Frees a seat a booking has given up, unless it has already gone to
+     * another booking. Does nothing if the flight's map is not held.
+     */
+    public void release(int flightId, String seatNumber, int bookingId) {
+        Entry entry = seatMaps.get(flightId);
+        if (entry == null || seatNumber == null) {
+            return;
+        }
+        int seat = entry.seatMap.getLayout().indexOf(seatNumber);
+        if (seat >= 0) {
+            entry.seatMap.releaseHeldBy(seat, bookingId);
+        }
+    }
+
+    /**
+     * Has the flight's map refreshed on its next use, keeping its claims.
+     */
+    public void markStale(int flightId) {
+        Entry entry = seatMaps.get(flightId);
+        if (entry != null) {
+            entry.loadedAt = 0;
+        }
+    }
+
+    /**
+     * Drops a flight's seat map so the next use reloads it from the database.
+     */
+    public void evict(int flightId) {
+        seatMaps.remove(flightId);
+    }
+
+    public void clear() {
+        seatMaps.clear();
+    }
+
+    // Before the first read, so no booking falls between the read and the tail
+    private void startTailing() throws AeroDeskException {
+        if (tailing) {
+            return;
+        }
+        synchronized (this) {
+            if (!tailing) {
+                BookingChangeTailer.getInstance().start();
+                tailing = true;
+            }
+        }
+    }
+
+    // Frees the seat a booking held before the change and marks the one it holds after
+    private void onBookingChange(BookingChange change) {
+        Booking before = change.getBefore();
+        Booking after = change.getAfter();
+        if (before != null && before.getSeatNumber() != null && !holdsSameSeat(before, after)) {
+            release(before.getFlightId(), before.getSeatNumber(), before.getBookingId());
+        }
+        if (after != null && after.getBookingStatus() != BookingStatus.CANCELLED) {
+            markTaken(after.getFlightId(), after.getSeatNumber(), after.getBookingId());
+        }
+    }
+
+    private static boolean holdsSameSeat(Booking before, Booking after) {
+        return after != null && after.getBookingStatus() != BookingStatus.CANCELLED
+                && after.getFlightId() == before.getFlightId()
+                && before.getSeatNumber().equals(after.getSeatNumber());
+    }
+
+    private void evictIdle(long now) {
+        if (now - lastSweep < SWEEP_INTERVAL_MILLIS) {
+            return;
+        }
+        lastSweep = now;
+        seatMaps.values().removeIf(entry -> now - entry.lastUsed > IDLE_EVICTION_MILLIS);
+    }
+
+    private static final class Entry {
+        final SeatMap seatMap;
+        // 0 until first loaded and after markStale
+        volatile long loadedAt;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        Entry(SeatMap seatMap) {
+            this.seatMap = seatMap;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.entity.BookingClass;
+import com.gatorsoft.aerodeskpro.models.CabinLayout;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Seat occupancy for one flight, one word per seat of the cabin layout
+ * holding who has the seat: nobody, a claim not yet saved, or a booking id.
+ * Every state change is a compare-and-set on that word, so two desks can
+ * never both win the same seat and nobody waits on a lock.
+ *
+ * A claim stays in the map until the caller commits it (the booking is
+ * saved) or abandons it, and a refresh from the database never frees a
+ * claimed seat, or a seat committed after the refresh started reading.
+ */
+public class SeatMap {
+
+    private static final int FREE = 0;
+    // Claimed in memory, not yet saved
+    private static final int CLAIMED = -1;
+    // Taken in the database by a booking this map has not been told about
+    private static final int UNKNOWN_HOLDER = -2;
+
+    private final int flightId;
+    private final CabinLayout layout;
+    private final AtomicIntegerArray holders;
+    // Refresh epoch current when each seat was last committed or marked held
+    private final AtomicLongArray heldSince;
+    private final AtomicLong refreshEpoch = new AtomicLong();
+
+    public SeatMap(int flightId, CabinLayout layout) {
+        this.flightId = flightId;
+        this.layout = layout;
+        this.holders = new AtomicIntegerArray(layout.getSeatCount());
+        this.heldSince = new AtomicLongArray(layout.getSeatCount());
+    }
+
+    public int getFlightId() {
+        return flightId;
+    }
+
+    public CabinLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Claims a free seat for a booking about to be saved. Returns false if
+     * it was already taken; otherwise the caller must {@link #commit} or
+     * {@link #abandon} the claim.
+     */
+    public boolean claim(int seat) {
+        checkSeat(seat);
+        return holders.compareAndSet(seat, FREE, CLAIMED);
+    }
+
+    /**
+     * Turns a claim into a held seat once the booking is saved, or once the
+     * database reports the seat as someone else's (bookingId 0).
+     */
+    public void commit(int seat, int bookingId) {
+        checkSeat(seat);
+        heldSince.set(seat, refreshEpoch.get());
+        holders.compareAndSet(seat, CLAIMED, bookingId > 0 ? bookingId : UNKNOWN_HOLDER);
+    }
+
+    /**
+     * Frees a claim whose booking was not saved.
+     */
+    public void abandon(int seat) {
+        checkSeat(seat);
+        holders.compareAndSet(seat, CLAIMED, FREE);
+    }
+
+    /**
+     * Records a seat as held by a saved booking, unless a claim on it is
+     * still being saved here; that save settles who has it.
+     */
+    void hold(int seat, int bookingId) {
+        checkSeat(seat);
+        heldSince.set(seat, refreshEpoch.get());
+        while (true) {
+            int current = holders.get(seat);
+            if (current == CLAIMED || holders.compareAndSet(seat, current, bookingId)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Frees a seat if the given booking still holds it. Returns false if the
+     * seat has meanwhile gone to someone else or is already free.
+     */
+    public boolean releaseHeldBy(int seat, int bookingId) {
+        checkSeat(seat);
+        return bookingId > 0 && holders.compareAndSet(seat, bookingId, FREE);
+    }
+
+    public boolean isTaken(int seat) {
+        checkSeat(seat);
+        return holders.get(seat) != FREE;
+    }
+
+    /**
+     * Starts a refresh; call before reading the database.
+     *
+     * @return the epoch to pass to {@link #applyRefresh}
+     */
+    long beginRefresh() {
+        return refreshEpoch.incrementAndGet();
+    }
+
+    /**
+     * Brings the map in line with the held seats read from the database
+     * after {@link #beginRefresh}. Seats the database shows free are freed
+     * only if they are not claimed and were not held again since the read
+     * began.
+     *
+     * @param heldSeats booking id by seat index
+     */
+    void applyRefresh(long epoch, Map<Integer, Integer> heldSeats) {
+        for (int seat = 0; seat < layout.getSeatCount(); seat++) {
+            Integer bookingId = heldSeats.get(seat);
+            if (bookingId != null) {
+                hold(seat, bookingId);
+                continue;
+            }
+            int current = holders.get(seat);
+            if (current != FREE && current != CLAIMED && heldSince.get(seat) < epoch) {
+                holders.compareAndSet(seat, current, FREE);
+            }
+        }
+    }
+
+    /**
+     * Claims the front-most free seat of a class, preferring the given
+     * position, and falls back to any free seat in the class. Returns the
+     * seat index, or -1 when the class is full. The claim must be committed
+     * or abandoned as for {@link #claim}.
+     */
+    public int claimBest(BookingClass bookingClass, CabinLayout.SeatPosition preferred) {
+        for (CabinLayout.Section section : layout.sectionsFor(bookingClass)) {
+            if (preferred != null) {
+                int seat = claimFirstFree(section, preferred);
+                if (seat >= 0) {
+                    return seat;
+                }
+            }
+            int seat = claimFirstFree(section, null);
+            if (seat >= 0) {
+                return seat;
+            }
+        }
+        return -1;
+    }
+
+    public int freeSeats(BookingClass bookingClass) {
+        int free = 0;
+        for (CabinLayout.Section section : layout.sectionsFor(bookingClass)) {
+            free += section.getSeatCount() - countTaken(section.getFirstSeat(), section.getFirstSeat() + section.getSeatCount());
+        }
+        return free;
+    }
+
+    public int takenSeats() {
+        return countTaken(0, layout.getSeatCount());
+    }
+
+    private int claimFirstFree(CabinLayout.Section section, CabinLayout.SeatPosition position) {
+        int to = section.getFirstSeat() + section.getSeatCount();
+        for (int seat = section.getFirstSeat(); seat < to; seat++) {
+            if (holders.get(seat) == FREE && (position == null || layout.positionOf(seat) == position)
+                    && holders.compareAndSet(seat, FREE, CLAIMED)) {
+                return seat;
+            }
+        }
+        return -1;
+    }
+
+    private int countTaken(int from, int to) {
+        int count = 0;
+        for (int seat = from; seat < to; seat++) {
+            if (holders.get(seat) != FREE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void checkSeat(int seat) {
+        if (seat < 0 || seat >= layout.getSeatCount()) {
+            throw new IndexOutOfBoundsException("Seat " + seat + " of " + layout.getSeatCount());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SeatMap{flightId=" + flightId + ", taken=" + takenSeats() + "/" + layout.getSeatCount() + "}";
+    }
+}
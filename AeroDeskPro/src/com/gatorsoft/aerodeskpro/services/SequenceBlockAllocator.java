@@ -0,0 +1,127 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.dao.SequenceDAO;
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hands out values of a database sequence from blocks leased in advance.
+ * Values inside a block come from an atomic counter, so callers never touch
+ * the database; when a block is half used the next one is leased in the
+ * background, so a caller only waits if the standby lease has not returned.
+ *
+ * Values are unique across processes. Values left in a block when the
+ * process stops are skipped, so the sequence has gaps.
+ */
+public class SequenceBlockAllocator {
+
+    private static final Logger LOGGER = Logger.getLogger(SequenceBlockAllocator.class.getName());
+
+    private static final ExecutorService PREFETCHER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(DatabaseConnection.closingOnExit(runnable), "sequence-block-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final SequenceDAO sequenceDAO;
+    private final String sequenceName;
+    private final int blockSize;
+    private final long startValue;
+
+    private volatile Block current = Block.EMPTY;
+    private CompletableFuture<Block> standby;
+
+    public SequenceBlockAllocator(SequenceDAO sequenceDAO, String sequenceName, int blockSize, long startValue) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.sequenceDAO = sequenceDAO;
+        this.sequenceName = sequenceName;
+        this.blockSize = blockSize;
+        this.startValue = startValue;
+    }
+
+    public String getSequenceName() {
+        return sequenceName;
+    }
+
+    /**
+     * The next value of the sequence.
+     */
+    public long next() throws AeroDeskException {
+        while (true) {
+            Block block = current;
+            long value = block.next.getAndIncrement();
+            if (value < block.end) {
+                if (value == block.prefetchAt) {
+                    prefetch();
+                }
+                return value;
+            }
+            advance(block);
+        }
+    }
+
+    /**
+     * Swaps in the next block once the given one is used up. Only the first
+     * caller to see the exhausted block does the swap.
+     */
+    private synchronized void advance(Block exhausted) throws AeroDeskException {
+        if (current != exhausted) {
+            return;
+        }
+        CompletableFuture<Block> pending = standby;
+        standby = null;
+        Block next = null;
+        if (pending != null) {
+            try {
+                next = pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AeroDeskException("Interrupted while leasing sequence block", e);
+            } catch (ExecutionException e) {
+                // Background lease failed; try once more on this thread
+                LOGGER.log(Level.WARNING, "Background lease of " + sequenceName + " failed", e.getCause());
+            }
+        }
+        current = next != null ? next : lease();
+    }
+
+    private synchronized void prefetch() {
+        if (standby == null) {
+            standby = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return lease();
+                } catch (AeroDeskException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            }, PREFETCHER);
+        }
+    }
+
+    private Block lease() throws AeroDeskException {
+        long first = sequenceDAO.leaseBlock(sequenceName, blockSize, startValue);
+        return new Block(first, first + blockSize, first + blockSize / 2);
+    }
+
+    private static final class Block {
+        static final Block EMPTY = new Block(0, 0, -1);
+
+        final AtomicLong next;
+        final long end;
+        final long prefetchAt;
+
+        Block(long first, long end, long prefetchAt) {
+            this.next = new AtomicLong(first);
+            this.end = end;
+            this.prefetchAt = prefetchAt;
+        }
+    }
+}
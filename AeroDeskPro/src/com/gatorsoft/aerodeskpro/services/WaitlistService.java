@@ -0,0 +1,179 @@
+package com.gatorsoft.aerodeskpro.services;
+
+import com.gatorsoft.aerodeskpro.dao.WaitlistDAO;
+import com.gatorsoft.aerodeskpro.entity.BookingClass;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.WaitlistEntry;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Waitlists of full flights, one priority queue per flight and booking
+ * class in {@link WaitlistEntry#PROMOTION_ORDER}. A flight's queues are read
+ * from booking_waitlist the first time the flight is used, so promotions
+ * pick up where they left off after a restart.
+ *
+ * Taking the next passenger is a heap poll plus one conditional UPDATE that
+ * claims the row. Other desks add, promote and remove entries too, so when a
+ * claim misses or the queue runs empty the flight's queues are read again
+ * before giving up; a queue that still has entries may not yet show a
+ * passenger another desk added.
+ */
+public class WaitlistService {
+
+    private static final Logger LOGGER = Logger.getLogger(WaitlistService.class.getName());
+
+    private static final WaitlistService INSTANCE = new WaitlistService();
+
+    private final Map<Integer, FlightQueues> flights = new ConcurrentHashMap<>();
+
+    WaitlistService() {
+    }
+
+    public static WaitlistService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Puts a passenger on a flight's waitlist, in the database and in memory.
+     */
+    public WaitlistEntry add(WaitlistEntry entry, WaitlistDAO waitlistDAO) throws AeroDeskException {
+        // Load first so the new row is not read back a second time
+        FlightQueues queues = queues(entry.getFlightId(), waitlistDAO);
+        waitlistDAO.insert(entry);
+        queues.offer(entry);
+        LOGGER.info("Passenger " + entry.getPassengerId() + " waitlisted on flight " + entry.getFlightId()
+                + " in " + entry.getBookingClass() + " (" + entry.getTier() + ")");
+        return entry;
+    }
+
+    /**
+     * Takes the first waiting passenger of a flight and class and marks the
+     * entry PROMOTED.
+     *
+     * @return the claimed entry, or null if nobody is waiting
+     */
+    public WaitlistEntry claimNext(int flightId, BookingClass bookingClass, WaitlistDAO waitlistDAO) throws AeroDeskException {
+        FlightQueues queues = queues(flightId, waitlistDAO);
+        WaitlistEntry entry = queues.poll(bookingClass);
+        if (entry != null && waitlistDAO.claim(entry.getWaitlistId())) {
+            entry.setStatus(WaitlistEntry.Status.PROMOTED);
+            return entry;
+        }
+        if (entry != null) {
+            LOGGER.log(Level.FINE, "Waitlist entry {0} was resolved elsewhere", entry.getWaitlistId());
+        }
+
+        // Missed or empty: the queue is behind the table, so read it again
+        queues = reload(flightId, waitlistDAO);
+        while ((entry = queues.poll(bookingClass)) != null) {
+            if (waitlistDAO.claim(entry.getWaitlistId())) {
+                entry.setStatus(WaitlistEntry.Status.PROMOTED);
+                return entry;
+            }
+            LOGGER.log(Level.FINE, "Waitlist entry {0} was resolved elsewhere", entry.getWaitlistId());
+        }
+        return null;
+    }
+
+    /**
+     * Records the booking a claimed entry became.
+     */
+    public void completePromotion(WaitlistEntry entry, int bookingId, WaitlistDAO waitlistDAO) throws AeroDeskException {
+        waitlistDAO.setBooking(entry.getWaitlistId(), bookingId);
+        entry.setBookingId(bookingId);
+    }
+
+    /**
+     * Returns a claimed entry to its queue when the booking could not be
+     * made. It keeps its place, since the order does not depend on the claim.
+     */
+    public void requeue(WaitlistEntry entry, WaitlistDAO waitlistDAO) throws AeroDeskException {
+        if (waitlistDAO.unclaim(entry.getWaitlistId())) {
+            entry.setStatus(WaitlistEntry.Status.WAITING);
+            queues(entry.getFlightId(), waitlistDAO).offer(entry);
+        }
+    }
+
+    /**
+     * Takes a waiting passenger off a flight's waitlist.
+     *
+     * @return false if the entry was not waiting
+     */
+    public boolean remove(int flightId, int waitlistId, WaitlistDAO waitlistDAO) throws AeroDeskException {
+        queues(flightId, waitlistDAO).remove(waitlistId);
+        return waitlistDAO.remove(waitlistId);
+    }
+
+    /**
+     * Waiting passengers of a flight and class, first to be promoted first.
+     */
+    public List<WaitlistEntry> getWaiting(int flightId, BookingClass bookingClass, WaitlistDAO waitlistDAO) throws AeroDeskException {
+        return queues(flightId, waitlistDAO).snapshot(bookingClass);
+    }
+
+    /**
+     * Drops a flight's queues; the next use reads them again.
+     */
+    public void evict(int flightId) {
+        flights.remove(flightId);
+    }
+
+    private FlightQueues queues(int flightId, WaitlistDAO waitlistDAO) throws AeroDeskException {
+        FlightQueues queues = flights.get(flightId);
+        if (queues != null) {
+            return queues;
+        }
+        FlightQueues loaded = read(flightId, waitlistDAO);
+        queues = flights.putIfAbsent(flightId, loaded);
+        return queues != null ? queues : loaded;
+    }
+
+    private FlightQueues reload(int flightId, WaitlistDAO waitlistDAO) throws AeroDeskException {
+        FlightQueues loaded = read(flightId, waitlistDAO);
+        flights.put(flightId, loaded);
+        return loaded;
+    }
+
+    private static FlightQueues read(int flightId, WaitlistDAO waitlistDAO) throws AeroDeskException {
+        FlightQueues loaded = new FlightQueues();
+        for (WaitlistEntry entry : waitlistDAO.findWaiting(flightId)) {
+            loaded.offer(entry);
+        }
+        return loaded;
+    }
+
+    private static final class FlightQueues {
+        private final Map<BookingClass, PriorityQueue<WaitlistEntry>> byClass = new EnumMap<>(BookingClass.class);
+
+        synchronized void offer(WaitlistEntry entry) {
+            byClass.computeIfAbsent(entry.getBookingClass(), c -> new PriorityQueue<>(WaitlistEntry.PROMOTION_ORDER)).offer(entry);
+        }
+
+        synchronized WaitlistEntry poll(BookingClass bookingClass) {
+            PriorityQueue<WaitlistEntry> queue = byClass.get(bookingClass);
+            return queue != null ? queue.poll() : null;
+        }
+
+        synchronized void remove(int waitlistId) {
+            for (PriorityQueue<WaitlistEntry> queue : byClass.values()) {
+                if (queue.removeIf(entry -> entry.getWaitlistId() == waitlistId)) {
+                    return;
+                }
+            }
+        }
+
+        synchronized List<WaitlistEntry> snapshot(BookingClass bookingClass) {
+            PriorityQueue<WaitlistEntry> queue = byClass.get(bookingClass);
+            List<WaitlistEntry> entries = queue != null ? new ArrayList<>(queue) : new ArrayList<>();
+            entries.sort(WaitlistEntry.PROMOTION_ORDER);
+            return entries;
+        }
+    }
+}
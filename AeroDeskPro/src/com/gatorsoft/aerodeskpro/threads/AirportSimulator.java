@@ -0,0 +1,441 @@
+package com.gatorsoft.aerodeskpro.threads;
+
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.entity.BaggageStatus;
+import com.gatorsoft.aerodeskpro.entity.BookingStatus;
+import com.gatorsoft.aerodeskpro.entity.FlightStatus;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.Baggage;
+import com.gatorsoft.aerodeskpro.models.Booking;
+import com.gatorsoft.aerodeskpro.models.Flight;
+import com.gatorsoft.aerodeskpro.services.BaggageService;
+import com.gatorsoft.aerodeskpro.services.BookingService;
+import com.gatorsoft.aerodeskpro.services.FlightService;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Discrete-event simulation of an airport day running at accelerated time.
+ * Flights move through {@link FlightStatus}, bookings are checked in and bags
+ * move through {@link BaggageStatus}, all through the real service layer.
+ *
+ * A single dispatcher thread releases events when their simulated time comes
+ * up and hands them to a fixed pool of workers, so the simulator also works as
+ * a load generator: run it at 10x or 100x and read the {@link SimulationStats}.
+ */
+public class AirportSimulator {
+
+    private static final Logger LOGGER = Logger.getLogger(AirportSimulator.class.getName());
+
+    // Timeline offsets relative to the schedule
+    private static final Duration CHECK_IN_OPENS = Duration.ofHours(3);
+    private static final Duration CHECK_IN_CLOSES = Duration.ofMinutes(45);
+    private static final Duration BOARDING_STARTS = Duration.ofMinutes(40);
+    private static final Duration TAKE_OFF_AFTER = Duration.ofMinutes(10);
+    private static final Duration COMPLETED_AFTER = Duration.ofMinutes(30);
+    private static final Duration SECURITY_CHECK_AFTER = Duration.ofMinutes(10);
+    private static final Duration LOADED_BEFORE = Duration.ofMinutes(20);
+    private static final Duration BAGS_ARRIVE_AFTER = Duration.ofMinutes(10);
+    private static final Duration BAGS_DELIVERED_AFTER = Duration.ofMinutes(25);
+    private static final String SCAN_READER_PREFIX = "SIM-";
+
+    private final FlightService flightService;
+    private final BookingService bookingService;
+    private final BaggageService baggageService;
+    private final int workerThreads;
+    private final double speedFactor;
+
+    private int staffId = 1;
+    private double bagsPerPassenger = 0.8;
+    private long seed = 42L;
+
+    private final PriorityQueue<SimulationEvent> queue = new PriorityQueue<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final SimulationStats stats = new SimulationStats();
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private ExecutorService workers;
+    private Thread dispatcher;
+    private volatile boolean running;
+    private volatile LocalDateTime simStart;
+    private volatile long wallStartNanos;
+
+    /**
+     * @param workerThreads number of threads calling the services concurrently
+     * @param speedFactor simulated seconds per wall-clock second, e.g. 10 or 100
+     */
+    public AirportSimulator(FlightService flightService, BookingService bookingService,
+            BaggageService baggageService, int workerThreads, double speedFactor) {
+        if (workerThreads <= 0) {
+            throw new IllegalArgumentException("Worker thread count must be positive");
+        }
+        if (speedFactor <= 0) {
+            throw new IllegalArgumentException("Speed factor must be positive");
+        }
+        this.flightService = flightService;
+        this.bookingService = bookingService;
+        this.baggageService = baggageService;
+        this.workerThreads = workerThreads;
+        this.speedFactor = speedFactor;
+    }
+
+    public void setStaffId(int staffId) {
+        this.staffId = staffId;
+    }
+
+    public void setBagsPerPassenger(double bagsPerPassenger) {
+        this.bagsPerPassenger = bagsPerPassenger;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public SimulationStats getStats() {
+        return stats;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Current simulated time, or null before the run starts.
+     */
+    public LocalDateTime getSimulatedTime() {
+        if (simStart == null) {
+            return null;
+        }
+        long elapsed = (long) ((System.nanoTime() - wallStartNanos) * speedFactor);
+        return simStart.plusNanos(elapsed);
+    }
+
+    /**
+     * Queues the full day of events for the given flights. Flights that are
+     * already cancelled or completed are skipped.
+     */
+    public void scheduleFlights(List<Flight> flights) {
+        Random random = new Random(seed);
+        int scheduled = 0;
+        for (Flight flight : flights) {
+            if (!flight.isActive() || flight.getDepartureTime() == null || flight.getArrivalTime() == null) {
+                continue;
+            }
+            schedule(flightTimeline(flight));
+            if (flight.getStatus() == FlightStatus.scheduled || flight.getStatus() == FlightStatus.delayed) {
+                schedule(Collections.singletonList(checkInOpening(flight, random.nextLong())));
+            }
+            scheduled++;
+        }
+        LOGGER.log(Level.INFO, "Simulation scheduled {0} flights", scheduled);
+    }
+
+    /**
+     * Starts the run with the simulated clock set to the given time.
+     */
+    public synchronized void start(LocalDateTime simulatedStart) {
+        if (running) {
+            throw new IllegalStateException("Simulation already running");
+        }
+        simStart = simulatedStart;
+        wallStartNanos = System.nanoTime();
+        running = true;
+        stats.markStarted();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(DatabaseConnection.closingOnExit(runnable), "sim-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher = new Thread(DatabaseConnection.closingOnExit(this::dispatchLoop), "sim-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+
+        LOGGER.log(Level.INFO, "Simulation started at {0} with {1} workers, speed x{2}",
+                new Object[]{simulatedStart, workerThreads, speedFactor});
+        if (outstanding.get() == 0) {
+            finish();
+        }
+    }
+
+    /**
+     * Waits for every queued event to run. Returns false on timeout.
+     */
+    public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    /**
+     * Stops dispatching and discards events that have not started yet.
+     */
+    public void stop() {
+        synchronized (queue) {
+            outstanding.addAndGet(-queue.size());
+            queue.clear();
+            queue.notifyAll();
+        }
+        finish();
+    }
+
+    // ===== DISPATCH =====
+
+    private void dispatchLoop() {
+        try {
+            while (running) {
+                SimulationEvent event;
+                synchronized (queue) {
+                    event = queue.peek();
+                    if (event == null) {
+                        queue.wait();
+                        continue;
+                    }
+                    long waitNanos = wallTimeFor(event.getTime()) - System.nanoTime();
+                    if (waitNanos > 0) {
+                        // Woken early if an earlier event is queued meanwhile
+                        TimeUnit.NANOSECONDS.timedWait(queue, waitNanos);
+                        continue;
+                    }
+                    queue.poll();
+                    stats.recordDispatchLag(-waitNanos);
+                }
+                workers.execute(() -> execute(event));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void execute(SimulationEvent event) {
+        long started = System.nanoTime();
+        List<SimulationEvent> followUps = Collections.emptyList();
+        boolean succeeded = false;
+        try {
+            followUps = event.run();
+            succeeded = true;
+        } catch (AeroDeskException e) {
+            LOGGER.log(Level.WARNING, "Simulation event failed: " + event + " - " + e.getMessage());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Simulation event crashed: " + event, e);
+        }
+        stats.record(event.getType(), System.nanoTime() - started, succeeded);
+
+        schedule(followUps);
+        if (outstanding.decrementAndGet() == 0) {
+            finish();
+        }
+    }
+
+    private void schedule(List<SimulationEvent> events) {
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+        synchronized (queue) {
+            for (SimulationEvent event : events) {
+                outstanding.incrementAndGet();
+                queue.add(event);
+            }
+            queue.notifyAll();
+        }
+    }
+
+    private long wallTimeFor(LocalDateTime simulatedTime) {
+        long simNanos = Duration.between(simStart, simulatedTime).toNanos();
+        return wallStartNanos + (long) (simNanos / speedFactor);
+    }
+
+    private synchronized void finish() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (dispatcher != null) {
+            // The dispatcher may be handing over an event; let it finish before the pool refuses work
+            dispatcher.interrupt();
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (workers != null) {
+            workers.shutdown();
+        }
+        stats.markFinished();
+        finished.countDown();
+        LOGGER.info(stats.summary());
+    }
+
+    // ===== FLIGHT TIMELINE =====
+
+    /**
+     * Builds the remaining status changes of a flight as one chain of events,
+     * starting from its current status.
+     */
+    private List<SimulationEvent> flightTimeline(Flight flight) {
+        LocalDateTime departure = flight.getDepartureTime();
+        LocalDateTime arrival = flight.getArrivalTime();
+
+        // The whole day of a flight; it joins at the step after its current status
+        FlightStatus[] steps = {FlightStatus.boarding, FlightStatus.departed, FlightStatus.in_flight,
+            FlightStatus.arrived, FlightStatus.completed};
+        LocalDateTime[] stepTimes = {departure.minus(BOARDING_STARTS), departure, departure.plus(TAKE_OFF_AFTER),
+            arrival, arrival.plus(COMPLETED_AFTER)};
+
+        List<FlightStatus> statuses = new ArrayList<>();
+        List<LocalDateTime> times = new ArrayList<>();
+        for (int i = firstStep(flight.getStatus()); i < steps.length; i++) {
+            statuses.add(steps[i]);
+            times.add(stepTimes[i]);
+        }
+        return flightStep(flight, statuses, times, 0);
+    }
+
+    private static int firstStep(FlightStatus status) {
+        switch (status) {
+            case scheduled:
+            case delayed:
+                return 0;
+            case boarding:
+                return 1;
+            case departed:
+                return 2;
+            case in_flight:
+                return 3;
+            case arrived:
+                return 4;
+            default:
+                return Integer.MAX_VALUE;
+        }
+    }
+
+    private List<SimulationEvent> flightStep(Flight flight, List<FlightStatus> statuses,
+            List<LocalDateTime> times, int index) {
+        if (index >= statuses.size()) {
+            return Collections.emptyList();
+        }
+        FlightStatus status = statuses.get(index);
+        return Collections.singletonList(new SimulationEvent(times.get(index), SimulationEvent.Type.FLIGHT_STATUS,
+                flight.getFlightNumber() + " -> " + status, () -> {
+                    flightService.updateFlightStatus(flight.getFlightId(), status);
+                    return flightStep(flight, statuses, times, index + 1);
+                }));
+    }
+
+    // ===== CHECK-IN AND BAGGAGE =====
+
+    private SimulationEvent checkInOpening(Flight flight, long flightSeed) {
+        LocalDateTime opens = flight.getDepartureTime().minus(CHECK_IN_OPENS);
+        return new SimulationEvent(opens, SimulationEvent.Type.CHECK_IN_OPEN,
+                "check-in opens for " + flight.getFlightNumber(), () -> {
+                    Random random = new Random(flightSeed);
+                    long windowSeconds = CHECK_IN_OPENS.minus(CHECK_IN_CLOSES).getSeconds();
+                    List<SimulationEvent> checkIns = new ArrayList<>();
+                    for (Booking booking : bookingService.getFlightBookings(flight.getFlightId())) {
+                        if (booking.getBookingStatus() != null && booking.getBookingStatus() != BookingStatus.CONFIRMED) {
+                            continue;
+                        }
+                        LocalDateTime at = opens.plusSeconds((long) (random.nextDouble() * windowSeconds));
+                        checkIns.add(checkIn(flight, booking, at, random.nextDouble() < bagsPerPassenger));
+                    }
+                    return checkIns;
+                });
+    }
+
+    private SimulationEvent checkIn(Flight flight, Booking booking, LocalDateTime at, boolean withBag) {
+        return new SimulationEvent(at, SimulationEvent.Type.CHECK_IN,
+                "check-in " + booking.getBookingReference(), () -> {
+                    bookingService.checkIn(booking.getBookingReference(), staffId);
+                    if (!withBag) {
+                        return Collections.emptyList();
+                    }
+                    return Collections.singletonList(bagDrop(flight, booking, at.plusMinutes(2)));
+                });
+    }
+
+    private SimulationEvent bagDrop(Flight flight, Booking booking, LocalDateTime at) {
+        return new SimulationEvent(at, SimulationEvent.Type.BAG_REGISTER,
+                "bag drop " + booking.getBookingReference(), () -> {
+                    String tag = baggageService.generateBaggageTag();
+                    BigDecimal weight = BigDecimal.valueOf(8 + (Math.abs(tag.hashCode()) % 1500) / 100.0)
+                            .setScale(2, RoundingMode.HALF_UP);
+                    Baggage baggage = new Baggage(tag, booking.getBookingId(), weight);
+                    baggage.setDestinationAirport(flight.getDestination());
+                    baggageService.registerBaggage(baggage, flight.getFlightId());
+
+                    List<BaggageStatus> statuses = new ArrayList<>();
+                    List<LocalDateTime> times = new ArrayList<>();
+                    LocalDateTime securityAt = at.plus(SECURITY_CHECK_AFTER);
+                    LocalDateTime loadedAt = flight.getDepartureTime().minus(LOADED_BEFORE);
+                    statuses.add(BaggageStatus.SECURITY_CHECK);
+                    times.add(securityAt);
+                    statuses.add(BaggageStatus.LOADED);
+                    times.add(loadedAt.isAfter(securityAt) ? loadedAt : securityAt.plusMinutes(1));
+                    statuses.add(BaggageStatus.IN_TRANSIT);
+                    times.add(flight.getDepartureTime());
+                    statuses.add(BaggageStatus.ARRIVED);
+                    times.add(flight.getArrivalTime().plus(BAGS_ARRIVE_AFTER));
+                    statuses.add(BaggageStatus.DELIVERED);
+                    times.add(flight.getArrivalTime().plus(BAGS_DELIVERED_AFTER));
+                    return bagStep(tag, flight, statuses, times, 0);
+                });
+    }
+
+    private List<SimulationEvent> bagStep(String tag, Flight flight, List<BaggageStatus> statuses,
+            List<LocalDateTime> times, int index) {
+        if (index >= statuses.size()) {
+            return Collections.emptyList();
+        }
+        BaggageStatus status = statuses.get(index);
+        String location = status == BaggageStatus.ARRIVED || status == BaggageStatus.DELIVERED
+                ? flight.getDestination() : flight.getOrigin();
+        return Collections.singletonList(new SimulationEvent(times.get(index), SimulationEvent.Type.BAG_STATUS,
+                tag + " -> " + status.getValue(), () -> {
+                    // Through the reader pipeline like a real scan; written directly if it is full
+                    if (!baggageService.recordScan(tag, location, status, SCAN_READER_PREFIX + location)) {
+                        baggageService.updateBaggageStatus(tag, status, location);
+                    }
+                    return bagStep(tag, flight, statuses, times, index + 1);
+                }));
+    }
+
+    /**
+     * Runs today's flights from the command line as a load test.
+     * Arguments: [speedFactor] [workerThreads]
+     */
+    public static void main(String[] args) throws Exception {
+        double speed = args.length > 0 ? Double.parseDouble(args[0]) : 10;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        FlightService flightService = new FlightService();
+        AirportSimulator simulator = new AirportSimulator(flightService, new BookingService(),
+                new BaggageService(), threads, speed);
+        List<Flight> flights = flightService.getTodaysFlights();
+        simulator.scheduleFlights(flights);
+
+        LocalDateTime first = LocalDateTime.now();
+        for (Flight flight : flights) {
+            LocalDateTime opens = flight.getDepartureTime() == null ? null : flight.getDepartureTime().minus(CHECK_IN_OPENS);
+            if (opens != null && opens.isBefore(first)) {
+                first = opens;
+            }
+        }
+        simulator.start(first);
+        // the finishing thread logs the summary through LOGGER
+        simulator.awaitCompletion(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,415 @@
+package com.gatorsoft.aerodeskpro.threads;
+
+import com.gatorsoft.aerodeskpro.dao.BaggageDAO;
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.entity.BaggageStatus;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.Baggage;
+import com.gatorsoft.aerodeskpro.models.BaggageScan;
+import com.gatorsoft.aerodeskpro.services.BaggageStatusIndex;
+import com.gatorsoft.aerodeskpro.services.BaggageWeightAggregator;
+import com.gatorsoft.aerodeskpro.services.OperationalCounters;
+import com.gatorsoft.aerodeskpro.utils.Listeners;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Takes bag tag scans from sortation readers and writes them in batches.
+ *
+ * Readers call {@link #offer}, which puts the scan in a bounded ring buffer
+ * and returns at once; when the buffer is full the scan is dropped and
+ * counted rather than making the reader wait. One writer thread drains the
+ * buffer, drops repeat reads of the same bag at the same place, writes each
+ * batch as multi-row tracking INSERTs plus one status UPDATE per bag, and
+ * then keeps the latest position of every bag in memory. A batch that fails
+ * to write leaves the positions as they were.
+ *
+ * Status changes are counted against each bag's status in the database, read
+ * with its id and kept up to date by the writes here and by
+ * {@link #statusChanged} for changes made at a desk.
+ */
+public class BaggageScanPipeline implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(BaggageScanPipeline.class.getName());
+
+    private static final int DEFAULT_CAPACITY = 65_536;
+    private static final int MAX_BATCH = 2_000;
+    private static final long FLUSH_INTERVAL_MILLIS = 100;
+    // Readers often see the same tag several times as a bag passes
+    private static final Duration DUPLICATE_WINDOW = Duration.ofSeconds(5);
+    // Positions of bags not seen for this long are forgotten
+    private static final Duration POSITION_RETENTION = Duration.ofHours(24);
+    private static final long EVICTION_INTERVAL_MILLIS = 60_000;
+    // How long shutdown waits for buffered scans to be written
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+    private static final int MAX_CACHED_IDS = 100_000;
+
+    private static final BaggageScanPipeline INSTANCE = new BaggageScanPipeline(new BaggageDAO(), DEFAULT_CAPACITY);
+
+    /**
+     * Receives the latest scan of each bag in a written batch, on the
+     * writer thread. Keep it quick; hand slow work to another thread.
+     */
+    public interface Listener {
+        void onScans(Collection<BaggageScan> latest);
+    }
+
+    private final BaggageDAO baggageDAO;
+    private final BlockingQueue<BaggageScan> buffer;
+    private final Map<String, BaggageScan> latestByTag = new ConcurrentHashMap<>();
+    // Id and database status of bags in use, so a tag is looked up once.
+    // Only the writer thread touches it; delivered bags and the least
+    // recently scanned beyond the cap are dropped.
+    private final Map<String, KnownBag> knownBags = new LinkedHashMap<String, KnownBag>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, KnownBag> eldest) {
+            return size() > MAX_CACHED_IDS;
+        }
+    };
+    // Statuses set at a desk since the last batch, applied by the writer
+    private final Map<String, BaggageStatus> deskStatuses = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final OperationalCounters counters = OperationalCounters.getInstance();
+    private final BaggageStatusIndex statusIndex = BaggageStatusIndex.getInstance();
+    private final BaggageWeightAggregator weights = BaggageWeightAggregator.getInstance();
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder unknownTags = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean running;
+    private Thread writer;
+    private boolean shutdownHookAdded;
+    private long lastEviction = System.currentTimeMillis();
+
+    public BaggageScanPipeline(BaggageDAO baggageDAO, int capacity) {
+        this.baggageDAO = baggageDAO;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public static BaggageScanPipeline getInstance() {
+        return INSTANCE;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts the writer thread; does nothing if it is already running. The
+     * writer is stopped, and the buffer written out, when the JVM exits.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(DatabaseConnection.closingOnExit(this), "baggage-scan-writer");
+        writer.setDaemon(true);
+        writer.start();
+        if (!shutdownHookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "baggage-scan-shutdown"));
+            shutdownHookAdded = true;
+        }
+        LOGGER.info("Baggage scan pipeline started");
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops the writer after it has written what is already buffered,
+     * waiting a few seconds for it to finish.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        writer.interrupt();
+        try {
+            writer.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            LOGGER.warning("Baggage scan writer did not finish; " + buffer.size() + " scans not written");
+        }
+        writer = null;
+    }
+
+    /**
+     * Hands a scan to the pipeline without waiting.
+     *
+     * @return false if the buffer was full and the scan was dropped
+     */
+    public boolean offer(BaggageScan scan) {
+        received.increment();
+        if (buffer.offer(scan)) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Tells the writer that a bag's status was changed outside the pipeline,
+     * so the next scan of the bag is compared with the new status.
+     */
+    public void statusChanged(String baggageTag, BaggageStatus status) {
+        if (running) {
+            deskStatuses.put(baggageTag, status);
+        }
+    }
+
+    /**
+     * Last accepted scan of a bag, or null if it has not been scanned.
+     */
+    public BaggageScan getLatest(String baggageTag) {
+        return latestByTag.get(baggageTag);
+    }
+
+    public int getTrackedBagCount() {
+        return latestByTag.size();
+    }
+
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    public long getReceivedCount() {
+        return received.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    public long getUnknownTagCount() {
+        return unknownTags.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    @Override
+    public void run() {
+        List<BaggageScan> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !buffer.isEmpty()) {
+            try {
+                BaggageScan first = buffer.poll(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    buffer.drainTo(batch, MAX_BATCH - 1);
+                    process(batch);
+                    batch.clear();
+                }
+                evictStalePositions();
+            } catch (InterruptedException e) {
+                // stop() interrupts; the loop drains what is left
+                if (!running) {
+                    continue;
+                }
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        LOGGER.info("Baggage scan pipeline stopped");
+    }
+
+    /**
+     * Filters, coalesces and writes one batch.
+     */
+    void process(List<BaggageScan> batch) {
+        applyDeskStatuses();
+        List<BaggageScan> tracking = new ArrayList<>(batch.size());
+        Map<String, BaggageScan> latestInBatch = new LinkedHashMap<>();
+
+        for (BaggageScan scan : batch) {
+            // Positions are published only once the batch is written
+            BaggageScan inBatch = latestInBatch.get(scan.getBaggageTag());
+            BaggageScan previous = inBatch != null ? inBatch : latestByTag.get(scan.getBaggageTag());
+            if (isDuplicate(scan, previous)) {
+                duplicates.increment();
+                continue;
+            }
+            tracking.add(scan);
+            if (previous != null && scan.getScannedAt().isBefore(previous.getScannedAt())) {
+                // Late arrival: keep the history, but it is not the bag's position
+                continue;
+            }
+            if (scan.getStatus() == null && inBatch != null && inBatch.getStatus() != null) {
+                // A position-only read keeps the status the batch already gave the bag
+                scan = withStatus(scan, inBatch.getStatus());
+            }
+            latestInBatch.put(scan.getBaggageTag(), scan);
+        }
+        if (tracking.isEmpty()) {
+            return;
+        }
+
+        try {
+            resolveIds(tracking);
+            tracking.removeIf(scan -> !knownBags.containsKey(scan.getBaggageTag()));
+            latestInBatch.keySet().retainAll(knownBags.keySet());
+            if (tracking.isEmpty()) {
+                return;
+            }
+
+            Map<String, Integer> ids = new HashMap<>();
+            for (Map.Entry<String, BaggageScan> entry : latestInBatch.entrySet()) {
+                BaggageScan scan = entry.getValue();
+                KnownBag bag = knownBags.get(entry.getKey());
+                if (scan.getStatus() == null) {
+                    // Position-only: the bag keeps the status it has
+                    entry.setValue(withStatus(scan, bag.status));
+                }
+            }
+            for (BaggageScan scan : tracking) {
+                ids.put(scan.getBaggageTag(), knownBags.get(scan.getBaggageTag()).baggageId);
+            }
+
+            write(tracking, ids, latestInBatch);
+            written.add(tracking.size());
+            latestByTag.putAll(latestInBatch);
+            for (BaggageScan scan : latestInBatch.values()) {
+                KnownBag bag = scan.getStatus() == BaggageStatus.DELIVERED
+                        ? knownBags.remove(scan.getBaggageTag()) : knownBags.get(scan.getBaggageTag());
+                counters.recordBaggageStatusChange(bag.status, scan.getStatus());
+                bag.status = scan.getStatus();
+            }
+            for (BaggageScan scan : latestInBatch.values()) {
+                statusIndex.updateStatus(scan.getBaggageTag(), scan.getStatus(), scan.getLocation());
+                weights.updateStatus(scan.getBaggageTag(), scan.getStatus());
+            }
+            publish(latestInBatch.values());
+        } catch (AeroDeskException e) {
+            failed.add(tracking.size());
+            LOGGER.log(Level.SEVERE, "Lost a batch of " + tracking.size() + " baggage scans", e);
+        }
+    }
+
+    private void publish(Collection<BaggageScan> latest) {
+        if (latest.isEmpty()) {
+            return;
+        }
+        Listeners.fireAll(listeners, listener -> listener.onScans(latest), LOGGER,
+                () -> latest.size() + " baggage scans");
+    }
+
+    private static boolean isDuplicate(BaggageScan scan, BaggageScan previous) {
+        return scan.sameReading(previous)
+                && Duration.between(previous.getScannedAt(), scan.getScannedAt()).abs().compareTo(DUPLICATE_WINDOW) < 0;
+    }
+
+    private static BaggageScan withStatus(BaggageScan scan, BaggageStatus status) {
+        return new BaggageScan(scan.getBaggageTag(), scan.getLocation(), status,
+                scan.getReaderId(), scan.getScannedAt());
+    }
+
+    private void applyDeskStatuses() {
+        if (deskStatuses.isEmpty()) {
+            return;
+        }
+        for (String tag : new ArrayList<>(deskStatuses.keySet())) {
+            BaggageStatus status = deskStatuses.remove(tag);
+            KnownBag bag = knownBags.get(tag);
+            if (bag != null && status != null) {
+                bag.status = status;
+            }
+        }
+    }
+
+    private void resolveIds(List<BaggageScan> tracking) throws AeroDeskException {
+        Set<String> missing = new HashSet<>();
+        for (BaggageScan scan : tracking) {
+            // get, not containsKey, so the batch's own bags are the last to be dropped
+            if (knownBags.get(scan.getBaggageTag()) == null) {
+                missing.add(scan.getBaggageTag());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (Baggage baggage : baggageDAO.findStatusesByTags(missing).values()) {
+            knownBags.put(baggage.getBaggageTag(), new KnownBag(baggage.getBaggageId(), baggage.getStatus()));
+        }
+        for (String tag : missing) {
+            if (!knownBags.containsKey(tag)) {
+                unknownTags.increment();
+                LOGGER.log(Level.FINE, "Scan of unknown baggage tag {0} ignored", tag);
+            }
+        }
+    }
+
+    /**
+     * Writes a batch, trying once more if the first attempt fails.
+     */
+    private void write(List<BaggageScan> tracking, Map<String, Integer> ids, Map<String, BaggageScan> latestInBatch) throws AeroDeskException {
+        try {
+            baggageDAO.writeScans(tracking, ids, latestInBatch.values());
+        } catch (AeroDeskException e) {
+            LOGGER.log(Level.WARNING, "Writing baggage scans failed, retrying once", e);
+            baggageDAO.writeScans(tracking, ids, latestInBatch.values());
+        }
+    }
+
+    private void evictStalePositions() {
+        long now = System.currentTimeMillis();
+        if (now - lastEviction < EVICTION_INTERVAL_MILLIS) {
+            return;
+        }
+        lastEviction = now;
+        LocalDateTime cutoff = LocalDateTime.now().minus(POSITION_RETENTION);
+        Iterator<BaggageScan> positions = latestByTag.values().iterator();
+        while (positions.hasNext()) {
+            if (positions.next().getScannedAt().isBefore(cutoff)) {
+                positions.remove();
+            }
+        }
+    }
+
+    private static final class KnownBag {
+        final int baggageId;
+        BaggageStatus status;
+
+        KnownBag(int baggageId, BaggageStatus status) {
+            this.baggageId = baggageId;
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.gatorsoft.aerodeskpro.threads;
+
+import com.gatorsoft.aerodeskpro.dao.BookingOutboxDAO;
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.BookingChange;
+import com.gatorsoft.aerodeskpro.utils.Listeners;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads booking_outbox and hands each change to the registered listeners,
+ * on one background thread, so consumers follow booking changes without
+ * querying bookings. Each change is published once per run, normally in
+ * outbox_id order; listeners must still cope with the exception below,
+ * for example by ignoring a change older than the version they hold.
+ *
+ * Ids are allocated when a transaction inserts its row, not when it
+ * commits, so a later id can become visible before an earlier one. A gap
+ * is therefore waited on for a short while before it is treated as a rolled
+ * back transaction and skipped. Skipped ids are looked up again for a minute
+ * afterwards, and a change that commits that late is still published, after
+ * changes with higher ids. One that commits later still is never published.
+ *
+ * Every desk runs its own tailer on the shared outbox, so each one saves its
+ * read position in booking_outbox_consumers, held below any id still being
+ * looked up. Changes are pruned once they are an hour old and below the
+ * lowest position saved in the last half hour, so no running tailer loses a
+ * change it has not read; a stopped tailer removes its position. A consumer
+ * resuming from a checkpoint older than the outbox must reload instead.
+ *
+ * A consumer adds its listener and then calls start, or start(afterOutboxId)
+ * to resume from its own checkpoint, so no thread polls the outbox while
+ * nobody is listening. {@code SeatInventory} starts it with its first seat
+ * map.
+ */
+public class BookingChangeTailer implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(BookingChangeTailer.class.getName());
+
+    private static final int BATCH_SIZE = 500;
+    private static final long POLL_INTERVAL_MILLIS = 200;
+    private static final long GAP_TIMEOUT_MILLIS = 5_000;
+    private static final long SKIPPED_RECHECK_MILLIS = 60_000;
+    private static final int MAX_SKIPPED = 1_000;
+    private static final long PRUNE_INTERVAL_MILLIS = 10 * 60_000;
+    private static final int RETENTION_MINUTES = 60;
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 5_000;
+    // A desk whose position is older than this is taken to be gone
+    private static final int CONSUMER_TIMEOUT_MINUTES = 30;
+
+    private static final BookingChangeTailer INSTANCE = new BookingChangeTailer(new BookingOutboxDAO(), defaultConsumerId());
+
+    /**
+     * Receives booking changes on the tailer thread. Keep it quick; hand
+     * slow work to another thread.
+     */
+    public interface Listener {
+        void onBookingChange(BookingChange change);
+    }
+
+    private final BookingOutboxDAO outboxDAO;
+    private final String consumerId;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile long lastPublishedId;
+    private volatile boolean running;
+    private Thread thread;
+
+    // When the gap after lastPublishedId was first seen, or 0 if there is none
+    private long gapSince;
+    // Ids skipped as gaps and when, looked up again in case they commit late
+    private final Map<Long, Long> skipped = new LinkedHashMap<>();
+    private long lastPruned;
+    private long lastCheckpointed;
+
+    /**
+     * @param consumerId name this tailer's read position is saved under;
+     * unique per running process
+     */
+    public BookingChangeTailer(BookingOutboxDAO outboxDAO, String consumerId) {
+        this.outboxDAO = outboxDAO;
+        this.consumerId = consumerId;
+    }
+
+    public static BookingChangeTailer getInstance() {
+        return INSTANCE;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts publishing changes recorded from now on.
+     */
+    public void start() throws AeroDeskException {
+        start(outboxDAO.findLastId());
+    }
+
+    /**
+     * Starts publishing changes after the given position, for a consumer
+     * resuming from a saved checkpoint.
+     */
+    public synchronized void start(long afterOutboxId) {
+        if (running) {
+            return;
+        }
+        lastPublishedId = afterOutboxId;
+        gapSince = 0;
+        skipped.clear();
+        lastPruned = System.currentTimeMillis();
+        lastCheckpointed = 0;
+        running = true;
+        thread = new Thread(DatabaseConnection.closingOnExit(this), "booking-change-tailer");
+        thread.setDaemon(true);
+        thread.start();
+        LOGGER.info("Booking change tailer started after outbox id " + afterOutboxId);
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Position of the last change handed to the listeners; save it to
+     * resume from later.
+     */
+    public long getLastPublishedId() {
+        return lastPublishedId;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                int published = poll();
+                if (published < BATCH_SIZE) {
+                    Thread.sleep(POLL_INTERVAL_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (AeroDeskException e) {
+                LOGGER.log(Level.WARNING, "Reading booking changes failed, retrying", e);
+                try {
+                    Thread.sleep(POLL_INTERVAL_MILLIS * 10);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        try {
+            outboxDAO.deleteCheckpoint(consumerId);
+        } catch (AeroDeskException e) {
+            LOGGER.log(Level.WARNING, "Could not remove booking change checkpoint of " + consumerId, e);
+        }
+        LOGGER.info("Booking change tailer stopped at outbox id " + lastPublishedId);
+    }
+
+    /**
+     * Publishes the next run of consecutive changes.
+     *
+     * @return number of changes published
+     */
+    int poll() throws AeroDeskException {
+        int published = publishLateCommits();
+        List<BookingChange> changes = outboxDAO.findAfter(lastPublishedId, BATCH_SIZE);
+        for (BookingChange change : changes) {
+            long expected = lastPublishedId + 1;
+            if (change.getOutboxId() != expected) {
+                if (!gapExpired()) {
+                    break;
+                }
+                skip(expected, change.getOutboxId());
+            }
+            gapSince = 0;
+            publish(change);
+            lastPublishedId = change.getOutboxId();
+            published++;
+        }
+        checkpoint();
+        prune();
+        return published;
+    }
+
+    private void skip(long fromId, long toId) {
+        long now = System.currentTimeMillis();
+        for (long outboxId = fromId; outboxId < toId; outboxId++) {
+            if (skipped.size() >= MAX_SKIPPED) {
+                LOGGER.warning("Too many outbox gaps to track; ids " + outboxId + " to " + (toId - 1) + " are not looked up again");
+                return;
+            }
+            skipped.put(outboxId, now);
+        }
+    }
+
+    // Publishes skipped ids that have committed since
+    private int publishLateCommits() throws AeroDeskException {
+        if (skipped.isEmpty()) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        skipped.values().removeIf(skippedAt -> now - skippedAt > SKIPPED_RECHECK_MILLIS);
+        List<BookingChange> late = outboxDAO.findByIds(skipped.keySet());
+        for (BookingChange change : late) {
+            skipped.remove(change.getOutboxId());
+            LOGGER.log(Level.FINE, "Publishing late commit {0}", change.getOutboxId());
+            publish(change);
+        }
+        return late.size();
+    }
+
+    // Saves the position below which everything is published or given up on
+    private void checkpoint() throws AeroDeskException {
+        long now = System.currentTimeMillis();
+        if (now - lastCheckpointed < CHECKPOINT_INTERVAL_MILLIS) {
+            return;
+        }
+        long position = lastPublishedId;
+        if (!skipped.isEmpty()) {
+            // Ids are skipped in ascending order, so the first is the lowest
+            position = Math.min(position, skipped.keySet().iterator().next() - 1);
+        }
+        outboxDAO.saveCheckpoint(consumerId, position);
+        lastCheckpointed = now;
+    }
+
+    // Deletes changes older than the retention period that every live desk has read
+    private void prune() {
+        long now = System.currentTimeMillis();
+        if (now - lastPruned < PRUNE_INTERVAL_MILLIS) {
+            return;
+        }
+        lastPruned = now;
+        try {
+            int removed = outboxDAO.deleteReadByAll(RETENTION_MINUTES, CONSUMER_TIMEOUT_MINUTES);
+            LOGGER.log(Level.FINE, "Pruned {0} booking changes", removed);
+        } catch (AeroDeskException e) {
+            LOGGER.log(Level.WARNING, "Pruning booking changes failed", e);
+        }
+    }
+
+    private boolean gapExpired() {
+        long now = System.currentTimeMillis();
+        if (gapSince == 0) {
+            gapSince = now;
+            return false;
+        }
+        if (now - gapSince < GAP_TIMEOUT_MILLIS) {
+            return false;
+        }
+        LOGGER.log(Level.FINE, "Skipping outbox gap after id {0}", lastPublishedId);
+        return true;
+    }
+
+    private static String defaultConsumerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown-host";
+        }
+        return host + "/" + ProcessHandle.current().pid();
+    }
+
+    private void publish(BookingChange change) {
+        Listeners.fireAll(listeners, listener -> listener.onBookingChange(change), LOGGER, change::toString);
+    }
+}
@@ -0,0 +1,344 @@
+package com.gatorsoft.aerodeskpro.threads;
+
+import com.gatorsoft.aerodeskpro.dao.PassengerDAO;
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.MergeCandidate;
+import com.gatorsoft.aerodeskpro.models.Passenger;
+import com.gatorsoft.aerodeskpro.utils.NameMatcher;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Background job that looks for passengers entered more than once. The table
+ * is read in id-ordered pages and every record is placed in a block keyed by
+ * date of birth, nationality and the phonetic key of the surname. Only
+ * records inside the same block are compared, on a fork-join pool, so the
+ * work grows with the block sizes rather than with the square of the table.
+ */
+public class DuplicatePassengerDetector implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(DuplicatePassengerDetector.class.getName());
+
+    private static final int DEFAULT_PAGE_SIZE = 5000;
+    private static final double DEFAULT_THRESHOLD = 0.75;
+
+    // Blocks larger than this are split again so no block costs O(n^2)
+    private static final int MAX_BLOCK_SIZE = 200;
+    // Neighbours compared per record in a block that is still too large
+    private static final int NEIGHBOURHOOD_WINDOW = 20;
+    // Pair comparisons per fork-join leaf
+    private static final long LEAF_COMPARISONS = 20_000;
+
+    /**
+     * Receives results as the job runs.
+     */
+    public interface Listener {
+
+        void onProgress(int passengersScanned);
+
+        void onCandidate(MergeCandidate candidate);
+
+        void onFinished(int passengersScanned, int candidatesFound, long elapsedMillis);
+    }
+
+    private final PassengerDAO passengerDAO;
+    private final int parallelism;
+    private final Listener listener;
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private double threshold = DEFAULT_THRESHOLD;
+
+    public DuplicatePassengerDetector(PassengerDAO passengerDAO, int parallelism, Listener listener) {
+        this.passengerDAO = passengerDAO;
+        this.parallelism = Math.max(1, parallelism);
+        this.listener = listener;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Minimum score, between 0 and 1, for a pair to be reported.
+     */
+    public void setThreshold(double threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Starts the job on its own daemon thread.
+     */
+    public Thread start() {
+        Thread thread = new Thread(DatabaseConnection.closingOnExit(this), "duplicate-passenger-detector");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    @Override
+    public void run() {
+        try {
+            detect();
+        } catch (AeroDeskException e) {
+            LOGGER.log(Level.SEVERE, "Duplicate passenger detection failed", e);
+        }
+    }
+
+    /**
+     * Runs the job on the calling thread and returns the candidates, best
+     * scores first.
+     */
+    public List<MergeCandidate> detect() throws AeroDeskException {
+        long started = System.nanoTime();
+
+        Map<String, List<Record>> blocks = new HashMap<>();
+        int scanned = 0;
+        int afterId = 0;
+        while (true) {
+            List<Passenger> page = passengerDAO.findPageAfter(afterId, pageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Passenger passenger : page) {
+                Record record = Record.of(passenger);
+                if (record != null) {
+                    blocks.computeIfAbsent(record.blockKey, k -> new ArrayList<>()).add(record);
+                }
+                afterId = passenger.getPassengerId();
+            }
+            scanned += page.size();
+            if (listener != null) {
+                listener.onProgress(scanned);
+            }
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+
+        List<Block> work = new ArrayList<>();
+        for (List<Record> block : blocks.values()) {
+            addBlock(block, work);
+        }
+        // Largest blocks first so the pool splits the heavy work early
+        work.sort(Comparator.comparingLong(Block::cost).reversed());
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<MergeCandidate> candidates;
+        try {
+            candidates = pool.invoke(new ScoreTask(work, 0, work.size(), threshold));
+        } finally {
+            pool.shutdown();
+        }
+        candidates.sort(Comparator.comparingDouble(MergeCandidate::getScore).reversed());
+
+        long elapsed = (System.nanoTime() - started) / 1_000_000;
+        if (listener != null) {
+            for (MergeCandidate candidate : candidates) {
+                listener.onCandidate(candidate);
+            }
+            listener.onFinished(scanned, candidates.size(), elapsed);
+        }
+        LOGGER.log(Level.INFO, "Duplicate detection scanned {0} passengers in {1} blocks, found {2} candidates in {3} ms",
+                new Object[]{scanned, work.size(), candidates.size(), elapsed});
+        return candidates;
+    }
+
+    /**
+     * Queues a block for scoring, splitting it by first-name key when it is
+     * too large, and falling back to a sorted neighbourhood after that.
+     */
+    private static void addBlock(List<Record> records, List<Block> work) {
+        if (records.size() < 2) {
+            return;
+        }
+        if (records.size() <= MAX_BLOCK_SIZE) {
+            work.add(new Block(records, false));
+            return;
+        }
+        Map<String, List<Record>> subBlocks = new HashMap<>();
+        for (Record record : records) {
+            subBlocks.computeIfAbsent(String.valueOf(record.firstNameKey), k -> new ArrayList<>()).add(record);
+        }
+        for (List<Record> subBlock : subBlocks.values()) {
+            if (subBlock.size() < 2) {
+                continue;
+            }
+            if (subBlock.size() <= MAX_BLOCK_SIZE) {
+                work.add(new Block(subBlock, false));
+            } else {
+                subBlock.sort(Comparator.comparing((Record r) -> r.firstName).thenComparing(r -> r.lastName));
+                work.add(new Block(subBlock, true));
+            }
+        }
+    }
+
+    // ===== SCORING =====
+
+    /**
+     * Scores two records of the same block. Returns null below the threshold.
+     */
+    static MergeCandidate score(Record a, Record b, double threshold) {
+        int lastLimit = NameMatcher.allowedDistance(a.lastName);
+        int lastDistance = NameMatcher.editDistance(a.lastName, b.lastName, lastLimit);
+        if (lastDistance > lastLimit) {
+            return null;
+        }
+        int firstLimit = NameMatcher.allowedDistance(a.firstName);
+        int firstDistance = NameMatcher.editDistance(a.firstName, b.firstName, firstLimit);
+        boolean initialOnly = (a.firstName.length() == 1 || b.firstName.length() == 1)
+                && !a.firstName.isEmpty() && !b.firstName.isEmpty()
+                && a.firstName.charAt(0) == b.firstName.charAt(0);
+        if (firstDistance > firstLimit && !initialOnly) {
+            return null;
+        }
+
+        List<String> reasons = new ArrayList<>();
+        double score = 0.3 * similarity(a.lastName, b.lastName, lastDistance);
+        score += initialOnly ? 0.15 : 0.3 * similarity(a.firstName, b.firstName, firstDistance);
+        reasons.add(lastDistance == 0 && firstDistance == 0 ? "same name" : "similar name");
+        if (a.dateOfBirth != null) {
+            score += 0.2;
+            reasons.add("same date of birth");
+        }
+        if (a.passport != null && a.passport.equals(b.passport)) {
+            score += 0.2;
+            reasons.add("same passport");
+        } else if (a.passport != null && b.passport != null
+                && NameMatcher.editDistance(a.passport, b.passport, 1) <= 1) {
+            score += 0.1;
+            reasons.add("passport differs by one character");
+        }
+        if (a.email != null && a.email.equals(b.email)) {
+            score += 0.2;
+            reasons.add("same email");
+        }
+
+        score = Math.min(1.0, score);
+        return score >= threshold ? new MergeCandidate(a.passengerId, b.passengerId, score, reasons) : null;
+    }
+
+    private static double similarity(String a, String b, int distance) {
+        int length = Math.max(a.length(), b.length());
+        return length == 0 ? 0 : 1.0 - (double) distance / length;
+    }
+
+    /**
+     * Splits the block list in halves until a slice is cheap enough to score
+     * directly.
+     */
+    private static class ScoreTask extends RecursiveTask<List<MergeCandidate>> {
+
+        private final List<Block> blocks;
+        private final int from;
+        private final int to;
+        private final double threshold;
+
+        ScoreTask(List<Block> blocks, int from, int to, double threshold) {
+            this.blocks = blocks;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected List<MergeCandidate> compute() {
+            long cost = 0;
+            for (int i = from; i < to; i++) {
+                cost += blocks.get(i).cost();
+            }
+            if (to - from <= 1 || cost <= LEAF_COMPARISONS) {
+                List<MergeCandidate> found = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    blocks.get(i).score(threshold, found);
+                }
+                return found;
+            }
+            int middle = (from + to) >>> 1;
+            ScoreTask left = new ScoreTask(blocks, from, middle, threshold);
+            left.fork();
+            List<MergeCandidate> found = new ScoreTask(blocks, middle, to, threshold).compute();
+            found.addAll(left.join());
+            return found;
+        }
+    }
+
+    private static class Block {
+        final List<Record> records;
+        final boolean windowed;
+
+        Block(List<Record> records, boolean windowed) {
+            this.records = records;
+            this.windowed = windowed;
+        }
+
+        long cost() {
+            long n = records.size();
+            return windowed ? n * NEIGHBOURHOOD_WINDOW : n * (n - 1) / 2;
+        }
+
+        void score(double threshold, List<MergeCandidate> found) {
+            int n = records.size();
+            for (int i = 0; i < n; i++) {
+                int end = windowed ? Math.min(n, i + 1 + NEIGHBOURHOOD_WINDOW) : n;
+                for (int j = i + 1; j < end; j++) {
+                    MergeCandidate candidate = DuplicatePassengerDetector.score(records.get(i), records.get(j), threshold);
+                    if (candidate != null) {
+                        found.add(candidate);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The fields the job compares, normalised once.
+     */
+    static class Record {
+        final int passengerId;
+        final String firstName;
+        final String lastName;
+        final String firstNameKey;
+        final String passport;
+        final String email;
+        final LocalDate dateOfBirth;
+        final String blockKey;
+
+        private Record(Passenger passenger, String lastNameKey) {
+            this.passengerId = passenger.getPassengerId();
+            this.firstName = lower(passenger.getFirstName());
+            this.lastName = lower(passenger.getLastName());
+            this.firstNameKey = NameMatcher.phoneticKey(passenger.getFirstName());
+            this.passport = upper(passenger.getPassportNumber());
+            String mail = lower(passenger.getEmail());
+            this.email = mail.isEmpty() ? null : mail;
+            this.dateOfBirth = passenger.getDateOfBirth();
+            String nationality = upper(passenger.getNationality());
+            this.blockKey = dateOfBirth + "|" + nationality + "|" + lastNameKey;
+        }
+
+        /**
+         * Returns null for passengers that cannot be blocked (no latin surname).
+         */
+        static Record of(Passenger passenger) {
+            String lastNameKey = NameMatcher.phoneticKey(passenger.getLastName());
+            return lastNameKey == null ? null : new Record(passenger, lastNameKey);
+        }
+
+        private static String lower(String value) {
+            return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        }
+
+        private static String upper(String value) {
+            return value == null || value.trim().isEmpty() ? null : value.trim().toUpperCase(Locale.ROOT);
+        }
+    }
+}
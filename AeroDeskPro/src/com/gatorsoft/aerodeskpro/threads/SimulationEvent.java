@@ -0,0 +1,73 @@
+package com.gatorsoft.aerodeskpro.threads;
+
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single step of the airport simulation, due at a simulated time. Running an
+ * event returns the follow-up events of the same entity, which are only queued
+ * once this one has finished so each flight, booking and bag stays in order.
+ */
+public class SimulationEvent implements Comparable<SimulationEvent> {
+
+    /**
+     * Kind of work an event performs, used to group the statistics.
+     */
+    public enum Type {
+        FLIGHT_STATUS, CHECK_IN_OPEN, CHECK_IN, BAG_REGISTER, BAG_STATUS
+    }
+
+    /**
+     * The work behind an event. Returns the entity's next events, or an empty list.
+     */
+    @FunctionalInterface
+    public interface Action {
+        List<SimulationEvent> run() throws AeroDeskException;
+    }
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final LocalDateTime time;
+    private final long sequence;
+    private final Type type;
+    private final String description;
+    private final Action action;
+
+    public SimulationEvent(LocalDateTime time, Type type, String description, Action action) {
+        this.time = time;
+        this.sequence = SEQUENCE.incrementAndGet();
+        this.type = type;
+        this.description = description;
+        this.action = action;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public List<SimulationEvent> run() throws AeroDeskException {
+        return action.run();
+    }
+
+    // Earliest first, ties broken by creation order
+    @Override
+    public int compareTo(SimulationEvent other) {
+        int byTime = time.compareTo(other.time);
+        return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+    }
+
+    @Override
+    public String toString() {
+        return time + " " + type + " " + description;
+    }
+}
@@ -0,0 +1,133 @@
+package com.gatorsoft.aerodeskpro.threads;
+
+import com.gatorsoft.aerodeskpro.threads.SimulationEvent.Type;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput and latency counters for a simulation run, per event type.
+ * Workers update them without locking.
+ */
+public class SimulationStats {
+
+    private final Map<Type, TypeStats> byType = new EnumMap<>(Type.class);
+    private final LongAdder dispatchLagNanos = new LongAdder();
+    private final LongAccumulator maxDispatchLagNanos = new LongAccumulator(Long::max, 0);
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+
+    public SimulationStats() {
+        for (Type type : Type.values()) {
+            byType.put(type, new TypeStats());
+        }
+    }
+
+    void markStarted() {
+        startedNanos = System.nanoTime();
+        finishedNanos = 0;
+    }
+
+    void markFinished() {
+        finishedNanos = System.nanoTime();
+    }
+
+    void recordDispatchLag(long lagNanos) {
+        if (lagNanos > 0) {
+            dispatchLagNanos.add(lagNanos);
+            maxDispatchLagNanos.accumulate(lagNanos);
+        }
+    }
+
+    void record(Type type, long latencyNanos, boolean succeeded) {
+        TypeStats stats = byType.get(type);
+        stats.executed.increment();
+        stats.latencyNanos.add(latencyNanos);
+        stats.maxLatencyNanos.accumulate(latencyNanos);
+        if (!succeeded) {
+            stats.failed.increment();
+        }
+    }
+
+    public long getExecuted(Type type) {
+        return byType.get(type).executed.sum();
+    }
+
+    public long getFailed(Type type) {
+        return byType.get(type).failed.sum();
+    }
+
+    public long getTotalExecuted() {
+        long total = 0;
+        for (TypeStats stats : byType.values()) {
+            total += stats.executed.sum();
+        }
+        return total;
+    }
+
+    public long getTotalFailed() {
+        long total = 0;
+        for (TypeStats stats : byType.values()) {
+            total += stats.failed.sum();
+        }
+        return total;
+    }
+
+    public double getAverageLatencyMillis(Type type) {
+        TypeStats stats = byType.get(type);
+        long executed = stats.executed.sum();
+        return executed == 0 ? 0 : stats.latencyNanos.sum() / (executed * 1_000_000.0);
+    }
+
+    public double getMaxLatencyMillis(Type type) {
+        return byType.get(type).maxLatencyNanos.get() / 1_000_000.0;
+    }
+
+    public double getMaxDispatchLagMillis() {
+        return maxDispatchLagNanos.get() / 1_000_000.0;
+    }
+
+    public long getElapsedMillis() {
+        if (startedNanos == 0) {
+            return 0;
+        }
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        return TimeUnit.NANOSECONDS.toMillis(end - startedNanos);
+    }
+
+    /**
+     * Service calls completed per wall-clock second.
+     */
+    public double getThroughputPerSecond() {
+        long elapsed = getElapsedMillis();
+        return elapsed == 0 ? 0 : getTotalExecuted() * 1000.0 / elapsed;
+    }
+
+    /**
+     * Multi-line summary suitable for logging.
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Simulation: %d events, %d failed, %.1f events/s over %d ms, max dispatch lag %.1f ms%n",
+                getTotalExecuted(), getTotalFailed(), getThroughputPerSecond(), getElapsedMillis(),
+                getMaxDispatchLagMillis()));
+        for (Type type : Type.values()) {
+            if (getExecuted(type) == 0) {
+                continue;
+            }
+            sb.append(String.format("  %-14s %6d ok/%-4d failed  avg %.2f ms  max %.2f ms%n",
+                    type, getExecuted(type) - getFailed(type), getFailed(type),
+                    getAverageLatencyMillis(type), getMaxLatencyMillis(type)));
+        }
+        return sb.toString();
+    }
+
+    private static class TypeStats {
+        final LongAdder executed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder latencyNanos = new LongAdder();
+        final LongAccumulator maxLatencyNanos = new LongAccumulator(Long::max, 0);
+    }
+}
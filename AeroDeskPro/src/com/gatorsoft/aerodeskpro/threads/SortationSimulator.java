@@ -0,0 +1,462 @@
+package com.gatorsoft.aerodeskpro.threads;
+
+import com.gatorsoft.aerodeskpro.database.DatabaseConnection;
+import com.gatorsoft.aerodeskpro.entity.BaggageStatus;
+import com.gatorsoft.aerodeskpro.entity.Priority;
+import com.gatorsoft.aerodeskpro.exceptions.AeroDeskException;
+import com.gatorsoft.aerodeskpro.models.Baggage;
+import com.gatorsoft.aerodeskpro.models.Booking;
+import com.gatorsoft.aerodeskpro.models.Flight;
+import com.gatorsoft.aerodeskpro.services.BaggageService;
+import com.gatorsoft.aerodeskpro.services.BookingService;
+import com.gatorsoft.aerodeskpro.services.FlightService;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pushes bags through the sortation stages as fast as the service layer
+ * takes them, to find the baggage ingestion ceiling.
+ *
+ * Each {@link BaggageStatus} stage from REGISTERED to DELIVERED has its own
+ * worker threads and one bounded lane per {@link Priority}; workers always
+ * take rush bags first, then priority, then normal. A full lane blocks the
+ * stage feeding it, so a slow stage shows up as queue depth upstream. Every
+ * stage calls the real {@link BaggageService}, and can be given a handling
+ * latency and a chance of marking a bag DELAYED or LOST.
+ *
+ * Bags are registered directly; every later stage scans them through
+ * {@link BaggageService#recordScan}, as the readers on the floor do, so the
+ * run measures the {@link BaggageScanPipeline}. When its buffer is full a
+ * stage waits and scans again. The run ends once the pipeline has written
+ * the run's scans, or after a few seconds if it cannot catch up.
+ */
+public class SortationSimulator {
+
+    private static final Logger LOGGER = Logger.getLogger(SortationSimulator.class.getName());
+
+    static final BaggageStatus[] STAGES = {BaggageStatus.REGISTERED, BaggageStatus.SECURITY_CHECK,
+        BaggageStatus.LOADED, BaggageStatus.IN_TRANSIT, BaggageStatus.ARRIVED, BaggageStatus.DELIVERED};
+
+    private static final Priority[] LANE_ORDER = {Priority.RUSH, Priority.PRIORITY, Priority.NORMAL};
+
+    private static final int DEFAULT_LANE_CAPACITY = 1_000;
+    private static final long DEFAULT_LATENCY_MILLIS = 2;
+    private static final double DEFAULT_DELAY_RATE = 0.01;
+    private static final double DEFAULT_LOSS_RATE = 0.001;
+    private static final long DEFAULT_DELAY_PENALTY_MILLIS = 50;
+    private static final long PIPELINE_DRAIN_MILLIS = 10_000;
+    private static final String READER_PREFIX = "SORT-";
+
+    private final BaggageService baggageService;
+    private final BaggageScanPipeline scanPipeline = BaggageScanPipeline.getInstance();
+    private final Map<BaggageStatus, Stage> stages = new EnumMap<>(BaggageStatus.class);
+    private final SortationStats stats = new SortationStats();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final List<Thread> threads = new ArrayList<>();
+
+    private double rushShare = 0.02;
+    private double priorityShare = 0.10;
+    private long delayPenaltyMillis = DEFAULT_DELAY_PENALTY_MILLIS;
+    private long seed = 42L;
+    private volatile boolean running;
+    // Pipeline counters when the run started
+    private long writtenAtStart;
+    private long failedAtStart;
+    private long settledAtStart;
+
+    public SortationSimulator(BaggageService baggageService, int workersPerStage) {
+        this(baggageService, workersPerStage, DEFAULT_LANE_CAPACITY);
+    }
+
+    /**
+     * @param workersPerStage threads per stage; change one stage with {@link #setWorkers}
+     * @param laneCapacity bags each priority lane of a stage can hold
+     */
+    public SortationSimulator(BaggageService baggageService, int workersPerStage, int laneCapacity) {
+        if (workersPerStage <= 0) {
+            throw new IllegalArgumentException("Worker thread count must be positive");
+        }
+        if (laneCapacity <= 0) {
+            throw new IllegalArgumentException("Lane capacity must be positive");
+        }
+        this.baggageService = baggageService;
+        Stage next = null;
+        for (int i = STAGES.length - 1; i >= 0; i--) {
+            Stage stage = new Stage(STAGES[i], laneCapacity, workersPerStage, next);
+            if (STAGES[i] != BaggageStatus.REGISTERED) {
+                stage.latencyMillis = DEFAULT_LATENCY_MILLIS;
+                stage.delayRate = DEFAULT_DELAY_RATE;
+                stage.lossRate = DEFAULT_LOSS_RATE;
+            }
+            stages.put(STAGES[i], stage);
+            next = stage;
+        }
+    }
+
+    // ===== CONFIGURATION =====
+
+    public void setWorkers(BaggageStatus stage, int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Worker thread count must be positive");
+        }
+        stage(stage).workers = workers;
+    }
+
+    /**
+     * Simulated handling time of a stage, spent before its service call.
+     */
+    public void setLatency(BaggageStatus stage, long latencyMillis) {
+        stage(stage).latencyMillis = Math.max(0, latencyMillis);
+    }
+
+    /**
+     * Chances that a bag is marked DELAYED (it then waits the delay penalty
+     * and carries on) or LOST (it leaves the pipeline) at a stage.
+     */
+    public void setFailureRates(BaggageStatus stage, double delayRate, double lossRate) {
+        if (delayRate < 0 || lossRate < 0 || delayRate + lossRate > 1) {
+            throw new IllegalArgumentException("Failure rates must be between 0 and 1");
+        }
+        stage(stage).delayRate = delayRate;
+        stage(stage).lossRate = lossRate;
+    }
+
+    public void setLocation(BaggageStatus stage, String location) {
+        stage(stage).location = location;
+    }
+
+    public void setDelayPenaltyMillis(long delayPenaltyMillis) {
+        this.delayPenaltyMillis = Math.max(0, delayPenaltyMillis);
+    }
+
+    /**
+     * Shares of rush and priority bags in the generated load.
+     */
+    public void setPriorityMix(double rushShare, double priorityShare) {
+        if (rushShare < 0 || priorityShare < 0 || rushShare + priorityShare > 1) {
+            throw new IllegalArgumentException("Priority shares must be between 0 and 1");
+        }
+        this.rushShare = rushShare;
+        this.priorityShare = priorityShare;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public SortationStats getStats() {
+        return stats;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Bags waiting in all lanes of a stage.
+     */
+    public int getQueueDepth(BaggageStatus stage) {
+        return stage(stage).depth();
+    }
+
+    // ===== RUN =====
+
+    /**
+     * Starts the stage workers and a feeder that registers the given number
+     * of bags against the bookings, round robin.
+     */
+    public synchronized void start(List<Integer> bookingIds, int bagCount) {
+        if (running) {
+            throw new IllegalStateException("Sortation already running");
+        }
+        if (bookingIds.isEmpty() || bagCount <= 0) {
+            throw new IllegalArgumentException("Need bookings and a positive bag count");
+        }
+        running = true;
+        outstanding.set(bagCount);
+        writtenAtStart = scanPipeline.getWrittenCount();
+        failedAtStart = scanPipeline.getFailedCount();
+        settledAtStart = settledScans();
+        stats.markStarted();
+
+        for (BaggageStatus status : STAGES) {
+            Stage stage = stages.get(status);
+            for (int i = 1; i <= stage.workers; i++) {
+                startThread("sort-" + status.getValue() + "-" + i, () -> work(stage));
+            }
+        }
+        List<Integer> bookings = new ArrayList<>(bookingIds);
+        startThread("sort-feeder", () -> feed(bookings, bagCount));
+
+        LOGGER.log(Level.INFO, "Sortation started with {0} bags over {1} bookings",
+                new Object[]{bagCount, bookings.size()});
+    }
+
+    /**
+     * Waits for every bag to be delivered, lost or dropped. Returns false on
+     * timeout.
+     */
+    public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    /**
+     * Stops all stages; bags still queued are abandoned.
+     */
+    public void stop() {
+        finish();
+    }
+
+    private void startThread(String name, Runnable body) {
+        Thread thread = new Thread(DatabaseConnection.closingOnExit(body), name);
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+    }
+
+    private void feed(List<Integer> bookingIds, int bagCount) {
+        Random mix = new Random(seed);
+        Stage first = stages.get(BaggageStatus.REGISTERED);
+        try {
+            for (int i = 0; i < bagCount && running; i++) {
+                double roll = mix.nextDouble();
+                Priority priority = roll < rushShare ? Priority.RUSH
+                        : roll < rushShare + priorityShare ? Priority.PRIORITY : Priority.NORMAL;
+                first.put(new Bag(bookingIds.get(i % bookingIds.size()), priority, new Random(seed + i)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void work(Stage stage) {
+        try {
+            while (running) {
+                Bag bag = stage.take();
+                if (process(stage, bag) && stage.next != null) {
+                    stage.next.put(bag);
+                } else {
+                    done();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Handles a bag at a stage.
+     *
+     * @return true if the bag moves on, false if it is lost or failed
+     */
+    private boolean process(Stage stage, Bag bag) throws InterruptedException {
+        if (stage.latencyMillis > 0) {
+            Thread.sleep(stage.latencyMillis);
+        }
+        try {
+            // A bag can only go astray once it has a tag
+            double roll = stage.status == BaggageStatus.REGISTERED ? 1 : bag.random.nextDouble();
+            if (roll < stage.lossRate) {
+                scan(stage, bag, BaggageStatus.LOST);
+                stats.recordLost(stage.status);
+                return false;
+            }
+            if (roll < stage.lossRate + stage.delayRate) {
+                scan(stage, bag, BaggageStatus.DELAYED);
+                stats.recordDelayed(stage.status);
+                Thread.sleep(delayPenaltyMillis);
+            }
+
+            long started = System.nanoTime();
+            if (stage.status == BaggageStatus.REGISTERED) {
+                register(bag);
+            } else {
+                scan(stage, bag, stage.status);
+            }
+            stats.recordProcessed(stage.status, System.nanoTime() - started);
+
+            if (stage.next == null) {
+                stats.recordDelivered(bag.priority, System.nanoTime() - bag.enteredNanos);
+            }
+            return true;
+        } catch (AeroDeskException e) {
+            stats.recordFailed(stage.status);
+            LOGGER.log(Level.FINE, "Sortation dropped {0} at {1}: {2}", new Object[]{bag.tag, stage.status, e.getMessage()});
+            return false;
+        }
+    }
+
+    private void register(Bag bag) throws AeroDeskException {
+        bag.tag = baggageService.generateBaggageTag();
+        BigDecimal weight = BigDecimal.valueOf(8 + bag.random.nextInt(1500) / 100.0).setScale(2, RoundingMode.HALF_UP);
+        Baggage baggage = new Baggage(bag.tag, bag.bookingId, weight);
+        baggage.setPriority(bag.priority);
+        baggage.setCurrentLocation(stages.get(BaggageStatus.REGISTERED).location);
+        baggageService.registerBaggage(baggage);
+    }
+
+    private void scan(Stage stage, Bag bag, BaggageStatus status) throws AeroDeskException, InterruptedException {
+        while (!baggageService.recordScan(bag.tag, stage.location, status, READER_PREFIX + stage.location)) {
+            // Buffer full: wait for the writer, so a slow pipeline backs up the stages
+            stats.recordScanRejected(stage.status);
+            Thread.sleep(1);
+        }
+        stats.recordScanAccepted(scanPipeline.getBufferedCount());
+    }
+
+    private void done() {
+        if (outstanding.decrementAndGet() == 0) {
+            finish();
+        }
+    }
+
+    private synchronized void finish() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        stats.markFinished();
+        awaitPipeline();
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        threads.clear();
+        finished.countDown();
+        LOGGER.info(stats.summary());
+    }
+
+    // Scans are written behind the stages; wait for this run's to settle
+    private void awaitPipeline() {
+        long deadline = System.currentTimeMillis() + PIPELINE_DRAIN_MILLIS;
+        while (settledScans() - settledAtStart < stats.getScansAccepted() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        stats.markPipelineDrained(scanPipeline.getWrittenCount() - writtenAtStart,
+                scanPipeline.getFailedCount() - failedAtStart);
+    }
+
+    // Scans the pipeline is done with, whether written or not
+    private long settledScans() {
+        return scanPipeline.getWrittenCount() + scanPipeline.getFailedCount() + scanPipeline.getDuplicateCount();
+    }
+
+    private Stage stage(BaggageStatus status) {
+        Stage stage = stages.get(status);
+        if (stage == null) {
+            throw new IllegalArgumentException("Not a sortation stage: " + status);
+        }
+        return stage;
+    }
+
+    private static final class Bag {
+        final int bookingId;
+        final Priority priority;
+        // Per-bag random, so a bag's fate does not depend on thread timing
+        final Random random;
+        final long enteredNanos = System.nanoTime();
+        String tag;
+
+        Bag(int bookingId, Priority priority, Random random) {
+            this.bookingId = bookingId;
+            this.priority = priority;
+            this.random = random;
+        }
+    }
+
+    /**
+     * One bounded lane per priority. The semaphore counts queued bags across
+     * lanes, so a worker waits on all lanes at once and then drains them in
+     * priority order.
+     */
+    private final class Stage {
+        final BaggageStatus status;
+        final Stage next;
+        final Map<Priority, BlockingQueue<Bag>> lanes = new EnumMap<>(Priority.class);
+        final Semaphore queued = new Semaphore(0);
+        volatile int workers;
+        volatile long latencyMillis;
+        volatile double delayRate;
+        volatile double lossRate;
+        volatile String location;
+
+        Stage(BaggageStatus status, int capacity, int workers, Stage next) {
+            this.status = status;
+            this.next = next;
+            this.workers = workers;
+            this.location = status.getValue().toUpperCase().replace('_', ' ');
+            for (Priority priority : Priority.values()) {
+                lanes.put(priority, new ArrayBlockingQueue<>(capacity));
+            }
+        }
+
+        void put(Bag bag) throws InterruptedException {
+            lanes.get(bag.priority).put(bag);
+            queued.release();
+            stats.recordQueueDepth(status, depth());
+        }
+
+        Bag take() throws InterruptedException {
+            queued.acquire();
+            while (true) {
+                for (Priority priority : LANE_ORDER) {
+                    Bag bag = lanes.get(priority).poll();
+                    if (bag != null) {
+                        return bag;
+                    }
+                }
+                // A permit always has a bag behind it; another worker's poll
+                // may just have overtaken ours
+                Thread.onSpinWait();
+            }
+        }
+
+        int depth() {
+            return queued.availablePermits();
+        }
+    }
+
+    /**
+     * Runs bags for today's bookings from the command line to measure the
+     * ingestion ceiling. Arguments: [bagCount] [workersPerStage]
+     */
+    public static void main(String[] args) throws Exception {
+        int bags = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        BookingService bookingService = new BookingService();
+        List<Integer> bookingIds = new ArrayList<>();
+        for (Flight flight : new FlightService().getTodaysFlights()) {
+            for (Booking booking : bookingService.getFlightBookings(flight.getFlightId())) {
+                bookingIds.add(booking.getBookingId());
+            }
+        }
+        if (bookingIds.isEmpty()) {
+            LOGGER.info("No bookings on today's flights to attach bags to");
+            return;
+        }
+
+        SortationSimulator simulator = new SortationSimulator(new BaggageService(), workers);
+        simulator.start(bookingIds, bags);
+        // the finishing thread logs the summary through LOGGER
+        simulator.awaitCompletion(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,250 @@
+package com.gatorsoft.aerodeskpro.threads;
+
+import com.gatorsoft.aerodeskpro.entity.BaggageStatus;
+import com.gatorsoft.aerodeskpro.entity.Priority;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-stage throughput, failure and queue-depth counters for a sortation
+ * run, plus end-to-end times per priority and what the scan pipeline wrote
+ * behind the stages. Workers update them without locking.
+ */
+public class SortationStats {
+
+    private final Map<BaggageStatus, StageStats> byStage = new EnumMap<>(BaggageStatus.class);
+    private final Map<Priority, LeadStats> byPriority = new EnumMap<>(Priority.class);
+    private final LongAdder scansAccepted = new LongAdder();
+    private final LongAccumulator maxPipelineDepth = new LongAccumulator(Long::max, 0);
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile long drainedNanos;
+    private volatile long pipelineWritten;
+    private volatile long pipelineFailed;
+
+    public SortationStats() {
+        for (BaggageStatus stage : SortationSimulator.STAGES) {
+            byStage.put(stage, new StageStats());
+        }
+        for (Priority priority : Priority.values()) {
+            byPriority.put(priority, new LeadStats());
+        }
+    }
+
+    void markStarted() {
+        startedNanos = System.nanoTime();
+        finishedNanos = 0;
+        drainedNanos = 0;
+    }
+
+    void markFinished() {
+        finishedNanos = System.nanoTime();
+    }
+
+    /**
+     * Records what the pipeline wrote and failed during the run, once it has
+     * caught up with the stages.
+     */
+    void markPipelineDrained(long written, long failed) {
+        pipelineWritten = written;
+        pipelineFailed = failed;
+        drainedNanos = System.nanoTime();
+    }
+
+    void recordScanAccepted(int pipelineDepth) {
+        scansAccepted.increment();
+        maxPipelineDepth.accumulate(pipelineDepth);
+    }
+
+    void recordScanRejected(BaggageStatus stage) {
+        byStage.get(stage).rejectedScans.increment();
+    }
+
+    void recordProcessed(BaggageStatus stage, long serviceNanos) {
+        StageStats stats = byStage.get(stage);
+        stats.processed.increment();
+        stats.serviceNanos.add(serviceNanos);
+        stats.maxServiceNanos.accumulate(serviceNanos);
+    }
+
+    void recordDelayed(BaggageStatus stage) {
+        byStage.get(stage).delayed.increment();
+    }
+
+    void recordLost(BaggageStatus stage) {
+        byStage.get(stage).lost.increment();
+    }
+
+    void recordFailed(BaggageStatus stage) {
+        byStage.get(stage).failed.increment();
+    }
+
+    void recordQueueDepth(BaggageStatus stage, int depth) {
+        byStage.get(stage).maxQueueDepth.accumulate(depth);
+    }
+
+    void recordDelivered(Priority priority, long leadNanos) {
+        LeadStats stats = byPriority.get(priority);
+        stats.delivered.increment();
+        stats.leadNanos.add(leadNanos);
+        stats.maxLeadNanos.accumulate(leadNanos);
+    }
+
+    public long getProcessed(BaggageStatus stage) {
+        return byStage.get(stage).processed.sum();
+    }
+
+    public long getDelayed(BaggageStatus stage) {
+        return byStage.get(stage).delayed.sum();
+    }
+
+    public long getLost(BaggageStatus stage) {
+        return byStage.get(stage).lost.sum();
+    }
+
+    public long getFailed(BaggageStatus stage) {
+        return byStage.get(stage).failed.sum();
+    }
+
+    public long getMaxQueueDepth(BaggageStatus stage) {
+        return byStage.get(stage).maxQueueDepth.get();
+    }
+
+    /**
+     * Average time of the stage's service call, without the simulated
+     * handling latency.
+     */
+    public double getAverageServiceMillis(BaggageStatus stage) {
+        StageStats stats = byStage.get(stage);
+        long processed = stats.processed.sum();
+        return processed == 0 ? 0 : stats.serviceNanos.sum() / (processed * 1_000_000.0);
+    }
+
+    public double getMaxServiceMillis(BaggageStatus stage) {
+        return byStage.get(stage).maxServiceNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Bags the stage passed on per wall-clock second.
+     */
+    public double getThroughputPerSecond(BaggageStatus stage) {
+        long elapsed = getElapsedMillis();
+        return elapsed == 0 ? 0 : getProcessed(stage) * 1000.0 / elapsed;
+    }
+
+    /**
+     * Times the pipeline buffer was full when a stage scanned a bag.
+     */
+    public long getRejectedScans(BaggageStatus stage) {
+        return byStage.get(stage).rejectedScans.sum();
+    }
+
+    public long getScansAccepted() {
+        return scansAccepted.sum();
+    }
+
+    public long getPipelineWritten() {
+        return pipelineWritten;
+    }
+
+    public long getPipelineFailed() {
+        return pipelineFailed;
+    }
+
+    /**
+     * Most scans waiting in the pipeline buffer seen after a stage's scan.
+     */
+    public long getMaxPipelineDepth() {
+        return maxPipelineDepth.get();
+    }
+
+    /**
+     * Scans the pipeline wrote per second, from the start of the run until
+     * it caught up with the stages.
+     */
+    public double getPipelineThroughputPerSecond() {
+        if (startedNanos == 0 || drainedNanos == 0) {
+            return 0;
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(drainedNanos - startedNanos);
+        return elapsed == 0 ? 0 : pipelineWritten * 1000.0 / elapsed;
+    }
+
+    /**
+     * How long the pipeline took to write its backlog after the last stage
+     * finished.
+     */
+    public long getPipelineLagMillis() {
+        return finishedNanos == 0 || drainedNanos == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(drainedNanos - finishedNanos);
+    }
+
+    public long getDelivered(Priority priority) {
+        return byPriority.get(priority).delivered.sum();
+    }
+
+    /**
+     * Average time from entering the first stage to leaving the last.
+     */
+    public double getAverageLeadMillis(Priority priority) {
+        LeadStats stats = byPriority.get(priority);
+        long delivered = stats.delivered.sum();
+        return delivered == 0 ? 0 : stats.leadNanos.sum() / (delivered * 1_000_000.0);
+    }
+
+    public double getMaxLeadMillis(Priority priority) {
+        return byPriority.get(priority).maxLeadNanos.get() / 1_000_000.0;
+    }
+
+    public long getElapsedMillis() {
+        if (startedNanos == 0) {
+            return 0;
+        }
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        return TimeUnit.NANOSECONDS.toMillis(end - startedNanos);
+    }
+
+    /**
+     * Multi-line summary suitable for logging.
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Sortation: %d ms%n", getElapsedMillis()));
+        for (BaggageStatus stage : SortationSimulator.STAGES) {
+            sb.append(String.format("  %-14s %7d ok %5d delayed %4d lost %4d failed  %8.1f/s  avg %.2f ms  max %.2f ms  max queue %d  %d full%n",
+                    stage, getProcessed(stage), getDelayed(stage), getLost(stage), getFailed(stage),
+                    getThroughputPerSecond(stage), getAverageServiceMillis(stage), getMaxServiceMillis(stage),
+                    getMaxQueueDepth(stage), getRejectedScans(stage)));
+        }
+        sb.append(String.format("  %-14s %7d scans %5d written %4d failed  %8.1f/s  max buffer %d  caught up %d ms after the stages%n",
+                "SCAN PIPELINE", getScansAccepted(), getPipelineWritten(), getPipelineFailed(),
+                getPipelineThroughputPerSecond(), getMaxPipelineDepth(), getPipelineLagMillis()));
+        for (Priority priority : Priority.values()) {
+            if (getDelivered(priority) == 0) {
+                continue;
+            }
+            sb.append(String.format("  %-8s %7d delivered  avg %.1f ms  max %.1f ms end to end%n",
+                    priority, getDelivered(priority), getAverageLeadMillis(priority), getMaxLeadMillis(priority)));
+        }
+        return sb.toString();
+    }
+
+    private static class StageStats {
+        final LongAdder processed = new LongAdder();
+        final LongAdder delayed = new LongAdder();
+        final LongAdder lost = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder rejectedScans = new LongAdder();
+        final LongAdder serviceNanos = new LongAdder();
+        final LongAccumulator maxServiceNanos = new LongAccumulator(Long::max, 0);
+        final LongAccumulator maxQueueDepth = new LongAccumulator(Long::max, 0);
+    }
+
+    private static class LeadStats {
+        final LongAdder delivered = new LongAdder();
+        final LongAdder leadNanos = new LongAdder();
+        final LongAccumulator maxLeadNanos = new LongAccumulator(Long::max, 0);
+    }
+}
@@ -0,0 +1,115 @@
+package com.gatorsoft.aerodeskpro.utils;
+
+import com.gatorsoft.aerodeskpro.entity.BookingClass;
+import com.gatorsoft.aerodeskpro.models.BoardingPass;
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Builds the mandatory 60-character IATA Bar Coded Boarding Pass (BCBP)
+ * string for a single-leg boarding pass. Boarding pass printers and mobile
+ * pass apps render this string as the PDF417 barcode.
+ */
+public final class BcbpEncoder {
+
+    public static final int LENGTH = 60;
+
+    private BcbpEncoder() {
+    }
+
+    /**
+     * Encodes a boarding pass. The carrier is taken from the first two
+     * characters of the flight number (e.g. "AD" in "AD123").
+     */
+    public static String encode(BoardingPass pass) {
+        String flightNumber = pass.getFlightNumber() != null ? pass.getFlightNumber().trim().toUpperCase(Locale.ROOT) : "";
+        String carrier = flightNumber.length() > 2 ? flightNumber.substring(0, 2) : "";
+        String number = flightNumber.length() > 2 ? flightNumber.substring(2).trim() : flightNumber;
+
+        StringBuilder bcbp = new StringBuilder(LENGTH);
+        bcbp.append('M');                                        // format code
+        bcbp.append('1');                                        // number of legs
+        field(bcbp, passengerName(pass.getPassengerName()), 20);
+        bcbp.append('E');                                        // electronic ticket
+        field(bcbp, pass.getBookingReference(), 7);
+        field(bcbp, pass.getOrigin(), 3);
+        field(bcbp, pass.getDestination(), 3);
+        field(bcbp, carrier, 3);
+        field(bcbp, flightNumberField(number), 5);
+        bcbp.append(pass.getDepartureTime() != null
+                ? String.format("%03d", pass.getDepartureTime().getDayOfYear()) : "   ");
+        bcbp.append(compartment(pass.getBookingClass()));
+        field(bcbp, seatField(pass.getSeatNumber()), 4);
+        field(bcbp, String.format("%04d", pass.getSequenceNumber() % 10000), 5);
+        bcbp.append('1');                                        // passenger status: checked in
+        bcbp.append("00");                                       // no conditional items
+        return bcbp.toString();
+    }
+
+    /**
+     * "LAST/FIRST" in plain upper-case ASCII, as printed on the pass.
+     */
+    static String passengerName(String fullName) {
+        if (fullName == null || fullName.trim().isEmpty()) {
+            return "";
+        }
+        String ascii = Normalizer.normalize(fullName.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replaceAll("[^A-Za-z /]", "")
+                .toUpperCase(Locale.ROOT);
+        if (ascii.contains("/")) {
+            return ascii;
+        }
+        int space = ascii.lastIndexOf(' ');
+        return space < 0 ? ascii : ascii.substring(space + 1) + "/" + ascii.substring(0, space);
+    }
+
+    private static String flightNumberField(String number) {
+        // Four digits, zero padded, then an optional one-letter suffix
+        String digits = number.replaceAll("[^0-9]", "");
+        String suffix = number.replaceAll("[0-9]", "");
+        if (digits.isEmpty()) {
+            return number;
+        }
+        return String.format("%04d", Integer.parseInt(digits.length() > 4 ? digits.substring(digits.length() - 4) : digits))
+                + (suffix.isEmpty() ? "" : suffix.substring(0, 1));
+    }
+
+    private static String seatField(String seat) {
+        if (seat == null || seat.trim().isEmpty()) {
+            return "";
+        }
+        String value = seat.trim().toUpperCase(Locale.ROOT);
+        String digits = value.replaceAll("[^0-9]", "");
+        String letter = value.replaceAll("[0-9]", "");
+        if (digits.isEmpty() || letter.isEmpty()) {
+            return value;
+        }
+        return String.format("%03d", Integer.parseInt(digits)) + letter.charAt(0);
+    }
+
+    private static char compartment(BookingClass bookingClass) {
+        if (bookingClass == BookingClass.FIRST) {
+            return 'F';
+        }
+        if (bookingClass == BookingClass.BUSINESS) {
+            return 'J';
+        }
+        return 'Y';
+    }
+
+    /**
+     * Appends a value left-justified and space-padded or cut to the width.
+     */
+    private static void field(StringBuilder bcbp, String value, int width) {
+        String text = value == null ? "" : value;
+        if (text.length() >= width) {
+            bcbp.append(text, 0, width);
+            return;
+        }
+        bcbp.append(text);
+        for (int i = text.length(); i < width; i++) {
+            bcbp.append(' ');
+        }
+    }
+}
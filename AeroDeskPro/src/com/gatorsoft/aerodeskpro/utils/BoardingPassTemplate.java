@@ -0,0 +1,105 @@
+package com.gatorsoft.aerodeskpro.utils;
+
+import com.gatorsoft.aerodeskpro.models.BoardingPass;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Printable boarding pass layout with ${field} placeholders. The text is
+ * parsed once into literal and field segments, so rendering a pass is a
+ * single pass over the segments with no searching or regex work; a compiled
+ * template is immutable and can render from many threads at once.
+ *
+ * Fields: name, reference, flight, from, to, date, departure, boarding,
+ * gate, seat, class, sequence, barcode.
+ */
+public final class BoardingPassTemplate {
+
+    public static final String DEFAULT_LAYOUT = ""
+            + "==================== BOARDING PASS ====================\n"
+            + " Name      ${name}\n"
+            + " Flight    ${flight}        Date ${date}\n"
+            + " From      ${from}  To ${to}    Departs ${departure}\n"
+            + " Gate      ${gate}      Boarding ${boarding}\n"
+            + " Seat      ${seat}      Class ${class}    Seq ${sequence}\n"
+            + " Booking   ${reference}\n"
+            + " [PDF417] ${barcode}\n"
+            + "=======================================================\n";
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("ddMMMyy", Locale.ENGLISH);
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    private static final Map<String, Function<BoardingPass, Object>> FIELDS = new HashMap<>();
+
+    static {
+        FIELDS.put("name", BoardingPass::getPassengerName);
+        FIELDS.put("reference", BoardingPass::getBookingReference);
+        FIELDS.put("flight", BoardingPass::getFlightNumber);
+        FIELDS.put("from", BoardingPass::getOrigin);
+        FIELDS.put("to", BoardingPass::getDestination);
+        FIELDS.put("date", p -> p.getDepartureTime() != null ? DATE.format(p.getDepartureTime()).toUpperCase(Locale.ROOT) : null);
+        FIELDS.put("departure", p -> p.getDepartureTime() != null ? TIME.format(p.getDepartureTime()) : null);
+        FIELDS.put("boarding", p -> p.getBoardingTime() != null ? TIME.format(p.getBoardingTime()) : null);
+        FIELDS.put("gate", BoardingPass::getGate);
+        FIELDS.put("seat", BoardingPass::getSeatNumber);
+        FIELDS.put("class", BoardingPass::getBookingClass);
+        FIELDS.put("sequence", p -> String.format("%03d", p.getSequenceNumber()));
+        FIELDS.put("barcode", BoardingPass::getBarcodeData);
+    }
+
+    private final String[] literals;
+    private final List<Function<BoardingPass, Object>> fields;
+    private final int sizeHint;
+
+    private BoardingPassTemplate(String[] literals, List<Function<BoardingPass, Object>> fields, int sizeHint) {
+        this.literals = literals;
+        this.fields = fields;
+        this.sizeHint = sizeHint;
+    }
+
+    /**
+     * Parses a layout. Unknown field names are rejected here rather than at
+     * render time.
+     */
+    public static BoardingPassTemplate compile(String layout) {
+        List<String> literals = new ArrayList<>();
+        List<Function<BoardingPass, Object>> fields = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int start = layout.indexOf("${", position);
+            if (start < 0) {
+                break;
+            }
+            int end = layout.indexOf('}', start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed field at " + start);
+            }
+            String name = layout.substring(start + 2, end).trim();
+            Function<BoardingPass, Object> field = FIELDS.get(name);
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown boarding pass field: " + name);
+            }
+            literals.add(layout.substring(position, start));
+            fields.add(field);
+            position = end + 1;
+        }
+        literals.add(layout.substring(position));
+        return new BoardingPassTemplate(literals.toArray(new String[0]), fields, layout.length() + 64);
+    }
+
+    public String render(BoardingPass pass) {
+        StringBuilder out = new StringBuilder(sizeHint);
+        for (int i = 0; i < fields.size(); i++) {
+            out.append(literals[i]);
+            Object value = fields.get(i).apply(pass);
+            out.append(value != null ? value : "");
+        }
+        out.append(literals[literals.length - 1]);
+        return out.toString();
+    }
+}
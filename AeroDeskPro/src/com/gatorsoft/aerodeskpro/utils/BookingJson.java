@@ -0,0 +1,115 @@
+package com.gatorsoft.aerodeskpro.utils;
+
+import com.gatorsoft.aerodeskpro.entity.BookingClass;
+import com.gatorsoft.aerodeskpro.entity.BookingStatus;
+import com.gatorsoft.aerodeskpro.models.Booking;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the flat JSON images of booking rows that the outbox triggers
+ * write, keyed by column name.
+ */
+public final class BookingJson {
+
+    private BookingJson() {
+    }
+
+    public static Booking fromJson(String json) {
+        if (json == null || json.trim().isEmpty()) {
+            return null;
+        }
+        Map<String, String> values = parse(json);
+        Booking booking = new Booking();
+        booking.setBookingId(toInt(values.get("booking_id")));
+        booking.setBookingReference(values.get("booking_reference"));
+        booking.setFlightId(toInt(values.get("flight_id")));
+        booking.setPassengerId(toInt(values.get("passenger_id")));
+        booking.setSeatNumber(values.get("seat_number"));
+        String bookingClass = values.get("booking_class");
+        booking.setBookingClass(bookingClass != null ? BookingClass.valueOf(bookingClass) : null);
+        String status = values.get("status");
+        booking.setBookingStatus(status != null ? BookingStatus.fromString(status) : null);
+        booking.setCheckInTime(toDateTime(values.get("check_in_time")));
+        String checkedInBy = values.get("checked_in_by");
+        booking.setCheckedInBy(checkedInBy != null ? Integer.valueOf(checkedInBy) : null);
+        booking.setCreatedAt(toDateTime(values.get("created_at")));
+        booking.setUpdatedAt(toDateTime(values.get("updated_at")));
+        booking.setVersion(toInt(values.get("version")));
+        return booking;
+    }
+
+    /**
+     * Reads a flat object of string, number and null values. Numbers are
+     * kept as their text.
+     */
+    private static Map<String, String> parse(String json) {
+        Map<String, String> values = new HashMap<>();
+        int[] position = {json.indexOf('{') + 1};
+        while (true) {
+            skipSpace(json, position);
+            if (position[0] >= json.length() || json.charAt(position[0]) == '}') {
+                return values;
+            }
+            if (json.charAt(position[0]) == ',') {
+                position[0]++;
+                continue;
+            }
+            String name = readString(json, position);
+            skipSpace(json, position);
+            position[0]++; // ':'
+            skipSpace(json, position);
+            String value;
+            if (json.charAt(position[0]) == '"') {
+                value = readString(json, position);
+            } else {
+                int start = position[0];
+                while (position[0] < json.length() && ",} \t\r\n".indexOf(json.charAt(position[0])) < 0) {
+                    position[0]++;
+                }
+                value = json.substring(start, position[0]);
+                if ("null".equals(value)) {
+                    value = null;
+                }
+            }
+            values.put(name, value);
+        }
+    }
+
+    private static String readString(String json, int[] position) {
+        StringBuilder text = new StringBuilder();
+        int i = position[0] + 1;
+        while (json.charAt(i) != '"') {
+            char c = json.charAt(i);
+            if (c == '\\') {
+                char escaped = json.charAt(++i);
+                if (escaped == 'u') {
+                    text.append((char) Integer.parseInt(json.substring(i + 1, i + 5), 16));
+                    i += 4;
+                } else {
+                    text.append(escaped == 'n' ? '\n' : escaped == 't' ? '\t' : escaped == 'r' ? '\r' : escaped);
+                }
+            } else {
+                text.append(c);
+            }
+            i++;
+        }
+        position[0] = i + 1;
+        return text.toString();
+    }
+
+    private static void skipSpace(String json, int[] position) {
+        while (position[0] < json.length() && Character.isWhitespace(json.charAt(position[0]))) {
+            position[0]++;
+        }
+    }
+
+    private static LocalDateTime toDateTime(String value) {
+        return value != null ? LocalDateTime.parse(value) : null;
+    }
+
+    private static int toInt(String value) {
+        return value != null ? Integer.parseInt(value) : 0;
+    }
+}
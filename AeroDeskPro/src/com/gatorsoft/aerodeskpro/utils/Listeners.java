@@ -0,0 +1,38 @@
+package com.gatorsoft.aerodeskpro.utils;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers an event to registered listeners so that one listener throwing
+ * is logged and does not stop delivery to the ones after it.
+ */
+public final class Listeners {
+
+    private Listeners() {
+    }
+
+    /**
+     * Calls every listener in turn.
+     *
+     * @param what names the event in the log if a listener fails
+     */
+    public static <L> void fireAll(Iterable<L> listeners, Consumer<? super L> event, Logger logger, Supplier<String> what) {
+        for (L listener : listeners) {
+            fire(listener, event, logger, what);
+        }
+    }
+
+    /**
+     * Calls one listener, logging rather than throwing if it fails.
+     */
+    public static <L> void fire(L listener, Consumer<? super L> event, Logger logger, Supplier<String> what) {
+        try {
+            event.accept(listener);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Listener failed on " + what.get(), e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.gatorsoft.aerodeskpro.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Helpers for fuzzy passenger name matching: a phonetic key that is stored
+ * with each passenger and indexed, and a bounded edit distance used to verify
+ * the candidates that share a key.
+ */
+public final class NameMatcher {
+
+    // Soundex digit for each letter a..z, '0' for vowels and ignored letters
+    private static final String SOUNDEX_CODES = "01230120022455012623010202";
+    private static final int KEY_LENGTH = 4;
+
+    private NameMatcher() {
+    }
+
+    /**
+     * Soundex key of a name, e.g. "Smith" and "Smyth" both give "S530".
+     * Accents are folded and non-letters ignored; returns null for a name
+     * without any latin letter.
+     */
+    public static String phoneticKey(String name) {
+        String letters = foldToLetters(name);
+        if (letters.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder key = new StringBuilder(KEY_LENGTH);
+        key.append(letters.charAt(0));
+        char previous = SOUNDEX_CODES.charAt(letters.charAt(0) - 'A');
+        for (int i = 1; i < letters.length() && key.length() < KEY_LENGTH; i++) {
+            char letter = letters.charAt(i);
+            char code = SOUNDEX_CODES.charAt(letter - 'A');
+            if (code != '0' && code != previous) {
+                key.append(code);
+            }
+            // H and W do not separate letters with the same code, vowels do
+            if (letter != 'H' && letter != 'W') {
+                previous = code;
+            }
+        }
+        while (key.length() < KEY_LENGTH) {
+            key.append('0');
+        }
+        return key.toString();
+    }
+
+    /**
+     * Levenshtein distance between two names, compared case and accent
+     * insensitively. Stops early and returns {@code maxDistance + 1} as soon as
+     * the distance is known to exceed the bound.
+     */
+    public static int editDistance(String a, String b, int maxDistance) {
+        String s = foldToLetters(a);
+        String t = foldToLetters(b);
+        if (Math.abs(s.length() - t.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        if (s.length() > t.length()) {
+            String swap = s;
+            s = t;
+            t = swap;
+        }
+
+        int[] previous = new int[s.length() + 1];
+        int[] current = new int[s.length() + 1];
+        for (int i = 0; i <= s.length(); i++) {
+            previous[i] = i;
+        }
+        for (int j = 1; j <= t.length(); j++) {
+            current[0] = j;
+            int rowMin = current[0];
+            char tc = t.charAt(j - 1);
+            for (int i = 1; i <= s.length(); i++) {
+                int cost = s.charAt(i - 1) == tc ? 0 : 1;
+                current[i] = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+                rowMin = Math.min(rowMin, current[i]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[s.length()], maxDistance + 1);
+    }
+
+    /**
+     * Edit distance tolerated for a name of the given length: one typo for
+     * short names, two for longer ones.
+     */
+    public static int allowedDistance(String name) {
+        return foldToLetters(name).length() <= 4 ? 1 : 2;
+    }
+
+    private static String foldToLetters(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD).toUpperCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}